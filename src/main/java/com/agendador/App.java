@@ -1,6 +1,8 @@
 package com.agendador;
 
+import com.agendador.controller.AgendadorController;
 import com.agendador.database.DatabaseManager;
+import com.agendador.tray.SystemTrayManager;
 import com.agendador.util.SingleInstanceManager;
 import com.agendador.view.MainWindow;
 
@@ -47,6 +49,7 @@ public class App {
         try {
             dbManager.initializeDatabase();
             System.out.println("✅ Banco de dados inicializado com sucesso");
+            dbManager.registrarMonitoramento();
             
             // Mostrar informações do banco
             String dbInfo = dbManager.obterInformacoesBanco();
@@ -78,7 +81,14 @@ public class App {
                 // Mostrar informações da instância
                 System.out.println("📋 " + singleInstance.getInstanceInfo());
                 
-                MainWindow mainWindow = new MainWindow();
+                AgendadorController controller = new AgendadorController();
+                controller.registrarMonitoramento();
+                MainWindow mainWindow = new MainWindow(controller);
+                
+                SystemTrayManager trayManager = new SystemTrayManager(mainWindow, controller);
+                trayManager.initializeSystemTray();
+                mainWindow.setSystemTrayManager(trayManager);
+                
                 mainWindow.setVisible(true);
                 
                 System.out.println("✅ Aplicação iniciada com sucesso!");
@@ -0,0 +1,43 @@
+package com.agendador.audio;
+
+/**
+ * Cache de áudio decodificado e pool de linhas expostos por JMX (com.agendador:type=Audio)
+ */
+public interface AudioMXBean {
+    
+    int getArquivosEmCache();
+    
+    long getBytesEmCache();
+    
+    long getAcertosCache();
+    
+    long getFalhasCache();
+    
+    double getTaxaAcertoCache();
+    
+    long getRemocoesCache();
+    
+    long getDecodificacaoP50Ms();
+    
+    long getDecodificacaoP99Ms();
+    
+    long getDecodificacaoMaximaMs();
+    
+    int getLinhasOciosas();
+    
+    long getLinhasAbertas();
+    
+    long getLinhasReaproveitadas();
+    
+    long getAberturaLinhaP50Ms();
+    
+    long getAberturaLinhaP99Ms();
+    
+    long getAberturaLinhaMaximaMs();
+    
+    /**
+     * Esvazia o cache de áudio decodificado e fecha as linhas ociosas
+     * O próximo disparo de cada arquivo decodifica e abre a linha de novo.
+     */
+    void limparCaches();
+}
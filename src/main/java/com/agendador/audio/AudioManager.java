@@ -1,19 +1,61 @@
 package com.agendador.audio;
 
+import com.agendador.audio.CacheAudioDecodificado.AudioDecodificado;
+import com.agendador.util.RegistroJmx;
+
 import javax.sound.sampled.*;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * Gerenciador de áudio para reprodução de sinais
  */
-public class AudioManager {
+public class AudioManager implements ReprodutorAudio {
+    
+    // Acima deste tamanho decodificado o áudio é tocado por streaming (-Dagendador.audio.limiteMemoriaBytes=N)
+    private static final long LIMITE_MEMORIA_PADRAO_BYTES = 8L * 1024 * 1024;
+    private static final int TAMANHO_BUFFER_STREAMING = 32 * 1024;
+    
+    // Uma thread virtual por reprodução: a espera pela linha de áudio não ocupa
+    // threads de plataforma, e faixas de dispositivos diferentes nunca disputam um pool
+    private static final ExecutorService EXECUTOR_REPRODUCAO =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("agendador-audio-", 0).factory());
+    
+    // Buffers de streaming reaproveitados entre reproduções (threads virtuais não são
+    // reaproveitadas, então um ThreadLocal alocaria um buffer por reprodução)
+    private static final Queue<byte[]> BUFFERS_STREAMING = new ConcurrentLinkedQueue<>();
+    
+    private final CacheAudioDecodificado cache;
+    private final PoolLinhasAudio pool;
+    private final long limiteMemoriaBytes;
+    private volatile SourceDataLine currentLine;
+    private volatile boolean isPlaying = false;
+    
+    // Incrementado a cada parada: reproduções pedidas antes dela não chegam a tocar
+    private final AtomicLong paradas = new AtomicLong();
+    
+    public AudioManager() {
+        this(CacheAudioDecodificado.getInstance(), PoolLinhasAudio.getInstance());
+    }
     
-    private Clip currentClip;
-    private boolean isPlaying = false;
+    public AudioManager(CacheAudioDecodificado cache, PoolLinhasAudio pool) {
+        this(cache, pool, Long.getLong("agendador.audio.limiteMemoriaBytes", LIMITE_MEMORIA_PADRAO_BYTES));
+    }
+    
+    public AudioManager(CacheAudioDecodificado cache, PoolLinhasAudio pool, long limiteMemoriaBytes) {
+        this.cache = cache;
+        this.pool = pool;
+        this.limiteMemoriaBytes = limiteMemoriaBytes;
+    }
     
     /**
      * Reproduz um arquivo de áudio por uma duração específica
@@ -21,63 +63,40 @@ public class AudioManager {
      * @param duracaoSegundos Duração em segundos para reproduzir
      * @param dispositivoAudio Nome do dispositivo de áudio (opcional)
      */
+    @Override
     public CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio) {
+        return reproduzirAudio(caminhoArquivo, duracaoSegundos, dispositivoAudio, null);
+    }
+    
+    /**
+     * Reproduz um arquivo de áudio avisando quando a linha começa a tocar
+     * @param aoIniciar Chamado logo depois de iniciar a linha de áudio (opcional)
+     */
+    @Override
+    public CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio,
+                                                   Runnable aoIniciar) {
+        long pedido = paradas.get();
         return CompletableFuture.runAsync(() -> {
             try {
+                if (paradas.get() != pedido) {
+                    System.out.println("Reprodução cancelada antes de iniciar: " + caminhoArquivo);
+                    return;
+                }
+                
                 // Parar reprodução atual se existir
-                pararReproducao();
+                interromperLinhaAtual();
                 
                 File audioFile = new File(caminhoArquivo);
                 if (!audioFile.exists()) {
                     throw new IllegalArgumentException("Arquivo de áudio não encontrado: " + caminhoArquivo);
                 }
                 
-                AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-                AudioFormat format = audioStream.getFormat();
-                
-                // Para MP3 e outros formatos comprimidos, converter para PCM
-                AudioFormat decodedFormat = new AudioFormat(
-                    AudioFormat.Encoding.PCM_SIGNED,
-                    format.getSampleRate(),
-                    16,
-                    format.getChannels(),
-                    format.getChannels() * 2,
-                    format.getSampleRate(),
-                    false
-                );
-                
-                // Obter stream decodificado se necessário
-                AudioInputStream decodedAudioStream = audioStream;
-                if (!format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED)) {
-                    decodedAudioStream = AudioSystem.getAudioInputStream(decodedFormat, audioStream);
-                    format = decodedFormat;
-                }
-                
-                // Configurar mixer específico se fornecido
-                Mixer mixer = obterMixer(dispositivoAudio);
-                DataLine.Info info = new DataLine.Info(Clip.class, format);
-                
-                if (mixer != null) {
-                    currentClip = (Clip) mixer.getLine(info);
+                if (escolherModo(audioFile) == ModoReproducao.STREAMING) {
+                    reproduzirStreaming(audioFile, duracaoSegundos, dispositivoAudio, pedido, aoIniciar);
                 } else {
-                    currentClip = AudioSystem.getClip();
+                    reproduzirMemoria(audioFile, duracaoSegundos, dispositivoAudio, pedido, aoIniciar);
                 }
                 
-                currentClip.open(decodedAudioStream);
-                
-                // Configurar para loop contínuo
-                currentClip.loop(Clip.LOOP_CONTINUOUSLY);
-                currentClip.start();
-                isPlaying = true;
-                
-                System.out.println("Reproduzindo áudio: " + caminhoArquivo + " por " + duracaoSegundos + " segundos");
-                
-                // Aguardar duração especificada
-                Thread.sleep(duracaoSegundos * 1000L);
-                
-                // Parar reprodução
-                pararReproducao();
-                
             } catch (UnsupportedAudioFileException e) {
                 System.err.println("Formato de áudio não suportado: " + e.getMessage());
                 throw new RuntimeException("Formato de áudio não suportado", e);
@@ -89,22 +108,186 @@ public class AudioManager {
                 throw new RuntimeException("Linha de áudio não disponível", e);
             } catch (InterruptedException e) {
                 System.out.println("Reprodução interrompida");
-                pararReproducao();
+                interromperLinhaAtual();
                 Thread.currentThread().interrupt();
             } catch (Exception e) {
                 System.err.println("Erro inesperado na reprodução: " + e.getMessage());
                 throw new RuntimeException("Erro na reprodução de áudio", e);
             }
-        });
+        }, EXECUTOR_REPRODUCAO);
+    }
+    
+    /**
+     * Escolhe entre áudio em memória e streaming pelo tamanho estimado do áudio decodificado
+     * Arquivos cujo tamanho não pode ser estimado são tocados por streaming.
+     * O cabeçalho vem do cache, então só o primeiro disparo de cada arquivo o lê do disco.
+     */
+    ModoReproducao escolherModo(File audioFile) {
+        try {
+            long tamanho = cache.lerCabecalho(audioFile).getTamanhoPcm();
+            if (tamanho != DecodificadorAudio.TAMANHO_DESCONHECIDO && tamanho <= limiteMemoriaBytes) {
+                return ModoReproducao.MEMORIA;
+            }
+        } catch (UnsupportedAudioFileException | IOException e) {
+            System.err.println("Não foi possível estimar o tamanho de " + audioFile.getName() + ": " + e.getMessage());
+        }
+        return ModoReproducao.STREAMING;
+    }
+    
+    /**
+     * Reproduz a partir do PCM em cache; só a primeira reprodução decodifica o arquivo
+     */
+    private void reproduzirMemoria(File audioFile, int duracaoSegundos, String dispositivoAudio, long pedido,
+                                   Runnable aoIniciar) throws Exception {
+        AudioDecodificado audio = cache.obter(audioFile);
+        
+        System.out.println("Reproduzindo áudio: " + audioFile.getPath() + " por " + duracaoSegundos + " segundos");
+        tocar(audio.getFormato(), audio::abrirStream, duracaoSegundos, dispositivoAudio, pedido, aoIniciar);
+    }
+    
+    /**
+     * Reproduz decodificando aos poucos: só um buffer pequeno fica em memória
+     */
+    private void reproduzirStreaming(File audioFile, int duracaoSegundos, String dispositivoAudio, long pedido,
+                                     Runnable aoIniciar) throws Exception {
+        AudioFormat format = cache.lerCabecalho(audioFile).getFormatoPcm();
+        
+        System.out.println("Reproduzindo áudio (streaming): " + audioFile.getPath() + " por " + duracaoSegundos + " segundos");
+        tocar(format, () -> DecodificadorAudio.abrir(audioFile), duracaoSegundos, dispositivoAudio, pedido, aoIniciar);
+    }
+    
+    /**
+     * Toca a fonte em uma linha do pool, repetindo-a até completar a duração
+     * ou até uma parada posterior ao pedido
+     */
+    private void tocar(AudioFormat format, FonteAudio fonte, int duracaoSegundos, String dispositivoAudio,
+                       long pedido, Runnable aoIniciar) throws Exception {
+        SourceDataLine linha = pool.obter(dispositivoAudio, format);
+        currentLine = linha;
+        isPlaying = true;
+        linha.start();
+        if (aoIniciar != null) {
+            aoIniciar.run();
+        }
+        
+        long totalBytes = (long) (duracaoSegundos * (double) format.getFrameRate()) * format.getFrameSize();
+        byte[] buffer = obterBuffer();
+        try {
+            transmitir(fonte, linha::write, buffer, format.getFrameSize(), totalBytes,
+                () -> currentLine == linha && paradas.get() == pedido && !Thread.currentThread().isInterrupted());
+            if (currentLine == linha) {
+                linha.drain();
+            }
+        } finally {
+            BUFFERS_STREAMING.offer(buffer);
+            if (currentLine == linha) {
+                currentLine = null;
+                isPlaying = false;
+            }
+            // A linha continua aberta no pool para o próximo disparo
+            pool.devolver(dispositivoAudio, linha);
+        }
+    }
+    
+    private static byte[] obterBuffer() {
+        byte[] buffer = BUFFERS_STREAMING.poll();
+        return buffer != null ? buffer : new byte[TAMANHO_BUFFER_STREAMING];
+    }
+    
+    /**
+     * Prepara a reprodução antes do disparo: decodifica o arquivo para o cache
+     * (quando couber em memória) e deixa uma linha aberta no pool
+     */
+    public void preaquecer(String caminhoArquivo, String dispositivoAudio) {
+        File audioFile = new File(caminhoArquivo);
+        if (!audioFile.exists()) {
+            return;
+        }
+        
+        try {
+            AudioFormat format = escolherModo(audioFile) == ModoReproducao.MEMORIA
+                ? cache.obter(audioFile).getFormato()
+                : cache.lerCabecalho(audioFile).getFormatoPcm();
+            pool.preaquecer(dispositivoAudio, format);
+        } catch (Exception e) {
+            System.err.println("Erro ao preparar áudio " + audioFile.getName() + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Copia o áudio da fonte para a saída até completar totalBytes, reabrindo a
+     * fonte quando ela termina
+     * @return quantidade de bytes escritos
+     */
+    static long transmitir(FonteAudio fonte, SaidaAudio saida, byte[] buffer, int tamanhoFrame,
+                           long totalBytes, BooleanSupplier continuar) throws Exception {
+        // Apenas frames inteiros são lidos e escritos
+        int capacidade = buffer.length - buffer.length % tamanhoFrame;
+        long escritos = 0;
+        
+        while (escritos < totalBytes && continuar.getAsBoolean()) {
+            boolean leuAlgo = false;
+            try (AudioInputStream stream = fonte.abrir()) {
+                while (escritos < totalBytes && continuar.getAsBoolean()) {
+                    int pedido = (int) Math.min(capacidade, totalBytes - escritos);
+                    int lidos = lerFrames(stream, buffer, pedido, tamanhoFrame);
+                    if (lidos <= 0) {
+                        break;
+                    }
+                    leuAlgo = true;
+                    
+                    int escritosAgora = saida.escrever(buffer, 0, lidos);
+                    escritos += escritosAgora;
+                    if (escritosAgora < lidos) {
+                        // Linha parada ou fechada durante a escrita
+                        return escritos;
+                    }
+                }
+            }
+            
+            if (!leuAlgo) {
+                // Arquivo vazio: evitar reabrir indefinidamente
+                break;
+            }
+        }
+        
+        return escritos;
     }
     
     /**
-     * Para a reprodução atual
+     * Lê até completar o pedido ou o fim do stream, sempre em frames inteiros
      */
+    private static int lerFrames(AudioInputStream stream, byte[] buffer, int pedido, int tamanhoFrame) throws IOException {
+        int total = 0;
+        while (total < pedido) {
+            int lidos = stream.read(buffer, total, pedido - total);
+            if (lidos < 0) {
+                break;
+            }
+            total += lidos;
+        }
+        return total - total % tamanhoFrame;
+    }
+    
+    /**
+     * Para a reprodução atual e as já pedidas que ainda não começaram
+     */
+    @Override
     public void pararReproducao() {
-        if (currentClip != null && currentClip.isOpen()) {
-            currentClip.stop();
-            currentClip.close();
+        paradas.incrementAndGet();
+        interromperLinhaAtual();
+    }
+    
+    /**
+     * Interrompe a linha tocando agora, sem afetar reproduções pedidas depois
+     */
+    private void interromperLinhaAtual() {
+        SourceDataLine linha = currentLine;
+        if (linha != null) {
+            // A thread da reprodução percebe a troca e devolve a linha ao pool
+            currentLine = null;
+            linha.stop();
+            linha.flush();
             isPlaying = false;
             System.out.println("Reprodução parada");
         }
@@ -113,8 +296,31 @@ public class AudioManager {
     /**
      * Verifica se está reproduzindo áudio
      */
+    @Override
     public boolean isPlaying() {
-        return isPlaying && currentClip != null && currentClip.isRunning();
+        SourceDataLine linha = currentLine;
+        return isPlaying && linha != null && linha.isOpen();
+    }
+    
+    /**
+     * Cache de áudio decodificado usado por este gerenciador
+     */
+    public CacheAudioDecodificado getCache() {
+        return cache;
+    }
+    
+    /**
+     * Pool de linhas de áudio usado por este gerenciador
+     */
+    public PoolLinhasAudio getPool() {
+        return pool;
+    }
+    
+    /**
+     * Publica cache e pool de linhas como MBean (com.agendador:type=Audio)
+     */
+    public void registrarMonitoramento() {
+        RegistroJmx.registrar(MonitorAudio.TIPO, new MonitorAudio(cache, pool));
     }
     
     /**
@@ -138,27 +344,9 @@ public class AudioManager {
     }
     
     /**
-     * Obtém o mixer correspondente ao nome do dispositivo
-     */
-    private Mixer obterMixer(String nomeDispositivo) {
-        if (nomeDispositivo == null || nomeDispositivo.trim().isEmpty()) {
-            return null;
-        }
-        
-        Mixer.Info[] mixerInfos = AudioSystem.getMixerInfo();
-        for (Mixer.Info mixerInfo : mixerInfos) {
-            if (mixerInfo.getName().equals(nomeDispositivo)) {
-                return AudioSystem.getMixer(mixerInfo);
-            }
-        }
-        
-        System.err.println("Dispositivo de áudio não encontrado: " + nomeDispositivo);
-        return null;
-    }
-    
-    /**
-     * Valida se um arquivo de áudio é suportado
+     * Valida se um arquivo de áudio é suportado, pelo cabeçalho guardado no cache
      */
+    @Override
     public boolean validarArquivoAudio(String caminhoArquivo) {
         try {
             File audioFile = new File(caminhoArquivo);
@@ -166,8 +354,7 @@ public class AudioManager {
                 return false;
             }
             
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(audioFile);
-            audioStream.close();
+            cache.lerCabecalho(audioFile);
             return true;
             
         } catch (Exception e) {
@@ -197,6 +384,30 @@ public class AudioManager {
         );
     }
     
+    /**
+     * Forma de reprodução de um arquivo
+     */
+    enum ModoReproducao {
+        MEMORIA,
+        STREAMING
+    }
+    
+    /**
+     * Abre um novo stream PCM a cada repetição do áudio
+     */
+    @FunctionalInterface
+    interface FonteAudio {
+        AudioInputStream abrir() throws Exception;
+    }
+    
+    /**
+     * Destino dos bytes PCM (ex.: SourceDataLine::write)
+     */
+    @FunctionalInterface
+    interface SaidaAudio {
+        int escrever(byte[] dados, int inicio, int tamanho);
+    }
+    
     /**
      * Classe para armazenar informações de áudio
      */
@@ -0,0 +1,307 @@
+package com.agendador.audio;
+
+import com.agendador.audio.DecodificadorAudio.CabecalhoAudio;
+import com.agendador.util.HistogramaLatencia;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de áudio já decodificado para PCM
+ * Implementa padrão Singleton
+ *
+ * Cada arquivo é identificado pelo caminho, data de modificação e tamanho:
+ * se o arquivo mudar em disco, a entrada antiga é descartada e o áudio é
+ * decodificado de novo. As entradas menos usadas são removidas quando o total
+ * ultrapassa o orçamento de memória (-Dagendador.audio.cacheBytes=N).
+ *
+ * O cabeçalho de cada arquivo (formato PCM e tamanho estimado) também fica
+ * guardado, com a mesma identidade, para que a escolha do modo de reprodução
+ * e a validação não consultem os provedores de áudio a cada disparo.
+ */
+public class CacheAudioDecodificado {
+    
+    private static final long ORCAMENTO_PADRAO_BYTES = 64L * 1024 * 1024;
+    private static final int MAXIMO_CABECALHOS = 512;
+    private static CacheAudioDecodificado instance;
+    
+    private final long orcamentoBytes;
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesEmUso;
+    
+    // Cabeçalhos lidos, inclusive de arquivos não suportados; os mais antigos saem primeiro
+    private final LinkedHashMap<String, Cabecalho> cabecalhos = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cabecalho> maisAntigo) {
+            return size() > MAXIMO_CABECALHOS;
+        }
+    };
+    
+    // Métricas
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong falhas = new AtomicLong();
+    private final AtomicLong remocoes = new AtomicLong();
+    private final HistogramaLatencia tempoDecodificacao = new HistogramaLatencia();
+    
+    private CacheAudioDecodificado() {
+        // Construtor privado para Singleton
+        this(Long.getLong("agendador.audio.cacheBytes", ORCAMENTO_PADRAO_BYTES));
+    }
+    
+    /**
+     * Construtor com orçamento específico (usado em testes)
+     */
+    CacheAudioDecodificado(long orcamentoBytes) {
+        this.orcamentoBytes = orcamentoBytes;
+    }
+    
+    public static synchronized CacheAudioDecodificado getInstance() {
+        if (instance == null) {
+            instance = new CacheAudioDecodificado();
+        }
+        return instance;
+    }
+    
+    /**
+     * Obtém o áudio decodificado do arquivo, decodificando-o apenas na primeira
+     * vez ou quando o arquivo mudou em disco
+     */
+    public AudioDecodificado obter(File arquivo) throws UnsupportedAudioFileException, IOException {
+        String caminho = arquivo.getAbsolutePath();
+        long modificado = arquivo.lastModified();
+        long tamanho = arquivo.length();
+        
+        synchronized (this) {
+            Entrada entrada = entradas.get(caminho);
+            if (entrada != null && entrada.modificado == modificado && entrada.tamanhoArquivo == tamanho) {
+                acertos.incrementAndGet();
+                return entrada.audio;
+            }
+        }
+        
+        // Decodificação fora do lock, para não bloquear outros arquivos
+        falhas.incrementAndGet();
+        long inicio = System.nanoTime();
+        AudioDecodificado audio = decodificar(arquivo);
+        tempoDecodificacao.registrar(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        armazenar(caminho, new Entrada(modificado, tamanho, audio));
+        return audio;
+    }
+    
+    /**
+     * Obtém formato PCM e tamanho estimado do arquivo, lendo o cabeçalho apenas
+     * na primeira vez ou quando o arquivo mudou em disco
+     * @throws UnsupportedAudioFileException também nas consultas seguintes, enquanto o arquivo não mudar
+     */
+    CabecalhoAudio lerCabecalho(File arquivo) throws UnsupportedAudioFileException, IOException {
+        String caminho = arquivo.getAbsolutePath();
+        long modificado = arquivo.lastModified();
+        long tamanho = arquivo.length();
+        
+        Cabecalho cabecalho;
+        synchronized (this) {
+            cabecalho = cabecalhos.get(caminho);
+        }
+        if (cabecalho == null || cabecalho.modificado != modificado || cabecalho.tamanhoArquivo != tamanho) {
+            try {
+                cabecalho = new Cabecalho(modificado, tamanho, DecodificadorAudio.lerCabecalho(arquivo), null);
+            } catch (UnsupportedAudioFileException e) {
+                cabecalho = new Cabecalho(modificado, tamanho, null, e.getMessage());
+            }
+            // Erros de leitura (IOException) podem ser passageiros e não ficam guardados
+            synchronized (this) {
+                cabecalhos.put(caminho, cabecalho);
+            }
+        }
+        
+        if (cabecalho.audio == null) {
+            throw new UnsupportedAudioFileException(cabecalho.erro);
+        }
+        return cabecalho.audio;
+    }
+    
+    private synchronized void armazenar(String caminho, Entrada nova) {
+        Entrada anterior = entradas.remove(caminho);
+        if (anterior != null) {
+            bytesEmUso -= anterior.audio.getTamanho();
+        }
+        
+        // Um arquivo maior que o orçamento inteiro não é mantido
+        if (nova.audio.getTamanho() > orcamentoBytes) {
+            return;
+        }
+        
+        entradas.put(caminho, nova);
+        bytesEmUso += nova.audio.getTamanho();
+        
+        Iterator<Entrada> it = entradas.values().iterator();
+        while (bytesEmUso > orcamentoBytes && it.hasNext()) {
+            Entrada maisAntiga = it.next();
+            bytesEmUso -= maisAntiga.audio.getTamanho();
+            it.remove();
+            remocoes.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Decodifica o arquivo inteiro para PCM
+     */
+    static AudioDecodificado decodificar(File arquivo) throws UnsupportedAudioFileException, IOException {
+        try (AudioInputStream stream = DecodificadorAudio.abrir(arquivo)) {
+            return new AudioDecodificado(stream.getFormat(), stream.readAllBytes());
+        }
+    }
+    
+    /**
+     * Remove o arquivo do cache
+     */
+    public synchronized void invalidar(File arquivo) {
+        cabecalhos.remove(arquivo.getAbsolutePath());
+        Entrada entrada = entradas.remove(arquivo.getAbsolutePath());
+        if (entrada != null) {
+            bytesEmUso -= entrada.audio.getTamanho();
+        }
+    }
+    
+    /**
+     * Esvazia o cache
+     */
+    public synchronized void limpar() {
+        entradas.clear();
+        cabecalhos.clear();
+        bytesEmUso = 0;
+    }
+    
+    public long getAcertos() {
+        return acertos.get();
+    }
+    
+    public long getFalhas() {
+        return falhas.get();
+    }
+    
+    public long getRemocoes() {
+        return remocoes.get();
+    }
+    
+    /**
+     * Percentual de acertos sobre o total de consultas
+     */
+    public double getTaxaAcerto() {
+        long total = acertos.get() + falhas.get();
+        return total == 0 ? 0.0 : acertos.get() * 100.0 / total;
+    }
+    
+    public synchronized long getBytesEmUso() {
+        return bytesEmUso;
+    }
+    
+    public synchronized int getTotalEntradas() {
+        return entradas.size();
+    }
+    
+    public long getOrcamentoBytes() {
+        return orcamentoBytes;
+    }
+    
+    /**
+     * Tempo de decodificação dos arquivos que não estavam no cache
+     */
+    public HistogramaLatencia getTempoDecodificacao() {
+        return tempoDecodificacao;
+    }
+    
+    /**
+     * Obtém estatísticas do cache
+     */
+    public String getEstatisticas() {
+        String estatisticas = String.format(
+            "Cache de áudio: %d arquivo(s), %.1f/%.1f MB, acertos %d, falhas %d (%.1f%%), remoções %d",
+            getTotalEntradas(), getBytesEmUso() / (1024.0 * 1024), orcamentoBytes / (1024.0 * 1024),
+            getAcertos(), getFalhas(), getTaxaAcerto(), getRemocoes());
+        if (tempoDecodificacao.getTotal() > 0) {
+            estatisticas += String.format(", decodificação p50 %d ms, p99 %d ms",
+                tempoDecodificacao.getPercentilMs(50), tempoDecodificacao.getPercentilMs(99));
+        }
+        return estatisticas;
+    }
+    
+    /**
+     * Entrada do cache com a identidade do arquivo em disco
+     */
+    private static class Entrada {
+        private final long modificado;
+        private final long tamanhoArquivo;
+        private final AudioDecodificado audio;
+        
+        Entrada(long modificado, long tamanhoArquivo, AudioDecodificado audio) {
+            this.modificado = modificado;
+            this.tamanhoArquivo = tamanhoArquivo;
+            this.audio = audio;
+        }
+    }
+    
+    /**
+     * Cabeçalho guardado com a identidade do arquivo; sem áudio quando o formato não é suportado
+     */
+    private static class Cabecalho {
+        private final long modificado;
+        private final long tamanhoArquivo;
+        private final CabecalhoAudio audio;
+        private final String erro;
+        
+        Cabecalho(long modificado, long tamanhoArquivo, CabecalhoAudio audio, String erro) {
+            this.modificado = modificado;
+            this.tamanhoArquivo = tamanhoArquivo;
+            this.audio = audio;
+            this.erro = erro;
+        }
+    }
+    
+    /**
+     * Áudio PCM pronto para reprodução; os dados são compartilhados e não
+     * devem ser alterados
+     */
+    public static class AudioDecodificado {
+        private final AudioFormat formato;
+        private final byte[] dados;
+        
+        public AudioDecodificado(AudioFormat formato, byte[] dados) {
+            this.formato = formato;
+            this.dados = dados;
+        }
+        
+        public AudioFormat getFormato() {
+            return formato;
+        }
+        
+        public byte[] getDados() {
+            return dados;
+        }
+        
+        public int getTamanho() {
+            return dados.length;
+        }
+        
+        /**
+         * Abre um stream de leitura sobre os dados em memória
+         */
+        public AudioInputStream abrirStream() {
+            return new AudioInputStream(new ByteArrayInputStream(dados), formato,
+                dados.length / formato.getFrameSize());
+        }
+        
+        public double getDuracaoSegundos() {
+            return dados.length / (double) formato.getFrameSize() / formato.getFrameRate();
+        }
+    }
+}
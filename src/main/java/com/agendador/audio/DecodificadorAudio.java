@@ -0,0 +1,120 @@
+package com.agendador.audio;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Abertura de arquivos de áudio já convertidos para PCM
+ * MP3 e outros formatos comprimidos são convertidos para PCM 16 bits.
+ */
+final class DecodificadorAudio {
+    
+    // Propriedade de duração (microssegundos) informada pelo mp3spi
+    private static final String PROPRIEDADE_DURACAO = "duration";
+    
+    static final long TAMANHO_DESCONHECIDO = -1;
+    
+    private DecodificadorAudio() {
+    }
+    
+    /**
+     * Abre o arquivo como stream PCM; quem chama deve fechá-lo
+     */
+    static AudioInputStream abrir(File arquivo) throws UnsupportedAudioFileException, IOException {
+        if (!arquivo.exists()) {
+            throw new IllegalArgumentException("Arquivo de áudio não encontrado: " + arquivo.getPath());
+        }
+        
+        AudioInputStream audioStream = AudioSystem.getAudioInputStream(arquivo);
+        AudioFormat format = audioStream.getFormat();
+        if (format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED)) {
+            return audioStream;
+        }
+        
+        try {
+            return AudioSystem.getAudioInputStream(formatoPcm(format), audioStream);
+        } catch (IllegalArgumentException e) {
+            audioStream.close();
+            throw new UnsupportedAudioFileException("Conversão para PCM não suportada: " + format);
+        }
+    }
+    
+    /**
+     * Formato PCM 16 bits com a mesma taxa e canais do original
+     */
+    static AudioFormat formatoPcm(AudioFormat format) {
+        return new AudioFormat(
+            AudioFormat.Encoding.PCM_SIGNED,
+            format.getSampleRate(),
+            16,
+            format.getChannels(),
+            format.getChannels() * 2,
+            format.getSampleRate(),
+            false
+        );
+    }
+    
+    /**
+     * Lê do cabeçalho o formato PCM de saída e estima o tamanho do áudio
+     * decodificado, sem decodificá-lo
+     */
+    static CabecalhoAudio lerCabecalho(File arquivo) throws UnsupportedAudioFileException, IOException {
+        AudioFileFormat arquivoFormat = AudioSystem.getAudioFileFormat(arquivo);
+        AudioFormat format = arquivoFormat.getFormat();
+        // Mesma conversão feita por abrir()
+        AudioFormat pcm = format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED) ? format : formatoPcm(format);
+        return new CabecalhoAudio(pcm, estimarTamanhoPcm(arquivoFormat, pcm));
+    }
+    
+    /**
+     * Estima o tamanho em bytes do áudio depois de decodificado
+     * @return tamanho estimado ou {@link #TAMANHO_DESCONHECIDO}
+     */
+    private static long estimarTamanhoPcm(AudioFileFormat arquivoFormat, AudioFormat pcm) {
+        AudioFormat format = arquivoFormat.getFormat();
+        
+        // WAV/AIFF informam a quantidade de frames
+        if (arquivoFormat.getFrameLength() != AudioSystem.NOT_SPECIFIED
+                && format.getFrameRate() == pcm.getFrameRate()
+                && pcm.getFrameSize() != AudioSystem.NOT_SPECIFIED) {
+            return (long) arquivoFormat.getFrameLength() * pcm.getFrameSize();
+        }
+        
+        // MP3 informa apenas a duração
+        Object duracao = arquivoFormat.properties().get(PROPRIEDADE_DURACAO);
+        if (duracao instanceof Long microssegundos && pcm.getFrameRate() > 0) {
+            return (long) (microssegundos / 1_000_000.0 * pcm.getFrameRate()) * pcm.getFrameSize();
+        }
+        
+        return TAMANHO_DESCONHECIDO;
+    }
+    
+    /**
+     * Formato PCM e tamanho estimado de um arquivo, lidos só do cabeçalho
+     */
+    static final class CabecalhoAudio {
+        private final AudioFormat formatoPcm;
+        private final long tamanhoPcm;
+        
+        CabecalhoAudio(AudioFormat formatoPcm, long tamanhoPcm) {
+            this.formatoPcm = formatoPcm;
+            this.tamanhoPcm = tamanhoPcm;
+        }
+        
+        AudioFormat getFormatoPcm() {
+            return formatoPcm;
+        }
+        
+        /**
+         * Tamanho estimado do áudio decodificado ou {@link #TAMANHO_DESCONHECIDO}
+         */
+        long getTamanhoPcm() {
+            return tamanhoPcm;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.agendador.audio;
+
+/**
+ * MBean de áudio: lê as métricas do cache e do pool e permite esvaziá-los
+ */
+class MonitorAudio implements AudioMXBean {
+    
+    static final String TIPO = "Audio";
+    
+    private final CacheAudioDecodificado cache;
+    private final PoolLinhasAudio pool;
+    
+    MonitorAudio(CacheAudioDecodificado cache, PoolLinhasAudio pool) {
+        this.cache = cache;
+        this.pool = pool;
+    }
+    
+    @Override
+    public int getArquivosEmCache() {
+        return cache.getTotalEntradas();
+    }
+    
+    @Override
+    public long getBytesEmCache() {
+        return cache.getBytesEmUso();
+    }
+    
+    @Override
+    public long getAcertosCache() {
+        return cache.getAcertos();
+    }
+    
+    @Override
+    public long getFalhasCache() {
+        return cache.getFalhas();
+    }
+    
+    @Override
+    public double getTaxaAcertoCache() {
+        return cache.getTaxaAcerto();
+    }
+    
+    @Override
+    public long getRemocoesCache() {
+        return cache.getRemocoes();
+    }
+    
+    @Override
+    public long getDecodificacaoP50Ms() {
+        return cache.getTempoDecodificacao().getPercentilMs(50);
+    }
+    
+    @Override
+    public long getDecodificacaoP99Ms() {
+        return cache.getTempoDecodificacao().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getDecodificacaoMaximaMs() {
+        return cache.getTempoDecodificacao().getMaximoMs();
+    }
+    
+    @Override
+    public int getLinhasOciosas() {
+        return pool.getTotalOciosas();
+    }
+    
+    @Override
+    public long getLinhasAbertas() {
+        return pool.getAbertas();
+    }
+    
+    @Override
+    public long getLinhasReaproveitadas() {
+        return pool.getReaproveitadas();
+    }
+    
+    @Override
+    public long getAberturaLinhaP50Ms() {
+        return pool.getTempoAbertura().getPercentilMs(50);
+    }
+    
+    @Override
+    public long getAberturaLinhaP99Ms() {
+        return pool.getTempoAbertura().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getAberturaLinhaMaximaMs() {
+        return pool.getTempoAbertura().getMaximoMs();
+    }
+    
+    @Override
+    public void limparCaches() {
+        cache.limpar();
+        pool.fechar();
+        System.out.println("Cache de áudio e linhas ociosas liberados via JMX");
+    }
+}
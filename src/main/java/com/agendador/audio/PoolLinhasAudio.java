@@ -0,0 +1,337 @@
+package com.agendador.audio;
+
+import com.agendador.util.HistogramaLatencia;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Pool de linhas de áudio já abertas, por dispositivo e formato
+ * Implementa padrão Singleton
+ *
+ * Abrir uma linha em algumas placas USB leva centenas de milissegundos; com o
+ * pool essa abertura acontece antes do disparo ({@link #preaquecer}) e a linha
+ * é reaproveitada nas reproduções seguintes. Linhas ociosas por mais de
+ * -Dagendador.audio.linhaOciosaSegundos=N (padrão 30) são fechadas.
+ */
+public class PoolLinhasAudio {
+    
+    // Nome exibido na interface para o dispositivo padrão do sistema
+    public static final String DISPOSITIVO_PADRAO = "Dispositivo Padrão";
+    
+    private static final long OCIOSA_PADRAO_SEGUNDOS = 30;
+    // Um dispositivo não encontrado só é procurado de novo depois deste intervalo
+    private static final long NOVA_BUSCA_MIXER_MS = 30_000;
+    private static final int MAXIMO_OCIOSAS_POR_CHAVE = 2;
+    private static PoolLinhasAudio instance;
+    
+    private final AberturaLinha abertura;
+    private final LongSupplier relogioMs;
+    private final long ociosaMaximaMs;
+    private final Map<String, Deque<LinhaOciosa>> ociosas = new HashMap<>();
+    
+    // Nome do dispositivo -> mixer, para não percorrer AudioSystem.getMixerInfo() a cada disparo
+    private final Map<String, Mixer.Info> mixers = new ConcurrentHashMap<>();
+    // Nome do dispositivo não encontrado -> instante da última busca
+    private final Map<String, Long> mixersAusentes = new ConcurrentHashMap<>();
+    
+    // Métricas
+    private final AtomicLong reaproveitadas = new AtomicLong();
+    private final AtomicLong abertas = new AtomicLong();
+    private final AtomicLong fechadasPorOciosidade = new AtomicLong();
+    private final HistogramaLatencia tempoAbertura = new HistogramaLatencia();
+    
+    private PoolLinhasAudio() {
+        // Construtor privado para Singleton
+        this(null, System::currentTimeMillis,
+            TimeUnit.SECONDS.toMillis(Long.getLong("agendador.audio.linhaOciosaSegundos", OCIOSA_PADRAO_SEGUNDOS)));
+        
+        ScheduledExecutorService limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "agendador-audio-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervaloMs = Math.max(1000, ociosaMaximaMs / 2);
+        limpeza.scheduleWithFixedDelay(this::liberarOciosas, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Construtor com abertura de linhas e relógio específicos (usado em testes)
+     */
+    PoolLinhasAudio(AberturaLinha abertura, LongSupplier relogioMs, long ociosaMaximaMs) {
+        this.abertura = abertura != null ? abertura : this::abrirLinha;
+        this.relogioMs = relogioMs;
+        this.ociosaMaximaMs = ociosaMaximaMs;
+    }
+    
+    public static synchronized PoolLinhasAudio getInstance() {
+        if (instance == null) {
+            instance = new PoolLinhasAudio();
+        }
+        return instance;
+    }
+    
+    /**
+     * Obtém uma linha aberta no formato pedido, reaproveitando uma ociosa se houver
+     * A linha deve ser devolvida com {@link #devolver} ao fim da reprodução.
+     */
+    public SourceDataLine obter(String dispositivo, AudioFormat formato) throws LineUnavailableException {
+        dispositivo = normalizarDispositivo(dispositivo);
+        String chave = chave(dispositivo, formato);
+        
+        synchronized (this) {
+            Deque<LinhaOciosa> fila = ociosas.get(chave);
+            while (fila != null && !fila.isEmpty()) {
+                SourceDataLine linha = fila.pollLast().linha;
+                if (linha.isOpen()) {
+                    reaproveitadas.incrementAndGet();
+                    return linha;
+                }
+            }
+        }
+        
+        // Abertura fora do lock: pode ser lenta
+        return abrirMedindo(dispositivo, formato);
+    }
+    
+    /**
+     * Devolve ao pool uma linha obtida com {@link #obter}
+     */
+    public void devolver(String dispositivo, SourceDataLine linha) {
+        if (!linha.isOpen()) {
+            return;
+        }
+        linha.stop();
+        linha.flush();
+        
+        String chave = chave(normalizarDispositivo(dispositivo), linha.getFormat());
+        synchronized (this) {
+            Deque<LinhaOciosa> fila = ociosas.computeIfAbsent(chave, k -> new ArrayDeque<>());
+            if (fila.size() < MAXIMO_OCIOSAS_POR_CHAVE) {
+                fila.addLast(new LinhaOciosa(linha, relogioMs.getAsLong()));
+                return;
+            }
+        }
+        linha.close();
+    }
+    
+    /**
+     * Garante uma linha aberta e ociosa para o dispositivo e formato
+     */
+    public void preaquecer(String dispositivo, AudioFormat formato) throws LineUnavailableException {
+        dispositivo = normalizarDispositivo(dispositivo);
+        String chave = chave(dispositivo, formato);
+        synchronized (this) {
+            Deque<LinhaOciosa> fila = ociosas.get(chave);
+            if (fila != null && !fila.isEmpty()) {
+                // Renova o prazo de ociosidade até o disparo
+                fila.peekLast().desde = relogioMs.getAsLong();
+                return;
+            }
+        }
+        
+        devolver(dispositivo, abrirMedindo(dispositivo, formato));
+    }
+    
+    private SourceDataLine abrirMedindo(String dispositivo, AudioFormat formato) throws LineUnavailableException {
+        abertas.incrementAndGet();
+        long inicio = System.nanoTime();
+        SourceDataLine linha = abertura.abrir(dispositivo, formato);
+        tempoAbertura.registrar(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        return linha;
+    }
+    
+    /**
+     * Fecha as linhas ociosas há mais tempo que o limite
+     * @return quantidade de linhas fechadas
+     */
+    int liberarOciosas() {
+        long limite = relogioMs.getAsLong() - ociosaMaximaMs;
+        int fechadas = 0;
+        
+        synchronized (this) {
+            for (Deque<LinhaOciosa> fila : ociosas.values()) {
+                Iterator<LinhaOciosa> it = fila.iterator();
+                while (it.hasNext()) {
+                    LinhaOciosa ociosa = it.next();
+                    if (ociosa.desde <= limite || !ociosa.linha.isOpen()) {
+                        it.remove();
+                        ociosa.linha.close();
+                        fechadas++;
+                    }
+                }
+            }
+            ociosas.values().removeIf(Deque::isEmpty);
+        }
+        
+        if (fechadas > 0) {
+            fechadasPorOciosidade.addAndGet(fechadas);
+            System.out.println("Linhas de áudio ociosas fechadas: " + fechadas);
+        }
+        return fechadas;
+    }
+    
+    /**
+     * Fecha todas as linhas ociosas
+     */
+    public synchronized void fechar() {
+        for (Deque<LinhaOciosa> fila : ociosas.values()) {
+            for (LinhaOciosa ociosa : fila) {
+                ociosa.linha.close();
+            }
+        }
+        ociosas.clear();
+    }
+    
+    /**
+     * Nome do dispositivo usado no pool e na busca do mixer
+     * Sem dispositivo e "Dispositivo Padrão" são a saída padrão do sistema (""),
+     * a mesma regra que separa as faixas de reprodução.
+     */
+    public static String normalizarDispositivo(String dispositivo) {
+        if (dispositivo == null) {
+            return "";
+        }
+        String nome = dispositivo.trim();
+        return DISPOSITIVO_PADRAO.equals(nome) ? "" : nome;
+    }
+    
+    /**
+     * Obtém o mixer correspondente ao nome do dispositivo, com cache da busca
+     * @return null para a saída padrão ou para um dispositivo não encontrado
+     */
+    public Mixer obterMixer(String nomeDispositivo) {
+        nomeDispositivo = normalizarDispositivo(nomeDispositivo);
+        if (nomeDispositivo.isEmpty()) {
+            return null;
+        }
+        
+        Mixer.Info info = mixers.get(nomeDispositivo);
+        if (info == null) {
+            Long ultimaBusca = mixersAusentes.get(nomeDispositivo);
+            long agora = relogioMs.getAsLong();
+            if (ultimaBusca != null && agora - ultimaBusca < NOVA_BUSCA_MIXER_MS) {
+                return null;
+            }
+            
+            for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+                if (mixerInfo.getName().equals(nomeDispositivo)) {
+                    info = mixerInfo;
+                    mixers.put(nomeDispositivo, mixerInfo);
+                    break;
+                }
+            }
+            
+            if (info == null) {
+                // Toca na saída padrão até a próxima busca, sem repetir o aviso a cada disparo
+                mixersAusentes.put(nomeDispositivo, agora);
+                System.err.println("Dispositivo de áudio não encontrado: " + nomeDispositivo);
+                return null;
+            }
+            mixersAusentes.remove(nomeDispositivo);
+        }
+        
+        try {
+            return AudioSystem.getMixer(info);
+        } catch (IllegalArgumentException e) {
+            // Dispositivo removido desde a busca
+            mixers.remove(nomeDispositivo);
+            System.err.println("Dispositivo de áudio indisponível: " + nomeDispositivo);
+            return null;
+        }
+    }
+    
+    private SourceDataLine abrirLinha(String dispositivo, AudioFormat formato) throws LineUnavailableException {
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, formato);
+        Mixer mixer = obterMixer(dispositivo);
+        SourceDataLine linha = mixer != null
+            ? (SourceDataLine) mixer.getLine(info)
+            : (SourceDataLine) AudioSystem.getLine(info);
+        linha.open(formato);
+        return linha;
+    }
+    
+    /**
+     * Chave do pool; o dispositivo já deve estar normalizado
+     */
+    private static String chave(String dispositivo, AudioFormat formato) {
+        return dispositivo + "|" + formato;
+    }
+    
+    public synchronized int getTotalOciosas() {
+        int total = 0;
+        for (Deque<LinhaOciosa> fila : ociosas.values()) {
+            total += fila.size();
+        }
+        return total;
+    }
+    
+    public long getReaproveitadas() {
+        return reaproveitadas.get();
+    }
+    
+    public long getAbertas() {
+        return abertas.get();
+    }
+    
+    public long getFechadasPorOciosidade() {
+        return fechadasPorOciosidade.get();
+    }
+    
+    /**
+     * Tempo de abertura das linhas novas, nos disparos e nas preparações
+     */
+    public HistogramaLatencia getTempoAbertura() {
+        return tempoAbertura;
+    }
+    
+    /**
+     * Obtém estatísticas do pool
+     */
+    public String getEstatisticas() {
+        String estatisticas = String.format(
+            "Pool de linhas: %d ociosa(s), reaproveitadas %d, abertas %d, fechadas por ociosidade %d",
+            getTotalOciosas(), getReaproveitadas(), getAbertas(), getFechadasPorOciosidade());
+        if (tempoAbertura.getTotal() > 0) {
+            estatisticas += String.format(", abertura p50 %d ms, p99 %d ms",
+                tempoAbertura.getPercentilMs(50), tempoAbertura.getPercentilMs(99));
+        }
+        return estatisticas;
+    }
+    
+    /**
+     * Abre uma nova linha para o dispositivo e formato
+     */
+    @FunctionalInterface
+    interface AberturaLinha {
+        SourceDataLine abrir(String dispositivo, AudioFormat formato) throws LineUnavailableException;
+    }
+    
+    /**
+     * Linha parada no pool e o instante em que ficou ociosa
+     */
+    private static class LinhaOciosa {
+        private final SourceDataLine linha;
+        private long desde;
+        
+        LinhaOciosa(SourceDataLine linha, long desde) {
+            this.linha = linha;
+            this.desde = desde;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.agendador.audio;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reprodutor de sinais usado pelas faixas de reprodução
+ * Implementado por {@link AudioManager}; permite testar as filas sem dispositivo de áudio.
+ */
+public interface ReprodutorAudio {
+    
+    /**
+     * Reproduz um arquivo de áudio por uma duração específica
+     */
+    CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio);
+    
+    /**
+     * Reproduz um arquivo de áudio avisando quando a reprodução de fato começa
+     * Reprodutores que não sabem esse instante avisam no momento do pedido.
+     * @param aoIniciar Chamado uma vez, no início da reprodução
+     */
+    default CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio,
+                                                    Runnable aoIniciar) {
+        aoIniciar.run();
+        return reproduzirAudio(caminhoArquivo, duracaoSegundos, dispositivoAudio);
+    }
+    
+    /**
+     * Para a reprodução atual e as já pedidas que ainda não começaram
+     */
+    void pararReproducao();
+    
+    /**
+     * Verifica se está reproduzindo áudio
+     */
+    boolean isPlaying();
+    
+    /**
+     * Valida se um arquivo de áudio é suportado
+     */
+    boolean validarArquivoAudio(String caminhoArquivo);
+}
@@ -1,10 +1,26 @@
 package com.agendador.controller;
 
 import com.agendador.database.DatabaseManager;
+import com.agendador.database.LoteAgendamentos;
+import com.agendador.database.RepositorioAgendamentos;
 import com.agendador.model.Agendamento;
+import com.agendador.model.Execucao;
 import com.agendador.scheduler.SchedulerManager;
+import com.agendador.transferencia.TransferenciaAgendamentos;
+import com.agendador.transferencia.TransferenciaAgendamentos.Formato;
+import com.agendador.transferencia.TransferenciaAgendamentos.ResultadoImportacao;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -15,17 +31,26 @@ import java.util.ArrayList;
 public class AgendadorController implements SchedulerManager.SchedulerListener {
     
     private final DatabaseManager databaseManager;
+    private final RepositorioAgendamentos repositorio;
     private final SchedulerManager schedulerManager;
     private final List<AgendadorListener> listeners;
     
     public AgendadorController() {
         this.databaseManager = DatabaseManager.getInstance();
+        this.repositorio = RepositorioAgendamentos.getInstance();
         this.schedulerManager = new SchedulerManager();
         this.listeners = new ArrayList<>();
         
         // Configurar listener do scheduler
         this.schedulerManager.setSchedulerListener(this);
         
+        // Agendamentos relidos do banco (alterações feitas por outro processo)
+        this.repositorio.assinar(instantanea -> {
+            if (instantanea.isRecarregada()) {
+                notificarListeners(AgendadorListener::onAgendamentosRecarregados);
+            }
+        });
+        
         // Iniciar agendador automaticamente
         iniciarAgendador();
     }
@@ -44,6 +69,13 @@ public class AgendadorController implements SchedulerManager.SchedulerListener {
         schedulerManager.parar();
     }
     
+    /**
+     * Encerra o agendador ao sair da aplicação
+     */
+    public void encerrar() {
+        schedulerManager.encerrar();
+    }
+    
     /**
      * Verifica se o agendador está ativo
      */
@@ -65,11 +97,32 @@ public class AgendadorController implements SchedulerManager.SchedulerListener {
         return schedulerManager.isReproducing();
     }
     
+    /**
+     * Publica o agendador e o áudio por JMX, para diagnóstico com jconsole
+     */
+    public void registrarMonitoramento() {
+        schedulerManager.registrarMonitoramento();
+    }
+    
+    /**
+     * Percentis do atraso dos disparos em uma linha
+     */
+    public String getResumoAtraso() {
+        return schedulerManager.getResumoAtraso();
+    }
+    
+    /**
+     * Estatísticas de execução por dispositivo e por agendamento
+     */
+    public String getRelatorioEstatisticas() {
+        return schedulerManager.getRelatorioEstatisticas();
+    }
+    
     /**
      * Salva um novo agendamento
      */
     public Long salvarAgendamento(Agendamento agendamento) throws SQLException {
-        Long id = databaseManager.salvarAgendamento(agendamento);
+        Long id = repositorio.salvar(agendamento);
         notificarListeners(listener -> listener.onAgendamentoSalvo(agendamento));
         return id;
     }
@@ -78,7 +131,7 @@ public class AgendadorController implements SchedulerManager.SchedulerListener {
      * Atualiza um agendamento existente
      */
     public void atualizarAgendamento(Agendamento agendamento) throws SQLException {
-        databaseManager.atualizarAgendamento(agendamento);
+        repositorio.atualizar(agendamento);
         notificarListeners(listener -> listener.onAgendamentoAtualizado(agendamento));
     }
     
@@ -86,22 +139,85 @@ public class AgendadorController implements SchedulerManager.SchedulerListener {
      * Remove um agendamento
      */
     public void removerAgendamento(Long id) throws SQLException {
-        databaseManager.removerAgendamento(id);
+        repositorio.remover(id);
         notificarListeners(listener -> listener.onAgendamentoRemovido(id));
     }
     
     /**
-     * Busca todos os agendamentos
+     * Aplica várias criações, atualizações e remoções de uma só vez
+     * O lote é gravado em uma transação e publicado ao agendador como uma única alteração.
+     */
+    public void aplicarLote(LoteAgendamentos lote) throws SQLException {
+        if (lote.isVazio()) {
+            return;
+        }
+        
+        repositorio.aplicarLote(lote);
+        
+        for (Agendamento agendamento : lote.getCriacoes()) {
+            notificarListeners(listener -> listener.onAgendamentoSalvo(agendamento));
+        }
+        for (Agendamento agendamento : lote.getAtualizacoes()) {
+            notificarListeners(listener -> listener.onAgendamentoAtualizado(agendamento));
+        }
+        for (Long id : lote.getRemocoes()) {
+            notificarListeners(listener -> listener.onAgendamentoRemovido(id));
+        }
+    }
+    
+    /**
+     * Busca todos os agendamentos (da memória, sem consultar o banco)
      */
     public List<Agendamento> buscarTodosAgendamentos() throws SQLException {
-        return databaseManager.buscarTodosAgendamentos();
+        return repositorio.buscarTodos();
     }
     
     /**
-     * Busca agendamentos ativos
+     * Busca agendamentos ativos (da memória, sem consultar o banco)
      */
     public List<Agendamento> buscarAgendamentosAtivos() throws SQLException {
-        return databaseManager.buscarAgendamentosAtivos();
+        return repositorio.buscarAtivos();
+    }
+    
+    /**
+     * Busca o histórico de execuções previstas para o dia, no fuso do sistema
+     */
+    public List<Execucao> buscarExecucoesDoDia(LocalDate dia) throws SQLException {
+        ZoneId zona = ZoneId.systemDefault();
+        return databaseManager.buscarExecucoes(dia.atStartOfDay(zona).toInstant(),
+            dia.plusDays(1).atStartOfDay(zona).toInstant());
+    }
+    
+    /**
+     * Busca o histórico de execuções de um agendamento entre os dias informados, inclusive
+     */
+    public List<Execucao> buscarExecucoesDoAgendamento(Long agendamentoId, LocalDate de, LocalDate ate) throws SQLException {
+        ZoneId zona = ZoneId.systemDefault();
+        return databaseManager.buscarExecucoesDoAgendamento(agendamentoId, de.atStartOfDay(zona).toInstant(),
+            ate.plusDays(1).atStartOfDay(zona).toInstant());
+    }
+    
+    /**
+     * Exporta todos os agendamentos para um arquivo .json ou .csv
+     * @return quantidade de agendamentos exportados
+     */
+    public int exportarAgendamentos(File arquivo) throws IOException, SQLException {
+        Formato formato = Formato.doArquivo(arquivo.getName());
+        try (OutputStream saida = new BufferedOutputStream(new FileOutputStream(arquivo))) {
+            return TransferenciaAgendamentos.exportar(formato, saida, databaseManager::percorrerAgendamentos);
+        }
+    }
+    
+    /**
+     * Importa agendamentos de um arquivo .json ou .csv, gravando-os em lotes
+     */
+    public ResultadoImportacao importarAgendamentos(File arquivo) throws IOException, SQLException {
+        Formato formato = Formato.doArquivo(arquivo.getName());
+        try (InputStream entrada = new BufferedInputStream(new FileInputStream(arquivo))) {
+            // Cada lote é gravado na sua transação; o agendador recebe a importação inteira de uma vez,
+            // inclusive os lotes já gravados se ela parar no meio
+            return repositorio.importar(lotes -> TransferenciaAgendamentos.importar(formato, entrada, lotes::aplicar));
+        }
     }
     
     /**
@@ -196,6 +312,7 @@ public class AgendadorController implements SchedulerManager.SchedulerListener {
         default void onAgendamentoSalvo(Agendamento agendamento) {}
         default void onAgendamentoAtualizado(Agendamento agendamento) {}
         default void onAgendamentoRemovido(Long id) {}
+        default void onAgendamentosRecarregados() {}
         default void onAgendamentoExecutado(Agendamento agendamento) {}
         default void onReproducaoConcluida(Agendamento agendamento) {}
         default void onErro(String mensagem) {}
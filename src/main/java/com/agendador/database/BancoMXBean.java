@@ -0,0 +1,35 @@
+package com.agendador.database;
+
+/**
+ * Estatísticas do banco de dados expostas por JMX (com.agendador:type=Banco)
+ * Tempos em milissegundos, medidos do ponto de vista de quem chama.
+ */
+public interface BancoMXBean {
+    
+    long getTotalConsultas();
+    
+    long getLeituras();
+    
+    long getLeituraP50Ms();
+    
+    long getLeituraP99Ms();
+    
+    long getLeituraMaximaMs();
+    
+    long getEscritas();
+    
+    long getEscritaP50Ms();
+    
+    long getEscritaP99Ms();
+    
+    long getEscritaMaximaMs();
+    
+    long getExecucoesNaoGravadas();
+    
+    long getAlteracoesExternas();
+    
+    /**
+     * Mesmo texto mostrado na inicialização: versão do esquema, tabelas e registros
+     */
+    String getInformacoes();
+}
@@ -0,0 +1,115 @@
+package com.agendador.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conexão com cache de comandos preparados
+ * Cada SQL é compilado uma única vez por conexão e reutilizado nas chamadas
+ * seguintes. Os comandos pertencem ao cache: quem os usa fecha apenas os
+ * ResultSets, nunca o PreparedStatement. Uma instância só pode ser usada por
+ * uma thread de cada vez.
+ */
+class ConexaoBanco {
+    
+    private static final int MAXIMO_COMANDOS = 64;
+    
+    private final Connection conexao;
+    private final Map<String, PreparedStatement> comandos;
+    private final Map<String, PreparedStatement> comandosComChaves;
+    
+    ConexaoBanco(Connection conexao) {
+        this.conexao = conexao;
+        this.comandos = criarCache();
+        this.comandosComChaves = criarCache();
+    }
+    
+    /**
+     * Cache LRU que fecha o comando descartado
+     */
+    private static Map<String, PreparedStatement> criarCache() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> maisAntigo) {
+                if (size() <= MAXIMO_COMANDOS) {
+                    return false;
+                }
+                fecharComando(maisAntigo.getValue());
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * Obtém o comando preparado para o SQL, compilando-o na primeira chamada
+     */
+    PreparedStatement preparar(String sql) throws SQLException {
+        return obter(comandos, sql, false);
+    }
+    
+    /**
+     * Obtém o comando preparado para um INSERT que devolve as chaves geradas
+     */
+    PreparedStatement prepararComChaves(String sql) throws SQLException {
+        return obter(comandosComChaves, sql, true);
+    }
+    
+    private PreparedStatement obter(Map<String, PreparedStatement> cache, String sql, boolean chaves) throws SQLException {
+        PreparedStatement comando = cache.get(sql);
+        if (comando == null || comando.isClosed()) {
+            comando = chaves
+                ? conexao.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conexao.prepareStatement(sql);
+            cache.put(sql, comando);
+        } else {
+            comando.clearParameters();
+            // Um lote interrompido por erro antes do executeBatch não pode ir junto com o próximo
+            comando.clearBatch();
+        }
+        return comando;
+    }
+    
+    /**
+     * Conexão JDBC subjacente, para comandos que não vale a pena manter em cache
+     */
+    Connection getConexao() {
+        return conexao;
+    }
+    
+    /**
+     * Quantidade de comandos mantidos em cache
+     */
+    int getTotalComandos() {
+        return comandos.size() + comandosComChaves.size();
+    }
+    
+    /**
+     * Fecha os comandos em cache e a conexão
+     */
+    void fechar() throws SQLException {
+        fecharTodos(comandos);
+        fecharTodos(comandosComChaves);
+        conexao.close();
+    }
+    
+    private static void fecharTodos(Map<String, PreparedStatement> cache) {
+        Iterator<PreparedStatement> it = cache.values().iterator();
+        while (it.hasNext()) {
+            fecharComando(it.next());
+            it.remove();
+        }
+    }
+    
+    private static void fecharComando(PreparedStatement comando) {
+        try {
+            comando.close();
+        } catch (SQLException e) {
+            System.err.println("Erro ao fechar comando preparado: " + e.getMessage());
+        }
+    }
+}
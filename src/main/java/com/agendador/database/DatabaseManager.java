@@ -2,25 +2,106 @@ package com.agendador.database;
 
 import com.agendador.model.Agendamento;
 import com.agendador.model.DiaSemana;
+import com.agendador.model.Execucao;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import com.agendador.model.ResultadoExecucao;
+import com.agendador.util.HistogramaLatencia;
+import com.agendador.util.RegistroJmx;
 
 import java.io.File;
 import java.sql.*;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Gerenciador de banco de dados SQLite para persistência
  * Implementa padrão Singleton
+ * 
+ * Escritas são serializadas em uma thread dedicada ({@link EscritorBanco});
+ * leituras usam um pool de conexões somente leitura, que em modo WAL não
+ * bloqueiam nem são bloqueadas pela escrita.
+ * 
+ * Alterações gravadas por outros processos (scripts editando o arquivo do
+ * banco) são detectadas por PRAGMA data_version e avisadas aos interessados.
+ * 
+ * O histórico de execuções é gravado sem espera: os registros entram na fila
+ * do escritor e são confirmados junto com o que mais estiver pendente.
  */
 public class DatabaseManager {
     
     private static final String DB_NAME = "agendador.db";
     private static final String DB_URL = "jdbc:sqlite:" + DB_NAME;
     private static DatabaseManager instance;
-    private Connection connection;
+    
+    // Versão do esquema gravada em PRAGMA user_version
+    private static final int VERSAO_ESQUEMA = 4;
+    private static final String CREATE_INDEX_ATIVO_DIAS = 
+        "CREATE INDEX IF NOT EXISTS idx_agendamentos_ativo_dias " +
+        "ON agendamentos(ativo, dias)";
+    
+    // Pool de conexões de leitura (-Dagendador.db.conexoesLeitura=N)
+    private static final int CONEXOES_LEITURA = Integer.getInteger("agendador.db.conexoesLeitura", 2);
+    private static final long ESPERA_CONEXAO_LEITURA_MS = 5000;
+    
+    // Intervalo entre as leituras de PRAGMA data_version (-Dagendador.db.vigiaMs=N; 0 desliga)
+    private static final long INTERVALO_VIGIA_MS = Long.getLong("agendador.db.vigiaMs", 500);
+    
+    // Dias de histórico de execuções mantidos (-Dagendador.execucoes.retencaoDias=N; 0 mantém tudo)
+    private static final int RETENCAO_EXECUCOES_DIAS = Integer.getInteger("agendador.execucoes.retencaoDias", 180);
+    
+    // Comandos de escrita, compilados uma vez por conexão (ver ConexaoBanco)
+    private static final String SQL_INSERIR_AGENDAMENTO = 
+        "INSERT INTO agendamentos (nome, caminho_audio, horario, duracao_segundos, " +
+        "dispositivo_audio, dias, ativo, observacoes, prioridade, recuperacao, tolerancia_recuperacao) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_ATUALIZAR_AGENDAMENTO = 
+        "UPDATE agendamentos " +
+        "SET nome = ?, caminho_audio = ?, horario = ?, duracao_segundos = ?, " +
+        "dispositivo_audio = ?, dias = ?, ativo = ?, observacoes = ?, prioridade = ?, " +
+        "recuperacao = ?, tolerancia_recuperacao = ?, " +
+        "updated_at = datetime('now','localtime') " +
+        "WHERE id = ?";
+    // Posição do id no UPDATE, depois dos parâmetros de preencherParametros
+    private static final int PARAMETRO_ID_ATUALIZACAO = 12;
+    private static final String SQL_REMOVER_AGENDAMENTO = "DELETE FROM agendamentos WHERE id = ?";
+    private static final String SQL_INSERIR_EXECUCAO = 
+        "INSERT INTO execucoes (agendamento_id, nome, previsto, inicio, duracao_ms, dispositivo, resultado, atraso_ms) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private final String dbUrl;
+    private Connection conexaoEscrita;
+    private ConexaoBanco conexaoEscritaBanco;
+    private EscritorBanco escritor;
+    private BlockingQueue<ConexaoBanco> conexoesLeitura;
+    
+    // Avisos de alterações externas e retenção do histórico; só a thread do escritor lê data_version
+    private volatile ScheduledExecutorService manutencao;
+    private long versaoDados;
+    private final List<Runnable> ouvintesAlteracaoExterna = new CopyOnWriteArrayList<>();
+    
+    // Estatísticas de acesso
+    private final AtomicLong totalConsultas = new AtomicLong();
+    private final AtomicLong alteracoesExternas = new AtomicLong();
+    private final AtomicLong execucoesNaoGravadas = new AtomicLong();
+    // Tempo visto por quem chama, incluindo a espera por conexão ou pela vez no escritor
+    private final HistogramaLatencia tempoLeituras = new HistogramaLatencia();
+    private final HistogramaLatencia tempoEscritas = new HistogramaLatencia();
     
     private DatabaseManager() {
         // Construtor privado para Singleton
+        this(DB_URL);
         String userHome = System.getProperty("user.home");
         String appDataDir = userHome + File.separator + ".agendador";
 
@@ -38,6 +119,13 @@ public class DatabaseManager {
         }
     }
     
+    /**
+     * Construtor para um banco em local específico (usado em testes)
+     */
+    public DatabaseManager(String dbUrl) {
+        this.dbUrl = dbUrl;
+    }
+    
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
             instance = new DatabaseManager();
@@ -48,16 +136,16 @@ public class DatabaseManager {
     /**
      * Inicializa o banco de dados e cria as tabelas necessárias
      */
-    public void initializeDatabase() throws SQLException {
+    public synchronized void initializeDatabase() throws SQLException {
         try {
             // Carregar explicitamente o driver SQLite
             Class.forName("org.sqlite.JDBC");
             
             // Criar conexão simples - sem propriedades complexas que podem causar problemas
-            connection = DriverManager.getConnection(DB_URL);
+            conexaoEscrita = DriverManager.getConnection(dbUrl);
             
             // Configurar conexão com comandos PRAGMA diretamente
-            try (Statement stmt = connection.createStatement()) {
+            try (Statement stmt = conexaoEscrita.createStatement()) {
                 stmt.execute("PRAGMA foreign_keys = ON");
                 stmt.execute("PRAGMA journal_mode = WAL");
                 stmt.execute("PRAGMA synchronous = NORMAL");
@@ -65,10 +153,16 @@ public class DatabaseManager {
                 stmt.execute("PRAGMA temp_store = memory");
             }
             
-            connection.setAutoCommit(true);
+            conexaoEscrita.setAutoCommit(true);
             
             createTables();
             
+            // A partir daqui a conexão de escrita pertence à thread do escritor
+            conexaoEscritaBanco = new ConexaoBanco(conexaoEscrita);
+            escritor = new EscritorBanco(conexaoEscritaBanco);
+            abrirConexoesLeitura();
+            iniciarManutencao();
+            
             System.out.println("Banco de dados inicializado com sucesso: " + DB_NAME);
             
         } catch (ClassNotFoundException e) {
@@ -80,14 +174,178 @@ public class DatabaseManager {
     }
     
     /**
-     * Cria as tabelas necessárias se não existirem
+     * Abre o pool de conexões somente leitura
+     */
+    private void abrirConexoesLeitura() throws SQLException {
+        conexoesLeitura = new ArrayBlockingQueue<>(CONEXOES_LEITURA);
+        for (int i = 0; i < CONEXOES_LEITURA; i++) {
+            Connection conexao = DriverManager.getConnection(dbUrl);
+            try (Statement stmt = conexao.createStatement()) {
+                stmt.execute("PRAGMA query_only = ON");
+                stmt.execute("PRAGMA cache_size = 1000");
+                stmt.execute("PRAGMA temp_store = memory");
+            }
+            conexoesLeitura.add(new ConexaoBanco(conexao));
+        }
+    }
+    
+    /**
+     * Começa a verificar periodicamente se outro processo gravou no banco
+     * e a apagar uma vez por dia o histórico além da retenção
+     */
+    private void iniciarManutencao() throws SQLException {
+        manutencao = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "agendador-db-manutencao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        if (INTERVALO_VIGIA_MS > 0) {
+            versaoDados = executarNoEscritor(conexao -> lerVersaoDados(conexao.getConexao()));
+            // Lido pelo escritor entre lotes, sem passar pela fila nem abrir transação de escrita
+            escritor.lerQuandoOcioso(this::verificarAlteracaoExterna, INTERVALO_VIGIA_MS);
+        }
+        if (RETENCAO_EXECUCOES_DIAS > 0) {
+            manutencao.scheduleWithFixedDelay(this::aplicarRetencaoExecucoes, 0, 1, TimeUnit.DAYS);
+        }
+    }
+    
+    private void aplicarRetencaoExecucoes() {
+        try {
+            int removidas = removerExecucoesAntigas(Instant.now().minus(Duration.ofDays(RETENCAO_EXECUCOES_DIAS)));
+            if (removidas > 0) {
+                System.out.println("Histórico de execuções: " + removidas + " registros com mais de " +
+                                 RETENCAO_EXECUCOES_DIAS + " dias removidos");
+            }
+        } catch (SQLException e) {
+            System.err.println("Erro ao aplicar retenção do histórico de execuções: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Compara o data_version da conexão de escrita com a última leitura
+     * O valor só muda quando outra conexão confirma uma transação: as escritas
+     * desta aplicação, feitas pela própria conexão, não contam. Ler o valor
+     * custa uma consulta a um inteiro, sem tocar nas tabelas. Roda na thread
+     * do escritor; os ouvintes são avisados na thread de manutenção, já que
+     * podem gravar no banco.
+     */
+    private Void verificarAlteracaoExterna(ConexaoBanco conexao) throws SQLException {
+        long versao = lerVersaoDados(conexao.getConexao());
+        if (versao == versaoDados) {
+            return null;
+        }
+        versaoDados = versao;
+        
+        ScheduledExecutorService executor = manutencao;
+        if (executor != null) {
+            try {
+                executor.execute(this::avisarAlteracaoExterna);
+            } catch (RejectedExecutionException e) {
+                // Banco sendo fechado
+            }
+        }
+        return null;
+    }
+    
+    private void avisarAlteracaoExterna() {
+        alteracoesExternas.incrementAndGet();
+        System.out.println("Banco de dados alterado por outro processo");
+        for (Runnable ouvinte : ouvintesAlteracaoExterna) {
+            try {
+                ouvinte.run();
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao tratar alteração externa no banco: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static long lerVersaoDados(Connection conexao) throws SQLException {
+        try (Statement stmt = conexao.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * Registra quem deve ser avisado quando outro processo gravar no banco
+     * O aviso chega na thread de manutenção, até {@code agendador.db.vigiaMs} depois da gravação.
+     */
+    public void adicionarOuvinteAlteracaoExterna(Runnable ouvinte) {
+        ouvintesAlteracaoExterna.add(ouvinte);
+    }
+    
+    public void removerOuvinteAlteracaoExterna(Runnable ouvinte) {
+        ouvintesAlteracaoExterna.remove(ouvinte);
+    }
+    
+    /**
+     * Executa uma leitura em uma conexão do pool, aguardando uma livre se necessário
+     */
+    private <T> T executarLeitura(OperacaoBanco<T> operacao) throws SQLException {
+        BlockingQueue<ConexaoBanco> pool = conexoesLeitura;
+        if (pool == null) {
+            throw new SQLException("Banco de dados não inicializado");
+        }
+        
+        long inicio = System.nanoTime();
+        ConexaoBanco conexao;
+        try {
+            conexao = pool.poll(ESPERA_CONEXAO_LEITURA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando conexão de leitura", e);
+        }
+        if (conexao == null) {
+            throw new SQLException("Tempo esgotado aguardando conexão de leitura");
+        }
+        
+        try {
+            return operacao.executar(conexao);
+        } finally {
+            pool.offer(conexao);
+            tempoLeituras.registrar(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+    }
+    
+    /**
+     * Executa uma escrita na thread do escritor e aguarda a confirmação, medindo o tempo total
+     */
+    private <T> T executarEscrita(OperacaoBanco<T> operacao) throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            return executarNoEscritor(operacao);
+        } finally {
+            tempoEscritas.registrar(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        }
+    }
+    
+    /**
+     * Executa na thread do escritor sem entrar nas estatísticas
+     */
+    private <T> T executarNoEscritor(OperacaoBanco<T> operacao) throws SQLException {
+        EscritorBanco escritorAtual = escritor;
+        if (escritorAtual == null) {
+            throw new SQLException("Banco de dados não inicializado");
+        }
+        return escritorAtual.executar(operacao);
+    }
+    
+    /**
+     * Cria as tabelas necessárias se não existirem ou migra um banco existente
+     * para a versão atual do esquema
      */
     private void createTables() throws SQLException {
         // Ativar chaves estrangeiras
-        try (Statement stmt = connection.createStatement()) {
+        try (Statement stmt = conexaoEscrita.createStatement()) {
             stmt.execute("PRAGMA foreign_keys = ON");
         }
         
+        if (tabelaExiste(conexaoEscrita, "agendamentos")) {
+            migrarEsquema(lerVersaoEsquema(conexaoEscrita));
+            return;
+        }
+        
         String createAgendamentosTable = 
             "CREATE TABLE IF NOT EXISTS agendamentos (" +
             "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
@@ -96,35 +354,27 @@ public class DatabaseManager {
             "    horario TEXT NOT NULL," +
             "    duracao_segundos INTEGER NOT NULL," +
             "    dispositivo_audio TEXT," +
+            "    dias INTEGER NOT NULL DEFAULT 0," +
             "    ativo INTEGER NOT NULL DEFAULT 1," +
             "    observacoes TEXT," +
+            "    prioridade INTEGER NOT NULL DEFAULT " + Prioridade.NORMAL.getValor() + "," +
+            "    recuperacao INTEGER NOT NULL DEFAULT " + RecuperacaoDisparo.DISPARAR_SE_RECENTE.getValor() + "," +
+            "    tolerancia_recuperacao INTEGER NOT NULL DEFAULT " + Agendamento.TOLERANCIA_RECUPERACAO_PADRAO + "," +
             "    created_at TEXT DEFAULT (datetime('now','localtime'))," +
             "    updated_at TEXT DEFAULT (datetime('now','localtime'))" +
             ")";
         
-        String createDiasSemanaTable = 
-            "CREATE TABLE IF NOT EXISTS agendamento_dias (" +
-            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
-            "    agendamento_id INTEGER NOT NULL," +
-            "    dia_semana INTEGER NOT NULL," +
-            "    FOREIGN KEY (agendamento_id) REFERENCES agendamentos(id) ON DELETE CASCADE," +
-            "    UNIQUE(agendamento_id, dia_semana)" +
-            ")";
-        
         // Criar índices para performance
         String createIndexAgendamentoHorario = 
             "CREATE INDEX IF NOT EXISTS idx_agendamentos_horario " +
             "ON agendamentos(horario)";
-            
-        String createIndexAgendamentoAtivo = 
-            "CREATE INDEX IF NOT EXISTS idx_agendamentos_ativo " +
-            "ON agendamentos(ativo)";
         
-        try (Statement stmt = connection.createStatement()) {
+        try (Statement stmt = conexaoEscrita.createStatement()) {
             stmt.execute(createAgendamentosTable);
-            stmt.execute(createDiasSemanaTable);
             stmt.execute(createIndexAgendamentoHorario);
-            stmt.execute(createIndexAgendamentoAtivo);
+            stmt.execute(CREATE_INDEX_ATIVO_DIAS);
+            criarTabelaExecucoes(stmt);
+            stmt.execute("PRAGMA user_version = " + VERSAO_ESQUEMA);
             
             System.out.println("Tabelas criadas com sucesso");
         } catch (SQLException e) {
@@ -134,50 +384,161 @@ public class DatabaseManager {
     }
     
     /**
-     * Salva um novo agendamento no banco de dados
+     * Aplica em uma transação as migrações pendentes a partir da versão informada
+     * A versão do esquema é mantida em PRAGMA user_version.
      */
-    public Long salvarAgendamento(Agendamento agendamento) throws SQLException {
-        // Inserir o agendamento
-        String sql = 
-            "INSERT INTO agendamentos (nome, caminho_audio, horario, duracao_segundos, " +
-            "dispositivo_audio, ativo, observacoes) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private void migrarEsquema(int versaoAtual) throws SQLException {
+        if (versaoAtual >= VERSAO_ESQUEMA) {
+            return;
+        }
         
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, agendamento.getNome());
-            pstmt.setString(2, agendamento.getCaminhoAudio());
-            pstmt.setString(3, agendamento.getHorario().toString());
-            pstmt.setInt(4, agendamento.getDuracaoSegundos());
-            pstmt.setString(5, agendamento.getDispositivoAudio());
-            pstmt.setInt(6, agendamento.isAtivo() ? 1 : 0);
-            pstmt.setString(7, agendamento.getObservacoes());
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Falha ao criar agendamento, nenhuma linha afetada.");
+        System.out.println("Migrando esquema do banco de dados: versão " + versaoAtual + " -> " + VERSAO_ESQUEMA);
+        conexaoEscrita.setAutoCommit(false);
+        try (Statement stmt = conexaoEscrita.createStatement()) {
+            if (versaoAtual < 1) {
+                migrarParaDiasEmMascara(stmt);
+            }
+            if (versaoAtual < 2) {
+                migrarParaPrioridade(stmt);
             }
+            if (versaoAtual < 3) {
+                migrarParaRecuperacao(stmt);
+            }
+            if (versaoAtual < 4) {
+                criarTabelaExecucoes(stmt);
+            }
+            
+            stmt.execute("PRAGMA user_version = " + VERSAO_ESQUEMA);
+            conexaoEscrita.commit();
+            System.out.println("Migração do esquema concluída");
+        } catch (SQLException e) {
+            conexaoEscrita.rollback();
+            System.err.println("Erro ao migrar esquema: " + e.getMessage());
+            throw e;
+        } finally {
+            conexaoEscrita.setAutoCommit(true);
         }
+    }
+    
+    /**
+     * Versão 1: dias da semana deixam a tabela agendamento_dias e passam
+     * a ser uma máscara de 7 bits na coluna agendamentos.dias
+     */
+    private void migrarParaDiasEmMascara(Statement stmt) throws SQLException {
+        stmt.execute("ALTER TABLE agendamentos ADD COLUMN dias INTEGER NOT NULL DEFAULT 0");
         
-        // Obter o ID gerado usando last_insert_rowid()
-        Long id = null;
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
-            
-            if (rs.next()) {
-                id = rs.getLong(1);
-                agendamento.setId(id);
-                
-                // Salvar dias da semana
-                salvarDiasSemana(id, agendamento.getDiasSemana());
-                
+        if (tabelaExiste(conexaoEscrita, "agendamento_dias")) {
+            stmt.execute(
+                "UPDATE agendamentos SET dias = COALESCE(" +
+                "    (SELECT SUM(1 << (d.dia_semana - 1)) FROM agendamento_dias d " +
+                "     WHERE d.agendamento_id = agendamentos.id), 0)");
+            stmt.execute("DROP TABLE agendamento_dias");
+        }
+        
+        stmt.execute("DROP INDEX IF EXISTS idx_agendamentos_ativo");
+        stmt.execute(CREATE_INDEX_ATIVO_DIAS);
+    }
+    
+    /**
+     * Versão 2: prioridade do agendamento; os existentes ficam com prioridade normal
+     */
+    private void migrarParaPrioridade(Statement stmt) throws SQLException {
+        stmt.execute("ALTER TABLE agendamentos ADD COLUMN prioridade INTEGER NOT NULL DEFAULT " +
+                     Prioridade.NORMAL.getValor());
+    }
+    
+    /**
+     * Versão 3: o que fazer com disparos perdidos; os existentes tocam se o
+     * atraso estiver dentro da tolerância padrão
+     */
+    private void migrarParaRecuperacao(Statement stmt) throws SQLException {
+        stmt.execute("ALTER TABLE agendamentos ADD COLUMN recuperacao INTEGER NOT NULL DEFAULT " +
+                     RecuperacaoDisparo.DISPARAR_SE_RECENTE.getValor());
+        stmt.execute("ALTER TABLE agendamentos ADD COLUMN tolerancia_recuperacao INTEGER NOT NULL DEFAULT " +
+                     Agendamento.TOLERANCIA_RECUPERACAO_PADRAO);
+    }
+    
+    /**
+     * Versão 4: histórico de execuções, sem chave estrangeira para sobreviver à
+     * remoção do agendamento, indexado por instante previsto e por agendamento
+     */
+    private void criarTabelaExecucoes(Statement stmt) throws SQLException {
+        stmt.execute(
+            "CREATE TABLE IF NOT EXISTS execucoes (" +
+            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "    agendamento_id INTEGER," +
+            "    nome TEXT NOT NULL," +
+            "    previsto INTEGER NOT NULL," +
+            "    inicio INTEGER," +
+            "    duracao_ms INTEGER NOT NULL DEFAULT 0," +
+            "    dispositivo TEXT," +
+            "    resultado INTEGER NOT NULL," +
+            "    atraso_ms INTEGER" +
+            ")");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_execucoes_previsto ON execucoes(previsto)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_execucoes_agendamento ON execucoes(agendamento_id, previsto)");
+    }
+    
+    /**
+     * Lê a versão do esquema gravada no banco
+     */
+    private int lerVersaoEsquema(Connection conexao) throws SQLException {
+        try (Statement stmt = conexao.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    /**
+     * Verifica se uma tabela existe no banco
+     */
+    private boolean tabelaExiste(Connection conexao, String nome) throws SQLException {
+        String sql = "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?";
+        
+        try (PreparedStatement pstmt = conexao.prepareStatement(sql)) {
+            pstmt.setString(1, nome);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    
+    /**
+     * Salva um novo agendamento no banco de dados
+     */
+    public Long salvarAgendamento(Agendamento agendamento) throws SQLException {
+        return executarEscrita(conexao -> {
+            try {
+                Long id = inserirAgendamento(conexao, agendamento);
                 System.out.println("Agendamento salvo com sucesso: " + agendamento.getNome() + " (ID: " + id + ")");
                 return id;
-            } else {
+            } catch (SQLException e) {
+                System.err.println("Erro ao salvar agendamento: " + e.getMessage());
+                throw e;
+            }
+        });
+    }
+    
+    /**
+     * Insere o agendamento e obtém o ID gerado no mesmo comando
+     */
+    private Long inserirAgendamento(ConexaoBanco conexao, Agendamento agendamento) throws SQLException {
+        PreparedStatement pstmt = conexao.prepararComChaves(SQL_INSERIR_AGENDAMENTO);
+        preencherParametros(pstmt, agendamento);
+        
+        int affectedRows = pstmt.executeUpdate();
+        totalConsultas.incrementAndGet();
+        if (affectedRows == 0) {
+            throw new SQLException("Falha ao criar agendamento, nenhuma linha afetada.");
+        }
+        
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            if (!rs.next()) {
                 throw new SQLException("Falha ao obter ID do agendamento criado.");
             }
-        } catch (SQLException e) {
-            System.err.println("Erro ao salvar agendamento: " + e.getMessage());
-            throw e;
+            Long id = rs.getLong(1);
+            agendamento.setId(id);
+            return id;
         }
     }
     
@@ -185,137 +546,188 @@ public class DatabaseManager {
      * Atualiza um agendamento existente
      */
     public void atualizarAgendamento(Agendamento agendamento) throws SQLException {
-        String sql = 
-            "UPDATE agendamentos " +
-            "SET nome = ?, caminho_audio = ?, horario = ?, duracao_segundos = ?, " +
-            "dispositivo_audio = ?, ativo = ?, observacoes = ?, updated_at = datetime('now','localtime') " +
-            "WHERE id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, agendamento.getNome());
-            pstmt.setString(2, agendamento.getCaminhoAudio());
-            pstmt.setString(3, agendamento.getHorario().toString());
-            pstmt.setInt(4, agendamento.getDuracaoSegundos());
-            pstmt.setString(5, agendamento.getDispositivoAudio());
-            pstmt.setInt(6, agendamento.isAtivo() ? 1 : 0); // SQLite usa INTEGER para boolean
-            pstmt.setString(7, agendamento.getObservacoes());
-            pstmt.setLong(8, agendamento.getId());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new SQLException("Agendamento não encontrado para atualização: ID " + agendamento.getId());
+        executarEscrita(conexao -> {
+            try {
+                PreparedStatement pstmt = conexao.preparar(SQL_ATUALIZAR_AGENDAMENTO);
+                preencherParametros(pstmt, agendamento);
+                pstmt.setLong(PARAMETRO_ID_ATUALIZACAO, agendamento.getId());
+                
+                int rowsAffected = pstmt.executeUpdate();
+                totalConsultas.incrementAndGet();
+                if (rowsAffected == 0) {
+                    throw new SQLException("Agendamento não encontrado para atualização: ID " + agendamento.getId());
+                }
+                
+                System.out.println("Agendamento atualizado com sucesso: " + agendamento.getNome());
+            } catch (SQLException e) {
+                System.err.println("Erro ao atualizar agendamento: " + e.getMessage());
+                throw e;
             }
-            
-            // Atualizar dias da semana
-            removerDiasSemana(agendamento.getId());
-            salvarDiasSemana(agendamento.getId(), agendamento.getDiasSemana());
-            
-            System.out.println("Agendamento atualizado com sucesso: " + agendamento.getNome());
-        } catch (SQLException e) {
-            System.err.println("Erro ao atualizar agendamento: " + e.getMessage());
-            throw e;
-        }
+            return null;
+        });
+    }
+    
+    /**
+     * Preenche os parâmetros comuns a INSERT e UPDATE, na ordem das colunas
+     */
+    private void preencherParametros(PreparedStatement pstmt, Agendamento agendamento) throws SQLException {
+        pstmt.setString(1, agendamento.getNome());
+        pstmt.setString(2, agendamento.getCaminhoAudio());
+        pstmt.setString(3, agendamento.getHorario().toString());
+        pstmt.setInt(4, agendamento.getDuracaoSegundos());
+        pstmt.setString(5, agendamento.getDispositivoAudio());
+        pstmt.setInt(6, agendamento.getMascaraDias());
+        pstmt.setInt(7, agendamento.isAtivo() ? 1 : 0); // SQLite usa INTEGER para boolean
+        pstmt.setString(8, agendamento.getObservacoes());
+        pstmt.setInt(9, agendamento.getPrioridade().getValor());
+        pstmt.setInt(10, agendamento.getRecuperacao().getValor());
+        pstmt.setInt(11, agendamento.getToleranciaRecuperacaoSegundos());
     }
     
     /**
      * Remove um agendamento do banco de dados
      */
     public void removerAgendamento(Long id) throws SQLException {
-        String sql = "DELETE FROM agendamentos WHERE id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        executarEscrita(conexao -> {
+            PreparedStatement pstmt = conexao.preparar(SQL_REMOVER_AGENDAMENTO);
             pstmt.setLong(1, id);
             pstmt.executeUpdate();
-        }
+            totalConsultas.incrementAndGet();
+            return null;
+        });
     }
     
     /**
-     * Busca todos os agendamentos
+     * Aplica criações, atualizações e remoções em uma única transação
+     * Atualizações e remoções são enviadas em lote (executeBatch); se qualquer
+     * operação falhar, nada é gravado e os IDs das criações voltam a null.
      */
-    public List<Agendamento> buscarTodosAgendamentos() throws SQLException {
-        String sql = "SELECT * FROM agendamentos ORDER BY horario";
-        List<Agendamento> agendamentos = new ArrayList<>();
+    public void aplicarLote(LoteAgendamentos lote) throws SQLException {
+        if (lote.isVazio()) {
+            return;
+        }
         
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Agendamento agendamento = criarAgendamentoFromResultSet(rs);
-                agendamento.setDiasSemana(buscarDiasSemana(agendamento.getId()));
-                agendamentos.add(agendamento);
+        try {
+            executarEscrita(conexao -> {
+                for (Agendamento agendamento : lote.getCriacoes()) {
+                    inserirAgendamento(conexao, agendamento);
+                }
+                
+                if (!lote.getAtualizacoes().isEmpty()) {
+                    PreparedStatement pstmt = conexao.preparar(SQL_ATUALIZAR_AGENDAMENTO);
+                    for (Agendamento agendamento : lote.getAtualizacoes()) {
+                        preencherParametros(pstmt, agendamento);
+                        pstmt.setLong(PARAMETRO_ID_ATUALIZACAO, agendamento.getId());
+                        pstmt.addBatch();
+                    }
+                    verificarLote(pstmt.executeBatch(), lote.getAtualizacoes().size(), "atualização");
+                }
+                
+                if (!lote.getRemocoes().isEmpty()) {
+                    PreparedStatement pstmt = conexao.preparar(SQL_REMOVER_AGENDAMENTO);
+                    for (Long id : lote.getRemocoes()) {
+                        pstmt.setLong(1, id);
+                        pstmt.addBatch();
+                    }
+                    verificarLote(pstmt.executeBatch(), lote.getRemocoes().size(), "remoção");
+                }
+                return null;
+            });
+            System.out.println("Lote aplicado com sucesso: " + lote.getCriacoes().size() + " criados, " +
+                lote.getAtualizacoes().size() + " atualizados, " + lote.getRemocoes().size() + " removidos");
+        } catch (SQLException e) {
+            for (Agendamento agendamento : lote.getCriacoes()) {
+                agendamento.setId(null);
             }
+            System.err.println("Erro ao aplicar lote de agendamentos: " + e.getMessage());
+            throw e;
         }
-        
-        return agendamentos;
     }
     
     /**
-     * Busca agendamentos ativos
+     * Confere se cada atualização ou remoção do lote encontrou o seu agendamento
      */
-    public List<Agendamento> buscarAgendamentosAtivos() throws SQLException {
-        String sql = "SELECT * FROM agendamentos WHERE ativo = 1 ORDER BY horario";
-        List<Agendamento> agendamentos = new ArrayList<>();
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                Agendamento agendamento = criarAgendamentoFromResultSet(rs);
-                agendamento.setDiasSemana(buscarDiasSemana(agendamento.getId()));
-                agendamentos.add(agendamento);
+    private void verificarLote(int[] resultados, int esperado, String operacao) throws SQLException {
+        totalConsultas.incrementAndGet();
+        if (resultados.length != esperado) {
+            throw new SQLException("Lote incompleto: " + resultados.length + " de " + esperado + " (" + operacao + ")");
+        }
+        for (int resultado : resultados) {
+            if (resultado == 0) {
+                throw new SQLException("Agendamento não encontrado para " + operacao + " em lote");
             }
         }
-        
-        return agendamentos;
     }
     
     /**
-     * Salva os dias da semana de um agendamento
+     * Busca todos os agendamentos
      */
-    private void salvarDiasSemana(Long agendamentoId, Set<DiaSemana> diasSemana) throws SQLException {
-        String sql = "INSERT INTO agendamento_dias (agendamento_id, dia_semana) VALUES (?, ?)";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            for (DiaSemana dia : diasSemana) {
-                pstmt.setLong(1, agendamentoId);
-                pstmt.setInt(2, dia.getValor());
-                pstmt.addBatch();
-            }
-            pstmt.executeBatch();
-        }
+    public List<Agendamento> buscarTodosAgendamentos() throws SQLException {
+        return buscarAgendamentos(false);
     }
     
     /**
-     * Remove os dias da semana de um agendamento
+     * Busca agendamentos ativos
      */
-    private void removerDiasSemana(Long agendamentoId) throws SQLException {
-        String sql = "DELETE FROM agendamento_dias WHERE agendamento_id = ?";
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, agendamentoId);
-            pstmt.executeUpdate();
-        }
+    public List<Agendamento> buscarAgendamentosAtivos() throws SQLException {
+        return buscarAgendamentos(true);
     }
     
     /**
-     * Busca os dias da semana de um agendamento
+     * Busca agendamentos ativos em um dia da semana
+     * O filtro usa a máscara de dias sobre o índice (ativo, dias).
      */
-    private Set<DiaSemana> buscarDiasSemana(Long agendamentoId) throws SQLException {
-        String sql = "SELECT dia_semana FROM agendamento_dias WHERE agendamento_id = ?";
-        Set<DiaSemana> diasSemana = new HashSet<>();
-        
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setLong(1, agendamentoId);
-            
+    public List<Agendamento> buscarAgendamentosAtivosNoDia(DiaSemana dia) throws SQLException {
+        return executarLeitura(conexao -> {
+            PreparedStatement pstmt = conexao.preparar(
+                "SELECT * FROM agendamentos WHERE ativo = 1 AND (dias & ?) != 0 ORDER BY horario");
+            pstmt.setInt(1, dia.getMascara());
+            return lerAgendamentos(pstmt);
+        });
+    }
+    
+    /**
+     * Carrega agendamentos em uma única consulta
+     * Os dias da semana vêm da máscara na própria linha do agendamento.
+     */
+    private List<Agendamento> buscarAgendamentos(boolean somenteAtivos) throws SQLException {
+        return executarLeitura(conexao -> lerAgendamentos(conexao.preparar(
+            "SELECT * FROM agendamentos " +
+            (somenteAtivos ? "WHERE ativo = 1 " : "") +
+            "ORDER BY horario")));
+    }
+    
+    /**
+     * Percorre todos os agendamentos com um cursor, sem carregá-los em memória
+     * Cada linha é convertida e entregue ao consumidor antes da leitura da próxima.
+     */
+    public void percorrerAgendamentos(Consumer<Agendamento> consumidor) throws SQLException {
+        executarLeitura(conexao -> {
+            PreparedStatement pstmt = conexao.preparar("SELECT * FROM agendamentos ORDER BY horario, id");
             try (ResultSet rs = pstmt.executeQuery()) {
+                totalConsultas.incrementAndGet();
                 while (rs.next()) {
-                    int diaValor = rs.getInt("dia_semana");
-                    diasSemana.add(DiaSemana.fromValor(diaValor));
+                    consumidor.accept(criarAgendamentoFromResultSet(rs));
                 }
             }
+            return null;
+        });
+    }
+    
+    /**
+     * Executa uma consulta de agendamentos e converte todas as linhas
+     */
+    private List<Agendamento> lerAgendamentos(PreparedStatement pstmt) throws SQLException {
+        List<Agendamento> agendamentos = new ArrayList<>();
+        
+        try (ResultSet rs = pstmt.executeQuery()) {
+            totalConsultas.incrementAndGet();
+            while (rs.next()) {
+                agendamentos.add(criarAgendamentoFromResultSet(rs));
+            }
         }
         
-        return diasSemana;
+        return agendamentos;
     }
     
     /**
@@ -329,25 +741,140 @@ public class DatabaseManager {
         agendamento.setHorario(LocalTime.parse(rs.getString("horario")));
         agendamento.setDuracaoSegundos(rs.getInt("duracao_segundos"));
         agendamento.setDispositivoAudio(rs.getString("dispositivo_audio"));
+        agendamento.setDiasSemana(DiaSemana.deMascara(rs.getInt("dias")));
         agendamento.setAtivo(rs.getInt("ativo") == 1); // Converter INTEGER para boolean
         agendamento.setObservacoes(rs.getString("observacoes"));
+        agendamento.setPrioridade(Prioridade.fromValor(rs.getInt("prioridade")));
+        agendamento.setRecuperacao(RecuperacaoDisparo.fromValor(rs.getInt("recuperacao")));
+        agendamento.setToleranciaRecuperacaoSegundos(rs.getInt("tolerancia_recuperacao"));
         return agendamento;
     }
     
+    /**
+     * Registra uma execução no histórico sem aguardar a gravação
+     * Quem toca os sinais nunca espera pelo disco: o registro entra na fila do
+     * escritor e é confirmado na próxima transação, junto com os demais pendentes.
+     */
+    public void registrarExecucao(Execucao execucao) {
+        EscritorBanco escritorAtual = escritor;
+        if (escritorAtual == null) {
+            execucoesNaoGravadas.incrementAndGet();
+            return;
+        }
+        
+        escritorAtual.enfileirar(conexao -> {
+            PreparedStatement pstmt = conexao.preparar(SQL_INSERIR_EXECUCAO);
+            if (execucao.getAgendamentoId() != null) {
+                pstmt.setLong(1, execucao.getAgendamentoId());
+            } else {
+                pstmt.setNull(1, Types.INTEGER);
+            }
+            pstmt.setString(2, execucao.getNome());
+            pstmt.setLong(3, execucao.getPrevistoMs());
+            if (execucao.getInicioMs() != null) {
+                pstmt.setLong(4, execucao.getInicioMs());
+                pstmt.setLong(8, execucao.getAtrasoMs());
+            } else {
+                pstmt.setNull(4, Types.INTEGER);
+                pstmt.setNull(8, Types.INTEGER);
+            }
+            pstmt.setLong(5, execucao.getDuracaoMs());
+            pstmt.setString(6, execucao.getDispositivo());
+            pstmt.setInt(7, execucao.getResultado().getValor());
+            pstmt.executeUpdate();
+            totalConsultas.incrementAndGet();
+            return null;
+        }).whenComplete((resultado, erro) -> {
+            if (erro != null) {
+                execucoesNaoGravadas.incrementAndGet();
+                System.err.println("Erro ao registrar execução de " + execucao.getNome() + ": " + erro.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * Busca as execuções previstas no intervalo [inicio, fim), em ordem de instante previsto
+     */
+    public List<Execucao> buscarExecucoes(Instant inicio, Instant fim) throws SQLException {
+        return executarLeitura(conexao -> {
+            PreparedStatement pstmt = conexao.preparar(
+                "SELECT * FROM execucoes WHERE previsto >= ? AND previsto < ? ORDER BY previsto, id");
+            pstmt.setLong(1, inicio.toEpochMilli());
+            pstmt.setLong(2, fim.toEpochMilli());
+            return lerExecucoes(pstmt);
+        });
+    }
+    
+    /**
+     * Busca as execuções de um agendamento previstas no intervalo [inicio, fim)
+     */
+    public List<Execucao> buscarExecucoesDoAgendamento(Long agendamentoId, Instant inicio, Instant fim) throws SQLException {
+        return executarLeitura(conexao -> {
+            PreparedStatement pstmt = conexao.preparar(
+                "SELECT * FROM execucoes WHERE agendamento_id = ? AND previsto >= ? AND previsto < ? " +
+                "ORDER BY previsto, id");
+            pstmt.setLong(1, agendamentoId);
+            pstmt.setLong(2, inicio.toEpochMilli());
+            pstmt.setLong(3, fim.toEpochMilli());
+            return lerExecucoes(pstmt);
+        });
+    }
+    
+    /**
+     * Remove as execuções previstas antes do limite
+     * @return quantidade de registros removidos
+     */
+    public int removerExecucoesAntigas(Instant limite) throws SQLException {
+        return executarEscrita(conexao -> {
+            PreparedStatement pstmt = conexao.preparar("DELETE FROM execucoes WHERE previsto < ?");
+            pstmt.setLong(1, limite.toEpochMilli());
+            int removidas = pstmt.executeUpdate();
+            totalConsultas.incrementAndGet();
+            return removidas;
+        });
+    }
+    
+    /**
+     * Aguarda a confirmação de tudo o que já está na fila do escritor (usado em testes)
+     */
+    void aguardarEscritasPendentes() throws SQLException {
+        executarEscrita(conexao -> null);
+    }
+    
+    private List<Execucao> lerExecucoes(PreparedStatement pstmt) throws SQLException {
+        List<Execucao> execucoes = new ArrayList<>();
+        
+        try (ResultSet rs = pstmt.executeQuery()) {
+            totalConsultas.incrementAndGet();
+            while (rs.next()) {
+                long agendamentoId = rs.getLong("agendamento_id");
+                Long idAgendamento = rs.wasNull() ? null : agendamentoId;
+                long inicio = rs.getLong("inicio");
+                Long inicioMs = rs.wasNull() ? null : inicio;
+                execucoes.add(new Execucao(rs.getLong("id"), idAgendamento, rs.getString("nome"),
+                    rs.getLong("previsto"), inicioMs, rs.getLong("duracao_ms"), rs.getString("dispositivo"),
+                    ResultadoExecucao.fromValor(rs.getInt("resultado"))));
+            }
+        }
+        
+        return execucoes;
+    }
+    
     /**
      * Testa a conexão com o banco de dados
      */
     public boolean testarConexao() {
         try {
-            if (connection == null || connection.isClosed()) {
+            if (!isConexaoAtiva()) {
                 initializeDatabase();
             }
             
             // Teste simples de query
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery("SELECT 1")) {
-                return rs.next();
-            }
+            return executarLeitura(conexao -> {
+                try (ResultSet rs = conexao.preparar("SELECT 1").executeQuery()) {
+                    return rs.next();
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Erro ao testar conexão: " + e.getMessage());
             return false;
@@ -359,7 +886,7 @@ public class DatabaseManager {
      */
     public boolean isConexaoAtiva() {
         try {
-            return connection != null && !connection.isClosed();
+            return conexaoEscrita != null && !conexaoEscrita.isClosed();
         } catch (SQLException e) {
             return false;
         }
@@ -369,59 +896,133 @@ public class DatabaseManager {
      * Verifica se as tabelas principais existem
      */
     public boolean verificarTabelas() throws SQLException {
-        String sql = "SELECT name FROM sqlite_master WHERE type='table' AND name IN ('agendamentos', 'agendamento_dias')";
-        
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            int count = 0;
-            while (rs.next()) {
-                count++;
-            }
-            return count == 2; // Devem existir as duas tabelas
-        }
+        return executarLeitura(conexao -> tabelaExiste(conexao.getConexao(), "agendamentos"));
     }
     
     /**
      * Obtém informações do banco de dados
+     * Executado na conexão de escrita, que é a que tem as configurações PRAGMA completas.
      */
     public String obterInformacoesBanco() throws SQLException {
-        StringBuilder info = new StringBuilder();
-        
-        // Versão do SQLite
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT sqlite_version()")) {
-            if (rs.next()) {
-                info.append("SQLite Version: ").append(rs.getString(1)).append("\n");
+        return executarEscrita(conexao -> {
+            StringBuilder info = new StringBuilder();
+            
+            // Versão do SQLite
+            try (Statement stmt = conexao.getConexao().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT sqlite_version()")) {
+                if (rs.next()) {
+                    info.append("SQLite Version: ").append(rs.getString(1)).append("\n");
+                }
             }
-        }
-        
-        // Contar agendamentos
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM agendamentos")) {
-            if (rs.next()) {
-                info.append("Total de agendamentos: ").append(rs.getInt(1)).append("\n");
+            
+            info.append("Versão do esquema: ").append(lerVersaoEsquema(conexao.getConexao())).append("\n");
+            
+            // Contar agendamentos
+            try (Statement stmt = conexao.getConexao().createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM agendamentos")) {
+                if (rs.next()) {
+                    info.append("Total de agendamentos: ").append(rs.getInt(1)).append("\n");
+                }
             }
-        }
-        
-        // Verificar PRAGMA settings
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("PRAGMA foreign_keys")) {
-            if (rs.next()) {
-                info.append("Foreign Keys: ").append(rs.getInt(1) == 1 ? "ON" : "OFF").append("\n");
+            
+            // Verificar PRAGMA settings
+            try (Statement stmt = conexao.getConexao().createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA foreign_keys")) {
+                if (rs.next()) {
+                    info.append("Foreign Keys: ").append(rs.getInt(1) == 1 ? "ON" : "OFF").append("\n");
+                }
             }
-        }
-        
-        return info.toString();
+            
+            try (Statement stmt = conexao.getConexao().createStatement();
+                 ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                if (rs.next()) {
+                    info.append("Journal Mode: ").append(rs.getString(1)).append("\n");
+                }
+            }
+            
+            info.append("Conexões de leitura: ").append(CONEXOES_LEITURA).append("\n");
+            info.append("Alterações externas detectadas: ").append(alteracoesExternas.get()).append("\n");
+            
+            return info.toString();
+        });
+    }
+    
+    /**
+     * Obtém o número de comandos SQL executados desde a inicialização
+     */
+    public long getTotalConsultas() {
+        return totalConsultas.get();
+    }
+    
+    /**
+     * Obtém quantos registros do histórico de execuções não puderam ser gravados
+     */
+    public long getExecucoesNaoGravadas() {
+        return execucoesNaoGravadas.get();
+    }
+    
+    /**
+     * Obtém quantas vezes outro processo alterou o banco desde a inicialização
+     */
+    public long getAlteracoesExternas() {
+        return alteracoesExternas.get();
+    }
+    
+    /**
+     * Tempo das leituras, incluindo a espera por uma conexão livre
+     */
+    public HistogramaLatencia getTempoLeituras() {
+        return tempoLeituras;
+    }
+    
+    /**
+     * Tempo das escritas, incluindo a espera pela vez na thread do escritor
+     */
+    public HistogramaLatencia getTempoEscritas() {
+        return tempoEscritas;
+    }
+    
+    /**
+     * Publica as estatísticas do banco como MBean (com.agendador:type=Banco)
+     */
+    public void registrarMonitoramento() {
+        RegistroJmx.registrar(MonitorBanco.TIPO, new MonitorBanco(this));
     }
     
     /**
      * Fecha a conexão com o banco de dados
+     * As escritas pendentes são confirmadas antes do fechamento.
      */
-    public void fecharConexao() {
+    public synchronized void fecharConexao() {
+        if (manutencao != null) {
+            manutencao.shutdownNow();
+            manutencao = null;
+        }
+        
+        if (escritor != null) {
+            escritor.encerrar();
+            escritor = null;
+        }
+        
+        if (conexoesLeitura != null) {
+            ConexaoBanco conexao;
+            while ((conexao = conexoesLeitura.poll()) != null) {
+                try {
+                    conexao.fechar();
+                } catch (SQLException e) {
+                    System.err.println("Erro ao fechar conexão de leitura: " + e.getMessage());
+                }
+            }
+            conexoesLeitura = null;
+        }
+        
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (conexaoEscrita != null && !conexaoEscrita.isClosed()) {
+                if (conexaoEscritaBanco != null) {
+                    conexaoEscritaBanco.fechar();
+                } else {
+                    conexaoEscrita.close();
+                }
                 System.out.println("Conexão com banco de dados fechada");
             }
         } catch (SQLException e) {
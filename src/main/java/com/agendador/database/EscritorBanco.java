@@ -0,0 +1,242 @@
+package com.agendador.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread única de escrita no banco de dados
+ * Todas as escritas passam por uma conexão dedicada, em ordem de chegada. As
+ * operações pendentes são agrupadas em uma única transação, com um savepoint por
+ * operação para que a falha de uma não desfaça as demais.
+ */
+class EscritorBanco {
+    
+    private static final int MAXIMO_POR_TRANSACAO = 256;
+    
+    private final ConexaoBanco conexaoBanco;
+    private final Connection conexao;
+    private final BlockingQueue<Tarefa<?>> fila = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean ativo = true;
+    
+    // Leitura periódica entre lotes, fora das transações de escrita (ex.: PRAGMA data_version)
+    private volatile OperacaoBanco<?> leituraOciosa;
+    private volatile long intervaloLeituraOciosaNs;
+    private long proximaLeituraOciosaNs;
+    
+    EscritorBanco(ConexaoBanco conexaoBanco) throws SQLException {
+        this.conexaoBanco = conexaoBanco;
+        this.conexao = conexaoBanco.getConexao();
+        this.conexao.setAutoCommit(false);
+        this.thread = new Thread(this::processarFila, "agendador-db-escritor");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+    
+    /**
+     * Enfileira uma operação de escrita sem aguardar sua conclusão
+     */
+    <T> CompletableFuture<T> enfileirar(OperacaoBanco<T> operacao) {
+        Tarefa<T> tarefa = new Tarefa<>(operacao);
+        if (!ativo) {
+            tarefa.resultado.completeExceptionally(new SQLException("Escritor do banco de dados encerrado"));
+            return tarefa.resultado;
+        }
+        
+        fila.add(tarefa);
+        return tarefa.resultado;
+    }
+    
+    /**
+     * Executa uma operação de escrita e aguarda até que ela esteja confirmada no banco
+     */
+    <T> T executar(OperacaoBanco<T> operacao) throws SQLException {
+        // Operações aninhadas já estão dentro da transação corrente
+        if (Thread.currentThread() == thread) {
+            return operacao.executar(conexaoBanco);
+        }
+        
+        try {
+            return enfileirar(operacao).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando escrita no banco de dados", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof SQLException) {
+                throw (SQLException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new SQLException("Erro na escrita no banco de dados: " + causa.getMessage(), causa);
+        }
+    }
+    
+    /**
+     * Executa a leitura a cada intervalo na thread de escrita, entre um lote e outro
+     * A leitura não entra na fila nem em transação de escrita, e nada é confirmado:
+     * serve para consultas que precisam da conexão de escrita sem competir com as escritas.
+     */
+    void lerQuandoOcioso(OperacaoBanco<?> leitura, long intervaloMs) {
+        intervaloLeituraOciosaNs = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        leituraOciosa = leitura;
+    }
+    
+    /**
+     * Laço da thread de escrita: agrupa o que estiver pendente e confirma de uma vez
+     */
+    private void processarFila() {
+        List<Tarefa<?>> lote = new ArrayList<>();
+        
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Tarefa<?> primeira = fila.poll(esperaFilaNs(), TimeUnit.NANOSECONDS);
+                if (primeira != null) {
+                    lote.add(primeira);
+                    fila.drainTo(lote, MAXIMO_POR_TRANSACAO - 1);
+                    processarLote(lote);
+                }
+                executarLeituraOciosa();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+        
+        // Falhar o que não chegou a ser executado
+        Tarefa<?> restante;
+        while ((restante = fila.poll()) != null) {
+            restante.resultado.completeExceptionally(new SQLException("Escritor do banco de dados encerrado"));
+        }
+    }
+    
+    /**
+     * Espera pela fila até a próxima leitura ociosa, ou até um segundo sem ela
+     */
+    private long esperaFilaNs() {
+        long esperaNs = TimeUnit.SECONDS.toNanos(1);
+        if (leituraOciosa != null) {
+            esperaNs = Math.min(esperaNs, Math.max(0, proximaLeituraOciosaNs - System.nanoTime()));
+        }
+        return esperaNs;
+    }
+    
+    /**
+     * Executa a leitura ociosa se chegou a hora; só é chamada sem lote em andamento
+     */
+    private void executarLeituraOciosa() {
+        OperacaoBanco<?> leitura = leituraOciosa;
+        if (leitura == null || System.nanoTime() - proximaLeituraOciosaNs < 0) {
+            return;
+        }
+        proximaLeituraOciosaNs = System.nanoTime() + intervaloLeituraOciosaNs;
+        
+        try {
+            leitura.executar(conexaoBanco);
+        } catch (Exception e) {
+            System.err.println("Erro na leitura periódica da conexão de escrita: " + e.getMessage());
+        } finally {
+            // Encerra a transação de leitura sem confirmar nada: entre lotes não há escrita pendente
+            try {
+                conexao.rollback();
+            } catch (SQLException e) {
+                System.err.println("Erro ao encerrar leitura periódica: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Executa um lote de operações em uma única transação
+     */
+    private void processarLote(List<Tarefa<?>> lote) {
+        for (Tarefa<?> tarefa : lote) {
+            tarefa.executar();
+        }
+        
+        try {
+            conexao.commit();
+        } catch (SQLException e) {
+            System.err.println("Erro ao confirmar transação de escrita: " + e.getMessage());
+            try {
+                conexao.rollback();
+            } catch (SQLException rollbackErro) {
+                System.err.println("Erro ao desfazer transação de escrita: " + rollbackErro.getMessage());
+            }
+            for (Tarefa<?> tarefa : lote) {
+                tarefa.resultado.completeExceptionally(e);
+            }
+            return;
+        }
+        
+        // Só depois do commit os resultados ficam visíveis a quem aguarda
+        for (Tarefa<?> tarefa : lote) {
+            tarefa.concluir();
+        }
+    }
+    
+    /**
+     * Encerra a thread de escrita depois de confirmar as operações pendentes
+     */
+    void encerrar() {
+        ativo = false;
+        // Tarefa vazia apenas para acordar a thread se ela estiver aguardando a fila
+        fila.add(new Tarefa<>(conexao -> null));
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Operação enfileirada com seu resultado
+     */
+    private class Tarefa<T> {
+        private final OperacaoBanco<T> operacao;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        private T valor;
+        private Exception erro;
+        
+        Tarefa(OperacaoBanco<T> operacao) {
+            this.operacao = operacao;
+        }
+        
+        void executar() {
+            Savepoint savepoint = null;
+            try {
+                savepoint = conexao.setSavepoint();
+                valor = operacao.executar(conexaoBanco);
+                conexao.releaseSavepoint(savepoint);
+            } catch (Exception e) {
+                erro = e;
+                if (savepoint != null) {
+                    try {
+                        conexao.rollback(savepoint);
+                        conexao.releaseSavepoint(savepoint);
+                    } catch (SQLException rollbackErro) {
+                        System.err.println("Erro ao desfazer operação de escrita: " + rollbackErro.getMessage());
+                    }
+                }
+            }
+        }
+        
+        void concluir() {
+            if (erro != null) {
+                resultado.completeExceptionally(erro);
+            } else {
+                resultado.complete(valor);
+            }
+        }
+    }
+}
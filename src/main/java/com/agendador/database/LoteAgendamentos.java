@@ -0,0 +1,83 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Conjunto de criações, atualizações e remoções de agendamentos
+ * aplicado pelo {@link DatabaseManager} em uma única transação:
+ * ou todas as operações são gravadas, ou nenhuma.
+ */
+public class LoteAgendamentos {
+    
+    private final List<Agendamento> criacoes = new ArrayList<>();
+    private final List<Agendamento> atualizacoes = new ArrayList<>();
+    private final List<Long> remocoes = new ArrayList<>();
+    
+    /**
+     * Inclui um novo agendamento; o ID é preenchido quando o lote é aplicado
+     */
+    public LoteAgendamentos criar(Agendamento agendamento) {
+        criacoes.add(agendamento);
+        return this;
+    }
+    
+    /**
+     * Inclui a atualização de um agendamento existente
+     */
+    public LoteAgendamentos atualizar(Agendamento agendamento) {
+        if (agendamento.getId() == null) {
+            throw new IllegalArgumentException("Agendamento sem ID não pode ser atualizado: " + agendamento.getNome());
+        }
+        atualizacoes.add(agendamento);
+        return this;
+    }
+    
+    /**
+     * Inclui a atualização de vários agendamentos existentes
+     */
+    public LoteAgendamentos atualizarTodos(Collection<Agendamento> agendamentos) {
+        for (Agendamento agendamento : agendamentos) {
+            atualizar(agendamento);
+        }
+        return this;
+    }
+    
+    /**
+     * Inclui a remoção de um agendamento pelo ID
+     */
+    public LoteAgendamentos remover(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Remoção sem ID de agendamento");
+        }
+        remocoes.add(id);
+        return this;
+    }
+    
+    public List<Agendamento> getCriacoes() {
+        return Collections.unmodifiableList(criacoes);
+    }
+    
+    public List<Agendamento> getAtualizacoes() {
+        return Collections.unmodifiableList(atualizacoes);
+    }
+    
+    public List<Long> getRemocoes() {
+        return Collections.unmodifiableList(remocoes);
+    }
+    
+    /**
+     * Quantidade total de operações no lote
+     */
+    public int getTamanho() {
+        return criacoes.size() + atualizacoes.size() + remocoes.size();
+    }
+    
+    public boolean isVazio() {
+        return getTamanho() == 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.agendador.database;
+
+import com.agendador.util.HistogramaLatencia;
+
+import java.sql.SQLException;
+
+/**
+ * MBean do banco de dados: só lê contadores e histogramas já mantidos pelo DatabaseManager
+ */
+class MonitorBanco implements BancoMXBean {
+    
+    static final String TIPO = "Banco";
+    
+    private final DatabaseManager databaseManager;
+    
+    MonitorBanco(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+    }
+    
+    @Override
+    public long getTotalConsultas() {
+        return databaseManager.getTotalConsultas();
+    }
+    
+    @Override
+    public long getLeituras() {
+        return leituras().getTotal();
+    }
+    
+    @Override
+    public long getLeituraP50Ms() {
+        return leituras().getPercentilMs(50);
+    }
+    
+    @Override
+    public long getLeituraP99Ms() {
+        return leituras().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getLeituraMaximaMs() {
+        return leituras().getMaximoMs();
+    }
+    
+    @Override
+    public long getEscritas() {
+        return escritas().getTotal();
+    }
+    
+    @Override
+    public long getEscritaP50Ms() {
+        return escritas().getPercentilMs(50);
+    }
+    
+    @Override
+    public long getEscritaP99Ms() {
+        return escritas().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getEscritaMaximaMs() {
+        return escritas().getMaximoMs();
+    }
+    
+    @Override
+    public long getExecucoesNaoGravadas() {
+        return databaseManager.getExecucoesNaoGravadas();
+    }
+    
+    @Override
+    public long getAlteracoesExternas() {
+        return databaseManager.getAlteracoesExternas();
+    }
+    
+    @Override
+    public String getInformacoes() {
+        try {
+            return databaseManager.obterInformacoesBanco();
+        } catch (SQLException e) {
+            return "Erro ao obter informações do banco: " + e.getMessage();
+        }
+    }
+    
+    private HistogramaLatencia leituras() {
+        return databaseManager.getTempoLeituras();
+    }
+    
+    private HistogramaLatencia escritas() {
+        return databaseManager.getTempoEscritas();
+    }
+}
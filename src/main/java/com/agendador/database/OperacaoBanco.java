@@ -0,0 +1,12 @@
+package com.agendador.database;
+
+import java.sql.SQLException;
+
+/**
+ * Operação executada sobre uma conexão emprestada pelo DatabaseManager
+ * A conexão pertence ao gerenciador e não deve ser fechada pela operação.
+ */
+@FunctionalInterface
+interface OperacaoBanco<T> {
+    T executar(ConexaoBanco conexao) throws SQLException;
+}
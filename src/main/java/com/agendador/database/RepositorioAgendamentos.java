@@ -0,0 +1,331 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Agendamentos em memória, com gravação imediata no banco (write-through)
+ * Leituras não consultam o banco: ele só é lido na primeira carga e quando
+ * outro processo grava nele. Cada alteração gravada com sucesso gera uma nova
+ * versão imutável da lista e avisa os assinantes, como o agendador, que
+ * reconstroem o que dependem dela sem precisar consultar o banco.
+ *
+ * Os agendamentos guardados nunca são entregues a quem chama: leituras
+ * devolvem cópias, e gravações guardam uma cópia do que foi gravado.
+ */
+public class RepositorioAgendamentos {
+    
+    private static RepositorioAgendamentos instance;
+    
+    // Mesma ordem das consultas do banco
+    private static final Comparator<Agendamento> POR_HORARIO = Comparator.comparing(Agendamento::getHorario);
+    
+    private final DatabaseManager databaseManager;
+    private final Map<Long, Agendamento> porId = new LinkedHashMap<>();
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+    private volatile Instantanea atual;
+    private long versao;
+    
+    // Lotes de importação gravados e ainda não publicados; qualquer publicação os inclui
+    private boolean alteracaoPendente;
+    
+    private RepositorioAgendamentos() {
+        this(DatabaseManager.getInstance());
+    }
+    
+    /**
+     * Construtor com banco específico (usado em testes)
+     */
+    public RepositorioAgendamentos(DatabaseManager databaseManager) {
+        this.databaseManager = databaseManager;
+        databaseManager.adicionarOuvinteAlteracaoExterna(this::recarregarAposAlteracaoExterna);
+    }
+    
+    public static synchronized RepositorioAgendamentos getInstance() {
+        if (instance == null) {
+            instance = new RepositorioAgendamentos();
+        }
+        return instance;
+    }
+    
+    /**
+     * Versão atual dos agendamentos, carregando-os do banco no primeiro uso
+     * A lista da versão é somente leitura e os agendamentos não devem ser alterados.
+     */
+    public Instantanea getInstantanea() throws SQLException {
+        Instantanea instantanea = atual;
+        if (instantanea != null) {
+            return instantanea;
+        }
+        synchronized (this) {
+            if (atual == null) {
+                carregar();
+            }
+            return atual;
+        }
+    }
+    
+    /**
+     * Cópias de todos os agendamentos, em ordem de horário
+     */
+    public List<Agendamento> buscarTodos() throws SQLException {
+        return copiar(getInstantanea().getAgendamentos(), false);
+    }
+    
+    /**
+     * Cópias dos agendamentos ativos, em ordem de horário
+     */
+    public List<Agendamento> buscarAtivos() throws SQLException {
+        return copiar(getInstantanea().getAgendamentos(), true);
+    }
+    
+    /**
+     * Grava um novo agendamento; o ID gerado é preenchido no objeto informado
+     */
+    public synchronized Long salvar(Agendamento agendamento) throws SQLException {
+        garantirCarregado();
+        Long id = databaseManager.salvarAgendamento(agendamento);
+        porId.put(id, agendamento.copiar());
+        publicar(false);
+        return id;
+    }
+    
+    public synchronized void atualizar(Agendamento agendamento) throws SQLException {
+        garantirCarregado();
+        databaseManager.atualizarAgendamento(agendamento);
+        porId.put(agendamento.getId(), agendamento.copiar());
+        publicar(false);
+    }
+    
+    public synchronized void remover(Long id) throws SQLException {
+        garantirCarregado();
+        databaseManager.removerAgendamento(id);
+        porId.remove(id);
+        publicar(false);
+    }
+    
+    /**
+     * Aplica o lote no banco e, só se ele for gravado, na memória, como uma única versão
+     */
+    public synchronized void aplicarLote(LoteAgendamentos lote) throws SQLException {
+        if (gravarLote(lote)) {
+            publicar(false);
+        }
+    }
+    
+    /**
+     * Executa uma importação em vários lotes como uma única alteração
+     * Cada lote entregue a {@link GravacaoLotes#aplicar} é gravado na sua
+     * transação, mas a nova versão é ordenada e publicada uma só vez, no fim:
+     * os assinantes replanejam uma vez em vez de uma por lote. Lotes gravados
+     * antes de uma falha também são publicados. O lock só é mantido durante a
+     * gravação de cada lote, então a leitura do arquivo não bloqueia outras
+     * gravações nem o recarregamento após alteração externa; essas publicam na
+     * hora, já incluindo os lotes importados até ali.
+     */
+    public <T> T importar(Importacao<T> importacao) throws IOException, SQLException {
+        synchronized (this) {
+            garantirCarregado();
+        }
+        try {
+            return importacao.executar(this::aplicarLoteImportado);
+        } finally {
+            publicarPendente();
+        }
+    }
+    
+    private synchronized void aplicarLoteImportado(LoteAgendamentos lote) throws SQLException {
+        if (gravarLote(lote)) {
+            alteracaoPendente = true;
+        }
+    }
+    
+    private synchronized void publicarPendente() {
+        if (alteracaoPendente) {
+            publicar(false);
+        }
+    }
+    
+    /**
+     * Grava o lote no banco e, só se ele for gravado, na memória, sem publicar
+     * @return false se o lote estava vazio
+     */
+    private boolean gravarLote(LoteAgendamentos lote) throws SQLException {
+        if (lote.isVazio()) {
+            return false;
+        }
+        
+        garantirCarregado();
+        databaseManager.aplicarLote(lote);
+        for (Agendamento agendamento : lote.getCriacoes()) {
+            porId.put(agendamento.getId(), agendamento.copiar());
+        }
+        for (Agendamento agendamento : lote.getAtualizacoes()) {
+            porId.put(agendamento.getId(), agendamento.copiar());
+        }
+        for (Long id : lote.getRemocoes()) {
+            porId.remove(id);
+        }
+        return true;
+    }
+    
+    /**
+     * Descarta a memória e lê de novo todos os agendamentos do banco
+     * Necessário quando o banco é alterado por fora do repositório.
+     */
+    public synchronized void recarregar() throws SQLException {
+        carregar();
+    }
+    
+    /**
+     * Outro processo gravou no banco: relê os agendamentos, se já foram carregados
+     */
+    private synchronized void recarregarAposAlteracaoExterna() {
+        if (atual == null) {
+            return;
+        }
+        
+        try {
+            carregar();
+            System.out.println("Agendamentos recarregados após alteração externa (versão " + versao + ")");
+        } catch (SQLException e) {
+            System.err.println("Erro ao recarregar agendamentos após alteração externa: " + e.getMessage());
+        }
+    }
+    
+    public void assinar(Assinante assinante) {
+        assinantes.add(assinante);
+    }
+    
+    public void cancelarAssinatura(Assinante assinante) {
+        assinantes.remove(assinante);
+    }
+    
+    private void garantirCarregado() throws SQLException {
+        if (atual == null) {
+            carregar();
+        }
+    }
+    
+    private void carregar() throws SQLException {
+        List<Agendamento> agendamentos = databaseManager.buscarTodosAgendamentos();
+        porId.clear();
+        for (Agendamento agendamento : agendamentos) {
+            porId.put(agendamento.getId(), agendamento);
+        }
+        publicar(true);
+    }
+    
+    /**
+     * Publica uma nova versão e avisa os assinantes, fora de qualquer estado inconsistente
+     * @param recarregada se a versão foi lida do banco em vez de gravada pelo repositório
+     */
+    private void publicar(boolean recarregada) {
+        List<Agendamento> agendamentos = new ArrayList<>(porId.values());
+        agendamentos.sort(POR_HORARIO);
+        Instantanea nova = new Instantanea(++versao, Collections.unmodifiableList(agendamentos), recarregada);
+        atual = nova;
+        alteracaoPendente = false;
+        
+        for (Assinante assinante : assinantes) {
+            try {
+                assinante.agendamentosAlterados(nova);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao notificar alteração de agendamentos: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static List<Agendamento> copiar(List<Agendamento> agendamentos, boolean somenteAtivos) {
+        List<Agendamento> copias = new ArrayList<>(agendamentos.size());
+        for (Agendamento agendamento : agendamentos) {
+            if (!somenteAtivos || agendamento.isAtivo()) {
+                copias.add(agendamento.copiar());
+            }
+        }
+        return copias;
+    }
+    
+    /**
+     * Versão imutável dos agendamentos
+     */
+    public static final class Instantanea {
+        private final long versao;
+        private final List<Agendamento> agendamentos;
+        private final boolean recarregada;
+        
+        private Instantanea(long versao, List<Agendamento> agendamentos, boolean recarregada) {
+            this.versao = versao;
+            this.agendamentos = agendamentos;
+            this.recarregada = recarregada;
+        }
+        
+        /**
+         * Número da versão, crescente a cada alteração
+         */
+        public long getVersao() {
+            return versao;
+        }
+        
+        /**
+         * Se a versão foi lida do banco (primeira carga ou alteração externa),
+         * e não produzida por uma gravação feita pelo repositório
+         */
+        public boolean isRecarregada() {
+            return recarregada;
+        }
+        
+        /**
+         * Todos os agendamentos, em ordem de horário (somente leitura)
+         */
+        public List<Agendamento> getAgendamentos() {
+            return agendamentos;
+        }
+        
+        /**
+         * Agendamentos ativos, sem cópia (somente leitura)
+         */
+        public List<Agendamento> getAtivos() {
+            List<Agendamento> ativos = new ArrayList<>();
+            for (Agendamento agendamento : agendamentos) {
+                if (agendamento.isAtivo()) {
+                    ativos.add(agendamento);
+                }
+            }
+            return ativos;
+        }
+    }
+    
+    /**
+     * Importação que grava os seus lotes pela gravação recebida
+     */
+    @FunctionalInterface
+    public interface Importacao<T> {
+        T executar(GravacaoLotes lotes) throws IOException, SQLException;
+    }
+    
+    /**
+     * Grava um lote da importação sem publicar uma nova versão
+     */
+    @FunctionalInterface
+    public interface GravacaoLotes {
+        void aplicar(LoteAgendamentos lote) throws SQLException;
+    }
+    
+    /**
+     * Interessado nas alterações dos agendamentos
+     * Chamado na thread que gravou a alteração, depois de a nova versão ser publicada.
+     */
+    public interface Assinante {
+        void agendamentosAlterados(Instantanea instantanea);
+    }
+}
@@ -1,28 +1,38 @@
 package com.agendador.model;
 
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.Set;
-import java.util.HashSet;
 
 /**
  * Modelo de dados para um agendamento de sinal
  */
 public class Agendamento {
     
+    // Um disparo perdido toca se for detectado em até um minuto
+    public static final int TOLERANCIA_RECUPERACAO_PADRAO = 60;
+    
     private Long id;
     private String nome;
     private String caminhoAudio;
     private LocalTime horario;
     private int duracaoSegundos;
     private String dispositivoAudio;
-    private Set<DiaSemana> diasSemana;
+    private EnumSet<DiaSemana> diasSemana;
     private boolean ativo;
     private String observacoes;
+    private Prioridade prioridade;
+    private RecuperacaoDisparo recuperacao;
+    private int toleranciaRecuperacaoSegundos;
     
     public Agendamento() {
-        this.diasSemana = new HashSet<>();
+        this.diasSemana = EnumSet.noneOf(DiaSemana.class);
         this.ativo = true;
         this.duracaoSegundos = 30; // Duração padrão
+        this.prioridade = Prioridade.NORMAL;
+        this.recuperacao = RecuperacaoDisparo.DISPARAR_SE_RECENTE;
+        this.toleranciaRecuperacaoSegundos = TOLERANCIA_RECUPERACAO_PADRAO;
     }
     
     public Agendamento(String nome, String caminhoAudio, LocalTime horario, 
@@ -30,7 +40,7 @@ public class Agendamento {
         this();
         this.nome = nome;
         this.caminhoAudio = caminhoAudio;
-        this.horario = horario;
+        this.horario = truncarHorario(horario);
         this.duracaoSegundos = duracaoSegundos;
         this.dispositivoAudio = dispositivoAudio;
     }
@@ -64,8 +74,16 @@ public class Agendamento {
         return horario;
     }
     
+    /**
+     * Horário do disparo, com precisão de segundos (frações são descartadas)
+     */
     public void setHorario(LocalTime horario) {
-        this.horario = horario;
+        this.horario = truncarHorario(horario);
+    }
+    
+    // Os disparos têm precisão de segundos
+    private static LocalTime truncarHorario(LocalTime horario) {
+        return horario != null ? horario.truncatedTo(ChronoUnit.SECONDS) : null;
     }
     
     public int getDuracaoSegundos() {
@@ -89,7 +107,17 @@ public class Agendamento {
     }
     
     public void setDiasSemana(Set<DiaSemana> diasSemana) {
-        this.diasSemana = diasSemana;
+        this.diasSemana = EnumSet.noneOf(DiaSemana.class);
+        if (diasSemana != null) {
+            this.diasSemana.addAll(diasSemana);
+        }
+    }
+    
+    /**
+     * Dias da semana como máscara de 7 bits (ver {@link DiaSemana#getMascara()})
+     */
+    public int getMascaraDias() {
+        return DiaSemana.paraMascara(diasSemana);
     }
     
     public void adicionarDiaSemana(DiaSemana dia) {
@@ -116,6 +144,49 @@ public class Agendamento {
         this.observacoes = observacoes;
     }
     
+    public Prioridade getPrioridade() {
+        return prioridade;
+    }
+    
+    public void setPrioridade(Prioridade prioridade) {
+        this.prioridade = prioridade != null ? prioridade : Prioridade.NORMAL;
+    }
+    
+    public RecuperacaoDisparo getRecuperacao() {
+        return recuperacao;
+    }
+    
+    public void setRecuperacao(RecuperacaoDisparo recuperacao) {
+        this.recuperacao = recuperacao != null ? recuperacao : RecuperacaoDisparo.DISPARAR_SE_RECENTE;
+    }
+    
+    /**
+     * Atraso máximo, em segundos, para um disparo perdido ainda tocar
+     * (usado com {@link RecuperacaoDisparo#DISPARAR_SE_RECENTE})
+     */
+    public int getToleranciaRecuperacaoSegundos() {
+        return toleranciaRecuperacaoSegundos;
+    }
+    
+    public void setToleranciaRecuperacaoSegundos(int toleranciaRecuperacaoSegundos) {
+        this.toleranciaRecuperacaoSegundos = Math.max(0, toleranciaRecuperacaoSegundos);
+    }
+    
+    /**
+     * Cópia independente: alterar a cópia não afeta o original
+     */
+    public Agendamento copiar() {
+        Agendamento copia = new Agendamento(nome, caminhoAudio, horario, duracaoSegundos, dispositivoAudio);
+        copia.id = id;
+        copia.setDiasSemana(diasSemana);
+        copia.ativo = ativo;
+        copia.observacoes = observacoes;
+        copia.prioridade = prioridade;
+        copia.recuperacao = recuperacao;
+        copia.toleranciaRecuperacaoSegundos = toleranciaRecuperacaoSegundos;
+        return copia;
+    }
+    
     @Override
     public String toString() {
         return String.format("%s - %s (%ds)", 
@@ -1,5 +1,8 @@
 package com.agendador.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Enumeração para os dias da semana
  */
@@ -28,6 +31,41 @@ public enum DiaSemana {
         return descricao;
     }
     
+    /**
+     * Bit deste dia na máscara de dias (Domingo = 1, Segunda = 2, ..., Sábado = 64)
+     */
+    public int getMascara() {
+        return 1 << (valor - 1);
+    }
+    
+    /**
+     * Converte um conjunto de dias para a máscara de 7 bits
+     * @param dias Dias da semana
+     * @return Máscara com um bit por dia
+     */
+    public static int paraMascara(Set<DiaSemana> dias) {
+        int mascara = 0;
+        for (DiaSemana dia : dias) {
+            mascara |= dia.getMascara();
+        }
+        return mascara;
+    }
+    
+    /**
+     * Converte uma máscara de 7 bits para o conjunto de dias correspondente
+     * @param mascara Máscara com um bit por dia
+     * @return Conjunto de dias da semana
+     */
+    public static EnumSet<DiaSemana> deMascara(int mascara) {
+        EnumSet<DiaSemana> dias = EnumSet.noneOf(DiaSemana.class);
+        for (DiaSemana dia : values()) {
+            if ((mascara & dia.getMascara()) != 0) {
+                dias.add(dia);
+            }
+        }
+        return dias;
+    }
+    
     /**
      * Converte valor numérico para DiaSemana
      * @param valor Valor de 1 (Domingo) a 7 (Sábado)
@@ -0,0 +1,92 @@
+package com.agendador.model;
+
+import java.time.Instant;
+
+/**
+ * Registro de um disparo no histórico de execuções
+ * Guarda o nome do agendamento, e não só o ID, para o histórico continuar
+ * legível depois que o agendamento for removido. Instantes são milissegundos
+ * desde a época; o início fica nulo quando o sinal não chegou a tocar.
+ */
+public class Execucao {
+    
+    private final Long id;
+    private final Long agendamentoId;
+    private final String nome;
+    private final long previstoMs;
+    private final Long inicioMs;
+    private final long duracaoMs;
+    private final String dispositivo;
+    private final ResultadoExecucao resultado;
+    
+    public Execucao(Long agendamentoId, String nome, long previstoMs, Long inicioMs, long duracaoMs,
+                    String dispositivo, ResultadoExecucao resultado) {
+        this(null, agendamentoId, nome, previstoMs, inicioMs, duracaoMs, dispositivo, resultado);
+    }
+    
+    public Execucao(Long id, Long agendamentoId, String nome, long previstoMs, Long inicioMs, long duracaoMs,
+                    String dispositivo, ResultadoExecucao resultado) {
+        this.id = id;
+        this.agendamentoId = agendamentoId;
+        this.nome = nome;
+        this.previstoMs = previstoMs;
+        this.inicioMs = inicioMs;
+        this.duracaoMs = duracaoMs;
+        this.dispositivo = dispositivo;
+        this.resultado = resultado;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getAgendamentoId() {
+        return agendamentoId;
+    }
+    
+    public String getNome() {
+        return nome;
+    }
+    
+    public long getPrevistoMs() {
+        return previstoMs;
+    }
+    
+    public Instant getPrevisto() {
+        return Instant.ofEpochMilli(previstoMs);
+    }
+    
+    /**
+     * Início real da reprodução, ou null se o sinal não chegou a tocar
+     */
+    public Long getInicioMs() {
+        return inicioMs;
+    }
+    
+    /**
+     * Tempo de reprodução, do início até o fim ou a interrupção
+     */
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+    
+    /**
+     * Diferença entre o início real e o instante previsto, ou null se o sinal não tocou
+     */
+    public Long getAtrasoMs() {
+        return inicioMs != null ? inicioMs - previstoMs : null;
+    }
+    
+    public String getDispositivo() {
+        return dispositivo;
+    }
+    
+    public ResultadoExecucao getResultado() {
+        return resultado;
+    }
+    
+    @Override
+    public String toString() {
+        return nome + " (" + getPrevisto() + "): " + resultado;
+    }
+}
@@ -0,0 +1,57 @@
+package com.agendador.model;
+
+/**
+ * Enumeração para a prioridade de um agendamento
+ * Sinais de prioridade maior interrompem os de prioridade menor no mesmo
+ * dispositivo; sinais de mesma prioridade esperam uns pelos outros.
+ */
+public enum Prioridade {
+    EMERGENCIA(0, "Emergência"),
+    ALTA(1, "Alta"),
+    NORMAL(2, "Normal");
+    
+    private final int valor;
+    private final String descricao;
+    
+    Prioridade(int valor, String descricao) {
+        this.valor = valor;
+        this.descricao = descricao;
+    }
+    
+    /**
+     * Valor gravado no banco; menor é mais urgente
+     */
+    public int getValor() {
+        return valor;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    /**
+     * Verifica se esta prioridade interrompe um sinal da prioridade informada
+     */
+    public boolean interrompe(Prioridade outra) {
+        return valor < outra.valor;
+    }
+    
+    /**
+     * Converte valor numérico para Prioridade
+     * @param valor Valor de 0 (Emergência) a 2 (Normal)
+     * @return Prioridade correspondente
+     */
+    public static Prioridade fromValor(int valor) {
+        for (Prioridade prioridade : values()) {
+            if (prioridade.valor == valor) {
+                return prioridade;
+            }
+        }
+        throw new IllegalArgumentException("Valor inválido para prioridade: " + valor);
+    }
+    
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,62 @@
+package com.agendador.model;
+
+/**
+ * Enumeração para o que fazer com um disparo perdido
+ * Um disparo é perdido quando o agendador não verifica o seu minuto: o PC
+ * estava suspenso, a JVM ficou parada ou o relógio foi adiantado.
+ */
+public enum RecuperacaoDisparo {
+    DISPARAR(0, "Disparar ao detectar"),
+    DISPARAR_SE_RECENTE(1, "Disparar se dentro da tolerância"),
+    IGNORAR(2, "Ignorar e registrar");
+    
+    private final int valor;
+    private final String descricao;
+    
+    RecuperacaoDisparo(int valor, String descricao) {
+        this.valor = valor;
+        this.descricao = descricao;
+    }
+    
+    /**
+     * Valor gravado no banco
+     */
+    public int getValor() {
+        return valor;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    /**
+     * Verifica se um disparo perdido há {@code atrasoSegundos} ainda deve tocar
+     * @param toleranciaSegundos Atraso aceito por {@link #DISPARAR_SE_RECENTE}
+     */
+    public boolean deveDisparar(long atrasoSegundos, int toleranciaSegundos) {
+        switch (this) {
+            case DISPARAR: return true;
+            case DISPARAR_SE_RECENTE: return atrasoSegundos <= toleranciaSegundos;
+            default: return false;
+        }
+    }
+    
+    /**
+     * Converte valor numérico para RecuperacaoDisparo
+     * @param valor Valor de 0 (Disparar) a 2 (Ignorar)
+     * @return RecuperacaoDisparo correspondente
+     */
+    public static RecuperacaoDisparo fromValor(int valor) {
+        for (RecuperacaoDisparo recuperacao : values()) {
+            if (recuperacao.valor == valor) {
+                return recuperacao;
+            }
+        }
+        throw new IllegalArgumentException("Valor inválido para recuperação de disparo: " + valor);
+    }
+    
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
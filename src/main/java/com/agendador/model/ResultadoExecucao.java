@@ -0,0 +1,51 @@
+package com.agendador.model;
+
+/**
+ * Enumeração para o desfecho de um disparo, gravado no histórico de execuções
+ */
+public enum ResultadoExecucao {
+    TOCADO(0, "Tocado"),
+    INTERROMPIDO(1, "Interrompido por sinal mais urgente"),
+    CANCELADO(2, "Cancelado"),
+    DESCARTADO(3, "Descartado"),
+    MESCLADO(4, "Mesclado com o mesmo áudio"),
+    FALHOU(5, "Falhou");
+    
+    private final int valor;
+    private final String descricao;
+    
+    ResultadoExecucao(int valor, String descricao) {
+        this.valor = valor;
+        this.descricao = descricao;
+    }
+    
+    /**
+     * Valor gravado no banco
+     */
+    public int getValor() {
+        return valor;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    /**
+     * Converte valor numérico para ResultadoExecucao
+     * @param valor Valor de 0 (Tocado) a 5 (Falhou)
+     * @return ResultadoExecucao correspondente
+     */
+    public static ResultadoExecucao fromValor(int valor) {
+        for (ResultadoExecucao resultado : values()) {
+            if (resultado.valor == valor) {
+                return resultado;
+            }
+        }
+        throw new IllegalArgumentException("Valor inválido para resultado de execução: " + valor);
+    }
+    
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -0,0 +1,66 @@
+package com.agendador.scheduler;
+
+import java.util.Map;
+
+/**
+ * Estado do agendador exposto por JMX (com.agendador:type=Agendador)
+ * Permite diagnosticar um sinal atrasado com jconsole na própria máquina,
+ * sem depurador: filas por dispositivo, próximo disparo, duração das
+ * verificações e percentis de atraso, além de pausar, retomar e disparar.
+ */
+public interface AgendadorMXBean {
+    
+    boolean isAtivo();
+    
+    boolean isReproduzindo();
+    
+    int getTamanhoFila();
+    
+    /**
+     * Próximo disparo planejado (data e hora local), ou vazio se não houver
+     */
+    String getProximoDisparo();
+    
+    /**
+     * Estado de cada faixa de reprodução, pelo nome do dispositivo
+     */
+    Map<String, String> getFaixas();
+    
+    long getDisparosPerdidos();
+    
+    long getDisparosRecuperados();
+    
+    long getVerificacoes();
+    
+    double getVerificacaoMediaUs();
+    
+    long getVerificacaoMaximaUs();
+    
+    long getReconstrucoesIndice();
+    
+    double getReconstrucaoIndiceMediaUs();
+    
+    long getReconstrucaoIndiceMaximaUs();
+    
+    long getAtrasoP50Ms();
+    
+    long getAtrasoP99Ms();
+    
+    long getEsperaFilaP99Ms();
+    
+    long getPreparacaoAudioP99Ms();
+    
+    double getTaxaSucesso();
+    
+    String getStatusDetalhado();
+    
+    void pausar();
+    
+    void retomar();
+    
+    /**
+     * Toca o agendamento agora, na faixa do seu dispositivo
+     * @return mensagem com o resultado
+     */
+    String dispararAgora(long agendamentoId);
+}
@@ -0,0 +1,75 @@
+package com.agendador.scheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Conversão entre instantes e horário de parede sem criar objetos
+ * O deslocamento do fuso só muda nas transições (horário de verão): ele é
+ * guardado junto com o intervalo em que vale, e as regras do fuso só são
+ * consultadas de novo quando o instante sai desse intervalo.
+ *
+ * Horário local é contado em milissegundos desde 1970-01-01T00:00 sem fuso,
+ * como a data e hora mostradas no relógio. Não é thread-safe.
+ */
+final class ConversorFuso {
+    
+    private final ZoneId zona;
+    private final ZoneRules regras;
+    
+    // Intervalo [inicio, fim) em que o deslocamento guardado vale
+    private long inicioValidadeMs = Long.MAX_VALUE;
+    private long fimValidadeMs = Long.MIN_VALUE;
+    private long deslocamentoMs;
+    
+    ConversorFuso(ZoneId zona) {
+        this.zona = zona;
+        this.regras = zona.getRules();
+    }
+    
+    /**
+     * Horário local do instante, em milissegundos
+     */
+    long paraLocalMs(long epochMs) {
+        if (epochMs < inicioValidadeMs || epochMs >= fimValidadeMs) {
+            atualizar(epochMs);
+        }
+        return epochMs + deslocamentoMs;
+    }
+    
+    /**
+     * Instante do horário local, em milissegundos desde a época
+     * Horários repetidos na volta do horário de verão usam o deslocamento atual;
+     * horários que não existem avançam como em {@link LocalDateTime#atZone}.
+     */
+    long paraEpochMs(long localMs) {
+        long epochMs = localMs - deslocamentoMs;
+        if (epochMs >= inicioValidadeMs && epochMs < fimValidadeMs) {
+            return epochMs;
+        }
+        return paraDataHora(localMs).atZone(zona).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Data e hora do horário local, para mensagens e para as regras do fuso
+     */
+    static LocalDateTime paraDataHora(long localMs) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(localMs, 1000),
+            Math.floorMod(localMs, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+    
+    private void atualizar(long epochMs) {
+        Instant instante = Instant.ofEpochMilli(epochMs);
+        deslocamentoMs = regras.getOffset(instante).getTotalSeconds() * 1000L;
+        
+        // A transição anterior pode ser no próprio instante: procurar a partir do milissegundo seguinte
+        ZoneOffsetTransition anterior = regras.previousTransition(instante.plusMillis(1));
+        ZoneOffsetTransition proxima = regras.nextTransition(instante);
+        inicioValidadeMs = anterior != null ? anterior.toEpochSecond() * 1000 : Long.MIN_VALUE;
+        fimValidadeMs = proxima != null ? proxima.toEpochSecond() * 1000 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,66 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+
+/**
+ * Disparo de um agendamento à espera na fila de uma faixa
+ * Guarda o instante previsto e o atraso máximo aceito: um sinal que só
+ * chegaria a tocar depois desse prazo é descartado.
+ *
+ * Disparos no horário são os enfileirados pela verificação do próprio instante
+ * previsto: só neles o início da reprodução mede a precisão do agendador.
+ */
+final class DisparoAgendado {
+    
+    // Atraso máximo para disparos que devem tocar de qualquer forma
+    static final long SEM_LIMITE = Long.MAX_VALUE;
+    
+    private final Agendamento agendamento;
+    private final long previstoMs;
+    private final long atrasoMaximoMs;
+    private final boolean noHorario;
+    
+    DisparoAgendado(Agendamento agendamento, long previstoMs, long atrasoMaximoMs) {
+        this(agendamento, previstoMs, atrasoMaximoMs, false);
+    }
+    
+    DisparoAgendado(Agendamento agendamento, long previstoMs, long atrasoMaximoMs, boolean noHorario) {
+        this.agendamento = agendamento;
+        this.previstoMs = previstoMs;
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        this.noHorario = noHorario;
+    }
+    
+    Agendamento getAgendamento() {
+        return agendamento;
+    }
+    
+    /**
+     * Instante previsto do disparo, em milissegundos desde a época
+     */
+    long getPrevistoMs() {
+        return previstoMs;
+    }
+    
+    long getAtrasoMaximoMs() {
+        return atrasoMaximoMs;
+    }
+    
+    /**
+     * Verifica se o disparo foi enfileirado no instante previsto, e não recuperado ou pedido à mão
+     */
+    boolean isNoHorario() {
+        return noHorario;
+    }
+    
+    long getAtrasoMs(long agoraMs) {
+        return Math.max(0, agoraMs - previstoMs);
+    }
+    
+    /**
+     * Verifica se o disparo já passou do atraso máximo
+     */
+    boolean isVencido(long agoraMs) {
+        return atrasoMaximoMs != SEM_LIMITE && agoraMs - previstoMs > atrasoMaximoMs;
+    }
+}
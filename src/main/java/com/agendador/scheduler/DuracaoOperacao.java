@@ -0,0 +1,33 @@
+package com.agendador.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contagem, média e máximo da duração de uma operação curta, em nanossegundos
+ * Sem locks nem alocação: pode ser usada na própria verificação do relógio.
+ */
+final class DuracaoOperacao {
+    
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong somaNs = new AtomicLong();
+    private final AtomicLong maximaNs = new AtomicLong();
+    
+    void registrar(long duracaoNs) {
+        total.incrementAndGet();
+        somaNs.addAndGet(duracaoNs);
+        maximaNs.accumulateAndGet(duracaoNs, Math::max);
+    }
+    
+    long getTotal() {
+        return total.get();
+    }
+    
+    double getMediaUs() {
+        long vezes = total.get();
+        return vezes == 0 ? 0.0 : somaNs.get() / (vezes * 1000.0);
+    }
+    
+    long getMaximaUs() {
+        return maximaNs.get() / 1000;
+    }
+}
@@ -0,0 +1,59 @@
+package com.agendador.scheduler;
+
+import com.agendador.util.HistogramaLatencia;
+
+/**
+ * Contagem, média, máximo e percentis de uma latência, sem guardar as amostras
+ * Tudo vem do histograma, onde latências negativas contam como zero; só a
+ * última latência é guardada à parte, como veio.
+ */
+final class EstatisticaLatencia {
+    
+    private volatile long ultimaMs;
+    private final HistogramaLatencia distribuicao = new HistogramaLatencia();
+    
+    void registrar(long latenciaMs) {
+        distribuicao.registrar(latenciaMs);
+        ultimaMs = latenciaMs;
+    }
+    
+    /**
+     * Acumula as amostras de outra estatística nesta
+     */
+    void somar(EstatisticaLatencia outra) {
+        if (outra.distribuicao.getTotal() == 0) {
+            return;
+        }
+        distribuicao.somar(outra.distribuicao);
+        ultimaMs = outra.ultimaMs;
+    }
+    
+    long getTotal() {
+        return distribuicao.getTotal();
+    }
+    
+    double getMediaMs() {
+        return distribuicao.getMediaMs();
+    }
+    
+    long getMaximaMs() {
+        return distribuicao.getMaximoMs();
+    }
+    
+    long getUltimaMs() {
+        return ultimaMs;
+    }
+    
+    /**
+     * Percentil pelo histograma, sem percorrer amostras
+     */
+    long getPercentilMs(double percentil) {
+        return distribuicao.getPercentilMs(percentil);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d disparo(s), média %.1f ms, p50 %d ms, p99 %d ms, máxima %d ms, última %d ms",
+            getTotal(), getMediaMs(), getPercentilMs(50), getPercentilMs(99), getMaximaMs(), ultimaMs);
+    }
+}
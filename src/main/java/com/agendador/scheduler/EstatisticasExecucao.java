@@ -0,0 +1,106 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.ResultadoExecucao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Estatísticas incrementais dos disparos de um dispositivo ou de um agendamento
+ * Latências em histogramas e desfechos em contadores: a memória não cresce com
+ * o número de disparos, e percentis e taxa de sucesso saem sem ler o histórico.
+ */
+final class EstatisticasExecucao {
+    
+    private static final ResultadoExecucao[] RESULTADOS = ResultadoExecucao.values();
+    
+    private final EstatisticaLatencia atraso = new EstatisticaLatencia();
+    private final EstatisticaLatencia espera = new EstatisticaLatencia();
+    private final EstatisticaLatencia preparacao = new EstatisticaLatencia();
+    private final AtomicLongArray resultados = new AtomicLongArray(RESULTADOS.length);
+    
+    void registrarResultado(ResultadoExecucao resultado) {
+        resultados.incrementAndGet(resultado.ordinal());
+    }
+    
+    /**
+     * Acumula as estatísticas de outra nesta
+     */
+    void somar(EstatisticasExecucao outra) {
+        atraso.somar(outra.atraso);
+        espera.somar(outra.espera);
+        preparacao.somar(outra.preparacao);
+        for (int i = 0; i < RESULTADOS.length; i++) {
+            resultados.addAndGet(i, outra.resultados.get(i));
+        }
+    }
+    
+    /**
+     * Diferença entre o instante previsto e o início da reprodução (só disparos no horário)
+     */
+    EstatisticaLatencia getAtraso() {
+        return atraso;
+    }
+    
+    /**
+     * Tempo entre a chegada na fila e a vez do sinal
+     */
+    EstatisticaLatencia getEspera() {
+        return espera;
+    }
+    
+    /**
+     * Tempo entre pedir a reprodução e a linha começar a tocar: decodificação e abertura da linha
+     */
+    EstatisticaLatencia getPreparacao() {
+        return preparacao;
+    }
+    
+    long getTotal(ResultadoExecucao resultado) {
+        return resultados.get(resultado.ordinal());
+    }
+    
+    long getTotalExecucoes() {
+        long total = 0;
+        for (int i = 0; i < RESULTADOS.length; i++) {
+            total += resultados.get(i);
+        }
+        return total;
+    }
+    
+    /**
+     * Percentual de disparos que tocaram, sozinhos ou mesclados com o mesmo áudio
+     */
+    double getTaxaSucesso() {
+        long total = getTotalExecucoes();
+        if (total == 0) {
+            return 0.0;
+        }
+        long sucessos = getTotal(ResultadoExecucao.TOCADO) + getTotal(ResultadoExecucao.MESCLADO);
+        return sucessos * 100.0 / total;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder();
+        texto.append(String.format("%d disparo(s), %.1f%% com sucesso", getTotalExecucoes(), getTaxaSucesso()));
+        for (ResultadoExecucao resultado : RESULTADOS) {
+            long total = getTotal(resultado);
+            if (total > 0) {
+                texto.append(", ").append(resultado.name().toLowerCase()).append(": ").append(total);
+            }
+        }
+        if (atraso.getTotal() > 0) {
+            texto.append(String.format("%n  Atraso: p50 %d ms, p99 %d ms, máxima %d ms",
+                atraso.getPercentilMs(50), atraso.getPercentilMs(99), atraso.getMaximaMs()));
+        }
+        if (espera.getTotal() > 0) {
+            texto.append(String.format("%n  Espera na fila: p50 %d ms, p99 %d ms",
+                espera.getPercentilMs(50), espera.getPercentilMs(99)));
+        }
+        if (preparacao.getTotal() > 0) {
+            texto.append(String.format("%n  Preparação do áudio: p50 %d ms, p99 %d ms",
+                preparacao.getPercentilMs(50), preparacao.getPercentilMs(99)));
+        }
+        return texto.toString();
+    }
+}
@@ -0,0 +1,624 @@
+package com.agendador.scheduler;
+
+import com.agendador.audio.PoolLinhasAudio;
+import com.agendador.audio.ReprodutorAudio;
+import com.agendador.model.Agendamento;
+import com.agendador.model.Execucao;
+import com.agendador.model.Prioridade;
+import com.agendador.model.ResultadoExecucao;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Faixa de reprodução de um dispositivo de áudio
+ * Cada dispositivo tem a sua fila e o seu reprodutor: sinais simultâneos em
+ * dispositivos diferentes tocam em paralelo, e só os do mesmo dispositivo
+ * esperam uns pelos outros.
+ *
+ * A fila é usada ao mesmo tempo pela thread do agendador, pela drenagem e pela
+ * interface (parar), sem locks: no máximo uma drenagem roda por vez, e quem
+ * enfileira depois de a drenagem encontrar a fila vazia inicia outra.
+ *
+ * Há uma fila por {@link Prioridade}: a drenagem sempre toca primeiro o sinal
+ * mais urgente, e um sinal que chega com prioridade maior que o que está
+ * tocando o interrompe. Sinais de mesma prioridade esperam a sua vez.
+ *
+ * Cada disparo leva o instante previsto e o atraso máximo; a {@link PoliticaFila}
+ * decide o que fazer com sinais vencidos, repetidos ou além da profundidade máxima.
+ *
+ * O desfecho de cada disparo (tocado, interrompido, descartado...) é entregue
+ * aos {@link Eventos} como uma {@link Execucao} para o histórico, e somado às
+ * {@link EstatisticasExecucao} da faixa e do agendamento.
+ */
+class FaixaReproducao {
+    
+    // Nome exibido na interface para o dispositivo padrão do sistema
+    static final String DISPOSITIVO_PADRAO = PoolLinhasAudio.DISPOSITIVO_PADRAO;
+    
+    // Pausa entre sinais tocados em sequência
+    static final long PAUSA_ENTRE_SINAIS_MS = 500;
+    
+    // Diferença máxima aceita entre o instante previsto e o início da reprodução
+    static final long PRECISAO_ALVO_MS = 50;
+    
+    private static final Prioridade[] PRIORIDADES = Prioridade.values();
+    private static final long SEM_INICIO = Long.MIN_VALUE;
+    
+    private final String dispositivo;
+    private final ReprodutorAudio reprodutor;
+    private final Executor executor;
+    private final Eventos eventos;
+    private final long pausaEntreSinaisMs;
+    private final PoliticaFila politica;
+    private final LongSupplier relogioMs;
+    
+    // Uma fila por prioridade, da mais urgente para a menos urgente
+    private final FilaPrioridade[] filas;
+    private final AtomicInteger tamanhoFila = new AtomicInteger();
+    private final AtomicBoolean executandoFila = new AtomicBoolean();
+    
+    // Incrementada a cada parada: itens enfileirados antes dela são descartados
+    private final AtomicLong geracao = new AtomicLong();
+    
+    // Sinal em reprodução pela drenagem, para decidir se um novo o interrompe
+    private volatile ItemFila tocando;
+    
+    // Último sinal tocado pela drenagem (só a drenagem em andamento lê e escreve)
+    private String ultimoCaminho;
+    private long ultimoInicioMs;
+    private long ultimaGeracao = -1;
+    
+    // Métricas
+    private final AtomicLong descartadosVencidos = new AtomicLong();
+    private final AtomicLong descartadosProfundidade = new AtomicLong();
+    private final AtomicLong mesclados = new AtomicLong();
+    private final AtomicLong interrompidos = new AtomicLong();
+    private final AtomicLong foraDaPrecisao = new AtomicLong();
+    private final EstatisticasExecucao execucoes = new EstatisticasExecucao();
+    private final Map<Long, EstatisticasExecucao> porAgendamento = new ConcurrentHashMap<>();
+    
+    FaixaReproducao(String dispositivo, ReprodutorAudio reprodutor, Executor executor, Eventos eventos,
+                    PoliticaFila politica, Clock relogio) {
+        this(dispositivo, reprodutor, executor, eventos, politica, PAUSA_ENTRE_SINAIS_MS, relogio::millis);
+    }
+    
+    /**
+     * Construtor com pausa entre sinais e relógio específicos (usado em testes e na simulação)
+     */
+    FaixaReproducao(String dispositivo, ReprodutorAudio reprodutor, Executor executor, Eventos eventos,
+                    PoliticaFila politica, long pausaEntreSinaisMs, LongSupplier relogioMs) {
+        this.dispositivo = dispositivo;
+        this.reprodutor = reprodutor;
+        this.executor = executor;
+        this.eventos = eventos;
+        this.politica = politica;
+        this.pausaEntreSinaisMs = pausaEntreSinaisMs;
+        this.relogioMs = relogioMs;
+        
+        this.filas = new FilaPrioridade[PRIORIDADES.length];
+        for (int i = 0; i < PRIORIDADES.length; i++) {
+            filas[i] = new FilaPrioridade();
+        }
+    }
+    
+    /**
+     * Chave da faixa para o dispositivo do agendamento
+     * Sem dispositivo e "Dispositivo Padrão" tocam na mesma saída, e portanto na mesma faixa.
+     */
+    static String chaveDispositivo(String dispositivoAudio) {
+        return PoolLinhasAudio.normalizarDispositivo(dispositivoAudio);
+    }
+    
+    /**
+     * Executa uma fila de disparos nesta faixa, em ordem de prioridade
+     */
+    void enfileirar(List<DisparoAgendado> disparos) {
+        long atual = geracao.get();
+        long agora = relogioMs.getAsLong();
+        Prioridade maisUrgente = null;
+        
+        for (DisparoAgendado disparo : disparos) {
+            Agendamento agendamento = disparo.getAgendamento();
+            if (politica.isMesclarDuplicados()
+                    && estaNaFila(agendamento.getCaminhoAudio(), agendamento.getPrioridade(), atual)) {
+                mesclados.incrementAndGet();
+                System.out.println("Sinal " + agendamento.getNome() +
+                                 " mesclado com o mesmo áudio já na fila de " + getNome());
+                registrar(disparo, ResultadoExecucao.MESCLADO, null, agora);
+                continue;
+            }
+            
+            // Contar antes de publicar, para o tamanho nunca ficar negativo
+            ItemFila item = new ItemFila(disparo, atual, agora);
+            tamanhoFila.incrementAndGet();
+            filas[item.prioridade.ordinal()].itens.add(item);
+            if (maisUrgente == null || item.prioridade.interrompe(maisUrgente)) {
+                maisUrgente = item.prioridade;
+            }
+        }
+        
+        if (politica.isLimitada()) {
+            limitarProfundidade();
+        }
+        
+        // Depois de publicar na fila: se a drenagem começar a tocar agora, ela vê o novo sinal
+        ItemFila atualTocando = tocando;
+        if (maisUrgente != null && atualTocando != null && maisUrgente.interrompe(atualTocando.prioridade)) {
+            System.out.println("Sinal de prioridade " + maisUrgente + " interrompe " +
+                             atualTocando.disparo.getAgendamento().getNome() + " em " + getNome());
+            interromper(atualTocando);
+        }
+        
+        if (!iniciarDrenagem()) {
+            System.out.println("Fila de " + getNome() + " já está sendo executada - adicionando agendamentos à fila");
+        }
+    }
+    
+    /**
+     * Verifica se há na fila um sinal da geração atual com o mesmo arquivo e
+     * prioridade igual ou maior; um sinal mais urgente nunca é mesclado em um
+     * menos urgente, já que perderia a vez na fila e a interrupção do que toca.
+     * Leitura sem lock: dois enfileiramentos simultâneos do mesmo arquivo podem
+     * passar ambos, e a mescla na drenagem cobre esse caso.
+     */
+    private boolean estaNaFila(String caminhoAudio, Prioridade prioridade, long geracaoAtual) {
+        // As filas vão da mais urgente para a menos urgente
+        for (int i = 0; i <= prioridade.ordinal(); i++) {
+            for (ItemFila item : filas[i].itens) {
+                if (item.geracao == geracaoAtual && mesmoAudio(item.disparo, caminhoAudio)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static boolean mesmoAudio(DisparoAgendado disparo, String caminhoAudio) {
+        return caminhoAudio != null && caminhoAudio.equals(disparo.getAgendamento().getCaminhoAudio());
+    }
+    
+    /**
+     * Descarta os sinais mais antigos da prioridade menos urgente além da profundidade máxima
+     */
+    private void limitarProfundidade() {
+        while (tamanhoFila.get() > politica.getProfundidadeMaxima()) {
+            ItemFila descartado = menosUrgenteDaFila();
+            if (descartado == null) {
+                break;
+            }
+            descartadosProfundidade.incrementAndGet();
+            System.err.println("Fila de " + getNome() + " cheia - sinal descartado: " +
+                             descartado.disparo.getAgendamento().getNome());
+            registrar(descartado.disparo, ResultadoExecucao.DESCARTADO, null, relogioMs.getAsLong());
+        }
+    }
+    
+    /**
+     * Inicia a drenagem da fila se nenhuma estiver em andamento
+     * @return true se esta chamada iniciou a drenagem
+     */
+    private boolean iniciarDrenagem() {
+        if (!executandoFila.compareAndSet(false, true)) {
+            return false;
+        }
+        
+        try {
+            // Executar em thread separada para não bloquear o scheduler
+            executor.execute(this::executarFila);
+            return true;
+        } catch (RuntimeException e) {
+            executandoFila.set(false);
+            throw e;
+        }
+    }
+    
+    private void executarFila() {
+        try {
+            ItemFila item;
+            while ((item = proximoDaFila()) != null) {
+                if (item.geracao != geracao.get()) {
+                    // Enfileirado antes de uma parada
+                    registrar(item.disparo, ResultadoExecucao.CANCELADO, null, relogioMs.getAsLong());
+                    continue;
+                }
+                
+                DisparoAgendado disparo = item.disparo;
+                Agendamento agendamento = disparo.getAgendamento();
+                long agora = relogioMs.getAsLong();
+                
+                if (disparo.isVencido(agora)) {
+                    descartadosVencidos.incrementAndGet();
+                    System.err.println("Sinal descartado em " + getNome() + ": " + agendamento.getNome() +
+                                     " atrasaria " + disparo.getAtrasoMs(agora) / 1000 + "s");
+                    registrar(disparo, ResultadoExecucao.DESCARTADO, null, agora);
+                    continue;
+                }
+                
+                if (politica.isMesclarDuplicados() && item.geracao == ultimaGeracao
+                        && mesmoAudio(disparo, ultimoCaminho) && disparo.getPrevistoMs() <= ultimoInicioMs) {
+                    // O mesmo áudio começou a tocar depois do horário deste sinal
+                    mesclados.incrementAndGet();
+                    System.out.println("Sinal " + agendamento.getNome() + " mesclado com o anterior em " + getNome());
+                    registrar(disparo, ResultadoExecucao.MESCLADO, null, agora);
+                    continue;
+                }
+                
+                // Verificar se o arquivo existe
+                if (!reprodutor.validarArquivoAudio(agendamento.getCaminhoAudio())) {
+                    eventos.erro("Arquivo de áudio não encontrado: " + agendamento.getCaminhoAudio());
+                    registrar(disparo, ResultadoExecucao.FALHOU, null, agora);
+                    continue;
+                }
+                
+                ultimoCaminho = agendamento.getCaminhoAudio();
+                ultimoInicioMs = agora;
+                ultimaGeracao = item.geracao;
+                
+                System.out.println("Executando da fila de " + getNome() + ": " + agendamento.getNome() +
+                                 " (restam " + getTamanhoFila() + " na fila)");
+                
+                if (!tocar(item, agora)) {
+                    break;
+                }
+            }
+        } finally {
+            executandoFila.set(false);
+            System.out.println("Execução da fila de " + getNome() + " concluída");
+        }
+        
+        // Um agendamento pode ter entrado entre a fila vazia e a liberação acima
+        if (tamanhoFila.get() > 0 && !Thread.currentThread().isInterrupted()) {
+            iniciarDrenagem();
+        }
+    }
+    
+    /**
+     * Toca o sinal e aguarda a conclusão ou a interrupção
+     * @return false se a thread da drenagem foi interrompida
+     */
+    private boolean tocar(ItemFila item, long agora) {
+        Agendamento agendamento = item.disparo.getAgendamento();
+        long esperaMs = agora - item.enfileiradoMs;
+        filas[item.prioridade.ordinal()].latenciaDespacho.registrar(esperaMs);
+        execucoes.getEspera().registrar(esperaMs);
+        EstatisticasExecucao doAgendamento = estatisticasDe(item.disparo);
+        if (doAgendamento != null) {
+            doAgendamento.getEspera().registrar(esperaMs);
+        }
+        item.despachoMs = agora;
+        
+        tocando = item;
+        try {
+            eventos.executado(item.disparo);
+            CompletableFuture<Void> reproducao = reprodutor.reproduzirAudio(
+                agendamento.getCaminhoAudio(),
+                agendamento.getDuracaoSegundos(),
+                agendamento.getDispositivoAudio(),
+                () -> iniciou(item)
+            );
+            
+            if (item.geracao != geracao.get()) {
+                // Parada chegou enquanto a reprodução começava
+                reprodutor.pararReproducao();
+            } else if (item.interrompido.get() || temMaisUrgenteQue(item.prioridade)) {
+                // Sinal mais urgente chegou enquanto a reprodução começava: uma interrupção
+                // pedida antes do início não alcança esta reprodução, então parar de novo
+                marcarInterrompido(item);
+                reprodutor.pararReproducao();
+            }
+            reproducao.get(); // Aguardar conclusão
+            registrar(item, resultadoDaReproducao(item));
+            
+            eventos.concluido(agendamento);
+            System.out.println("Agendamento concluído: " + agendamento.getNome());
+            
+            // Pequena pausa entre execuções, exceto antes de um sinal mais urgente
+            if (pausaEntreSinaisMs > 0 && !temMaisUrgenteQue(item.prioridade)) {
+                Thread.sleep(pausaEntreSinaisMs);
+            }
+            return true;
+        
+        } catch (InterruptedException e) {
+            registrar(item, ResultadoExecucao.CANCELADO);
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            registrar(item, ResultadoExecucao.FALHOU);
+            eventos.erro("Erro na execução em fila: " + e.getMessage());
+            return true;
+        } finally {
+            tocando = null;
+        }
+    }
+    
+    /**
+     * A reprodução começou: guarda o instante e mede a preparação e a precisão
+     */
+    private void iniciou(ItemFila item) {
+        long inicioMs = relogioMs.getAsLong();
+        item.inicioMs = inicioMs;
+        
+        long preparacaoMs = inicioMs - item.despachoMs;
+        execucoes.getPreparacao().registrar(preparacaoMs);
+        EstatisticasExecucao doAgendamento = estatisticasDe(item.disparo);
+        if (doAgendamento != null) {
+            doAgendamento.getPreparacao().registrar(preparacaoMs);
+        }
+        registrarPrecisao(item.disparo, inicioMs);
+    }
+    
+    /**
+     * Desfecho de uma reprodução que terminou sem erro
+     */
+    private ResultadoExecucao resultadoDaReproducao(ItemFila item) {
+        if (item.interrompido.get()) {
+            return ResultadoExecucao.INTERROMPIDO;
+        }
+        if (item.inicioMs == SEM_INICIO || item.geracao != geracao.get()) {
+            return ResultadoExecucao.CANCELADO;
+        }
+        return ResultadoExecucao.TOCADO;
+    }
+    
+    private void registrar(ItemFila item, ResultadoExecucao resultado) {
+        registrar(item.disparo, resultado, item.inicioMs == SEM_INICIO ? null : item.inicioMs, relogioMs.getAsLong());
+    }
+    
+    /**
+     * Entrega o desfecho do disparo para o histórico de execuções
+     * @param inicioMs início da reprodução, ou null se o sinal não tocou
+     */
+    private void registrar(DisparoAgendado disparo, ResultadoExecucao resultado, Long inicioMs, long fimMs) {
+        Agendamento agendamento = disparo.getAgendamento();
+        long duracaoMs = inicioMs != null ? Math.max(0, fimMs - inicioMs) : 0;
+        execucoes.registrarResultado(resultado);
+        EstatisticasExecucao doAgendamento = estatisticasDe(disparo);
+        if (doAgendamento != null) {
+            doAgendamento.registrarResultado(resultado);
+        }
+        eventos.registrar(new Execucao(agendamento.getId(), agendamento.getNome(), disparo.getPrevistoMs(),
+            inicioMs, duracaoMs, getNome(), resultado));
+    }
+    
+    /**
+     * Estatísticas do agendamento nesta faixa, ou null para disparos sem ID
+     */
+    private EstatisticasExecucao estatisticasDe(DisparoAgendado disparo) {
+        Long id = disparo.getAgendamento().getId();
+        return id == null ? null : porAgendamento.computeIfAbsent(id, chave -> new EstatisticasExecucao());
+    }
+    
+    /**
+     * Registra a diferença entre o instante previsto e o início real da reprodução
+     * Só disparos no horário contam: recuperados e pedidos à mão nunca estariam no instante.
+     */
+    private void registrarPrecisao(DisparoAgendado disparo, long inicioMs) {
+        if (!disparo.isNoHorario()) {
+            return;
+        }
+        long diferencaMs = disparo.getAtrasoMs(inicioMs);
+        execucoes.getAtraso().registrar(diferencaMs);
+        EstatisticasExecucao doAgendamento = estatisticasDe(disparo);
+        if (doAgendamento != null) {
+            doAgendamento.getAtraso().registrar(diferencaMs);
+        }
+        if (diferencaMs > PRECISAO_ALVO_MS) {
+            foraDaPrecisao.incrementAndGet();
+            System.err.println("Sinal " + disparo.getAgendamento().getNome() + " começou " + diferencaMs +
+                             " ms depois do previsto em " + getNome());
+        }
+    }
+    
+    /**
+     * Interrompe o sinal em reprodução, uma única vez
+     */
+    private void interromper(ItemFila item) {
+        if (marcarInterrompido(item)) {
+            reprodutor.pararReproducao();
+        }
+    }
+    
+    /**
+     * Marca o sinal como interrompido e o conta, uma única vez
+     * @return true se esta chamada marcou o sinal
+     */
+    private boolean marcarInterrompido(ItemFila item) {
+        if (item.interrompido.compareAndSet(false, true)) {
+            interrompidos.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+    
+    private boolean temMaisUrgenteQue(Prioridade prioridade) {
+        for (int i = 0; i < prioridade.ordinal(); i++) {
+            if (!filas[i].itens.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private ItemFila proximoDaFila() {
+        for (FilaPrioridade fila : filas) {
+            ItemFila item = fila.itens.poll();
+            if (item != null) {
+                tamanhoFila.decrementAndGet();
+                return item;
+            }
+        }
+        return null;
+    }
+    
+    private ItemFila menosUrgenteDaFila() {
+        for (int i = filas.length - 1; i >= 0; i--) {
+            ItemFila item = filas[i].itens.poll();
+            if (item != null) {
+                tamanhoFila.decrementAndGet();
+                return item;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Para a reprodução desta faixa e descarta a fila
+     * Agendamentos enfileirados depois da parada são executados normalmente.
+     */
+    void parar() {
+        geracao.incrementAndGet();
+        
+        int descartados = 0;
+        long agora = relogioMs.getAsLong();
+        ItemFila item;
+        while ((item = proximoDaFila()) != null) {
+            registrar(item.disparo, ResultadoExecucao.CANCELADO, null, agora);
+            descartados++;
+        }
+        if (descartados > 0) {
+            System.out.println("Fila de " + getNome() + " interrompida e limpa");
+        }
+        reprodutor.pararReproducao();
+    }
+    
+    boolean isReproduzindo() {
+        return reprodutor.isPlaying();
+    }
+    
+    boolean isExecutandoFila() {
+        return executandoFila.get();
+    }
+    
+    int getTamanhoFila() {
+        return Math.max(0, tamanhoFila.get());
+    }
+    
+    long getDescartadosVencidos() {
+        return descartadosVencidos.get();
+    }
+    
+    long getDescartadosProfundidade() {
+        return descartadosProfundidade.get();
+    }
+    
+    long getMesclados() {
+        return mesclados.get();
+    }
+    
+    /**
+     * Sinais interrompidos por outro de prioridade maior
+     */
+    long getInterrompidos() {
+        return interrompidos.get();
+    }
+    
+    /**
+     * Tempo entre a chegada do sinal na fila e o início da reprodução
+     */
+    EstatisticaLatencia getLatenciaDespacho(Prioridade prioridade) {
+        return filas[prioridade.ordinal()].latenciaDespacho;
+    }
+    
+    /**
+     * Diferença entre o instante previsto e o início da reprodução dos disparos no horário
+     */
+    EstatisticaLatencia getPrecisaoDisparo() {
+        return execucoes.getAtraso();
+    }
+    
+    /**
+     * Disparos no horário que começaram mais de {@link #PRECISAO_ALVO_MS} depois do previsto
+     */
+    long getForaDaPrecisao() {
+        return foraDaPrecisao.get();
+    }
+    
+    /**
+     * Atraso, espera, preparação e desfechos de todos os disparos da faixa
+     */
+    EstatisticasExecucao getEstatisticas() {
+        return execucoes;
+    }
+    
+    /**
+     * Estatísticas de cada agendamento que já disparou nesta faixa (somente leitura)
+     */
+    Map<Long, EstatisticasExecucao> getEstatisticasPorAgendamento() {
+        return Collections.unmodifiableMap(porAgendamento);
+    }
+    
+    /**
+     * Esquece as estatísticas de agendamentos que não existem mais
+     */
+    void manterEstatisticas(Set<Long> agendamentos) {
+        porAgendamento.keySet().retainAll(agendamentos);
+    }
+    
+    String getDispositivo() {
+        return dispositivo;
+    }
+    
+    /**
+     * Nome da faixa para mensagens
+     */
+    String getNome() {
+        return dispositivo.isEmpty() ? DISPOSITIVO_PADRAO : dispositivo;
+    }
+    
+    /**
+     * Notificações da faixa para o agendador
+     */
+    interface Eventos {
+        void executado(DisparoAgendado disparo);
+        void concluido(Agendamento agendamento);
+        void erro(String erro);
+        
+        /**
+         * Desfecho de um disparo, para o histórico; chamado na thread da faixa, não deve bloquear
+         */
+        void registrar(Execucao execucao);
+    }
+    
+    /**
+     * Disparo na fila, a geração e o instante em que foi enfileirado
+     */
+    private static class ItemFila {
+        private final DisparoAgendado disparo;
+        private final Prioridade prioridade;
+        private final long geracao;
+        private final long enfileiradoMs;
+        private final AtomicBoolean interrompido = new AtomicBoolean();
+        // Escrito pela drenagem ao pedir a reprodução
+        private volatile long despachoMs = SEM_INICIO;
+        // Escrito pelo reprodutor ao começar a tocar
+        private volatile long inicioMs = SEM_INICIO;
+        
+        ItemFila(DisparoAgendado disparo, long geracao, long enfileiradoMs) {
+            this.disparo = disparo;
+            this.prioridade = disparo.getAgendamento().getPrioridade();
+            this.geracao = geracao;
+            this.enfileiradoMs = enfileiradoMs;
+        }
+    }
+    
+    /**
+     * Fila de uma prioridade e a espera medida entre enfileirar e despachar seus sinais
+     */
+    private static class FilaPrioridade {
+        private final Queue<ItemFila> itens = new ConcurrentLinkedQueue<>();
+        private final EstatisticaLatencia latenciaDespacho = new EstatisticaLatencia();
+    }
+}
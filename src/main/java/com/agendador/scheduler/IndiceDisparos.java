@@ -0,0 +1,184 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Índice imutável dos agendamentos ativos por minuto da semana (7 x 1440 posições)
+ * Encontrar o que dispara em um minuto, ou o próximo minuto com disparos, é uma
+ * leitura direta de array. Dentro de cada minuto os agendamentos ficam em ordem
+ * de segundo. Para refletir alterações, um novo índice é construído e substitui
+ * o anterior por inteiro.
+ */
+public final class IndiceDisparos {
+    
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+    public static final int MINUTOS_POR_SEMANA = 7 * MINUTOS_POR_DIA;
+    public static final long SEGUNDOS_POR_SEMANA = MINUTOS_POR_SEMANA * 60L;
+    
+    // Retorno de proximoDisparo quando não há disparos na semana
+    public static final long SEM_DISPARO = Long.MIN_VALUE;
+    
+    private static final int SEGUNDOS_POR_DIA = 24 * 60 * 60;
+    // 1970-01-01, início da contagem dos segundos locais, foi uma quinta-feira (domingo = 0)
+    private static final int DIA_SEMANA_EPOCA = 4;
+    
+    private static final Agendamento[] VAZIO = new Agendamento[0];
+    private static final Comparator<Agendamento> POR_SEGUNDO =
+        Comparator.comparingInt(agendamento -> agendamento.getHorario().getSecond());
+    private static final IndiceDisparos INDICE_VAZIO = new IndiceDisparos(new Agendamento[MINUTOS_POR_SEMANA][], 0);
+    
+    private final Agendamento[][] porMinuto;
+    private final int[] proximoOcupado;
+    private final int totalAgendamentos;
+    
+    private IndiceDisparos(Agendamento[][] porMinuto, int totalAgendamentos) {
+        this.porMinuto = porMinuto;
+        this.totalAgendamentos = totalAgendamentos;
+        this.proximoOcupado = calcularProximosOcupados(porMinuto);
+    }
+    
+    /**
+     * Constrói o índice a partir dos agendamentos ativos
+     */
+    public static IndiceDisparos construir(Collection<Agendamento> agendamentos) {
+        if (agendamentos.isEmpty()) {
+            return INDICE_VAZIO;
+        }
+        
+        // Uma lista por minuto, criada só para os minutos com disparos
+        List<List<Agendamento>> listas = new ArrayList<>(Collections.nCopies(MINUTOS_POR_SEMANA, null));
+        for (Agendamento agendamento : agendamentos) {
+            if (agendamento.getHorario() == null) {
+                continue;
+            }
+            int minutoDoDia = agendamento.getHorario().getHour() * 60 + agendamento.getHorario().getMinute();
+            for (DiaSemana dia : agendamento.getDiasSemana()) {
+                int minuto = dia.ordinal() * MINUTOS_POR_DIA + minutoDoDia;
+                List<Agendamento> doMinuto = listas.get(minuto);
+                if (doMinuto == null) {
+                    doMinuto = new ArrayList<>(2);
+                    listas.set(minuto, doMinuto);
+                }
+                doMinuto.add(agendamento);
+            }
+        }
+        
+        Agendamento[][] porMinuto = new Agendamento[MINUTOS_POR_SEMANA][];
+        for (int i = 0; i < MINUTOS_POR_SEMANA; i++) {
+            List<Agendamento> doMinuto = listas.get(i);
+            if (doMinuto != null) {
+                // Ordenação estável: no mesmo segundo vale a ordem recebida
+                doMinuto.sort(POR_SEGUNDO);
+                porMinuto[i] = doMinuto.toArray(VAZIO);
+            }
+        }
+        
+        return new IndiceDisparos(porMinuto, agendamentos.size());
+    }
+    
+    /**
+     * Para cada minuto, o primeiro minuto ocupado a partir dele (circular), ou -1
+     */
+    private static int[] calcularProximosOcupados(Agendamento[][] porMinuto) {
+        int[] proximos = new int[MINUTOS_POR_SEMANA];
+        int proximo = -1;
+        
+        // Duas passadas de trás para frente fecham a volta do sábado para o domingo
+        for (int volta = 0; volta < 2; volta++) {
+            for (int i = MINUTOS_POR_SEMANA - 1; i >= 0; i--) {
+                if (porMinuto[i] != null) {
+                    proximo = i;
+                }
+                proximos[i] = proximo;
+            }
+        }
+        
+        return proximos;
+    }
+    
+    /**
+     * Converte um instante para o minuto da semana (0 = domingo 00:00)
+     */
+    public static int minutoDaSemana(LocalDateTime instante) {
+        return minutoDaSemana(instante.toEpochSecond(ZoneOffset.UTC));
+    }
+    
+    /**
+     * Converte segundos locais (data e hora de parede contadas desde 1970-01-01T00:00)
+     * para o minuto da semana, sem criar objetos
+     */
+    public static int minutoDaSemana(long segundosLocais) {
+        int dia = Math.floorMod(Math.floorDiv(segundosLocais, SEGUNDOS_POR_DIA) + DIA_SEMANA_EPOCA, 7);
+        int segundoDoDia = Math.floorMod(segundosLocais, SEGUNDOS_POR_DIA);
+        return dia * MINUTOS_POR_DIA + segundoDoDia / 60;
+    }
+    
+    /**
+     * Agendamentos que disparam no minuto da semana informado, em ordem de segundo
+     * O array retornado é compartilhado e não deve ser modificado.
+     */
+    public Agendamento[] agendamentosNoMinuto(int minutoDaSemana) {
+        Agendamento[] agendamentos = porMinuto[minutoDaSemana];
+        return agendamentos != null ? agendamentos : VAZIO;
+    }
+    
+    /**
+     * Calcula o próximo instante de disparo estritamente posterior a {@code agora},
+     * com precisão de segundos
+     * @return instante do próximo disparo, ou null se não houver disparos na semana
+     */
+    public LocalDateTime proximoDisparo(LocalDateTime agora) {
+        long proximo = proximoDisparo(agora.toEpochSecond(ZoneOffset.UTC));
+        return proximo == SEM_DISPARO ? null : LocalDateTime.ofEpochSecond(proximo, 0, ZoneOffset.UTC);
+    }
+    
+    /**
+     * Mesmo cálculo em segundos locais, sem criar objetos (usado a cada verificação)
+     * @return segundos locais do próximo disparo, ou {@link #SEM_DISPARO}
+     */
+    public long proximoDisparo(long segundosLocais) {
+        int atual = minutoDaSemana(segundosLocais);
+        int segundoAtual = Math.floorMod(segundosLocais, 60);
+        long inicioDoMinuto = segundosLocais - segundoAtual;
+        
+        // Segundos ainda por vir no minuto atual
+        Agendamento[] doMinuto = porMinuto[atual];
+        if (doMinuto != null) {
+            for (Agendamento agendamento : doMinuto) {
+                int segundo = agendamento.getHorario().getSecond();
+                if (segundo > segundoAtual) {
+                    return inicioDoMinuto + segundo;
+                }
+            }
+        }
+        
+        int proximo = proximoOcupado[(atual + 1) % MINUTOS_POR_SEMANA];
+        if (proximo < 0) {
+            return SEM_DISPARO;
+        }
+        
+        int minutosAte = Math.floorMod(proximo - atual, MINUTOS_POR_SEMANA);
+        if (minutosAte == 0) {
+            // Único minuto ocupado é o atual: próximo disparo é na semana seguinte
+            minutosAte = MINUTOS_POR_SEMANA;
+        }
+        
+        return inicioDoMinuto + minutosAte * 60L + porMinuto[proximo][0].getHorario().getSecond();
+    }
+    
+    /**
+     * Quantidade de agendamentos usados na construção do índice
+     */
+    public int getTotalAgendamentos() {
+        return totalAgendamentos;
+    }
+}
@@ -0,0 +1,150 @@
+package com.agendador.scheduler;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MBean do agendador: lê as métricas já mantidas pelo SchedulerManager e pelas faixas
+ */
+class MonitorAgendador implements AgendadorMXBean {
+    
+    static final String TIPO = "Agendador";
+    
+    private final SchedulerManager schedulerManager;
+    
+    MonitorAgendador(SchedulerManager schedulerManager) {
+        this.schedulerManager = schedulerManager;
+    }
+    
+    @Override
+    public boolean isAtivo() {
+        return schedulerManager.isRunning();
+    }
+    
+    @Override
+    public boolean isReproduzindo() {
+        return schedulerManager.isReproducing();
+    }
+    
+    @Override
+    public int getTamanhoFila() {
+        return schedulerManager.getTamanhoFila();
+    }
+    
+    @Override
+    public String getProximoDisparo() {
+        LocalDateTime disparo = schedulerManager.getProximoDisparo();
+        return disparo != null ? disparo.toString() : "";
+    }
+    
+    @Override
+    public Map<String, String> getFaixas() {
+        Map<String, String> estados = new LinkedHashMap<>();
+        for (FaixaReproducao faixa : schedulerManager.getFaixas()) {
+            EstatisticaLatencia atraso = faixa.getPrecisaoDisparo();
+            estados.put(faixa.getNome(), String.format(
+                "%s, %d na fila, %d interrompido(s), %d mesclado(s), descartados %d, atraso p99 %d ms",
+                faixa.isReproduzindo() ? "reproduzindo" : "livre", faixa.getTamanhoFila(),
+                faixa.getInterrompidos(), faixa.getMesclados(),
+                faixa.getDescartadosVencidos() + faixa.getDescartadosProfundidade(), atraso.getPercentilMs(99)));
+        }
+        return estados;
+    }
+    
+    @Override
+    public long getDisparosPerdidos() {
+        return schedulerManager.getDisparosPerdidos();
+    }
+    
+    @Override
+    public long getDisparosRecuperados() {
+        return schedulerManager.getDisparosRecuperados();
+    }
+    
+    @Override
+    public long getVerificacoes() {
+        return schedulerManager.getDuracaoVerificacao().getTotal();
+    }
+    
+    @Override
+    public double getVerificacaoMediaUs() {
+        return schedulerManager.getDuracaoVerificacao().getMediaUs();
+    }
+    
+    @Override
+    public long getVerificacaoMaximaUs() {
+        return schedulerManager.getDuracaoVerificacao().getMaximaUs();
+    }
+    
+    @Override
+    public long getReconstrucoesIndice() {
+        return schedulerManager.getDuracaoReconstrucaoIndice().getTotal();
+    }
+    
+    @Override
+    public double getReconstrucaoIndiceMediaUs() {
+        return schedulerManager.getDuracaoReconstrucaoIndice().getMediaUs();
+    }
+    
+    @Override
+    public long getReconstrucaoIndiceMaximaUs() {
+        return schedulerManager.getDuracaoReconstrucaoIndice().getMaximaUs();
+    }
+    
+    @Override
+    public long getAtrasoP50Ms() {
+        return schedulerManager.getPrecisaoDisparo().getPercentilMs(50);
+    }
+    
+    @Override
+    public long getAtrasoP99Ms() {
+        return schedulerManager.getPrecisaoDisparo().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getEsperaFilaP99Ms() {
+        return schedulerManager.getEstatisticasExecucao().getEspera().getPercentilMs(99);
+    }
+    
+    @Override
+    public long getPreparacaoAudioP99Ms() {
+        return schedulerManager.getEstatisticasExecucao().getPreparacao().getPercentilMs(99);
+    }
+    
+    @Override
+    public double getTaxaSucesso() {
+        return schedulerManager.getEstatisticasExecucao().getTaxaSucesso();
+    }
+    
+    @Override
+    public String getStatusDetalhado() {
+        return schedulerManager.getStatusDetalhado();
+    }
+    
+    @Override
+    public void pausar() {
+        System.out.println("Agendador pausado via JMX");
+        schedulerManager.parar();
+    }
+    
+    @Override
+    public void retomar() {
+        System.out.println("Agendador retomado via JMX");
+        schedulerManager.iniciar();
+    }
+    
+    @Override
+    public String dispararAgora(long agendamentoId) {
+        try {
+            if (!schedulerManager.executarAgora(agendamentoId)) {
+                return "Agendamento não encontrado: ID " + agendamentoId;
+            }
+            System.out.println("Agendamento " + agendamentoId + " disparado via JMX");
+            return "Agendamento " + agendamentoId + " disparado";
+        } catch (SQLException e) {
+            return "Erro ao disparar agendamento: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.RecuperacaoDisparo;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decide quais agendamentos disparam em cada verificação
+ * Não lê o relógio nem agenda tarefas: quem chama informa o instante da
+ * verificação, o que permite usar a mesma decisão no agendador e na simulação.
+ * Cada verificação dispara os instantes previstos desde a anterior até
+ * {@code agora}, com precisão de segundos: cada agendamento dispara uma única
+ * vez por instante, mesmo que ele seja verificado mais de uma vez.
+ *
+ * Se uma verificação acontece bem depois de um instante previsto (PC suspenso,
+ * pausa longa da JVM, relógio adiantado), o disparo foi perdido e segue a
+ * {@link RecuperacaoDisparo} do seu agendamento.
+ *
+ * A verificação roda por meses em PCs com pouca memória: o estado é guardado
+ * em segundos locais ({@link IndiceDisparos#proximoDisparo(long)}) e uma
+ * verificação sem disparos não cria nenhum objeto.
+ */
+final class PlanejadorDisparos {
+    
+    // Recuos maiores do relógio são tratados como acerto de data, e não como repetição
+    // de horários já verificados (a volta do horário de verão recua uma hora)
+    private static final long RECUO_MAXIMO_MS = TimeUnit.MINUTES.toMillis(90);
+    
+    // Atraso da verificação até o qual o disparo ainda é considerado no horário;
+    // acima dele o disparo foi perdido (o mesmo limite que o agendador usa para saltos do relógio)
+    static final long ATRASO_NO_HORARIO_MS = 2000;
+    
+    private static final long NUNCA = Long.MIN_VALUE;
+    
+    private final PoliticaFila politica;
+    private final ZoneId zona;
+    private final ConversorFuso fuso;
+    private volatile IndiceDisparos indice = IndiceDisparos.construir(List.of());
+    
+    // Horário local da verificação mais recente (ms) e primeiro disparo previsto depois dela (s)
+    private long ultimaVerificacaoMs = NUNCA;
+    private long proximoEsperado = IndiceDisparos.SEM_DISPARO;
+    
+    // Métricas
+    private final AtomicLong disparosPerdidos = new AtomicLong();
+    private final AtomicLong disparosRecuperados = new AtomicLong();
+    
+    PlanejadorDisparos(PoliticaFila politica, ZoneId zona) {
+        this.politica = politica;
+        this.zona = zona;
+        this.fuso = new ConversorFuso(zona);
+    }
+    
+    /**
+     * Publica um novo índice para as próximas verificações
+     */
+    void setIndice(IndiceDisparos indice) {
+        this.indice = indice;
+    }
+    
+    IndiceDisparos getIndice() {
+        return indice;
+    }
+    
+    /**
+     * Disparos previstos desde a verificação anterior até {@code agora}, inclusive
+     */
+    List<DisparoAgendado> verificar(LocalDateTime agora) {
+        List<DisparoAgendado> disparos = new ArrayList<>();
+        verificar(agora.atZone(zona).toInstant().toEpochMilli(), disparos);
+        return disparos;
+    }
+    
+    /**
+     * Acrescenta a {@code disparos} os disparos previstos desde a verificação
+     * anterior até {@code agoraMs}, inclusive
+     * Os que chegam com mais de {@link #ATRASO_NO_HORARIO_MS} de atraso são
+     * perdidos e só entram se a recuperação do agendamento mandar.
+     */
+    synchronized void verificar(long agoraMs, List<DisparoAgendado> disparos) {
+        long agoraLocalMs = fuso.paraLocalMs(agoraMs);
+        
+        if (ultimaVerificacaoMs != NUNCA && agoraLocalMs < ultimaVerificacaoMs) {
+            if (ultimaVerificacaoMs - agoraLocalMs <= RECUO_MAXIMO_MS) {
+                // Relógio voltou: estes instantes já foram verificados e não tocam de novo
+                return;
+            }
+            System.out.println("Relógio recuou para " + ConversorFuso.paraDataHora(agoraLocalMs) +
+                             " - verificações recomeçam deste instante");
+            limpar();
+        }
+        
+        IndiceDisparos atual = indice;
+        long agora = Math.floorDiv(agoraLocalMs, 1000);
+        long pendente = proximoEsperado;
+        boolean primeiraVerificacao = pendente == IndiceDisparos.SEM_DISPARO;
+        if (primeiraVerificacao) {
+            // Primeira verificação: o minuto em andamento ainda toca, como se verificado no horário
+            pendente = atual.proximoDisparo(agora - Math.floorMod(agora, 60) - 1);
+        } else if (pendente < agora - IndiceDisparos.SEGUNDOS_POR_SEMANA) {
+            // Mais de uma semana sem verificar: cada horário da semana conta uma vez
+            pendente = atual.proximoDisparo(agora - IndiceDisparos.SEGUNDOS_POR_SEMANA);
+        }
+        
+        while (pendente != IndiceDisparos.SEM_DISPARO && pendente <= agora) {
+            long atrasoMs = agoraLocalMs - pendente * 1000;
+            boolean noHorario = atrasoMs <= ATRASO_NO_HORARIO_MS;
+            long previstoMs = fuso.paraEpochMs(pendente * 1000);
+            int segundo = Math.floorMod(pendente, 60);
+            
+            for (Agendamento agendamento : atual.agendamentosNoMinuto(IndiceDisparos.minutoDaSemana(pendente))) {
+                if (agendamento.getHorario().getSecond() != segundo) {
+                    continue;
+                }
+                if (noHorario || primeiraVerificacao) {
+                    disparos.add(politica.criarDisparo(agendamento, previstoMs, noHorario));
+                } else {
+                    recuperar(agendamento, pendente, atrasoMs, previstoMs, disparos);
+                }
+            }
+            pendente = atual.proximoDisparo(pendente);
+        }
+        
+        ultimaVerificacaoMs = agoraLocalMs;
+        // Calculado de agora, e não do pendente: agendamentos criados desde a verificação anterior entram
+        proximoEsperado = atual.proximoDisparo(agora);
+    }
+    
+    private void recuperar(Agendamento agendamento, long perdido, long atrasoMs, long previstoMs,
+                           List<DisparoAgendado> disparos) {
+        disparosPerdidos.incrementAndGet();
+        long atrasoSegundos = atrasoMs / 1000;
+        RecuperacaoDisparo recuperacao = agendamento.getRecuperacao();
+        int toleranciaSegundos = agendamento.getToleranciaRecuperacaoSegundos();
+        LocalDateTime previsto = ConversorFuso.paraDataHora(perdido * 1000);
+        
+        if (!recuperacao.deveDisparar(atrasoSegundos, toleranciaSegundos)) {
+            System.out.println("Disparo perdido: " + agendamento.getNome() + " previsto para " + previsto +
+                             " (" + atrasoSegundos + " s de atraso, " + recuperacao.getDescricao() + ")");
+            return;
+        }
+        
+        disparosRecuperados.incrementAndGet();
+        System.out.println("Disparo perdido recuperado: " + agendamento.getNome() + " previsto para " + previsto +
+                         " (" + atrasoSegundos + " s de atraso)");
+        
+        // A fila mantém o prazo da recuperação: passado ele, o sinal ainda é descartado
+        long atrasoMaximoMs = recuperacao == RecuperacaoDisparo.DISPARAR
+            ? DisparoAgendado.SEM_LIMITE : TimeUnit.SECONDS.toMillis(toleranciaSegundos);
+        disparos.add(new DisparoAgendado(agendamento, previstoMs, atrasoMaximoMs));
+    }
+    
+    /**
+     * Próximo instante de disparo depois de {@code agora}
+     * @return instante do próximo disparo, ou null se não houver agendamentos ativos
+     */
+    LocalDateTime proximoDisparo(LocalDateTime agora) {
+        return indice.proximoDisparo(agora);
+    }
+    
+    /**
+     * Próximo instante de disparo depois de {@code agoraMs}, sem criar objetos
+     * @return milissegundos desde a época, ou {@link IndiceDisparos#SEM_DISPARO}
+     */
+    synchronized long proximoDisparoMs(long agoraMs) {
+        long proximo = indice.proximoDisparo(Math.floorDiv(fuso.paraLocalMs(agoraMs), 1000));
+        return proximo == IndiceDisparos.SEM_DISPARO ? proximo : fuso.paraEpochMs(proximo * 1000);
+    }
+    
+    /**
+     * Agendamentos do minuto do instante informado, para preparar o áudio antes do disparo
+     */
+    synchronized Agendamento[] agendamentosNoMinuto(long instanteMs) {
+        long segundosLocais = Math.floorDiv(fuso.paraLocalMs(instanteMs), 1000);
+        return indice.agendamentosNoMinuto(IndiceDisparos.minutoDaSemana(segundosLocais));
+    }
+    
+    /**
+     * Esquece as verificações anteriores: a próxima não recupera nada, já que
+     * com o agendador parado nenhum disparo era esperado
+     */
+    synchronized void limpar() {
+        ultimaVerificacaoMs = NUNCA;
+        proximoEsperado = IndiceDisparos.SEM_DISPARO;
+    }
+    
+    /**
+     * Disparos perdidos detectados, tocados ou não
+     */
+    long getDisparosPerdidos() {
+        return disparosPerdidos.get();
+    }
+    
+    /**
+     * Disparos perdidos que a recuperação mandou tocar
+     */
+    long getDisparosRecuperados() {
+        return disparosRecuperados.get();
+    }
+    
+    /**
+     * Instante do disparo, em milissegundos desde a época
+     */
+    static long instanteMs(LocalDateTime disparo, ZoneId zona) {
+        return disparo.atZone(zona).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,81 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.Prioridade;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comportamento da fila de uma faixa quando muitos sinais coincidem
+ *
+ * Configurável por propriedades do sistema:
+ * -Dagendador.fila.atrasoMaximoSegundos=N (padrão 60; 0 toca sempre, por mais atrasado que esteja)
+ * -Dagendador.fila.mesclarDuplicados=true|false (padrão true)
+ * -Dagendador.fila.profundidadeMaxima=N (padrão 32; 0 sem limite)
+ */
+final class PoliticaFila {
+    
+    private static final long ATRASO_MAXIMO_PADRAO_SEGUNDOS = 60;
+    private static final int PROFUNDIDADE_MAXIMA_PADRAO = 32;
+    
+    // Sem descarte, mescla ou limite: todos os sinais tocam
+    static final PoliticaFila SEM_LIMITES = new PoliticaFila(DisparoAgendado.SEM_LIMITE, false, 0);
+    
+    private final long atrasoMaximoMs;
+    private final boolean mesclarDuplicados;
+    private final int profundidadeMaxima;
+    
+    PoliticaFila(long atrasoMaximoMs, boolean mesclarDuplicados, int profundidadeMaxima) {
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        this.mesclarDuplicados = mesclarDuplicados;
+        this.profundidadeMaxima = profundidadeMaxima;
+    }
+    
+    /**
+     * Política definida pelas propriedades do sistema
+     */
+    static PoliticaFila padrao() {
+        long atrasoSegundos = Long.getLong("agendador.fila.atrasoMaximoSegundos", ATRASO_MAXIMO_PADRAO_SEGUNDOS);
+        String mesclar = System.getProperty("agendador.fila.mesclarDuplicados", "true");
+        return new PoliticaFila(
+            atrasoSegundos > 0 ? TimeUnit.SECONDS.toMillis(atrasoSegundos) : DisparoAgendado.SEM_LIMITE,
+            Boolean.parseBoolean(mesclar),
+            Math.max(0, Integer.getInteger("agendador.fila.profundidadeMaxima", PROFUNDIDADE_MAXIMA_PADRAO))
+        );
+    }
+    
+    /**
+     * Disparo do agendamento previsto para o instante, com o atraso máximo da política
+     * Sinais de emergência tocam por mais atrasados que estejam.
+     * @param noHorario Se a verificação aconteceu no instante previsto (entra na medição de precisão)
+     */
+    DisparoAgendado criarDisparo(Agendamento agendamento, long previstoMs, boolean noHorario) {
+        long atraso = agendamento.getPrioridade() == Prioridade.EMERGENCIA ? DisparoAgendado.SEM_LIMITE : atrasoMaximoMs;
+        return new DisparoAgendado(agendamento, previstoMs, atraso, noHorario);
+    }
+    
+    /**
+     * Atraso máximo dado aos disparos enfileirados pelo agendador
+     */
+    long getAtrasoMaximoMs() {
+        return atrasoMaximoMs;
+    }
+    
+    /**
+     * Um sinal com o mesmo arquivo de outro já na fila, ou que acabou de tocar, não toca de novo
+     */
+    boolean isMesclarDuplicados() {
+        return mesclarDuplicados;
+    }
+    
+    /**
+     * Quantidade máxima de sinais à espera; os mais antigos são descartados
+     */
+    int getProfundidadeMaxima() {
+        return profundidadeMaxima;
+    }
+    
+    boolean isLimitada() {
+        return profundidadeMaxima > 0;
+    }
+}
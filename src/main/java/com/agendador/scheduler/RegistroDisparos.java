@@ -0,0 +1,135 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registro dos disparos de uma simulação, na ordem em que tocaram
+ */
+public final class RegistroDisparos {
+    
+    private final List<Disparo> disparos = new ArrayList<>();
+    private final List<String> erros = new ArrayList<>();
+    
+    private long perdidos;
+    private long recuperados;
+    
+    void registrar(LocalDateTime instante, LocalDateTime previsto, Agendamento agendamento) {
+        disparos.add(new Disparo(instante, previsto, agendamento));
+    }
+    
+    void registrarErro(String erro) {
+        erros.add(erro);
+    }
+    
+    void registrarPerdidos(long perdidos, long recuperados) {
+        this.perdidos = perdidos;
+        this.recuperados = recuperados;
+    }
+    
+    public List<Disparo> getDisparos() {
+        return Collections.unmodifiableList(disparos);
+    }
+    
+    public List<String> getErros() {
+        return Collections.unmodifiableList(erros);
+    }
+    
+    public int getTotal() {
+        return disparos.size();
+    }
+    
+    /**
+     * Disparos perdidos em suspensões simuladas, tocados ou não
+     */
+    public long getPerdidos() {
+        return perdidos;
+    }
+    
+    /**
+     * Disparos perdidos que a recuperação mandou tocar
+     */
+    public long getRecuperados() {
+        return recuperados;
+    }
+    
+    /**
+     * Disparos que repetem o mesmo agendamento no mesmo minuto previsto
+     */
+    public List<Disparo> getDuplicados() {
+        Set<String> vistos = new HashSet<>();
+        List<Disparo> duplicados = new ArrayList<>();
+        for (Disparo disparo : disparos) {
+            if (!vistos.add(disparo.getChave())) {
+                duplicados.add(disparo);
+            }
+        }
+        return duplicados;
+    }
+    
+    /**
+     * Verifica se nenhum disparo aconteceu antes do anterior
+     */
+    public boolean isEmOrdem() {
+        for (int i = 1; i < disparos.size(); i++) {
+            if (disparos.get(i).getInstante().isBefore(disparos.get(i - 1).getInstante())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Obtém um resumo do registro
+     */
+    public String getResumo() {
+        return String.format("%d disparo(s), %d duplicado(s), %d perdido(s) (%d recuperado(s)), %d erro(s)%s",
+            getTotal(), getDuplicados().size(), perdidos, recuperados, erros.size(), isEmOrdem() ? "" : ", fora de ordem");
+    }
+    
+    /**
+     * Um agendamento tocado, o instante virtual em que começou e o minuto previsto
+     * (anterior ao instante quando o disparo foi recuperado depois de perdido)
+     */
+    public static final class Disparo {
+        private final LocalDateTime instante;
+        private final LocalDateTime previsto;
+        private final Agendamento agendamento;
+        
+        Disparo(LocalDateTime instante, LocalDateTime previsto, Agendamento agendamento) {
+            this.instante = instante;
+            this.previsto = previsto;
+            this.agendamento = agendamento;
+        }
+        
+        public LocalDateTime getInstante() {
+            return instante;
+        }
+        
+        public LocalDateTime getPrevisto() {
+            return previsto;
+        }
+        
+        public Agendamento getAgendamento() {
+            return agendamento;
+        }
+        
+        /**
+         * Identifica o agendamento e o minuto previsto do disparo
+         */
+        public String getChave() {
+            return agendamento.getId() + "@" + previsto;
+        }
+        
+        @Override
+        public String toString() {
+            return instante + " " + agendamento.getNome();
+        }
+    }
+}
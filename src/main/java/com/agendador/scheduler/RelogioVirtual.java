@@ -0,0 +1,41 @@
+package com.agendador.scheduler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Relógio que só anda quando ajustado, para simular o tempo sem esperar por ele
+ */
+final class RelogioVirtual extends Clock {
+    
+    private final ZoneId zona;
+    private volatile Instant instante;
+    
+    RelogioVirtual(Instant inicio, ZoneId zona) {
+        this.instante = inicio;
+        this.zona = zona;
+    }
+    
+    /**
+     * Leva o relógio ao instante informado
+     */
+    void ajustar(Instant instante) {
+        this.instante = instante;
+    }
+    
+    @Override
+    public ZoneId getZone() {
+        return zona;
+    }
+    
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new RelogioVirtual(instante, zone);
+    }
+    
+    @Override
+    public Instant instant() {
+        return instante;
+    }
+}
@@ -2,41 +2,146 @@ package com.agendador.scheduler;
 
 import com.agendador.audio.AudioManager;
 import com.agendador.database.DatabaseManager;
+import com.agendador.database.RepositorioAgendamentos;
 import com.agendador.model.Agendamento;
-import com.agendador.model.DiaSemana;
+import com.agendador.model.Execucao;
+import com.agendador.model.Prioridade;
+import com.agendador.util.RegistroJmx;
 
 import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * Gerenciador de agendamento de sinais
- * Executa verificações periódicas e dispara reproduções de áudio
+ * Calcula o instante do próximo disparo e dorme até ele, disparando as reproduções de áudio
  */
 public class SchedulerManager {
     
     private ScheduledExecutorService scheduler;
+    private final Clock relogio;
     private final AudioManager audioManager;
+    private final RepositorioAgendamentos repositorio;
     private final DatabaseManager databaseManager;
-    private boolean isRunning = false;
+    private volatile boolean isRunning = false;
     
-    // Controle de execução de múltiplos agendamentos
-    private final Set<String> agendamentosExecutadosNoMinuto = new HashSet<>();
-    private LocalDateTime ultimaVerificacao = null;
-    private final Queue<Agendamento> filaExecucao = new LinkedList<>();
-    private boolean executandoFila = false;
+    // Planejamento do próximo disparo
+    private static final long ESPERA_MAXIMA_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final long ESPERA_APOS_ERRO_MS = TimeUnit.SECONDS.toMillis(5);
+    private static final long TOLERANCIA_SALTO_RELOGIO_MS = 2000;
+    // O timer acorda um pouco antes do disparo; o restante da espera é feito pelo relógio monotônico
+    private static final long ANTECEDENCIA_DESPERTAR_MS = 20;
+    private static final long FOLGA_ESPERA_ATIVA_NS = TimeUnit.MILLISECONDS.toNanos(1);
+    private ScheduledFuture<?> proximaVerificacao;
+    private long proximoDisparoMs = IndiceDisparos.SEM_DISPARO;
+    private long alvoVerificacaoMs;
+    private long relogioNoPlanejamentoMs;
+    private long monotonicoNoPlanejamentoNs;
+    private final PlanejadorDisparos planejador;
+    // Reutilizados a cada verificação (só a thread do relógio usa): verificar sem disparos não cria objetos
+    private final List<DisparoAgendado> disparosVerificados = new ArrayList<>();
+    private final Runnable tarefaVerificar = this::verificarAgendamentos;
+    private final Runnable tarefaVerificarNoInstante = this::verificarNoInstante;
+    private final Runnable tarefaVigiarRelogio = this::vigiarRelogio;
+    private volatile boolean indiceDesatualizado = true;
+    // Assinatura do repositório, ativa enquanto o agendador roda
+    private final RepositorioAgendamentos.Assinante aoAlterarAgendamentos = instantanea -> replanejar();
+    private final DuracaoOperacao duracaoVerificacao = new DuracaoOperacao();
+    private final DuracaoOperacao duracaoReconstrucaoIndice = new DuracaoOperacao();
+    
+    // Preparação do áudio antes do disparo (-Dagendador.audio.preaquecimentoSegundos=N)
+    private static final long ANTECEDENCIA_PREAQUECIMENTO_MS =
+        TimeUnit.SECONDS.toMillis(Long.getLong("agendador.audio.preaquecimentoSegundos", 5));
+    private ScheduledFuture<?> preaquecimento;
+    private long disparoPreaquecidoMs = IndiceDisparos.SEM_DISPARO;
+    
+    // Descarte de sinais atrasados, mescla de repetidos e profundidade máxima das filas
+    private final PoliticaFila politicaFila = PoliticaFila.padrao();
+    
+    // Uma faixa de reprodução por dispositivo, executadas em paralelo
+    private final Map<String, FaixaReproducao> faixas = new ConcurrentHashMap<>();
+    // Drenagens das filas esperam o fim de cada sinal: em threads virtuais essa espera
+    // não ocupa threads de plataforma
+    private final ExecutorService executorFaixas = criarExecutorFaixas();
+    
+    // Notificações ao listener em ordem, fora da thread do relógio e das faixas
+    private final ExecutorService executorNotificacoes =
+        Executors.newSingleThreadExecutor(Thread.ofVirtual().name("agendador-notificacao").factory());
+    
+    // Notificações das faixas repassadas ao listener
+    private final FaixaReproducao.Eventos eventosFaixas = new FaixaReproducao.Eventos() {
+        @Override
+        public void executado(DisparoAgendado disparo) {
+            notificarExecutado(disparo.getAgendamento());
+        }
+        
+        @Override
+        public void concluido(Agendamento agendamento) {
+            notificarConcluido(agendamento);
+        }
+        
+        @Override
+        public void erro(String erro) {
+            notificarErro(erro);
+        }
+        
+        @Override
+        public void registrar(Execucao execucao) {
+            databaseManager.registrarExecucao(execucao);
+        }
+    };
     
     // Listeners para notificações
-    private SchedulerListener listener;
+    private volatile SchedulerListener listener;
     
     public SchedulerManager() {
+        this(Clock.systemDefaultZone(), RepositorioAgendamentos.getInstance(), DatabaseManager.getInstance());
+    }
+    
+    /**
+     * Construtor com relógio, agendamentos e banco específicos (usado em testes)
+     * Todas as leituras de data e hora do agendador e das faixas passam pelo relógio.
+     * Enquanto o agendador roda, cada alteração gravada no repositório o replaneja
+     * na hora; o histórico de execuções vai para o banco informado.
+     */
+    SchedulerManager(Clock relogio, RepositorioAgendamentos repositorio, DatabaseManager databaseManager) {
+        this.relogio = relogio;
+        this.planejador = new PlanejadorDisparos(politicaFila, relogio.getZone());
         this.audioManager = new AudioManager();
-        this.databaseManager = DatabaseManager.getInstance();
-        this.scheduler = Executors.newScheduledThreadPool(2);
+        this.repositorio = repositorio;
+        this.databaseManager = databaseManager;
+        this.scheduler = criarRelogio();
+    }
+    
+    /**
+     * Thread de plataforma só para o relógio: verificações e planejamento
+     * Todo trabalho que bloqueia (reprodução, filas, preparação do áudio e
+     * notificações) roda em threads virtuais.
+     */
+    private static ScheduledExecutorService criarRelogio() {
+        ScheduledThreadPoolExecutor relogio = new ScheduledThreadPoolExecutor(1, r -> new Thread(r, "agendador-relogio"));
+        // Cada verificação cancela a anterior: sem isso as canceladas ficam na fila até o seu instante
+        relogio.setRemoveOnCancelPolicy(true);
+        return relogio;
+    }
+    
+    /**
+     * Executor das drenagens das faixas: uma thread virtual por drenagem
+     */
+    static ExecutorService criarExecutorFaixas() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("agendador-faixa-", 0).factory());
     }
     
     /**
@@ -46,20 +151,26 @@ public class SchedulerManager {
         if (isRunning) {
             return;
         }
-
+        
+        if (executorFaixas.isShutdown()) {
+            System.err.println("Agendador já encerrado - não pode ser iniciado novamente");
+            return;
+        }
+        
         if (scheduler.isShutdown()) {
-            scheduler = Executors.newScheduledThreadPool(2);
+            scheduler = criarRelogio();
         }
         
         isRunning = true;
-        // Verificar agendamentos a cada segundo
-        scheduler.scheduleAtFixedRate(this::verificarAgendamentos, 0, 1, TimeUnit.SECONDS);
-
-        System.out.println("Agendador iniciado - verificações a cada segundo");
-
-        if (listener != null) {
-            listener.onSchedulerStarted();
-        }
+        // Alterações feitas com o agendador parado não foram acompanhadas
+        indiceDesatualizado = true;
+        repositorio.assinar(aoAlterarAgendamentos);
+        // Primeira verificação imediata; as seguintes são planejadas para o próximo disparo
+        scheduler.execute(tarefaVerificar);
+        
+        System.out.println("Agendador iniciado - verificações planejadas para o próximo disparo");
+        
+        notificar(SchedulerListener::onSchedulerStarted);
     }
     
     /**
@@ -71,12 +182,16 @@ public class SchedulerManager {
         }
         
         isRunning = false;
+        repositorio.cancelarAssinatura(aoAlterarAgendamentos);
+        
+        cancelarProximaVerificacao();
+        cancelarPreaquecimento();
         
-        // Parar reprodução e limpar fila
-        audioManager.pararReproducao();
-        filaExecucao.clear();
-        executandoFila = false;
-        agendamentosExecutadosNoMinuto.clear();
+        // Parar reprodução e limpar filas
+        for (FaixaReproducao faixa : faixas.values()) {
+            faixa.parar();
+        }
+        planejador.limpar();
         
         scheduler.shutdown();
         try {
@@ -90,193 +205,506 @@ public class SchedulerManager {
         
         System.out.println("Agendador parado - fila limpa");
         
-        if (listener != null) {
-            listener.onSchedulerStopped();
+        notificar(SchedulerListener::onSchedulerStopped);
+    }
+    
+    /**
+     * Para o agendador e libera as threads das faixas e das notificações, ao sair da aplicação
+     * Depois de encerrado o agendador não pode ser iniciado novamente.
+     */
+    public void encerrar() {
+        parar();
+        // Com o agendador pausado, um teste manual ainda pode estar tocando
+        pararReproducaoAtual();
+        RegistroJmx.remover(MonitorAgendador.TIPO);
+        
+        encerrarExecutor(executorFaixas);
+        // Depois das faixas: as últimas notificações delas ainda são entregues
+        encerrarExecutor(executorNotificacoes);
+        
+        System.out.println("Agendador encerrado");
+    }
+    
+    private static void encerrarExecutor(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
         }
     }
     
     /**
      * Verifica se há agendamentos para executar no momento atual
+     * e planeja a próxima verificação para o instante do próximo disparo
+     * Roda na thread do relógio; o teste de alocação também a chama diretamente.
      */
-    private void verificarAgendamentos() {
+    void verificarAgendamentos() {
+        if (!isRunning) {
+            return;
+        }
+        
+        long inicioNs = System.nanoTime();
         try {
-            LocalDateTime agora = LocalDateTime.now();
-            LocalTime horaAtual = agora.toLocalTime();
-            DiaSemana diaAtual = DiaSemana.fromDayOfWeek(agora.getDayOfWeek());
-            
-            // Limpar cache de execuções se mudou o minuto
-            if (ultimaVerificacao == null || 
-                ultimaVerificacao.getMinute() != agora.getMinute() ||
-                ultimaVerificacao.getHour() != agora.getHour()) {
-                
-                agendamentosExecutadosNoMinuto.clear();
-                ultimaVerificacao = agora;
-                System.out.println("Nova verificação para: " + agora.toLocalTime().toString());
+            // Alterações feitas a partir daqui serão vistas por esta verificação
+            if (indiceDesatualizado) {
+                indiceDesatualizado = false;
+                recarregarIndice();
             }
             
-            List<Agendamento> agendamentos = databaseManager.buscarAgendamentosAtivos();
-            List<Agendamento> agendamentosParaExecutar = new ArrayList<>();
+            long agoraMs = relogio.millis();
+            // Inclui os disparos perdidos desde a verificação anterior que devem ser recuperados
+            planejador.verificar(agoraMs, disparosVerificados);
             
-            for (Agendamento agendamento : agendamentos) {
-                if (deveExecutar(agendamento, horaAtual, diaAtual)) {
-                    String chaveAgendamento = agendamento.getId() + "_" + horaAtual.getHour() + "_" + horaAtual.getMinute();
-                    
-                    // Verificar se já foi executado neste minuto
-                    if (!agendamentosExecutadosNoMinuto.contains(chaveAgendamento)) {
-                        agendamentosParaExecutar.add(agendamento);
-                        agendamentosExecutadosNoMinuto.add(chaveAgendamento);
-                    }
-                }
+            if (!disparosVerificados.isEmpty()) {
+                distribuirPorFaixa(disparosVerificados);
+                disparosVerificados.clear();
             }
             
-            // Se há múltiplos agendamentos, executar em fila
-            if (agendamentosParaExecutar.size() > 1) {
-                System.out.println("Múltiplos agendamentos encontrados (" + agendamentosParaExecutar.size() + ") - executando em sequência");
-                executarFilaAgendamentos(agendamentosParaExecutar);
-            } else if (agendamentosParaExecutar.size() == 1) {
-                executarAgendamento(agendamentosParaExecutar.get(0));
-            }
+            planejarProximaVerificacao(planejador.proximoDisparoMs(agoraMs), agoraMs);
             
         } catch (SQLException e) {
-            System.err.println("Erro ao verificar agendamentos: " + e.getMessage());
-            if (listener != null) {
-                listener.onError("Erro ao verificar agendamentos: " + e.getMessage());
-            }
+            indiceDesatualizado = true;
+            notificarErro("Erro ao verificar agendamentos: " + e.getMessage());
+            agendarVerificacao(tarefaVerificar, ESPERA_APOS_ERRO_MS);
+        } finally {
+            duracaoVerificacao.registrar(System.nanoTime() - inicioNs);
+        }
+    }
+    
+    /**
+     * Reconstrói o índice de disparos a partir da versão atual dos agendamentos
+     * em memória e o publica de uma só vez para as próximas verificações
+     */
+    private void recarregarIndice() throws SQLException {
+        long inicioNs = System.nanoTime();
+        RepositorioAgendamentos.Instantanea instantanea = repositorio.getInstantanea();
+        IndiceDisparos novoIndice = IndiceDisparos.construir(instantanea.getAtivos());
+        Set<Long> existentes = new HashSet<>();
+        for (Agendamento agendamento : instantanea.getAgendamentos()) {
+            existentes.add(agendamento.getId());
         }
+        for (FaixaReproducao faixa : faixas.values()) {
+            faixa.manterEstatisticas(existentes);
+        }
+        synchronized (this) {
+            planejador.setIndice(novoIndice);
+            // O próximo disparo pode ter outros agendamentos: preparar de novo
+            disparoPreaquecidoMs = IndiceDisparos.SEM_DISPARO;
+        }
+        duracaoReconstrucaoIndice.registrar(System.nanoTime() - inicioNs);
+        System.out.println("Índice de disparos reconstruído: " + novoIndice.getTotalAgendamentos() +
+            " agendamentos ativos (versão " + instantanea.getVersao() + ")");
     }
     
     /**
-     * Verifica se um agendamento deve ser executado
+     * Planeja a próxima verificação para o instante do próximo disparo.
+     * Esperas longas são divididas em intervalos de no máximo {@link #ESPERA_MAXIMA_MS}
+     * para detectar saltos no relógio do sistema (suspensão, ajuste de NTP).
      */
-    private boolean deveExecutar(Agendamento agendamento, LocalTime horaAtual, DiaSemana diaAtual) {
-        // Verificar se é o dia correto
-        if (!agendamento.getDiasSemana().contains(diaAtual)) {
-            return false;
+    private synchronized void planejarProximaVerificacao(long disparoMs, long agoraMs) {
+        proximoDisparoMs = disparoMs;
+        relogioNoPlanejamentoMs = relogio.millis();
+        monotonicoNoPlanejamentoNs = System.nanoTime();
+        
+        // Agendamentos alterados durante a verificação: recalcular imediatamente
+        if (indiceDesatualizado) {
+            agendarVerificacao(tarefaVerificar, 0);
+            return;
         }
         
-        // Verificar se é a hora correta (com tolerância de 1 minuto)
-        LocalTime horarioAgendado = agendamento.getHorario();
+        if (disparoMs == IndiceDisparos.SEM_DISPARO) {
+            agendarVerificacao(tarefaVigiarRelogio, ESPERA_MAXIMA_MS);
+            return;
+        }
         
-        // Considerar execução se estivermos no minuto exato
-        return horaAtual.getHour() == horarioAgendado.getHour() && 
-               horaAtual.getMinute() == horarioAgendado.getMinute();
+        long esperaMs = Math.max(0, disparoMs - agoraMs);
+        planejarPreaquecimento(disparoMs, esperaMs);
+        if (esperaMs <= ESPERA_MAXIMA_MS) {
+            alvoVerificacaoMs = disparoMs;
+            agendarVerificacao(tarefaVerificarNoInstante, Math.max(0, esperaMs - ANTECEDENCIA_DESPERTAR_MS));
+        } else {
+            agendarVerificacao(tarefaVigiarRelogio, ESPERA_MAXIMA_MS);
+        }
+    }
+    
+    /**
+     * Completa a espera até o instante exato do disparo e verifica
+     * O atraso do timer não se acumula: o que falta é medido pelo relógio do sistema
+     * logo antes do disparo e esperado pelo relógio monotônico.
+     */
+    private void verificarNoInstante() {
+        long alvoMs;
+        synchronized (this) {
+            alvoMs = alvoVerificacaoMs;
+        }
+        long restanteMs = alvoMs - relogio.millis();
+        // Restante maior que a antecedência: o relógio saltou, e a verificação replaneja
+        if (restanteMs > 0 && restanteMs <= 2 * ANTECEDENCIA_DESPERTAR_MS) {
+            esperarAte(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(restanteMs));
+        }
+        verificarAgendamentos();
     }
     
     /**
-     * Executa uma fila de agendamentos em sequência
+     * Espera até o instante monotônico informado: dorme enquanto falta mais de
+     * {@link #FOLGA_ESPERA_ATIVA_NS} e gira no último milissegundo, já que o
+     * sono do sistema pode passar do ponto
      */
-    private void executarFilaAgendamentos(List<Agendamento> agendamentos) {
-        if (executandoFila) {
-            System.out.println("Fila já está sendo executada - adicionando agendamentos à fila");
-            filaExecucao.addAll(agendamentos);
+    private static void esperarAte(long limiteNs) {
+        long restanteNs;
+        while ((restanteNs = limiteNs - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            if (restanteNs > FOLGA_ESPERA_ATIVA_NS) {
+                LockSupport.parkNanos(restanteNs - FOLGA_ESPERA_ATIVA_NS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+    
+    /**
+     * Planeja a preparação do áudio do próximo disparo para alguns segundos antes dele
+     * Se o disparo ainda estiver distante, a preparação fica para um despertar posterior.
+     */
+    private synchronized void planejarPreaquecimento(long disparoMs, long esperaMs) {
+        if (disparoMs == disparoPreaquecidoMs) {
             return;
         }
         
-        executandoFila = true;
-        filaExecucao.addAll(agendamentos);
-        
-        // Executar em thread separada para não bloquear o scheduler
-        scheduler.execute(() -> {
-            try {
-                while (!filaExecucao.isEmpty() && isRunning) {
-                    Agendamento agendamento = filaExecucao.poll();
-                    if (agendamento != null) {
-                        System.out.println("Executando da fila: " + agendamento.getNome() + 
-                                         " (restam " + filaExecucao.size() + " na fila)");
-                        
-                        // Executar agendamento e aguardar conclusão
-                        try {
-                            audioManager.reproduzirAudio(
-                                agendamento.getCaminhoAudio(), 
-                                agendamento.getDuracaoSegundos(), 
-                                agendamento.getDispositivoAudio()
-                            ).get(); // Aguardar conclusão
-                            
-                            if (listener != null) {
-                                listener.onAgendamentoExecutado(agendamento);
-                                listener.onReproducaoConcluida(agendamento);
-                            }
-                            
-                            System.out.println("Agendamento concluído: " + agendamento.getNome());
-                            
-                            // Pequena pausa entre execuções
-                            Thread.sleep(500);
-                            
-                        } catch (Exception e) {
-                            String erro = "Erro na execução em fila: " + e.getMessage();
-                            System.err.println(erro);
-                            if (listener != null) {
-                                listener.onError(erro);
-                            }
-                        }
-                    }
-                }
-            } finally {
-                executandoFila = false;
-                System.out.println("Execução da fila concluída");
+        long atrasoMs = esperaMs - ANTECEDENCIA_PREAQUECIMENTO_MS;
+        if (atrasoMs > ESPERA_MAXIMA_MS || scheduler.isShutdown()) {
+            return;
+        }
+        
+        cancelarPreaquecimento();
+        disparoPreaquecidoMs = disparoMs;
+        Agendamento[] agendamentos = planejador.agendamentosNoMinuto(disparoMs);
+        preaquecimento = scheduler.schedule(() -> preaquecer(agendamentos), Math.max(0, atrasoMs), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Decodifica os arquivos e abre as linhas de áudio dos agendamentos, fora da
+     * thread do agendador, já que abrir um dispositivo pode levar centenas de ms
+     */
+    private void preaquecer(Agendamento[] agendamentos) {
+        Thread.ofVirtual().name("agendador-preaquecimento").start(() -> {
+            for (Agendamento agendamento : agendamentos) {
+                audioManager.preaquecer(agendamento.getCaminhoAudio(), agendamento.getDispositivoAudio());
             }
         });
     }
     
     /**
-     * Executa um agendamento específico
+     * Despertar intermediário durante esperas longas: só replaneja se o relógio saltou
      */
-    private void executarAgendamento(Agendamento agendamento) {
-        System.out.println("Executando agendamento: " + agendamento.getNome());
+    private void vigiarRelogio() {
+        if (!isRunning) {
+            return;
+        }
+        
+        long decorridoRelogioMs = relogio.millis() - relogioNoPlanejamentoMs;
+        long decorridoMonotonicoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - monotonicoNoPlanejamentoNs);
         
-        if (listener != null) {
-            listener.onAgendamentoExecutado(agendamento);
+        if (Math.abs(decorridoRelogioMs - decorridoMonotonicoMs) > TOLERANCIA_SALTO_RELOGIO_MS) {
+            System.out.println("Salto no relógio do sistema detectado (" +
+                             (decorridoRelogioMs - decorridoMonotonicoMs) + " ms) - replanejando");
+            verificarAgendamentos();
+            return;
         }
         
-        // Verificar se o arquivo existe
-        if (!audioManager.validarArquivoAudio(agendamento.getCaminhoAudio())) {
-            String erro = "Arquivo de áudio não encontrado: " + agendamento.getCaminhoAudio();
-            System.err.println(erro);
-            if (listener != null) {
-                listener.onError(erro);
-            }
+        long disparoMs;
+        synchronized (this) {
+            disparoMs = proximoDisparoMs;
+        }
+        planejarProximaVerificacao(disparoMs, relogio.millis());
+    }
+    
+    /**
+     * Reconstrói o índice de disparos e recalcula o próximo disparo.
+     * Chamado a cada alteração publicada pelo repositório de agendamentos.
+     */
+    public void replanejar() {
+        indiceDesatualizado = true;
+        if (!isRunning) {
             return;
         }
         
-        // Reproduzir áudio de forma assíncrona
-        audioManager.reproduzirAudio(
-            agendamento.getCaminhoAudio(), 
-            agendamento.getDuracaoSegundos(), 
-            agendamento.getDispositivoAudio()
-        ).whenComplete((result, throwable) -> {
-            if (throwable != null) {
-                String erro = "Erro na reprodução: " + throwable.getMessage();
-                System.err.println(erro);
-                if (listener != null) {
-                    listener.onError(erro);
-                }
-            } else {
-                System.out.println("Reprodução concluída: " + agendamento.getNome());
-                if (listener != null) {
-                    listener.onReproducaoConcluida(agendamento);
+        agendarVerificacao(tarefaVerificar, 0);
+    }
+    
+    /**
+     * Substitui a verificação pendente por uma nova tarefa
+     */
+    private synchronized void agendarVerificacao(Runnable tarefa, long esperaMs) {
+        cancelarProximaVerificacao();
+        if (!isRunning || scheduler.isShutdown()) {
+            return;
+        }
+        proximaVerificacao = scheduler.schedule(tarefa, esperaMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Cancela a verificação pendente, se houver
+     */
+    private synchronized void cancelarProximaVerificacao() {
+        if (proximaVerificacao != null) {
+            proximaVerificacao.cancel(false);
+            proximaVerificacao = null;
+        }
+    }
+    
+    /**
+     * Cancela a preparação de áudio pendente, se houver
+     */
+    private synchronized void cancelarPreaquecimento() {
+        if (preaquecimento != null) {
+            preaquecimento.cancel(false);
+            preaquecimento = null;
+        }
+        disparoPreaquecidoMs = IndiceDisparos.SEM_DISPARO;
+    }
+    
+    /**
+     * Distribui os agendamentos do minuto pelas faixas dos seus dispositivos
+     * Faixas diferentes tocam em paralelo; na mesma faixa os agendamentos são
+     * executados em fila, por prioridade.
+     */
+    private void distribuirPorFaixa(List<DisparoAgendado> disparos) {
+        Map<FaixaReproducao, List<DisparoAgendado>> porFaixa = new LinkedHashMap<>();
+        for (DisparoAgendado disparo : disparos) {
+            porFaixa.computeIfAbsent(obterFaixa(disparo.getAgendamento()), f -> new ArrayList<>()).add(disparo);
+        }
+        
+        if (disparos.size() > 1) {
+            System.out.println("Múltiplos agendamentos encontrados (" + disparos.size() + ") em " +
+                             porFaixa.size() + " faixa(s) de reprodução");
+        }
+        
+        // Só um sinal mais urgente corta o que está tocando; os demais esperam na fila
+        for (Map.Entry<FaixaReproducao, List<DisparoAgendado>> entrada : porFaixa.entrySet()) {
+            entrada.getKey().enfileirar(entrada.getValue());
+        }
+    }
+    
+    /**
+     * Obtém a faixa do dispositivo do agendamento, criando-a no primeiro uso
+     * Cada faixa tem o seu AudioManager; cache e pool de linhas são compartilhados.
+     */
+    private FaixaReproducao obterFaixa(Agendamento agendamento) {
+        String chave = FaixaReproducao.chaveDispositivo(agendamento.getDispositivoAudio());
+        return faixas.computeIfAbsent(chave, dispositivo -> new FaixaReproducao(dispositivo,
+            new AudioManager(audioManager.getCache(), audioManager.getPool()), executorFaixas, eventosFaixas, politicaFila,
+            relogio));
+    }
+    
+    private void notificarExecutado(Agendamento agendamento) {
+        notificar(l -> l.onAgendamentoExecutado(agendamento));
+    }
+    
+    private void notificarConcluido(Agendamento agendamento) {
+        notificar(l -> l.onReproducaoConcluida(agendamento));
+    }
+    
+    private void notificarErro(String erro) {
+        System.err.println(erro);
+        notificar(l -> l.onError(erro));
+    }
+    
+    /**
+     * Entrega a notificação ao listener na thread de notificações, na ordem em que ocorreram
+     * Um listener lento não atrasa o relógio nem as faixas.
+     */
+    private void notificar(Consumer<SchedulerListener> notificacao) {
+        SchedulerListener atual = listener;
+        if (atual == null) {
+            return;
+        }
+        try {
+            executorNotificacoes.execute(() -> {
+                try {
+                    notificacao.accept(atual);
+                } catch (RuntimeException e) {
+                    System.err.println("Erro no listener do agendador: " + e.getMessage());
                 }
-            }
-        });
+            });
+        } catch (RejectedExecutionException e) {
+            // Agendador encerrado: ninguém mais escuta
+        }
     }
     
     /**
      * Executa um agendamento imediatamente (para teste)
      */
     public void executarAgora(Agendamento agendamento) {
-        scheduler.execute(() -> executarAgendamento(agendamento));
+        // Sem atraso máximo: o teste toca mesmo com a faixa ocupada por sinais mais urgentes
+        obterFaixa(agendamento).enfileirar(List.of(
+            new DisparoAgendado(agendamento, relogio.millis(), DisparoAgendado.SEM_LIMITE)));
+    }
+    
+    /**
+     * Executa agora o agendamento com o ID informado, como um teste
+     * @return false se não há agendamento com esse ID
+     */
+    public boolean executarAgora(long agendamentoId) throws SQLException {
+        for (Agendamento agendamento : repositorio.getInstantanea().getAgendamentos()) {
+            if (agendamento.getId() != null && agendamento.getId() == agendamentoId) {
+                executarAgora(agendamento.copiar());
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Publica o agendador e o áudio como MBeans (com.agendador:type=Agendador e type=Audio)
+     */
+    public void registrarMonitoramento() {
+        RegistroJmx.registrar(MonitorAgendador.TIPO, new MonitorAgendador(this));
+        audioManager.registrarMonitoramento();
+    }
+    
+    /**
+     * Faixas de reprodução já criadas, uma por dispositivo
+     */
+    Collection<FaixaReproducao> getFaixas() {
+        return Collections.unmodifiableCollection(faixas.values());
+    }
+    
+    /**
+     * Duração de cada verificação do relógio, incluindo a reconstrução do índice quando necessária
+     */
+    DuracaoOperacao getDuracaoVerificacao() {
+        return duracaoVerificacao;
+    }
+    
+    /**
+     * Duração de cada reconstrução do índice de disparos
+     */
+    DuracaoOperacao getDuracaoReconstrucaoIndice() {
+        return duracaoReconstrucaoIndice;
+    }
+    
+    /**
+     * Latência de despacho dos sinais da prioridade, somando todas as faixas:
+     * tempo entre a chegada à fila e o início da reprodução
+     */
+    EstatisticaLatencia getLatenciaDespacho(Prioridade prioridade) {
+        EstatisticaLatencia total = new EstatisticaLatencia();
+        for (FaixaReproducao faixa : faixas.values()) {
+            total.somar(faixa.getLatenciaDespacho(prioridade));
+        }
+        return total;
+    }
+    
+    /**
+     * Diferença entre o instante previsto e o início da reprodução dos disparos no horário,
+     * somando todas as faixas
+     */
+    EstatisticaLatencia getPrecisaoDisparo() {
+        EstatisticaLatencia total = new EstatisticaLatencia();
+        for (FaixaReproducao faixa : faixas.values()) {
+            total.somar(faixa.getPrecisaoDisparo());
+        }
+        return total;
+    }
+    
+    /**
+     * Estatísticas de execução somando todas as faixas
+     */
+    EstatisticasExecucao getEstatisticasExecucao() {
+        EstatisticasExecucao total = new EstatisticasExecucao();
+        for (FaixaReproducao faixa : faixas.values()) {
+            total.somar(faixa.getEstatisticas());
+        }
+        return total;
+    }
+    
+    /**
+     * Estatísticas de execução de um agendamento, somando todas as faixas em que tocou
+     */
+    EstatisticasExecucao getEstatisticasAgendamento(Long agendamentoId) {
+        EstatisticasExecucao total = new EstatisticasExecucao();
+        for (FaixaReproducao faixa : faixas.values()) {
+            EstatisticasExecucao daFaixa = faixa.getEstatisticasPorAgendamento().get(agendamentoId);
+            if (daFaixa != null) {
+                total.somar(daFaixa);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Resumo de uma linha do atraso dos disparos, para o menu da bandeja
+     * Percentis saem dos histogramas: o custo não depende de quantos sinais já tocaram.
+     */
+    public String getResumoAtraso() {
+        EstatisticasExecucao total = getEstatisticasExecucao();
+        EstatisticaLatencia atraso = total.getAtraso();
+        if (atraso.getTotal() == 0) {
+            return "Atraso: sem disparos medidos";
+        }
+        return String.format("Atraso p50 %d ms, p99 %d ms (%.1f%% com sucesso)",
+            atraso.getPercentilMs(50), atraso.getPercentilMs(99), total.getTaxaSucesso());
+    }
+    
+    /**
+     * Estatísticas de execução por dispositivo e por agendamento, e o tempo de decodificação do áudio
+     * A janela de estatísticas pede o relatório a cada segundo: cada agendamento
+     * costuma tocar em uma só faixa e é lido direto dela, e só os que tocaram em
+     * mais de uma ganham uma soma nova.
+     */
+    public String getRelatorioEstatisticas() {
+        StringBuilder relatorio = new StringBuilder();
+        relatorio.append("Todos os dispositivos: ").append(getEstatisticasExecucao());
+        
+        Map<Long, EstatisticasExecucao> porAgendamento = new TreeMap<>();
+        Set<Long> somados = new HashSet<>();
+        for (FaixaReproducao faixa : faixas.values()) {
+            relatorio.append("\n\nDispositivo ").append(faixa.getNome()).append(": ").append(faixa.getEstatisticas());
+            for (Map.Entry<Long, EstatisticasExecucao> entrada : faixa.getEstatisticasPorAgendamento().entrySet()) {
+                Long id = entrada.getKey();
+                EstatisticasExecucao anterior = porAgendamento.putIfAbsent(id, entrada.getValue());
+                if (anterior == null) {
+                    continue;
+                }
+                if (somados.add(id)) {
+                    // A estatística da faixa não pode receber a soma: começa uma nova
+                    EstatisticasExecucao soma = new EstatisticasExecucao();
+                    soma.somar(anterior);
+                    porAgendamento.put(id, soma);
+                    anterior = soma;
+                }
+                anterior.somar(entrada.getValue());
+            }
+        }
+        
+        Map<Long, String> nomes = new HashMap<>();
+        try {
+            for (Agendamento agendamento : repositorio.getInstantanea().getAgendamentos()) {
+                nomes.put(agendamento.getId(), agendamento.getNome());
+            }
+        } catch (SQLException e) {
+            System.err.println("Erro ao obter nomes dos agendamentos: " + e.getMessage());
+        }
+        for (Map.Entry<Long, EstatisticasExecucao> entrada : porAgendamento.entrySet()) {
+            relatorio.append("\n\nAgendamento ").append(nomes.getOrDefault(entrada.getKey(), "#" + entrada.getKey()))
+                     .append(": ").append(entrada.getValue());
+        }
+        
+        relatorio.append("\n\n").append(audioManager.getCache().getEstatisticas());
+        return relatorio.toString();
     }
     
     /**
      * Para qualquer reprodução em andamento
      */
     public void pararReproducaoAtual() {
-        audioManager.pararReproducao();
-        
-        // Limpar fila se necessário
-        if (executandoFila) {
-            filaExecucao.clear();
-            executandoFila = false;
-            System.out.println("Fila de execução interrompida e limpa");
+        // Parar todas as faixas e limpar as filas
+        for (FaixaReproducao faixa : faixas.values()) {
+            faixa.parar();
         }
     }
     
@@ -284,21 +712,60 @@ public class SchedulerManager {
      * Verifica se está reproduzindo áudio
      */
     public boolean isReproducing() {
-        return audioManager.isPlaying();
+        for (FaixaReproducao faixa : faixas.values()) {
+            if (faixa.isReproduzindo()) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
      * Verifica se há agendamentos na fila
      */
     public boolean temAgendamentosNaFila() {
-        return !filaExecucao.isEmpty() || executandoFila;
+        for (FaixaReproducao faixa : faixas.values()) {
+            if (faixa.getTamanhoFila() > 0 || faixa.isExecutandoFila()) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
      * Obtém o número de agendamentos na fila
      */
     public int getTamanhoFila() {
-        return filaExecucao.size();
+        int total = 0;
+        for (FaixaReproducao faixa : faixas.values()) {
+            total += faixa.getTamanhoFila();
+        }
+        return total;
+    }
+    
+    /**
+     * Obtém o instante planejado para o próximo disparo
+     * @return próximo disparo, ou null se não houver agendamentos ativos
+     */
+    public synchronized LocalDateTime getProximoDisparo() {
+        if (proximoDisparoMs == IndiceDisparos.SEM_DISPARO) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(proximoDisparoMs), relogio.getZone());
+    }
+    
+    /**
+     * Disparos perdidos detectados (PC suspenso, pausa da JVM, relógio adiantado), tocados ou não
+     */
+    public long getDisparosPerdidos() {
+        return planejador.getDisparosPerdidos();
+    }
+    
+    /**
+     * Disparos perdidos que tocaram depois, conforme a recuperação de cada agendamento
+     */
+    public long getDisparosRecuperados() {
+        return planejador.getDisparosRecuperados();
     }
     
     /**
@@ -310,10 +777,55 @@ public class SchedulerManager {
         status.append("Reproduzindo: ").append(isReproducing() ? "SIM" : "NÃO").append("\n");
         status.append("Fila: ").append(getTamanhoFila()).append(" agendamentos");
         
-        if (executandoFila) {
+        if (temAgendamentosNaFila()) {
             status.append(" (executando)");
         }
         
+        for (FaixaReproducao faixa : faixas.values()) {
+            status.append("\nFaixa ").append(faixa.getNome()).append(": ")
+                  .append(faixa.isReproduzindo() ? "reproduzindo" : "livre");
+            if (faixa.getTamanhoFila() > 0) {
+                status.append(", ").append(faixa.getTamanhoFila()).append(" na fila");
+            }
+            if (faixa.getInterrompidos() > 0) {
+                status.append(", ").append(faixa.getInterrompidos()).append(" interrompido(s) por prioridade");
+            }
+            long descartados = faixa.getDescartadosVencidos() + faixa.getDescartadosProfundidade();
+            if (descartados > 0 || faixa.getMesclados() > 0) {
+                status.append(String.format(" (descartados: %d por atraso, %d por fila cheia; mesclados: %d)",
+                    faixa.getDescartadosVencidos(), faixa.getDescartadosProfundidade(), faixa.getMesclados()));
+            }
+        }
+        
+        if (planejador.getDisparosPerdidos() > 0) {
+            status.append("\nDisparos perdidos: ").append(planejador.getDisparosPerdidos())
+                  .append(" (recuperados: ").append(planejador.getDisparosRecuperados()).append(")");
+        }
+        
+        EstatisticaLatencia precisao = getPrecisaoDisparo();
+        if (precisao.getTotal() > 0) {
+            long foraDaPrecisao = 0;
+            for (FaixaReproducao faixa : faixas.values()) {
+                foraDaPrecisao += faixa.getForaDaPrecisao();
+            }
+            status.append("\nPrecisão dos disparos: ").append(precisao)
+                  .append(" (").append(foraDaPrecisao).append(" acima de ")
+                  .append(FaixaReproducao.PRECISAO_ALVO_MS).append(" ms)");
+        }
+        
+        EstatisticaLatencia latencia = getLatenciaDespacho(Prioridade.EMERGENCIA);
+        if (latencia.getTotal() > 0) {
+            status.append("\nDespacho de emergência: ").append(latencia);
+        }
+        
+        LocalDateTime disparo = getProximoDisparo();
+        if (isRunning && disparo != null) {
+            status.append("\nPróximo disparo: ").append(disparo);
+        }
+        
+        status.append("\n").append(audioManager.getCache().getEstatisticas());
+        status.append("\n").append(audioManager.getPool().getEstatisticas());
+        
         return status.toString();
     }
     
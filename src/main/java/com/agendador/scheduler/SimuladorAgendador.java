@@ -0,0 +1,176 @@
+package com.agendador.scheduler;
+
+import com.agendador.audio.ReprodutorAudio;
+import com.agendador.model.Agendamento;
+import com.agendador.model.Execucao;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simulação do agendador em tempo virtual
+ * Usa a mesma decisão de disparo ({@link PlanejadorDisparos}) e as mesmas filas
+ * ({@link FaixaReproducao}) do agendador, mas o relógio salta direto de um
+ * disparo para o seguinte e o áudio vai para um reprodutor mudo que termina na
+ * hora. Dias ou anos de uma grade de horários são percorridos em milissegundos,
+ * e o resultado é o registro de tudo o que tocou. Suspensões do PC podem ser
+ * simuladas para verificar a recuperação de disparos perdidos.
+ */
+public final class SimuladorAgendador {
+    
+    // Retorno de despertar quando o instante não está em uma suspensão
+    private static final long SEM_SUSPENSAO = Long.MIN_VALUE;
+    
+    private final List<Agendamento> agendamentos = new ArrayList<>();
+    private final ZoneId zona;
+    private final PoliticaFila politica;
+    private final List<LocalDateTime[]> suspensoes = new ArrayList<>();
+    
+    public SimuladorAgendador(Collection<Agendamento> agendamentos) {
+        this(agendamentos, ZoneId.systemDefault(), PoliticaFila.padrao());
+    }
+    
+    /**
+     * Construtor com fuso e política de fila específicos (usado em testes)
+     */
+    SimuladorAgendador(Collection<Agendamento> agendamentos, ZoneId zona, PoliticaFila politica) {
+        for (Agendamento agendamento : agendamentos) {
+            if (agendamento.isAtivo()) {
+                this.agendamentos.add(agendamento);
+            }
+        }
+        this.zona = zona;
+        this.politica = politica;
+    }
+    
+    /**
+     * Simula o PC suspenso de {@code inicio} até {@code fim}: nenhuma verificação
+     * acontece no intervalo e o relógio salta direto para o despertar
+     */
+    public void suspender(LocalDateTime inicio, LocalDateTime fim) {
+        if (!fim.isAfter(inicio)) {
+            throw new IllegalArgumentException("Suspensão deve terminar depois de começar");
+        }
+        suspensoes.add(new LocalDateTime[] {inicio, fim});
+    }
+    
+    /**
+     * Simula os disparos dos minutos de {@code inicio} até {@code fim}, inclusive
+     */
+    public RegistroDisparos simular(LocalDateTime inicio, LocalDateTime fim) {
+        RelogioVirtual relogio = new RelogioVirtual(Instant.ofEpochMilli(paraMs(inicio)), zona);
+        RegistroDisparos registro = new RegistroDisparos();
+        
+        PlanejadorDisparos planejador = new PlanejadorDisparos(politica, zona);
+        planejador.setIndice(IndiceDisparos.construir(agendamentos));
+        
+        FaixaReproducao.Eventos eventos = new FaixaReproducao.Eventos() {
+            @Override
+            public void executado(DisparoAgendado disparo) {
+                LocalDateTime previsto = LocalDateTime.ofInstant(Instant.ofEpochMilli(disparo.getPrevistoMs()), zona);
+                registro.registrar(LocalDateTime.now(relogio), previsto, disparo.getAgendamento());
+            }
+            
+            @Override
+            public void concluido(Agendamento agendamento) {
+            }
+            
+            @Override
+            public void erro(String erro) {
+                registro.registrarErro(erro);
+            }
+            
+            @Override
+            public void registrar(Execucao execucao) {
+                // A simulação confere os disparos pelo registro próprio, sem histórico
+            }
+        };
+        
+        // Filas drenadas na própria thread da simulação, sem pausa entre sinais
+        Map<String, FaixaReproducao> faixas = new HashMap<>();
+        ReprodutorAudio reprodutor = new ReprodutorMudo();
+        
+        long fimMs = paraMs(fim);
+        long agoraMs = paraMs(inicio);
+        List<DisparoAgendado> disparos = new ArrayList<>();
+        while (agoraMs != IndiceDisparos.SEM_DISPARO && agoraMs <= fimMs) {
+            long despertarMs = despertar(agoraMs);
+            if (despertarMs != SEM_SUSPENSAO) {
+                // Primeira verificação depois de acordar, fora do horário de qualquer disparo
+                if (despertarMs > fimMs) {
+                    break;
+                }
+                agoraMs = despertarMs;
+            }
+            
+            relogio.ajustar(Instant.ofEpochMilli(agoraMs));
+            
+            disparos.clear();
+            planejador.verificar(agoraMs, disparos);
+            Map<FaixaReproducao, List<DisparoAgendado>> porFaixa = new LinkedHashMap<>();
+            for (DisparoAgendado disparo : disparos) {
+                String chave = FaixaReproducao.chaveDispositivo(disparo.getAgendamento().getDispositivoAudio());
+                FaixaReproducao faixa = faixas.computeIfAbsent(chave, dispositivo ->
+                    new FaixaReproducao(dispositivo, reprodutor, Runnable::run, eventos, politica, 0, relogio::millis));
+                porFaixa.computeIfAbsent(faixa, f -> new ArrayList<>()).add(disparo);
+            }
+            for (Map.Entry<FaixaReproducao, List<DisparoAgendado>> entrada : porFaixa.entrySet()) {
+                entrada.getKey().enfileirar(entrada.getValue());
+            }
+            
+            agoraMs = planejador.proximoDisparoMs(agoraMs);
+        }
+        
+        registro.registrarPerdidos(planejador.getDisparosPerdidos(), planejador.getDisparosRecuperados());
+        return registro;
+    }
+    
+    /**
+     * Instante em que o PC acorda, se {@code agoraMs} cair dentro de uma suspensão
+     */
+    private long despertar(long agoraMs) {
+        for (LocalDateTime[] suspensao : suspensoes) {
+            if (agoraMs >= paraMs(suspensao[0]) && agoraMs < paraMs(suspensao[1])) {
+                return paraMs(suspensao[1]);
+            }
+        }
+        return SEM_SUSPENSAO;
+    }
+    
+    private long paraMs(LocalDateTime dataHora) {
+        return dataHora.atZone(zona).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Reprodutor sem som: toda reprodução termina assim que pedida
+     */
+    private static class ReprodutorMudo implements ReprodutorAudio {
+        
+        @Override
+        public CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        @Override
+        public void pararReproducao() {
+        }
+        
+        @Override
+        public boolean isPlaying() {
+            return false;
+        }
+        
+        @Override
+        public boolean validarArquivoAudio(String caminhoArquivo) {
+            return true;
+        }
+    }
+}
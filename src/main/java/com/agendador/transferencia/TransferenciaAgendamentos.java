@@ -0,0 +1,450 @@
+package com.agendador.transferencia;
+
+import com.agendador.database.LoteAgendamentos;
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Importação e exportação de agendamentos em JSON e CSV
+ * Usa a API de streaming do Jackson: na exportação cada agendamento é escrito
+ * assim que sai do cursor do banco e, na importação, os registros são
+ * validados um a um e gravados em lotes de {@link #TAMANHO_LOTE}, de modo que
+ * arquivos grandes nunca precisam caber inteiros em memória.
+ */
+public final class TransferenciaAgendamentos {
+    
+    // Registros gravados por transação na importação
+    public static final int TAMANHO_LOTE = 500;
+    
+    // Quantidade máxima de mensagens de erro guardadas no resultado
+    private static final int MAXIMO_ERROS = 100;
+    
+    private static final String CAMPO_NOME = "nome";
+    private static final String CAMPO_CAMINHO_AUDIO = "caminhoAudio";
+    private static final String CAMPO_HORARIO = "horario";
+    private static final String CAMPO_DURACAO = "duracaoSegundos";
+    private static final String CAMPO_DISPOSITIVO = "dispositivoAudio";
+    private static final String CAMPO_DIAS = "diasSemana";
+    private static final String CAMPO_ATIVO = "ativo";
+    private static final String CAMPO_OBSERVACOES = "observacoes";
+    private static final String CAMPO_PRIORIDADE = "prioridade";
+    private static final String CAMPO_RECUPERACAO = "recuperacao";
+    private static final String CAMPO_TOLERANCIA_RECUPERACAO = "toleranciaRecuperacao";
+    
+    // Colunas do CSV exportado; os dias ficam em uma única coluna separados por ';'
+    private static final CsvSchema ESQUEMA_CSV = CsvSchema.builder()
+        .addColumn(CAMPO_NOME)
+        .addColumn(CAMPO_CAMINHO_AUDIO)
+        .addColumn(CAMPO_HORARIO)
+        .addNumberColumn(CAMPO_DURACAO)
+        .addColumn(CAMPO_DISPOSITIVO)
+        .addArrayColumn(CAMPO_DIAS, ";")
+        .addBooleanColumn(CAMPO_ATIVO)
+        .addColumn(CAMPO_OBSERVACOES)
+        .addColumn(CAMPO_PRIORIDADE)
+        .addColumn(CAMPO_RECUPERACAO)
+        .addNumberColumn(CAMPO_TOLERANCIA_RECUPERACAO)
+        .setUseHeader(true)
+        .build();
+    
+    // Na leitura as colunas vêm do cabeçalho, em qualquer ordem e podendo faltar as opcionais
+    private static final CsvSchema ESQUEMA_CSV_LEITURA = CsvSchema.emptySchema().withHeader();
+    
+    private static final JsonFactory FABRICA_JSON = new JsonFactory();
+    private static final CsvFactory FABRICA_CSV = new CsvFactory();
+    
+    private TransferenciaAgendamentos() {
+    }
+    
+    /**
+     * Formatos de arquivo suportados
+     */
+    public enum Formato {
+        JSON("json"),
+        CSV("csv");
+        
+        private final String extensao;
+        
+        Formato(String extensao) {
+            this.extensao = extensao;
+        }
+        
+        public String getExtensao() {
+            return extensao;
+        }
+        
+        /**
+         * Identifica o formato pela extensão do nome do arquivo
+         */
+        public static Formato doArquivo(String nomeArquivo) {
+            String nome = nomeArquivo.toLowerCase(Locale.ROOT);
+            for (Formato formato : values()) {
+                if (nome.endsWith("." + formato.extensao)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de arquivo não suportado: " + nomeArquivo);
+        }
+    }
+    
+    /**
+     * Origem dos agendamentos exportados, percorrida uma única vez
+     * (ex.: DatabaseManager::percorrerAgendamentos)
+     */
+    @FunctionalInterface
+    public interface FonteAgendamentos {
+        void percorrer(Consumer<Agendamento> consumidor) throws SQLException;
+    }
+    
+    /**
+     * Destino dos lotes importados (ex.: DatabaseManager::aplicarLote)
+     */
+    @FunctionalInterface
+    public interface DestinoAgendamentos {
+        void aplicar(LoteAgendamentos lote) throws SQLException;
+    }
+    
+    /**
+     * Exporta os agendamentos da fonte no formato indicado
+     * @return quantidade de agendamentos exportados
+     */
+    public static int exportar(Formato formato, OutputStream saida, FonteAgendamentos fonte)
+            throws IOException, SQLException {
+        int[] total = {0};
+        
+        try (JsonGenerator gerador = criarGerador(formato, saida)) {
+            if (formato == Formato.JSON) {
+                gerador.writeStartArray();
+            }
+            
+            try {
+                fonte.percorrer(agendamento -> {
+                    try {
+                        escreverAgendamento(gerador, agendamento);
+                        total[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            
+            if (formato == Formato.JSON) {
+                gerador.writeEndArray();
+            }
+        }
+        
+        return total[0];
+    }
+    
+    /**
+     * Importa agendamentos do formato indicado, gravando-os em lotes
+     * Registros inválidos são rejeitados e contados sem interromper a
+     * importação; lotes já gravados permanecem se o arquivo estiver corrompido
+     * mais adiante.
+     */
+    public static ResultadoImportacao importar(Formato formato, InputStream entrada, DestinoAgendamentos destino)
+            throws IOException, SQLException {
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        
+        try (JsonParser parser = criarParser(formato, entrada)) {
+            boolean dentroDeArray = false;
+            LoteAgendamentos lote = new LoteAgendamentos();
+            int numero = 0;
+            
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                dentroDeArray = true;
+                token = parser.nextToken();
+            }
+            
+            while (token == JsonToken.START_OBJECT) {
+                numero++;
+                try {
+                    lote.criar(lerAgendamento(parser));
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    resultado.rejeitar(numero, e.getMessage());
+                }
+                
+                if (lote.getTamanho() >= TAMANHO_LOTE) {
+                    gravarLote(destino, lote, resultado);
+                    lote = new LoteAgendamentos();
+                }
+                token = parser.nextToken();
+            }
+            
+            if (dentroDeArray ? token != JsonToken.END_ARRAY : token != null) {
+                throw new IOException("Conteúdo inesperado após o registro " + numero + ": " + token);
+            }
+            
+            gravarLote(destino, lote, resultado);
+        }
+        
+        return resultado;
+    }
+    
+    private static void gravarLote(DestinoAgendamentos destino, LoteAgendamentos lote, ResultadoImportacao resultado)
+            throws SQLException {
+        if (lote.isVazio()) {
+            return;
+        }
+        destino.aplicar(lote);
+        resultado.importados += lote.getTamanho();
+    }
+    
+    private static JsonGenerator criarGerador(Formato formato, OutputStream saida) throws IOException {
+        if (formato == Formato.CSV) {
+            JsonGenerator gerador = FABRICA_CSV.createGenerator(saida);
+            gerador.setSchema(ESQUEMA_CSV);
+            return gerador;
+        }
+        return FABRICA_JSON.createGenerator(saida).useDefaultPrettyPrinter();
+    }
+    
+    private static JsonParser criarParser(Formato formato, InputStream entrada) throws IOException {
+        if (formato == Formato.CSV) {
+            JsonParser parser = FABRICA_CSV.createParser(entrada);
+            parser.setSchema(ESQUEMA_CSV_LEITURA);
+            return parser;
+        }
+        return FABRICA_JSON.createParser(entrada);
+    }
+    
+    /**
+     * Escreve um agendamento como objeto (JSON) ou linha (CSV); o ID não é
+     * exportado, já que cada banco gera os seus
+     */
+    private static void escreverAgendamento(JsonGenerator gerador, Agendamento agendamento) throws IOException {
+        gerador.writeStartObject();
+        gerador.writeStringField(CAMPO_NOME, agendamento.getNome());
+        gerador.writeStringField(CAMPO_CAMINHO_AUDIO, agendamento.getCaminhoAudio());
+        gerador.writeStringField(CAMPO_HORARIO, agendamento.getHorario().toString());
+        gerador.writeNumberField(CAMPO_DURACAO, agendamento.getDuracaoSegundos());
+        gerador.writeStringField(CAMPO_DISPOSITIVO, agendamento.getDispositivoAudio());
+        gerador.writeArrayFieldStart(CAMPO_DIAS);
+        for (DiaSemana dia : agendamento.getDiasSemana()) {
+            gerador.writeString(dia.name());
+        }
+        gerador.writeEndArray();
+        gerador.writeBooleanField(CAMPO_ATIVO, agendamento.isAtivo());
+        gerador.writeStringField(CAMPO_OBSERVACOES, agendamento.getObservacoes());
+        gerador.writeStringField(CAMPO_PRIORIDADE, agendamento.getPrioridade().name());
+        gerador.writeStringField(CAMPO_RECUPERACAO, agendamento.getRecuperacao().name());
+        gerador.writeNumberField(CAMPO_TOLERANCIA_RECUPERACAO, agendamento.getToleranciaRecuperacaoSegundos());
+        gerador.writeEndObject();
+    }
+    
+    /**
+     * Lê os campos de um objeto até o seu fim e só então valida, para que um
+     * registro inválido não deixe o parser no meio do objeto
+     */
+    private static Agendamento lerAgendamento(JsonParser parser) throws IOException {
+        String nome = null;
+        String caminhoAudio = null;
+        String horario = null;
+        String duracao = null;
+        String dispositivo = null;
+        List<String> dias = new ArrayList<>();
+        String ativo = null;
+        String observacoes = null;
+        String prioridade = null;
+        String recuperacao = null;
+        String tolerancia = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            
+            switch (campo) {
+                case CAMPO_NOME -> nome = parser.getValueAsString();
+                case CAMPO_CAMINHO_AUDIO -> caminhoAudio = parser.getValueAsString();
+                case CAMPO_HORARIO -> horario = parser.getValueAsString();
+                case CAMPO_DURACAO -> duracao = parser.getValueAsString();
+                case CAMPO_DISPOSITIVO -> dispositivo = parser.getValueAsString();
+                case CAMPO_ATIVO -> ativo = parser.getValueAsString();
+                case CAMPO_OBSERVACOES -> observacoes = parser.getValueAsString();
+                case CAMPO_PRIORIDADE -> prioridade = parser.getValueAsString();
+                case CAMPO_RECUPERACAO -> recuperacao = parser.getValueAsString();
+                case CAMPO_TOLERANCIA_RECUPERACAO -> tolerancia = parser.getValueAsString();
+                case CAMPO_DIAS -> lerDias(parser, valor, dias);
+                default -> parser.skipChildren();
+            }
+        }
+        
+        return validar(nome, caminhoAudio, horario, duracao, dispositivo, dias, ativo, observacoes, prioridade,
+                       recuperacao, tolerancia);
+    }
+    
+    /**
+     * Aceita os dias como array ou como texto separado por ';' ou ','
+     */
+    private static void lerDias(JsonParser parser, JsonToken valor, List<String> dias) throws IOException {
+        if (valor == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                adicionarDias(parser.getValueAsString(), dias);
+            }
+        } else {
+            adicionarDias(parser.getValueAsString(), dias);
+        }
+    }
+    
+    private static void adicionarDias(String texto, List<String> dias) {
+        if (texto == null) {
+            return;
+        }
+        for (String dia : texto.split("[;,]")) {
+            if (!dia.isBlank()) {
+                dias.add(dia.trim());
+            }
+        }
+    }
+    
+    private static Agendamento validar(String nome, String caminhoAudio, String horario, String duracao,
+                                       String dispositivo, List<String> dias, String ativo, String observacoes,
+                                       String prioridade, String recuperacao, String tolerancia) {
+        if (nome == null || nome.isBlank()) {
+            throw new IllegalArgumentException("nome obrigatório");
+        }
+        if (caminhoAudio == null || caminhoAudio.isBlank()) {
+            throw new IllegalArgumentException("caminho do áudio obrigatório em '" + nome + "'");
+        }
+        if (horario == null || horario.isBlank()) {
+            throw new IllegalArgumentException("horário obrigatório em '" + nome + "'");
+        }
+        
+        Agendamento agendamento = new Agendamento();
+        agendamento.setNome(nome.trim());
+        agendamento.setCaminhoAudio(caminhoAudio.trim());
+        agendamento.setHorario(LocalTime.parse(horario.trim()));
+        
+        if (duracao != null && !duracao.isBlank()) {
+            int segundos;
+            try {
+                segundos = Integer.parseInt(duracao.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("duração inválida em '" + nome + "': " + duracao);
+            }
+            if (segundos <= 0) {
+                throw new IllegalArgumentException("duração deve ser positiva em '" + nome + "'");
+            }
+            agendamento.setDuracaoSegundos(segundos);
+        }
+        
+        EnumSet<DiaSemana> diasSemana = EnumSet.noneOf(DiaSemana.class);
+        for (String dia : dias) {
+            try {
+                diasSemana.add(DiaSemana.valueOf(dia.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("dia da semana inválido em '" + nome + "': " + dia);
+            }
+        }
+        if (diasSemana.isEmpty()) {
+            // Mesma regra do formulário: um sinal sem dias nunca tocaria
+            throw new IllegalArgumentException("nenhum dia da semana em '" + nome + "'");
+        }
+        agendamento.setDiasSemana(diasSemana);
+        
+        if (prioridade != null && !prioridade.isBlank()) {
+            try {
+                agendamento.setPrioridade(Prioridade.valueOf(prioridade.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("prioridade inválida em '" + nome + "': " + prioridade);
+            }
+        }
+        
+        if (recuperacao != null && !recuperacao.isBlank()) {
+            try {
+                agendamento.setRecuperacao(RecuperacaoDisparo.valueOf(recuperacao.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("recuperação inválida em '" + nome + "': " + recuperacao);
+            }
+        }
+        
+        if (tolerancia != null && !tolerancia.isBlank()) {
+            int segundos;
+            try {
+                segundos = Integer.parseInt(tolerancia.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("tolerância de recuperação inválida em '" + nome + "': " + tolerancia);
+            }
+            if (segundos < 0) {
+                throw new IllegalArgumentException("tolerância de recuperação negativa em '" + nome + "'");
+            }
+            agendamento.setToleranciaRecuperacaoSegundos(segundos);
+        }
+        
+        if (ativo != null && !ativo.isBlank()) {
+            // Boolean.parseBoolean leria qualquer outro texto como false e desativaria o sinal em silêncio
+            String valorAtivo = ativo.trim();
+            if (valorAtivo.equalsIgnoreCase("true")) {
+                agendamento.setAtivo(true);
+            } else if (valorAtivo.equalsIgnoreCase("false")) {
+                agendamento.setAtivo(false);
+            } else {
+                throw new IllegalArgumentException("valor de ativo inválido em '" + nome + "': " + ativo);
+            }
+        }
+        agendamento.setDispositivoAudio(dispositivo == null || dispositivo.isBlank() ? null : dispositivo);
+        agendamento.setObservacoes(observacoes == null || observacoes.isBlank() ? null : observacoes);
+        return agendamento;
+    }
+    
+    /**
+     * Resultado de uma importação: registros gravados e rejeitados
+     */
+    public static final class ResultadoImportacao {
+        
+        private int importados;
+        private int rejeitados;
+        private final List<String> erros = new ArrayList<>();
+        
+        private void rejeitar(int numero, String motivo) {
+            rejeitados++;
+            if (erros.size() < MAXIMO_ERROS) {
+                erros.add("Registro " + numero + ": " + motivo);
+            }
+        }
+        
+        public int getImportados() {
+            return importados;
+        }
+        
+        public int getRejeitados() {
+            return rejeitados;
+        }
+        
+        /**
+         * Primeiras mensagens de erro (no máximo {@value MAXIMO_ERROS})
+         */
+        public List<String> getErros() {
+            return Collections.unmodifiableList(erros);
+        }
+        
+        public String getResumo() {
+            return importados + " agendamento(s) importado(s), " + rejeitados + " rejeitado(s)";
+        }
+    }
+}
@@ -96,8 +96,13 @@ public class SystemTrayManager {
         statusItem.setEnabled(false);
         popup.add(statusItem);
         
+        // Percentis do atraso dos disparos
+        MenuItem atrasoItem = new MenuItem("Atraso: carregando...");
+        atrasoItem.setEnabled(false);
+        popup.add(atrasoItem);
+        
         // Atualizar status periodicamente
-        Timer statusTimer = new Timer(5000, e -> atualizarStatus(statusItem));
+        Timer statusTimer = new Timer(5000, e -> atualizarStatus(statusItem, atrasoItem));
         statusTimer.start();
         
         popup.addSeparator();
@@ -153,9 +158,9 @@ public class SystemTrayManager {
     }
     
     /**
-     * Atualiza o status no menu do tray
+     * Atualiza o status e o atraso dos disparos no menu do tray
      */
-    private void atualizarStatus(MenuItem statusItem) {
+    private void atualizarStatus(MenuItem statusItem, MenuItem atrasoItem) {
         if (controller != null) {
             boolean isRunning = controller.isAgendadorAtivo();
             boolean isPlaying = controller.isReproducing();
@@ -170,6 +175,7 @@ public class SystemTrayManager {
             }
             
             statusItem.setLabel(status);
+            atrasoItem.setLabel(controller.getResumoAtraso());
         }
     }
     
@@ -213,9 +219,9 @@ public class SystemTrayManager {
         );
         
         if (resposta == JOptionPane.YES_OPTION) {
-            // Parar agendador
+            // Encerrar agendador
             if (controller != null) {
-                controller.pararAgendador();
+                controller.encerrar();
             }
             
             // Remover do system tray
@@ -0,0 +1,129 @@
+package com.agendador.util;
+
+/**
+ * Histograma de latências em milissegundos com memória constante
+ * As amostras não são guardadas: cada uma só incrementa uma faixa de valores.
+ * Até 31 ms as faixas são exatas; acima disso cada potência de dois é dividida
+ * em 16 faixas, com erro relativo de no máximo 1/16 (como no HdrHistogram).
+ * Percentis percorrem as faixas, nunca o histórico, e custam o mesmo com dez
+ * ou dez milhões de amostras. Valores acima de {@link #VALOR_MAXIMO_MS} contam
+ * na última faixa.
+ */
+public final class HistogramaLatencia {
+    
+    // Pouco mais de nove horas
+    public static final long VALOR_MAXIMO_MS = (1L << 25) - 1;
+    
+    private static final int BITS_SUBFAIXAS = 4;
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXAS;
+    private static final int FAIXAS_EXATAS = 2 * SUBFAIXAS;
+    private static final int TOTAL_FAIXAS = indice(VALOR_MAXIMO_MS) + 1;
+    
+    // Alocado na primeira amostra: agendamentos que nunca tocam não ocupam memória
+    private long[] contagens;
+    private long total;
+    private long somaMs;
+    private long maximoMs;
+    
+    public synchronized void registrar(long latenciaMs) {
+        long valor = Math.min(Math.max(latenciaMs, 0), VALOR_MAXIMO_MS);
+        if (contagens == null) {
+            contagens = new long[TOTAL_FAIXAS];
+        }
+        contagens[indice(valor)]++;
+        total++;
+        somaMs += valor;
+        maximoMs = Math.max(maximoMs, valor);
+    }
+    
+    /**
+     * Acumula as amostras de outro histograma neste
+     */
+    public void somar(HistogramaLatencia outro) {
+        long[] outrasContagens;
+        long outroTotal;
+        long outraSoma;
+        long outroMaximo;
+        synchronized (outro) {
+            if (outro.contagens == null) {
+                return;
+            }
+            outrasContagens = outro.contagens.clone();
+            outroTotal = outro.total;
+            outraSoma = outro.somaMs;
+            outroMaximo = outro.maximoMs;
+        }
+        synchronized (this) {
+            if (contagens == null) {
+                contagens = new long[TOTAL_FAIXAS];
+            }
+            for (int i = 0; i < TOTAL_FAIXAS; i++) {
+                contagens[i] += outrasContagens[i];
+            }
+            total += outroTotal;
+            somaMs += outraSoma;
+            maximoMs = Math.max(maximoMs, outroMaximo);
+        }
+    }
+    
+    /**
+     * Menor valor abaixo do qual (ou igual) estão pelo menos {@code percentil}% das amostras
+     * Devolve o limite superior da faixa, nunca acima do máximo registrado.
+     * @param percentil entre 0 e 100, por exemplo 50 ou 99
+     */
+    public synchronized long getPercentilMs(double percentil) {
+        if (total == 0) {
+            return 0;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(Math.min(percentil, 100.0) / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < TOTAL_FAIXAS; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posicao) {
+                return Math.min(limiteSuperior(i), maximoMs);
+            }
+        }
+        return maximoMs;
+    }
+    
+    public synchronized long getTotal() {
+        return total;
+    }
+    
+    public synchronized double getMediaMs() {
+        return total == 0 ? 0.0 : somaMs / (double) total;
+    }
+    
+    public synchronized long getMaximoMs() {
+        return maximoMs;
+    }
+    
+    /**
+     * Faixa do valor: exata até {@link #FAIXAS_EXATAS}, depois 16 por potência de dois
+     */
+    private static int indice(long valor) {
+        if (valor < FAIXAS_EXATAS) {
+            return (int) valor;
+        }
+        int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBFAIXAS;
+        return FAIXAS_EXATAS + (deslocamento - 1) * SUBFAIXAS + (int) (valor >> deslocamento) - SUBFAIXAS;
+    }
+    
+    /**
+     * Maior valor que cai na faixa
+     */
+    private static long limiteSuperior(int indice) {
+        if (indice < FAIXAS_EXATAS) {
+            return indice;
+        }
+        int deslocamento = (indice - FAIXAS_EXATAS) / SUBFAIXAS + 1;
+        long subfaixa = (indice - FAIXAS_EXATAS) % SUBFAIXAS + SUBFAIXAS;
+        return ((subfaixa + 1) << deslocamento) - 1;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("%d amostra(s), p50 %d ms, p99 %d ms, máxima %d ms",
+            total, getPercentilMs(50), getPercentilMs(99), maximoMs);
+    }
+}
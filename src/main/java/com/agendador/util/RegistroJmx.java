@@ -0,0 +1,68 @@
+package com.agendador.util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registro dos MBeans da aplicação no servidor JMX da plataforma
+ * Ficam no domínio {@value #DOMINIO}, um por área (type=Agendador, Audio, Banco),
+ * e podem ser consultados com jconsole ou jcmd na própria máquina.
+ */
+public final class RegistroJmx {
+    
+    public static final String DOMINIO = "com.agendador";
+    
+    private RegistroJmx() {
+        // Apenas métodos estáticos
+    }
+    
+    /**
+     * Registra o MBean com o tipo informado, substituindo um registro anterior do mesmo tipo
+     * Falhas são apenas registradas no log: o monitoramento nunca impede a aplicação de rodar.
+     * @return true se o MBean foi registrado
+     */
+    public static boolean registrar(String tipo, Object mbean) {
+        try {
+            ObjectName nome = nome(tipo);
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            synchronized (RegistroJmx.class) {
+                if (servidor.isRegistered(nome)) {
+                    servidor.unregisterMBean(nome);
+                }
+                servidor.registerMBean(mbean, nome);
+            }
+            System.out.println("MBean registrado: " + nome);
+            return true;
+        } catch (JMException e) {
+            System.err.println("Erro ao registrar MBean " + tipo + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Remove o MBean do tipo informado, se registrado
+     */
+    public static void remover(String tipo) {
+        try {
+            ObjectName nome = nome(tipo);
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            synchronized (RegistroJmx.class) {
+                if (servidor.isRegistered(nome)) {
+                    servidor.unregisterMBean(nome);
+                }
+            }
+        } catch (JMException e) {
+            System.err.println("Erro ao remover MBean " + tipo + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Nome do MBean do tipo informado, por exemplo com.agendador:type=Agendador
+     */
+    public static ObjectName nome(String tipo) throws MalformedObjectNameException {
+        return new ObjectName(DOMINIO + ":type=" + tipo);
+    }
+}
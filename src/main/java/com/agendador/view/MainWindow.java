@@ -3,6 +3,9 @@ package com.agendador.view;
 import com.agendador.controller.AgendadorController;
 import com.agendador.model.Agendamento;
 import com.agendador.model.DiaSemana;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import com.agendador.transferencia.TransferenciaAgendamentos.ResultadoImportacao;
 import com.agendador.tray.SystemTrayManager;
 
 import javax.swing.*;
@@ -20,6 +23,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Janela principal da aplicação
@@ -36,8 +40,12 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
     private JTextField campoArquivo;
     private JSpinner spinnerHora;
     private JSpinner spinnerMinuto;
+    private JSpinner spinnerSegundo;
     private JSpinner spinnerDuracao;
     private JComboBox<String> comboDispositivo;
+    private JComboBox<Prioridade> comboPrioridade;
+    private JComboBox<RecuperacaoDisparo> comboRecuperacao;
+    private JSpinner spinnerToleranciaRecuperacao;
     private JCheckBox[] checkboxesDias;
     private JTextArea areaObservacoes;
     private JButton btnSalvar;
@@ -45,6 +53,9 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
     private JButton btnRemover;
     private JButton btnTestar;
     private JButton btnIniciarParar;
+    private JButton btnImportar;
+    private JButton btnExportar;
+    private JButton btnEstatisticas;
     private JLabel labelStatus;
     private Agendamento agendamentoEditando;
     
@@ -70,7 +81,7 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         setIconImage(createAppIcon());
         
         // Tabela de agendamentos
-        String[] colunas = {"ID", "Nome", "Horário", "Duração (s)", "Dispositivo", "Dias", "Ativo"};
+        String[] colunas = {"ID", "Nome", "Horário", "Duração (s)", "Dispositivo", "Prioridade", "Dias", "Ativo"};
         modeloTabela = new DefaultTableModel(colunas, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -87,12 +98,25 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         
         spinnerHora = new JSpinner(new SpinnerNumberModel(8, 0, 23, 1));
         spinnerMinuto = new JSpinner(new SpinnerNumberModel(0, 0, 59, 1));
+        spinnerSegundo = new JSpinner(new SpinnerNumberModel(0, 0, 59, 1));
         spinnerDuracao = new JSpinner(new SpinnerNumberModel(30, 1, 3600, 1));
         
         // Dispositivos de áudio
         comboDispositivo = new JComboBox<>();
         atualizarDispositivosAudio();
         
+        // Prioridade: emergência interrompe os demais sinais do mesmo dispositivo
+        comboPrioridade = new JComboBox<>(Prioridade.values());
+        comboPrioridade.setSelectedItem(Prioridade.NORMAL);
+        
+        // Disparo perdido (PC suspenso, relógio adiantado): tolerância só vale para "se dentro da tolerância"
+        comboRecuperacao = new JComboBox<>(RecuperacaoDisparo.values());
+        spinnerToleranciaRecuperacao = new JSpinner(
+            new SpinnerNumberModel(Agendamento.TOLERANCIA_RECUPERACAO_PADRAO, 0, 3600, 10));
+        comboRecuperacao.addActionListener(e -> spinnerToleranciaRecuperacao.setEnabled(
+            comboRecuperacao.getSelectedItem() == RecuperacaoDisparo.DISPARAR_SE_RECENTE));
+        comboRecuperacao.setSelectedItem(RecuperacaoDisparo.DISPARAR_SE_RECENTE);
+        
         // Checkboxes para dias da semana
         DiaSemana[] dias = DiaSemana.values();
         checkboxesDias = new JCheckBox[dias.length];
@@ -110,6 +134,9 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         btnRemover = new JButton("Remover");
         btnTestar = new JButton("Testar");
         btnIniciarParar = new JButton("Pausar");
+        btnImportar = new JButton("Importar...");
+        btnExportar = new JButton("Exportar...");
+        btnEstatisticas = new JButton("Estatísticas...");
         
         labelStatus = new JLabel("Status: Iniciando...");
     }
@@ -125,6 +152,10 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         painelSuperior.add(btnIniciarParar);
         painelSuperior.add(new JSeparator(SwingConstants.VERTICAL));
         painelSuperior.add(labelStatus);
+        painelSuperior.add(new JSeparator(SwingConstants.VERTICAL));
+        painelSuperior.add(btnImportar);
+        painelSuperior.add(btnExportar);
+        painelSuperior.add(btnEstatisticas);
         
         // Painel central - dividido em lista e formulário
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT);
@@ -192,6 +223,8 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         painelHorario.add(spinnerHora);
         painelHorario.add(new JLabel(":"));
         painelHorario.add(spinnerMinuto);
+        painelHorario.add(new JLabel(":"));
+        painelHorario.add(spinnerSegundo);
         painel.add(painelHorario, gbc);
         
         // Duração
@@ -208,6 +241,25 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
         painel.add(comboDispositivo, gbc);
         
+        // Prioridade
+        row++;
+        gbc.gridx = 0; gbc.gridy = row; gbc.fill = GridBagConstraints.NONE;
+        painel.add(new JLabel("Prioridade:"), gbc);
+        gbc.gridx = 1;
+        painel.add(comboPrioridade, gbc);
+        
+        // Disparo perdido
+        row++;
+        gbc.gridx = 0; gbc.gridy = row;
+        painel.add(new JLabel("Se perdido:"), gbc);
+        gbc.gridx = 1;
+        JPanel painelRecuperacao = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        painelRecuperacao.add(comboRecuperacao);
+        painelRecuperacao.add(new JLabel(" até "));
+        painelRecuperacao.add(spinnerToleranciaRecuperacao);
+        painelRecuperacao.add(new JLabel(" s"));
+        painel.add(painelRecuperacao, gbc);
+        
         // Dias da semana
         row++;
         gbc.gridx = 0; gbc.gridy = row; gbc.fill = GridBagConstraints.NONE;
@@ -253,6 +305,9 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         btnRemover.addActionListener(e -> removerAgendamento());
         btnTestar.addActionListener(e -> testarAgendamento());
         btnIniciarParar.addActionListener(e -> toggleAgendador());
+        btnImportar.addActionListener(e -> importarAgendamentos());
+        btnExportar.addActionListener(e -> exportarAgendamentos());
+        btnEstatisticas.addActionListener(e -> mostrarEstatisticas());
         
         // Fechar janela
         addWindowListener(new WindowAdapter() {
@@ -261,6 +316,7 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
                 if (trayManager != null) {
                     trayManager.esconderParaTray();
                 } else {
+                    controller.encerrar();
                     System.exit(0);
                 }
             }
@@ -342,10 +398,14 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         
         int hora = (Integer) spinnerHora.getValue();
         int minuto = (Integer) spinnerMinuto.getValue();
-        agendamento.setHorario(LocalTime.of(hora, minuto));
+        int segundo = (Integer) spinnerSegundo.getValue();
+        agendamento.setHorario(LocalTime.of(hora, minuto, segundo));
         
         agendamento.setDuracaoSegundos((Integer) spinnerDuracao.getValue());
         agendamento.setDispositivoAudio((String) comboDispositivo.getSelectedItem());
+        agendamento.setPrioridade((Prioridade) comboPrioridade.getSelectedItem());
+        agendamento.setRecuperacao((RecuperacaoDisparo) comboRecuperacao.getSelectedItem());
+        agendamento.setToleranciaRecuperacaoSegundos((Integer) spinnerToleranciaRecuperacao.getValue());
         agendamento.setDiasSemana(diasSelecionados);
         agendamento.setObservacoes(areaObservacoes.getText().trim());
         
@@ -388,9 +448,13 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         LocalTime horario = agendamento.getHorario();
         spinnerHora.setValue(horario.getHour());
         spinnerMinuto.setValue(horario.getMinute());
+        spinnerSegundo.setValue(horario.getSecond());
         
         spinnerDuracao.setValue(agendamento.getDuracaoSegundos());
         comboDispositivo.setSelectedItem(agendamento.getDispositivoAudio());
+        comboPrioridade.setSelectedItem(agendamento.getPrioridade());
+        comboRecuperacao.setSelectedItem(agendamento.getRecuperacao());
+        spinnerToleranciaRecuperacao.setValue(agendamento.getToleranciaRecuperacaoSegundos());
         
         // Limpar checkboxes
         for (JCheckBox checkbox : checkboxesDias) {
@@ -471,6 +535,125 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         atualizarStatus();
     }
     
+    /**
+     * Cria o seletor de arquivos de agendamentos (JSON ou CSV)
+     */
+    private JFileChooser criarSeletorTransferencia() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Agendamentos JSON (*.json)", "json"));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Agendamentos CSV (*.csv)", "csv"));
+        return fileChooser;
+    }
+    
+    /**
+     * Importa agendamentos de um arquivo em segundo plano
+     */
+    private void importarAgendamentos() {
+        JFileChooser fileChooser = criarSeletorTransferencia();
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        File arquivo = fileChooser.getSelectedFile();
+        executarTransferencia(new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                ResultadoImportacao resultado = controller.importarAgendamentos(arquivo);
+                StringBuilder mensagem = new StringBuilder(resultado.getResumo());
+                for (String erro : resultado.getErros().subList(0, Math.min(10, resultado.getErros().size()))) {
+                    mensagem.append("\n").append(erro);
+                }
+                return mensagem.toString();
+            }
+        }, "Importação");
+    }
+    
+    /**
+     * Exporta todos os agendamentos para um arquivo em segundo plano
+     */
+    private void exportarAgendamentos() {
+        JFileChooser fileChooser = criarSeletorTransferencia();
+        fileChooser.setSelectedFile(new File("agendamentos.json"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        File escolhido = fileChooser.getSelectedFile();
+        String extensao = ((FileNameExtensionFilter) fileChooser.getFileFilter()).getExtensions()[0];
+        File arquivo = escolhido.getName().toLowerCase().endsWith("." + extensao)
+            ? escolhido
+            : new File(escolhido.getParentFile(), escolhido.getName() + "." + extensao);
+        
+        executarTransferencia(new SwingWorker<String, Void>() {
+            @Override
+            protected String doInBackground() throws Exception {
+                int total = controller.exportarAgendamentos(arquivo);
+                return total + " agendamento(s) exportado(s) para " + arquivo.getName();
+            }
+        }, "Exportação");
+    }
+    
+    /**
+     * Executa uma importação/exportação fora da thread da interface e mostra o resultado
+     */
+    private void executarTransferencia(SwingWorker<String, Void> tarefa, String titulo) {
+        btnImportar.setEnabled(false);
+        btnExportar.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        tarefa.addPropertyChangeListener(evento -> {
+            if (tarefa.isDone() && "state".equals(evento.getPropertyName())) {
+                btnImportar.setEnabled(true);
+                btnExportar.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                carregarAgendamentos();
+                
+                try {
+                    JOptionPane.showMessageDialog(this, tarefa.get(), titulo, JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(this,
+                        "Erro na " + titulo.toLowerCase() + ": " + e.getCause().getMessage(),
+                        "Erro", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        tarefa.execute();
+    }
+    
+    /**
+     * Mostra as estatísticas de execução, atualizadas a cada segundo enquanto a janela estiver aberta
+     */
+    private void mostrarEstatisticas() {
+        JTextArea areaEstatisticas = new JTextArea(24, 70);
+        areaEstatisticas.setEditable(false);
+        areaEstatisticas.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        areaEstatisticas.setText(controller.getRelatorioEstatisticas());
+        areaEstatisticas.setCaretPosition(0);
+        
+        JDialog dialogo = new JDialog(this, "Estatísticas de Execução", false);
+        dialogo.add(new JScrollPane(areaEstatisticas));
+        dialogo.pack();
+        dialogo.setLocationRelativeTo(this);
+        
+        Timer atualizacao = new Timer(1000, e -> {
+            int posicao = areaEstatisticas.getCaretPosition();
+            areaEstatisticas.setText(controller.getRelatorioEstatisticas());
+            areaEstatisticas.setCaretPosition(Math.min(posicao, areaEstatisticas.getDocument().getLength()));
+        });
+        dialogo.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                atualizacao.stop();
+            }
+        });
+        dialogo.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        atualizacao.start();
+        dialogo.setVisible(true);
+    }
+    
     /**
      * Limpa o formulário
      */
@@ -479,8 +662,12 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         campoArquivo.setText("");
         spinnerHora.setValue(8);
         spinnerMinuto.setValue(0);
+        spinnerSegundo.setValue(0);
         spinnerDuracao.setValue(30);
         comboDispositivo.setSelectedIndex(0);
+        comboPrioridade.setSelectedItem(Prioridade.NORMAL);
+        comboRecuperacao.setSelectedItem(RecuperacaoDisparo.DISPARAR_SE_RECENTE);
+        spinnerToleranciaRecuperacao.setValue(Agendamento.TOLERANCIA_RECUPERACAO_PADRAO);
         
         for (JCheckBox checkbox : checkboxesDias) {
             checkbox.setSelected(false);
@@ -509,9 +696,10 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
                 Object[] row = {
                     agendamento.getId(),
                     agendamento.getNome(),
-                    agendamento.getHorario().format(DateTimeFormatter.ofPattern("HH:mm")),
+                    agendamento.getHorario().format(DateTimeFormatter.ofPattern("HH:mm:ss")),
                     agendamento.getDuracaoSegundos(),
                     agendamento.getDispositivoAudio(),
+                    agendamento.getPrioridade().getDescricao(),
                     diasStr,
                     agendamento.isAtivo() ? "Sim" : "Não"
                 };
@@ -608,6 +796,11 @@ public class MainWindow extends JFrame implements AgendadorController.AgendadorL
         SwingUtilities.invokeLater(this::atualizarStatus);
     }
     
+    @Override
+    public void onAgendamentosRecarregados() {
+        SwingUtilities.invokeLater(this::carregarAgendamentos);
+    }
+    
     @Override
     public void onAgendamentoExecutado(Agendamento agendamento) {
         SwingUtilities.invokeLater(() -> {
@@ -0,0 +1,135 @@
+package com.agendador.audio;
+
+import com.agendador.audio.AudioManager.ModoReproducao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testes unitários para a escolha do modo de reprodução e o laço de streaming
+ */
+public class AudioManagerTest {
+    
+    // 8 kHz, 16 bits, estéreo: frames de 4 bytes
+    private static final AudioFormat FORMATO = new AudioFormat(8000f, 16, 2, true, false);
+    
+    @TempDir
+    Path diretorio;
+    
+    private byte[] criarDados(int bytes) {
+        byte[] dados = new byte[bytes];
+        for (int i = 0; i < dados.length; i++) {
+            dados[i] = (byte) i;
+        }
+        return dados;
+    }
+    
+    private AudioInputStream criarStream(byte[] dados) {
+        return new AudioInputStream(new ByteArrayInputStream(dados), FORMATO, dados.length / FORMATO.getFrameSize());
+    }
+    
+    private File criarWav(int bytes) throws Exception {
+        File arquivo = diretorio.resolve("sinal.wav").toFile();
+        try (AudioInputStream stream = criarStream(criarDados(bytes))) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, arquivo);
+        }
+        return arquivo;
+    }
+    
+    @Test
+    void testEstimativaDoTamanhoDecodificado() throws Exception {
+        File arquivo = criarWav(32000);
+        
+        assertEquals(32000, DecodificadorAudio.lerCabecalho(arquivo).getTamanhoPcm());
+        assertEquals(32000, CacheAudioDecodificado.decodificar(arquivo).getTamanho());
+        // O formato do cabeçalho é o mesmo que o stream decodificado entrega à linha
+        assertTrue(CacheAudioDecodificado.decodificar(arquivo).getFormato()
+            .matches(DecodificadorAudio.lerCabecalho(arquivo).getFormatoPcm()));
+    }
+    
+    @Test
+    void testModoPeloTamanhoDecodificado() throws Exception {
+        File arquivo = criarWav(32000);
+        
+        assertEquals(ModoReproducao.MEMORIA, new AudioManager(new CacheAudioDecodificado(0), null, 32000).escolherModo(arquivo));
+        assertEquals(ModoReproducao.STREAMING, new AudioManager(new CacheAudioDecodificado(0), null, 31999).escolherModo(arquivo));
+    }
+    
+    @Test
+    void testArquivoIlegivelUsaStreaming() throws Exception {
+        File arquivo = diretorio.resolve("corrompido.mp3").toFile();
+        Files.write(arquivo.toPath(), new byte[] {1, 2, 3});
+        
+        assertEquals(ModoReproducao.STREAMING, new AudioManager(new CacheAudioDecodificado(0), null, 1 << 20).escolherModo(arquivo));
+    }
+    
+    @Test
+    void testTransmitirRepeteAteCompletarADuracao() throws Exception {
+        byte[] dados = criarDados(1000);
+        AtomicInteger aberturas = new AtomicInteger();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        
+        long escritos = AudioManager.transmitir(() -> {
+            aberturas.incrementAndGet();
+            return criarStream(dados);
+        }, (b, inicio, tamanho) -> {
+            saida.write(b, inicio, tamanho);
+            return tamanho;
+        }, new byte[256], FORMATO.getFrameSize(), 2500, () -> true);
+        
+        assertEquals(2500, escritos);
+        assertEquals(3, aberturas.get());
+        byte[] tocado = saida.toByteArray();
+        assertEquals(2500, tocado.length);
+        assertEquals(dados[0], tocado[1000]);
+        assertEquals(dados[499], tocado[2499]);
+    }
+    
+    @Test
+    void testTransmitirEscreveApenasFramesInteiros() throws Exception {
+        AtomicInteger maiorEscrita = new AtomicInteger();
+        
+        AudioManager.transmitir(() -> criarStream(criarDados(4000)), (b, inicio, tamanho) -> {
+            assertEquals(0, tamanho % FORMATO.getFrameSize());
+            maiorEscrita.accumulateAndGet(tamanho, Math::max);
+            return tamanho;
+        }, new byte[255], FORMATO.getFrameSize(), 4000, () -> true);
+        
+        assertEquals(252, maiorEscrita.get());
+    }
+    
+    @Test
+    void testTransmitirParaQuandoInterrompido() throws Exception {
+        AtomicInteger escritas = new AtomicInteger();
+        
+        long escritos = AudioManager.transmitir(() -> criarStream(criarDados(4000)), (b, inicio, tamanho) -> {
+            escritas.incrementAndGet();
+            return tamanho;
+        }, new byte[100], FORMATO.getFrameSize(), 1_000_000, () -> escritas.get() < 3);
+        
+        assertEquals(300, escritos);
+    }
+    
+    @Test
+    void testTransmitirArquivoVazioNaoFicaEmLaco() throws Exception {
+        AtomicInteger aberturas = new AtomicInteger();
+        
+        long escritos = AudioManager.transmitir(() -> {
+            aberturas.incrementAndGet();
+            return criarStream(new byte[0]);
+        }, (b, inicio, tamanho) -> tamanho, new byte[100], FORMATO.getFrameSize(), 1000, () -> true);
+        
+        assertEquals(0, escritos);
+        assertEquals(1, aberturas.get());
+    }
+}
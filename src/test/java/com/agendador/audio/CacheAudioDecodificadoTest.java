@@ -0,0 +1,159 @@
+package com.agendador.audio;
+
+import com.agendador.audio.CacheAudioDecodificado.AudioDecodificado;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Testes unitários para o cache de áudio decodificado
+ */
+public class CacheAudioDecodificadoTest {
+    
+    // 8 kHz, 16 bits, mono: 16000 bytes por segundo
+    private static final AudioFormat FORMATO = new AudioFormat(8000f, 16, 1, true, false);
+    
+    @TempDir
+    Path diretorio;
+    
+    private File criarWav(String nome, int bytes) throws Exception {
+        File arquivo = diretorio.resolve(nome).toFile();
+        byte[] dados = new byte[bytes];
+        for (int i = 0; i < dados.length; i++) {
+            dados[i] = (byte) (i * 7);
+        }
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(dados), FORMATO, bytes / 2)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, arquivo);
+        }
+        return arquivo;
+    }
+    
+    @Test
+    void testSegundaLeituraVemDoCache() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        File arquivo = criarWav("sinal.wav", 16000);
+        
+        AudioDecodificado primeira = cache.obter(arquivo);
+        AudioDecodificado segunda = cache.obter(arquivo);
+        
+        assertSame(primeira, segunda);
+        assertEquals(16000, primeira.getTamanho());
+        assertEquals(1.0, primeira.getDuracaoSegundos(), 0.001);
+        assertEquals(1, cache.getFalhas());
+        assertEquals(1, cache.getAcertos());
+        assertEquals(50.0, cache.getTaxaAcerto(), 0.001);
+        assertEquals(16000, cache.getBytesEmUso());
+    }
+    
+    @Test
+    void testArquivoAlteradoEDecodificadoDeNovo() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        File arquivo = criarWav("sinal.wav", 16000);
+        AudioDecodificado original = cache.obter(arquivo);
+        
+        criarWav("sinal.wav", 8000);
+        AudioDecodificado alterado = cache.obter(arquivo);
+        
+        assertNotSame(original, alterado);
+        assertEquals(8000, alterado.getTamanho());
+        assertEquals(2, cache.getFalhas());
+        assertEquals(1, cache.getTotalEntradas());
+        assertEquals(8000, cache.getBytesEmUso());
+    }
+    
+    @Test
+    void testOrcamentoRemoveOMenosUsado() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(40000);
+        File a = criarWav("a.wav", 16000);
+        File b = criarWav("b.wav", 16000);
+        File c = criarWav("c.wav", 16000);
+        
+        cache.obter(a);
+        cache.obter(b);
+        cache.obter(a); // "a" passa a ser o mais recente
+        cache.obter(c); // excede o orçamento e remove "b"
+        
+        assertEquals(2, cache.getTotalEntradas());
+        assertEquals(1, cache.getRemocoes());
+        assertEquals(32000, cache.getBytesEmUso());
+        
+        long acertos = cache.getAcertos();
+        cache.obter(a);
+        assertEquals(acertos + 1, cache.getAcertos());
+        cache.obter(b);
+        assertEquals(acertos + 1, cache.getAcertos());
+    }
+    
+    @Test
+    void testArquivoMaiorQueOrcamentoNaoEMantido() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(10000);
+        File grande = criarWav("grande.wav", 16000);
+        
+        assertEquals(16000, cache.obter(grande).getTamanho());
+        assertEquals(0, cache.getTotalEntradas());
+        assertEquals(0, cache.getBytesEmUso());
+    }
+    
+    @Test
+    void testInvalidarELimpar() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        File a = criarWav("a.wav", 16000);
+        File b = criarWav("b.wav", 8000);
+        cache.obter(a);
+        cache.obter(b);
+        
+        cache.invalidar(a);
+        assertEquals(1, cache.getTotalEntradas());
+        assertEquals(8000, cache.getBytesEmUso());
+        
+        cache.limpar();
+        assertEquals(0, cache.getTotalEntradas());
+        assertEquals(0, cache.getBytesEmUso());
+    }
+    
+    @Test
+    void testCabecalhoLidoUmaVezPorVersaoDoArquivo() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        File arquivo = criarWav("sinal.wav", 16000);
+        
+        DecodificadorAudio.CabecalhoAudio primeiro = cache.lerCabecalho(arquivo);
+        assertSame(primeiro, cache.lerCabecalho(arquivo));
+        assertEquals(16000, primeiro.getTamanhoPcm());
+        assertTrue(FORMATO.matches(primeiro.getFormatoPcm()));
+        
+        criarWav("sinal.wav", 8000);
+        assertEquals(8000, cache.lerCabecalho(arquivo).getTamanhoPcm());
+        
+        cache.invalidar(arquivo);
+        assertNotSame(primeiro, cache.lerCabecalho(arquivo));
+    }
+    
+    @Test
+    void testCabecalhoNaoSuportadoContinuaRejeitado() throws Exception {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        File arquivo = diretorio.resolve("corrompido.wav").toFile();
+        Files.write(arquivo.toPath(), new byte[] {1, 2, 3});
+        
+        assertThrows(UnsupportedAudioFileException.class, () -> cache.lerCabecalho(arquivo));
+        assertThrows(UnsupportedAudioFileException.class, () -> cache.lerCabecalho(arquivo));
+        
+        criarWav("corrompido.wav", 8000);
+        assertEquals(8000, cache.lerCabecalho(arquivo).getTamanhoPcm());
+    }
+    
+    @Test
+    void testArquivoInexistente() {
+        CacheAudioDecodificado cache = new CacheAudioDecodificado(1_000_000);
+        assertThrows(IllegalArgumentException.class,
+            () -> cache.obter(diretorio.resolve("nao-existe.wav").toFile()));
+    }
+}
@@ -0,0 +1,142 @@
+package com.agendador.audio;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.SourceDataLine;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Testes unitários para o pool de linhas de áudio
+ */
+public class PoolLinhasAudioTest {
+    
+    private static final AudioFormat FORMATO = new AudioFormat(44100f, 16, 2, true, false);
+    private static final AudioFormat OUTRO_FORMATO = new AudioFormat(22050f, 16, 1, true, false);
+    
+    private final AtomicLong relogio = new AtomicLong(1_000_000);
+    private final List<SourceDataLine> abertas = new ArrayList<>();
+    private PoolLinhasAudio pool;
+    
+    @BeforeEach
+    void setUp() {
+        pool = new PoolLinhasAudio((dispositivo, formato) -> {
+            SourceDataLine linha = criarLinha(formato);
+            abertas.add(linha);
+            return linha;
+        }, relogio::get, 30_000);
+    }
+    
+    /**
+     * Linha falsa que só registra se está aberta
+     */
+    private SourceDataLine criarLinha(AudioFormat formato) {
+        AtomicBoolean aberta = new AtomicBoolean(true);
+        return (SourceDataLine) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {SourceDataLine.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                case "isOpen" -> aberta.get();
+                case "close" -> {
+                    aberta.set(false);
+                    yield null;
+                }
+                case "getFormat" -> formato;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+    }
+    
+    @Test
+    void testLinhaDevolvidaEReaproveitada() throws Exception {
+        SourceDataLine primeira = pool.obter("USB", FORMATO);
+        pool.devolver("USB", primeira);
+        SourceDataLine segunda = pool.obter("USB", FORMATO);
+        
+        assertSame(primeira, segunda);
+        assertEquals(1, abertas.size());
+        assertEquals(1, pool.getReaproveitadas());
+        assertEquals(0, pool.getTotalOciosas());
+    }
+    
+    @Test
+    void testDispositivoOuFormatoDiferenteAbreOutraLinha() throws Exception {
+        pool.devolver("USB", pool.obter("USB", FORMATO));
+        
+        assertNotSame(abertas.get(0), pool.obter("USB", OUTRO_FORMATO));
+        assertNotSame(abertas.get(0), pool.obter("Alto-falantes", FORMATO));
+        assertEquals(3, abertas.size());
+    }
+    
+    @Test
+    void testDispositivoPadraoCompartilhaAsLinhasDaSaidaPadrao() throws Exception {
+        SourceDataLine linha = pool.obter(null, FORMATO);
+        pool.devolver(PoolLinhasAudio.DISPOSITIVO_PADRAO, linha);
+        assertSame(linha, pool.obter("  ", FORMATO));
+        pool.devolver("", linha);
+        assertSame(linha, pool.obter(PoolLinhasAudio.DISPOSITIVO_PADRAO, FORMATO));
+        
+        assertEquals(1, abertas.size());
+        assertEquals("", PoolLinhasAudio.normalizarDispositivo(" Dispositivo Padrão "));
+        assertEquals("USB", PoolLinhasAudio.normalizarDispositivo(" USB "));
+        assertNull(pool.obterMixer(PoolLinhasAudio.DISPOSITIVO_PADRAO));
+    }
+    
+    @Test
+    void testExcessoDeLinhasOciosasEFechado() throws Exception {
+        SourceDataLine a = pool.obter(null, FORMATO);
+        SourceDataLine b = pool.obter(null, FORMATO);
+        SourceDataLine c = pool.obter(null, FORMATO);
+        
+        pool.devolver(null, a);
+        pool.devolver(null, b);
+        pool.devolver(null, c);
+        
+        assertEquals(2, pool.getTotalOciosas());
+        assertFalse(c.isOpen());
+    }
+    
+    @Test
+    void testPreaquecerAbreUmaLinhaSo() throws Exception {
+        pool.preaquecer("USB", FORMATO);
+        pool.preaquecer("USB", FORMATO);
+        
+        assertEquals(1, abertas.size());
+        assertEquals(1, pool.getTotalOciosas());
+        assertSame(abertas.get(0), pool.obter("USB", FORMATO));
+    }
+    
+    @Test
+    void testLinhasOciosasSaoFechadasAposOPrazo() throws Exception {
+        pool.preaquecer("USB", FORMATO);
+        SourceDataLine linha = abertas.get(0);
+        
+        relogio.addAndGet(20_000);
+        assertEquals(0, pool.liberarOciosas());
+        
+        // Preaquecer de novo renova o prazo
+        pool.preaquecer("USB", FORMATO);
+        relogio.addAndGet(20_000);
+        assertEquals(0, pool.liberarOciosas());
+        
+        relogio.addAndGet(10_000);
+        assertEquals(1, pool.liberarOciosas());
+        assertFalse(linha.isOpen());
+        assertEquals(0, pool.getTotalOciosas());
+        assertEquals(1, pool.getFechadasPorOciosidade());
+    }
+    
+    @Test
+    void testLinhaFechadaNaoEReaproveitada() throws Exception {
+        SourceDataLine linha = pool.obter("USB", FORMATO);
+        pool.devolver("USB", linha);
+        linha.close();
+        
+        assertNotSame(linha, pool.obter("USB", FORMATO));
+        assertEquals(2, abertas.size());
+    }
+}
@@ -0,0 +1,70 @@
+package com.agendador.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Testes unitários para o cache de comandos preparados
+ */
+public class ConexaoBancoTest {
+    
+    @TempDir
+    Path diretorio;
+    
+    private ConexaoBanco conexao;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        conexao = new ConexaoBanco(DriverManager.getConnection("jdbc:sqlite:" + diretorio.resolve("cache.db")));
+        conexao.getConexao().createStatement().execute("CREATE TABLE itens (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT)");
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        conexao.fechar();
+    }
+    
+    @Test
+    void testMesmoSqlReutilizaComando() throws Exception {
+        PreparedStatement primeiro = conexao.preparar("SELECT nome FROM itens WHERE id = ?");
+        PreparedStatement segundo = conexao.preparar("SELECT nome FROM itens WHERE id = ?");
+        
+        assertSame(primeiro, segundo);
+        assertEquals(1, conexao.getTotalComandos());
+    }
+    
+    @Test
+    void testInsercaoDevolveChavesGeradas() throws Exception {
+        for (long esperado = 1; esperado <= 3; esperado++) {
+            PreparedStatement insert = conexao.prepararComChaves("INSERT INTO itens (nome) VALUES (?)");
+            insert.setString(1, "item" + esperado);
+            insert.executeUpdate();
+            
+            try (ResultSet chaves = insert.getGeneratedKeys()) {
+                assertTrue(chaves.next());
+                assertEquals(esperado, chaves.getLong(1));
+            }
+        }
+        
+        assertEquals(1, conexao.getTotalComandos());
+    }
+    
+    @Test
+    void testCacheDescartaEFechaComandosMaisAntigos() throws Exception {
+        PreparedStatement primeiro = conexao.preparar("SELECT 0");
+        for (int i = 1; i <= 64; i++) {
+            conexao.preparar("SELECT " + i);
+        }
+        
+        assertEquals(64, conexao.getTotalComandos());
+        assertTrue(primeiro.isClosed());
+        assertNotSame(primeiro, conexao.preparar("SELECT 0"));
+    }
+}
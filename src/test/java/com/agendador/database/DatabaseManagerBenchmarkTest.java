@@ -0,0 +1,137 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Benchmark de carga de agendamentos (executar com: mvn test -Pbenchmark)
+ * Compara a carga antiga com uma consulta de dias por agendamento (N+1)
+ * com a carga atual em uma única consulta. A tabela agendamento_dias do
+ * esquema antigo é recriada apenas para a comparação.
+ */
+@Tag("benchmark")
+public class DatabaseManagerBenchmarkTest {
+    
+    private static final int TOTAL_AGENDAMENTOS = 10_000;
+    private static final int REPETICOES = 5;
+    
+    @TempDir
+    Path diretorio;
+    
+    private String url;
+    private DatabaseManager databaseManager;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        url = "jdbc:sqlite:" + diretorio.resolve("benchmark.db");
+        databaseManager = new DatabaseManager(url);
+        databaseManager.initializeDatabase();
+        
+        for (int i = 0; i < TOTAL_AGENDAMENTOS; i++) {
+            Agendamento ag = new Agendamento("Sinal " + i, "/sinais/sinal.wav",
+                LocalTime.ofSecondOfDay((i * 7L) % 86_400).withSecond(0), 5, null);
+            ag.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.QUARTA, DiaSemana.SEXTA));
+            databaseManager.salvarAgendamento(ag);
+        }
+        
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE agendamento_dias (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                         "agendamento_id INTEGER NOT NULL, dia_semana INTEGER NOT NULL, " +
+                         "UNIQUE(agendamento_id, dia_semana))");
+            for (DiaSemana dia : DiaSemana.values()) {
+                stmt.execute("INSERT INTO agendamento_dias (agendamento_id, dia_semana) " +
+                             "SELECT id, " + dia.getValor() + " FROM agendamentos WHERE (dias & " + dia.getMascara() + ") != 0");
+            }
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        databaseManager.fecharConexao();
+    }
+    
+    @Test
+    void benchmarkCargaDeAgendamentos() throws Exception {
+        long[] consultasAntigas = new long[1];
+        long tempoAntigoNs = Long.MAX_VALUE;
+        try (Connection connection = DriverManager.getConnection(url)) {
+            for (int i = 0; i < REPETICOES; i++) {
+                consultasAntigas[0] = 0;
+                long inicio = System.nanoTime();
+                int total = carregarComN1(connection, consultasAntigas);
+                tempoAntigoNs = Math.min(tempoAntigoNs, System.nanoTime() - inicio);
+                assertEquals(TOTAL_AGENDAMENTOS, total);
+            }
+        }
+        
+        long consultasAtuais = 0;
+        long tempoAtualNs = Long.MAX_VALUE;
+        for (int i = 0; i < REPETICOES; i++) {
+            long antes = databaseManager.getTotalConsultas();
+            long inicio = System.nanoTime();
+            List<Agendamento> agendamentos = databaseManager.buscarTodosAgendamentos();
+            tempoAtualNs = Math.min(tempoAtualNs, System.nanoTime() - inicio);
+            consultasAtuais = databaseManager.getTotalConsultas() - antes;
+            assertEquals(TOTAL_AGENDAMENTOS, agendamentos.size());
+        }
+        
+        System.out.printf("Carga de %d agendamentos (melhor de %d):%n", TOTAL_AGENDAMENTOS, REPETICOES);
+        System.out.printf("  N+1:          %6d consultas, %8.1f ms%n", consultasAntigas[0], tempoAntigoNs / 1e6);
+        System.out.printf("  Consulta única: %4d consultas, %8.1f ms%n", consultasAtuais, tempoAtualNs / 1e6);
+        
+        assertEquals(1, consultasAtuais);
+        assertEquals(TOTAL_AGENDAMENTOS + 1, consultasAntigas[0]);
+    }
+    
+    /**
+     * Reproduz a carga antiga: uma consulta para os agendamentos e uma para os dias de cada um,
+     * preparada novamente a cada linha como fazia buscarDiasSemana
+     */
+    private int carregarComN1(Connection connection, long[] consultas) throws Exception {
+        int total = 0;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM agendamentos ORDER BY horario")) {
+            consultas[0]++;
+            while (rs.next()) {
+                Agendamento agendamento = new Agendamento();
+                agendamento.setId(rs.getLong("id"));
+                agendamento.setNome(rs.getString("nome"));
+                agendamento.setCaminhoAudio(rs.getString("caminho_audio"));
+                agendamento.setHorario(LocalTime.parse(rs.getString("horario")));
+                agendamento.setDuracaoSegundos(rs.getInt("duracao_segundos"));
+                agendamento.setDispositivoAudio(rs.getString("dispositivo_audio"));
+                agendamento.setAtivo(rs.getInt("ativo") == 1);
+                agendamento.setObservacoes(rs.getString("observacoes"));
+                
+                try (PreparedStatement dias = connection.prepareStatement(
+                         "SELECT dia_semana FROM agendamento_dias WHERE agendamento_id = ?")) {
+                    dias.setLong(1, agendamento.getId());
+                    try (ResultSet rsDias = dias.executeQuery()) {
+                        consultas[0]++;
+                        while (rsDias.next()) {
+                            agendamento.adicionarDiaSemana(DiaSemana.fromValor(rsDias.getInt(1)));
+                        }
+                    }
+                }
+                total++;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,494 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.model.Execucao;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import com.agendador.model.ResultadoExecucao;
+import com.agendador.util.RegistroJmx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes de integração do DatabaseManager com um banco SQLite temporário
+ */
+public class DatabaseManagerTest {
+    
+    @TempDir
+    Path diretorio;
+    
+    private DatabaseManager databaseManager;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        databaseManager = new DatabaseManager("jdbc:sqlite:" + diretorio.resolve("teste.db"));
+        databaseManager.initializeDatabase();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        databaseManager.fecharConexao();
+    }
+    
+    private Agendamento criarAgendamento(String nome, LocalTime horario, Set<DiaSemana> dias) {
+        Agendamento agendamento = new Agendamento(nome, "/sinais/" + nome + ".wav", horario, 10, "Alto-falantes");
+        agendamento.setDiasSemana(dias);
+        agendamento.setObservacoes("Observação de " + nome);
+        return agendamento;
+    }
+    
+    @Test
+    void testSalvarEBuscarComDias() throws Exception {
+        Agendamento ag = criarAgendamento("entrada", LocalTime.of(7, 0),
+            EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.QUARTA, DiaSemana.SEXTA));
+        Long id = databaseManager.salvarAgendamento(ag);
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        
+        assertEquals(1, todos.size());
+        Agendamento lido = todos.get(0);
+        assertEquals(id, lido.getId());
+        assertEquals("entrada", lido.getNome());
+        assertEquals(LocalTime.of(7, 0), lido.getHorario());
+        assertEquals("Alto-falantes", lido.getDispositivoAudio());
+        assertEquals(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.QUARTA, DiaSemana.SEXTA), lido.getDiasSemana());
+    }
+    
+    @Test
+    void testAgendamentoSemDias() throws Exception {
+        databaseManager.salvarAgendamento(criarAgendamento("vazio", LocalTime.of(9, 0), EnumSet.noneOf(DiaSemana.class)));
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        
+        assertEquals(1, todos.size());
+        assertTrue(todos.get(0).getDiasSemana().isEmpty());
+    }
+    
+    @Test
+    void testBuscarAtivosIgnoraInativos() throws Exception {
+        Agendamento ativo = criarAgendamento("ativo", LocalTime.of(8, 0), EnumSet.of(DiaSemana.TERCA));
+        Agendamento inativo = criarAgendamento("inativo", LocalTime.of(8, 0), EnumSet.of(DiaSemana.TERCA));
+        inativo.setAtivo(false);
+        databaseManager.salvarAgendamento(ativo);
+        databaseManager.salvarAgendamento(inativo);
+        
+        List<Agendamento> ativos = databaseManager.buscarAgendamentosAtivos();
+        
+        assertEquals(1, ativos.size());
+        assertEquals("ativo", ativos.get(0).getNome());
+        assertEquals(2, databaseManager.buscarTodosAgendamentos().size());
+    }
+    
+    @Test
+    void testBuscaEmUmaUnicaConsulta() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            databaseManager.salvarAgendamento(criarAgendamento("sinal" + i, LocalTime.of(8, i),
+                EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.TERCA)));
+        }
+        
+        long antes = databaseManager.getTotalConsultas();
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        
+        assertEquals(20, todos.size());
+        assertEquals(1, databaseManager.getTotalConsultas() - antes);
+    }
+    
+    @Test
+    void testAtualizarERemover() throws Exception {
+        Agendamento ag = criarAgendamento("saida", LocalTime.of(17, 0), EnumSet.of(DiaSemana.SEXTA));
+        databaseManager.salvarAgendamento(ag);
+        
+        ag.setHorario(LocalTime.of(17, 30));
+        ag.setDiasSemana(EnumSet.of(DiaSemana.SABADO, DiaSemana.DOMINGO));
+        databaseManager.atualizarAgendamento(ag);
+        
+        Agendamento lido = databaseManager.buscarTodosAgendamentos().get(0);
+        assertEquals(LocalTime.of(17, 30), lido.getHorario());
+        assertEquals(EnumSet.of(DiaSemana.SABADO, DiaSemana.DOMINGO), lido.getDiasSemana());
+        
+        databaseManager.removerAgendamento(ag.getId());
+        assertTrue(databaseManager.buscarTodosAgendamentos().isEmpty());
+    }
+    
+    @Test
+    void testBuscarAtivosNoDia() throws Exception {
+        databaseManager.salvarAgendamento(criarAgendamento("terca", LocalTime.of(8, 0), EnumSet.of(DiaSemana.TERCA)));
+        databaseManager.salvarAgendamento(criarAgendamento("semana", LocalTime.of(9, 0),
+            EnumSet.range(DiaSemana.SEGUNDA, DiaSemana.SEXTA)));
+        databaseManager.salvarAgendamento(criarAgendamento("sabado", LocalTime.of(10, 0), EnumSet.of(DiaSemana.SABADO)));
+        
+        List<Agendamento> naTerca = databaseManager.buscarAgendamentosAtivosNoDia(DiaSemana.TERCA);
+        
+        assertEquals(2, naTerca.size());
+        assertEquals("terca", naTerca.get(0).getNome());
+        assertEquals("semana", naTerca.get(1).getNome());
+        assertTrue(databaseManager.buscarAgendamentosAtivosNoDia(DiaSemana.DOMINGO).isEmpty());
+    }
+    
+    @Test
+    void testMigracaoDeBancoComTabelaDeDias() throws Exception {
+        String url = "jdbc:sqlite:" + diretorio.resolve("antigo.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE agendamentos (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, " +
+                         "caminho_audio TEXT NOT NULL, horario TEXT NOT NULL, duracao_segundos INTEGER NOT NULL, " +
+                         "dispositivo_audio TEXT, ativo INTEGER NOT NULL DEFAULT 1, observacoes TEXT, " +
+                         "created_at TEXT, updated_at TEXT)");
+            stmt.execute("CREATE TABLE agendamento_dias (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                         "agendamento_id INTEGER NOT NULL, dia_semana INTEGER NOT NULL, " +
+                         "UNIQUE(agendamento_id, dia_semana))");
+            stmt.execute("INSERT INTO agendamentos (nome, caminho_audio, horario, duracao_segundos) " +
+                         "VALUES ('recreio', 'recreio.wav', '10:00', 15), ('sem dias', 'x.wav', '11:00', 5)");
+            stmt.execute("INSERT INTO agendamento_dias (agendamento_id, dia_semana) VALUES (1, 2), (1, 4), (1, 6)");
+        }
+        
+        DatabaseManager antigo = new DatabaseManager(url);
+        try {
+            antigo.initializeDatabase();
+            
+            List<Agendamento> agendamentos = antigo.buscarTodosAgendamentos();
+            assertEquals(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.QUARTA, DiaSemana.SEXTA),
+                agendamentos.get(0).getDiasSemana());
+            assertTrue(agendamentos.get(1).getDiasSemana().isEmpty());
+        } finally {
+            antigo.fecharConexao();
+        }
+        
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getInt(1) >= 1);
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'agendamento_dias'")) {
+                assertFalse(rs.next());
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'execucoes'")) {
+                assertTrue(rs.next());
+            }
+        }
+    }
+    
+    @Test
+    void testPrioridadeSalvaEAtualizada() throws Exception {
+        Agendamento ag = criarAgendamento("evacuacao", LocalTime.of(9, 30), EnumSet.of(DiaSemana.SEGUNDA));
+        ag.setPrioridade(Prioridade.EMERGENCIA);
+        databaseManager.salvarAgendamento(ag);
+        databaseManager.salvarAgendamento(criarAgendamento("recreio", LocalTime.of(10, 0), EnumSet.of(DiaSemana.SEGUNDA)));
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(Prioridade.EMERGENCIA, todos.get(0).getPrioridade());
+        assertEquals(Prioridade.NORMAL, todos.get(1).getPrioridade());
+        
+        ag.setPrioridade(Prioridade.ALTA);
+        databaseManager.atualizarAgendamento(ag);
+        assertEquals(Prioridade.ALTA, databaseManager.buscarTodosAgendamentos().get(0).getPrioridade());
+    }
+    
+    @Test
+    void testRecuperacaoSalvaEAtualizada() throws Exception {
+        Agendamento ag = criarAgendamento("entrada", LocalTime.of(7, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        databaseManager.salvarAgendamento(ag);
+        
+        Agendamento salvo = databaseManager.buscarTodosAgendamentos().get(0);
+        assertEquals(RecuperacaoDisparo.DISPARAR_SE_RECENTE, salvo.getRecuperacao());
+        assertEquals(Agendamento.TOLERANCIA_RECUPERACAO_PADRAO, salvo.getToleranciaRecuperacaoSegundos());
+        
+        ag.setRecuperacao(RecuperacaoDisparo.IGNORAR);
+        ag.setToleranciaRecuperacaoSegundos(300);
+        databaseManager.atualizarAgendamento(ag);
+        
+        Agendamento atualizado = databaseManager.buscarTodosAgendamentos().get(0);
+        assertEquals(RecuperacaoDisparo.IGNORAR, atualizado.getRecuperacao());
+        assertEquals(300, atualizado.getToleranciaRecuperacaoSegundos());
+    }
+    
+    @Test
+    void testMigracaoDaVersao1ParaPrioridade() throws Exception {
+        String url = "jdbc:sqlite:" + diretorio.resolve("versao1.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE agendamentos (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, " +
+                         "caminho_audio TEXT NOT NULL, horario TEXT NOT NULL, duracao_segundos INTEGER NOT NULL, " +
+                         "dispositivo_audio TEXT, dias INTEGER NOT NULL DEFAULT 0, ativo INTEGER NOT NULL DEFAULT 1, " +
+                         "observacoes TEXT, created_at TEXT, updated_at TEXT)");
+            stmt.execute("INSERT INTO agendamentos (nome, caminho_audio, horario, duracao_segundos, dias) " +
+                         "VALUES ('entrada', 'entrada.wav', '07:00', 10, 2)");
+            stmt.execute("PRAGMA user_version = 1");
+        }
+        
+        DatabaseManager antigo = new DatabaseManager(url);
+        try {
+            antigo.initializeDatabase();
+            
+            List<Agendamento> agendamentos = antigo.buscarTodosAgendamentos();
+            assertEquals(1, agendamentos.size());
+            assertEquals(Prioridade.NORMAL, agendamentos.get(0).getPrioridade());
+            assertEquals(RecuperacaoDisparo.DISPARAR_SE_RECENTE, agendamentos.get(0).getRecuperacao());
+            assertEquals(EnumSet.of(DiaSemana.SEGUNDA), agendamentos.get(0).getDiasSemana());
+        } finally {
+            antigo.fecharConexao();
+        }
+    }
+    
+    @Test
+    void testEscritasELeiturasConcorrentes() throws Exception {
+        int threads = 8;
+        int porThread = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porThread; i++) {
+                        databaseManager.salvarAgendamento(criarAgendamento("t" + thread + "_" + i,
+                            LocalTime.of(thread, i), EnumSet.of(DiaSemana.SEGUNDA)));
+                    }
+                    return null;
+                }));
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porThread; i++) {
+                        databaseManager.buscarAgendamentosAtivos();
+                    }
+                    return null;
+                }));
+            }
+            
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(threads * porThread, todos.size());
+        assertEquals(threads * porThread, todos.stream().map(Agendamento::getId).distinct().count());
+    }
+    
+    @Test
+    void testFalhaDeUmaEscritaNaoAfetaAsDemais() throws Exception {
+        Agendamento inexistente = criarAgendamento("fantasma", LocalTime.of(6, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        inexistente.setId(9999L);
+        
+        assertThrows(java.sql.SQLException.class, () -> databaseManager.atualizarAgendamento(inexistente));
+        databaseManager.salvarAgendamento(criarAgendamento("real", LocalTime.of(6, 0), EnumSet.of(DiaSemana.SEGUNDA)));
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(1, todos.size());
+        assertEquals("real", todos.get(0).getNome());
+    }
+    
+    @Test
+    void testAplicarLoteComCriacoesAtualizacoesERemocoes() throws Exception {
+        Agendamento manter = criarAgendamento("manter", LocalTime.of(7, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        Agendamento apagar = criarAgendamento("apagar", LocalTime.of(8, 0), EnumSet.of(DiaSemana.TERCA));
+        databaseManager.salvarAgendamento(manter);
+        databaseManager.salvarAgendamento(apagar);
+        
+        Agendamento novo = criarAgendamento("novo", LocalTime.of(9, 0), EnumSet.of(DiaSemana.QUARTA));
+        manter.setHorario(LocalTime.of(7, 5));
+        databaseManager.aplicarLote(new LoteAgendamentos()
+            .criar(novo)
+            .atualizar(manter)
+            .remover(apagar.getId()));
+        
+        assertNotNull(novo.getId());
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(List.of("manter", "novo"), todos.stream().map(Agendamento::getNome).toList());
+        assertEquals(LocalTime.of(7, 5), todos.get(0).getHorario());
+    }
+    
+    @Test
+    void testLoteComFalhaNaoContaminaOProximo() throws Exception {
+        Agendamento primeiro = criarAgendamento("primeiro", LocalTime.of(7, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        Agendamento segundo = criarAgendamento("segundo", LocalTime.of(8, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        Agendamento terceiro = criarAgendamento("terceiro", LocalTime.of(9, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        databaseManager.salvarAgendamento(primeiro);
+        databaseManager.salvarAgendamento(segundo);
+        databaseManager.salvarAgendamento(terceiro);
+        
+        // A atualização do primeiro entra no lote JDBC antes de o segundo falhar
+        primeiro.setHorario(LocalTime.of(7, 30));
+        segundo.setHorario(null);
+        assertThrows(RuntimeException.class, () -> databaseManager.aplicarLote(new LoteAgendamentos()
+            .atualizar(primeiro)
+            .atualizar(segundo)));
+        // Remoção de um agendamento inexistente também desfaz o lote
+        assertThrows(java.sql.SQLException.class, () -> databaseManager.aplicarLote(new LoteAgendamentos()
+            .remover(segundo.getId())
+            .remover(9999L)));
+        assertThrows(IllegalArgumentException.class, () -> new LoteAgendamentos().remover(null));
+        
+        terceiro.setHorario(LocalTime.of(9, 15));
+        databaseManager.aplicarLote(new LoteAgendamentos().atualizar(terceiro));
+        databaseManager.aplicarLote(new LoteAgendamentos().remover(terceiro.getId()));
+        
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(List.of("primeiro", "segundo"), todos.stream().map(Agendamento::getNome).toList());
+        assertEquals(LocalTime.of(7, 0), todos.get(0).getHorario());
+    }
+    
+    @Test
+    void testLoteComFalhaNaoGravaNada() throws Exception {
+        Agendamento existente = criarAgendamento("existente", LocalTime.of(7, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        databaseManager.salvarAgendamento(existente);
+        
+        Agendamento fantasma = criarAgendamento("fantasma", LocalTime.of(6, 0), EnumSet.of(DiaSemana.SEGUNDA));
+        fantasma.setId(9999L);
+        Agendamento novo = criarAgendamento("novo", LocalTime.of(9, 0), EnumSet.of(DiaSemana.QUARTA));
+        existente.setHorario(LocalTime.of(7, 30));
+        
+        LoteAgendamentos lote = new LoteAgendamentos()
+            .criar(novo)
+            .atualizar(existente)
+            .atualizar(fantasma)
+            .remover(existente.getId());
+        assertThrows(java.sql.SQLException.class, () -> databaseManager.aplicarLote(lote));
+        
+        assertNull(novo.getId());
+        List<Agendamento> todos = databaseManager.buscarTodosAgendamentos();
+        assertEquals(1, todos.size());
+        assertEquals(LocalTime.of(7, 0), todos.get(0).getHorario());
+    }
+    
+    @Test
+    void testPercorrerAgendamentosComCursor() throws Exception {
+        databaseManager.salvarAgendamento(criarAgendamento("tarde", LocalTime.of(13, 0), EnumSet.of(DiaSemana.SEGUNDA)));
+        databaseManager.salvarAgendamento(criarAgendamento("manha", LocalTime.of(7, 0), EnumSet.of(DiaSemana.TERCA)));
+        
+        List<String> nomes = new ArrayList<>();
+        databaseManager.percorrerAgendamentos(ag -> nomes.add(ag.getNome()));
+        
+        assertEquals(List.of("manha", "tarde"), nomes);
+    }
+    
+    @Test
+    void testAlteracaoDeOutroProcessoEDetectadaSemContarAsProprias() throws Exception {
+        CountDownLatch alterado = new CountDownLatch(1);
+        databaseManager.adicionarOuvinteAlteracaoExterna(alterado::countDown);
+        
+        // Escritas da própria aplicação não são alterações externas
+        databaseManager.salvarAgendamento(criarAgendamento("proprio", LocalTime.of(7, 0), EnumSet.of(DiaSemana.SEGUNDA)));
+        assertFalse(alterado.await(1200, TimeUnit.MILLISECONDS));
+        
+        String url = "jdbc:sqlite:" + diretorio.resolve("teste.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE agendamentos SET horario = '07:05:00'");
+        }
+        
+        assertTrue(alterado.await(1, TimeUnit.SECONDS), "Alteração externa não detectada em um segundo");
+        assertEquals(1, databaseManager.getAlteracoesExternas());
+        
+        // A leitura do escritor não prende a versão: uma segunda alteração também é vista
+        CountDownLatch segunda = new CountDownLatch(1);
+        databaseManager.adicionarOuvinteAlteracaoExterna(segunda::countDown);
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE agendamentos SET horario = '07:10:00'");
+        }
+        assertTrue(segunda.await(1, TimeUnit.SECONDS), "Segunda alteração externa não detectada em um segundo");
+        assertEquals(2, databaseManager.getAlteracoesExternas());
+    }
+    
+    @Test
+    void testHistoricoDeExecucoesPorDiaEPorAgendamento() throws Exception {
+        // Dias recentes, dentro da retenção aplicada na inicialização
+        Instant inicioDia3 = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(2, ChronoUnit.DAYS);
+        Instant inicioDia4 = inicioDia3.plus(1, ChronoUnit.DAYS);
+        Instant dia3 = inicioDia3.plus(12, ChronoUnit.HOURS);
+        Instant dia4 = inicioDia4.plus(12, ChronoUnit.HOURS);
+        databaseManager.registrarExecucao(new Execucao(1L, "meio-dia", dia3.toEpochMilli(),
+            dia3.toEpochMilli() + 12, 5000, "Alto-falantes", ResultadoExecucao.TOCADO));
+        databaseManager.registrarExecucao(new Execucao(2L, "recreio", dia3.toEpochMilli() - 3_600_000,
+            null, 0, "Alto-falantes", ResultadoExecucao.DESCARTADO));
+        databaseManager.registrarExecucao(new Execucao(1L, "meio-dia", dia4.toEpochMilli(),
+            dia4.toEpochMilli() + 30, 5000, "Alto-falantes", ResultadoExecucao.TOCADO));
+        databaseManager.aguardarEscritasPendentes();
+        
+        // O sinal das 12:00 tocou naquele dia?
+        List<Execucao> doDia = databaseManager.buscarExecucoes(inicioDia3, inicioDia4);
+        assertEquals(List.of("recreio", "meio-dia"), List.of(doDia.get(0).getNome(), doDia.get(1).getNome()));
+        assertEquals(ResultadoExecucao.TOCADO, doDia.get(1).getResultado());
+        assertEquals(12L, doDia.get(1).getAtrasoMs());
+        assertNull(doDia.get(0).getInicioMs());
+        
+        List<Execucao> doAgendamento = databaseManager.buscarExecucoesDoAgendamento(1L, dia3, dia4.plusSeconds(1));
+        assertEquals(2, doAgendamento.size());
+        assertEquals(dia4, doAgendamento.get(1).getPrevisto());
+        
+        assertEquals(2, databaseManager.removerExecucoesAntigas(inicioDia4));
+        assertEquals(1, databaseManager.buscarExecucoes(Instant.EPOCH, dia4.plusSeconds(1)).size());
+    }
+    
+    @Test
+    void testHistoricoUsaOsIndicesDeInstanteEAgendamento() throws Exception {
+        String url = "jdbc:sqlite:" + diretorio.resolve("teste.db");
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "EXPLAIN QUERY PLAN SELECT * FROM execucoes WHERE previsto >= 0 AND previsto < 1")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getString("detail").contains("idx_execucoes_previsto"));
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "EXPLAIN QUERY PLAN SELECT * FROM execucoes WHERE agendamento_id = 1 AND previsto >= 0 AND previsto < 1")) {
+                assertTrue(rs.next());
+                assertTrue(rs.getString("detail").contains("idx_execucoes_agendamento"));
+            }
+        }
+    }
+    
+    @Test
+    void testMBeanExpoeConsultasETemposDoBanco() throws Exception {
+        databaseManager.salvarAgendamento(criarAgendamento("entrada", LocalTime.of(7, 0), EnumSet.allOf(DiaSemana.class)));
+        databaseManager.buscarTodosAgendamentos();
+        
+        databaseManager.registrarMonitoramento();
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nome = RegistroJmx.nome("Banco");
+        try {
+            // Inserção e consulta, além das feitas pela manutenção
+            assertTrue((Long) servidor.getAttribute(nome, "TotalConsultas") >= 2);
+            assertTrue((Long) servidor.getAttribute(nome, "Leituras") >= 1);
+            assertTrue((Long) servidor.getAttribute(nome, "Escritas") >= 1);
+            assertTrue((Long) servidor.getAttribute(nome, "EscritaP99Ms") <= (Long) servidor.getAttribute(nome, "EscritaMaximaMs"));
+            assertTrue(((String) servidor.getAttribute(nome, "Informacoes")).contains("Total de agendamentos: 1"));
+        } finally {
+            RegistroJmx.remover("Banco");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Benchmark de vazão de gravação e atualização (executar com: mvn test -Pbenchmark)
+ * Compara o caminho antigo, que preparava cada comando a cada chamada e buscava o ID
+ * com SELECT last_insert_rowid(), com o cache de comandos e as chaves geradas.
+ */
+@Tag("benchmark")
+public class EscritaBenchmarkTest {
+    
+    private static final int OPERACOES = 2_000;
+    
+    private static final String SQL_INSERIR = 
+        "INSERT INTO agendamentos (nome, caminho_audio, horario, duracao_segundos, " +
+        "dispositivo_audio, dias, ativo, observacoes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_ATUALIZAR = 
+        "UPDATE agendamentos SET horario = ?, updated_at = datetime('now','localtime') WHERE id = ?";
+    
+    @TempDir
+    Path diretorio;
+    
+    @Test
+    void benchmarkSalvarEAtualizar() throws Exception {
+        double[] antigo;
+        try (Connection connection = abrir("antigo.db")) {
+            antigo = medirCaminhoAntigo(connection);
+        }
+        
+        double[] atual;
+        ConexaoBanco conexao = new ConexaoBanco(abrir("atual.db"));
+        try {
+            atual = medirCaminhoAtual(conexao);
+            assertEquals(2, conexao.getTotalComandos());
+        } finally {
+            conexao.fechar();
+        }
+        
+        System.out.printf("Vazão com %d operações (ops/s):%n", OPERACOES);
+        System.out.printf("  Preparo a cada chamada: salvar %8.0f, atualizar %8.0f%n", antigo[0], antigo[1]);
+        System.out.printf("  Cache de comandos:      salvar %8.0f, atualizar %8.0f%n", atual[0], atual[1]);
+    }
+    
+    @Test
+    void benchmarkDeslocarHorariosEmLote() throws Exception {
+        int total = 800;
+        DatabaseManager databaseManager = new DatabaseManager("jdbc:sqlite:" + diretorio.resolve("lote.db"));
+        databaseManager.initializeDatabase();
+        try {
+            LoteAgendamentos criacao = new LoteAgendamentos();
+            for (int i = 0; i < total; i++) {
+                criacao.criar(criarAgendamento(i));
+            }
+            databaseManager.aplicarLote(criacao);
+            List<Agendamento> agendamentos = databaseManager.buscarTodosAgendamentos();
+            
+            long inicio = System.nanoTime();
+            for (Agendamento ag : agendamentos) {
+                ag.setHorario(ag.getHorario().plusMinutes(5));
+                databaseManager.atualizarAgendamento(ag);
+            }
+            double individual = (System.nanoTime() - inicio) / 1e6;
+            
+            inicio = System.nanoTime();
+            LoteAgendamentos lote = new LoteAgendamentos();
+            for (Agendamento ag : agendamentos) {
+                ag.setHorario(ag.getHorario().plusMinutes(5));
+                lote.atualizar(ag);
+            }
+            databaseManager.aplicarLote(lote);
+            double emLote = (System.nanoTime() - inicio) / 1e6;
+            
+            System.out.printf("Deslocar %d agendamentos em 5 minutos:%n", total);
+            System.out.printf("  Uma chamada por agendamento: %8.1f ms%n", individual);
+            System.out.printf("  Lote em uma transação:       %8.1f ms%n", emLote);
+        } finally {
+            databaseManager.fecharConexao();
+        }
+    }
+    
+    /**
+     * Cria o banco com o esquema atual e devolve uma conexão configurada como a de escrita
+     */
+    private Connection abrir(String arquivo) throws Exception {
+        String url = "jdbc:sqlite:" + diretorio.resolve(arquivo);
+        DatabaseManager esquema = new DatabaseManager(url);
+        esquema.initializeDatabase();
+        esquema.fecharConexao();
+        
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+        }
+        return connection;
+    }
+    
+    private Agendamento criarAgendamento(int i) {
+        Agendamento ag = new Agendamento("Sinal " + i, "/sinais/sinal.wav", LocalTime.of(i % 24, i % 60), 5, null);
+        ag.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.SEXTA));
+        return ag;
+    }
+    
+    private void preencher(PreparedStatement pstmt, Agendamento ag) throws Exception {
+        pstmt.setString(1, ag.getNome());
+        pstmt.setString(2, ag.getCaminhoAudio());
+        pstmt.setString(3, ag.getHorario().toString());
+        pstmt.setInt(4, ag.getDuracaoSegundos());
+        pstmt.setString(5, ag.getDispositivoAudio());
+        pstmt.setInt(6, ag.getMascaraDias());
+        pstmt.setInt(7, 1);
+        pstmt.setString(8, ag.getObservacoes());
+    }
+    
+    /**
+     * Caminho atual: comandos obtidos do cache e ID lido das chaves geradas
+     */
+    private double[] medirCaminhoAtual(ConexaoBanco conexao) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        
+        long inicio = System.nanoTime();
+        for (int i = 0; i < OPERACOES; i++) {
+            PreparedStatement pstmt = conexao.prepararComChaves(SQL_INSERIR);
+            preencher(pstmt, criarAgendamento(i));
+            pstmt.executeUpdate();
+            try (ResultSet chaves = pstmt.getGeneratedKeys()) {
+                chaves.next();
+                ids.add(chaves.getLong(1));
+            }
+        }
+        double salvar = OPERACOES / ((System.nanoTime() - inicio) / 1e9);
+        
+        inicio = System.nanoTime();
+        for (Long id : ids) {
+            PreparedStatement pstmt = conexao.preparar(SQL_ATUALIZAR);
+            pstmt.setString(1, "08:05");
+            pstmt.setLong(2, id);
+            pstmt.executeUpdate();
+        }
+        double atualizar = OPERACOES / ((System.nanoTime() - inicio) / 1e9);
+        
+        assertEquals(OPERACOES, ids.size());
+        return new double[] {salvar, atualizar};
+    }
+    
+    /**
+     * Reproduz o caminho anterior ao cache: um prepareStatement por chamada
+     * e uma consulta extra para obter o ID gerado
+     */
+    private double[] medirCaminhoAntigo(Connection connection) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        
+        long inicio = System.nanoTime();
+        for (int i = 0; i < OPERACOES; i++) {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_INSERIR)) {
+                preencher(pstmt, criarAgendamento(i));
+                pstmt.executeUpdate();
+            }
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+                rs.next();
+                ids.add(rs.getLong(1));
+            }
+        }
+        double salvar = OPERACOES / ((System.nanoTime() - inicio) / 1e9);
+        
+        inicio = System.nanoTime();
+        for (Long id : ids) {
+            try (PreparedStatement pstmt = connection.prepareStatement(SQL_ATUALIZAR)) {
+                pstmt.setString(1, "08:05");
+                pstmt.setLong(2, id);
+                pstmt.executeUpdate();
+            }
+        }
+        double atualizar = OPERACOES / ((System.nanoTime() - inicio) / 1e9);
+        
+        return new double[] {salvar, atualizar};
+    }
+}
@@ -0,0 +1,219 @@
+package com.agendador.database;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes do repositório em memória: leituras sem banco, gravação imediata
+ * e uma nova versão publicada a cada alteração
+ */
+public class RepositorioAgendamentosTest {
+    
+    @TempDir
+    Path diretorio;
+    
+    private DatabaseManager databaseManager;
+    private RepositorioAgendamentos repositorio;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        databaseManager = new DatabaseManager("jdbc:sqlite:" + diretorio.resolve("teste.db"));
+        databaseManager.initializeDatabase();
+        repositorio = new RepositorioAgendamentos(databaseManager);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        databaseManager.fecharConexao();
+    }
+    
+    private Agendamento criarAgendamento(String nome, LocalTime horario) {
+        Agendamento agendamento = new Agendamento(nome, "/sinais/" + nome + ".wav", horario, 10, null);
+        agendamento.setDiasSemana(EnumSet.allOf(DiaSemana.class));
+        return agendamento;
+    }
+    
+    @Test
+    void testLeiturasNaoConsultamOBanco() throws Exception {
+        repositorio.salvar(criarAgendamento("saida", LocalTime.of(12, 0)));
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        long consultas = databaseManager.getTotalConsultas();
+        
+        for (int i = 0; i < 10; i++) {
+            List<Agendamento> todos = repositorio.buscarTodos();
+            assertEquals(List.of("entrada", "saida"), List.of(todos.get(0).getNome(), todos.get(1).getNome()));
+            repositorio.buscarAtivos();
+        }
+        
+        assertEquals(consultas, databaseManager.getTotalConsultas());
+    }
+    
+    @Test
+    void testGravacoesChegamAoBanco() throws Exception {
+        Agendamento entrada = criarAgendamento("entrada", LocalTime.of(7, 0));
+        Long id = repositorio.salvar(entrada);
+        entrada.setHorario(LocalTime.of(7, 15));
+        repositorio.atualizar(entrada);
+        
+        assertEquals(LocalTime.of(7, 15), databaseManager.buscarTodosAgendamentos().get(0).getHorario());
+        
+        repositorio.remover(id);
+        assertTrue(databaseManager.buscarTodosAgendamentos().isEmpty());
+        assertTrue(repositorio.buscarTodos().isEmpty());
+    }
+    
+    @Test
+    void testCopiasNaoAlteramOsAgendamentosGuardados() throws Exception {
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        
+        Agendamento copia = repositorio.buscarTodos().get(0);
+        copia.setHorario(LocalTime.of(9, 0));
+        copia.setAtivo(false);
+        
+        Agendamento guardado = repositorio.getInstantanea().getAgendamentos().get(0);
+        assertEquals(LocalTime.of(7, 0), guardado.getHorario());
+        assertTrue(guardado.isAtivo());
+    }
+    
+    @Test
+    void testCadaAlteracaoPublicaUmaVersao() throws Exception {
+        List<Long> versoes = new ArrayList<>();
+        repositorio.assinar(instantanea -> versoes.add(instantanea.getVersao()));
+        
+        Agendamento entrada = criarAgendamento("entrada", LocalTime.of(7, 0));
+        repositorio.salvar(entrada);
+        repositorio.aplicarLote(new LoteAgendamentos()
+            .criar(criarAgendamento("recreio", LocalTime.of(9, 30)))
+            .atualizar(entrada));
+        
+        // Primeira carga, o salvamento e o lote inteiro
+        assertEquals(3, versoes.size());
+        assertTrue(versoes.get(0) < versoes.get(1) && versoes.get(1) < versoes.get(2));
+        assertEquals((long) versoes.get(2), repositorio.getInstantanea().getVersao());
+        assertEquals(2, repositorio.getInstantanea().getAgendamentos().size());
+    }
+    
+    @Test
+    void testImportacaoEmLotesPublicaUmaVersao() throws Exception {
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        List<Integer> publicadas = new ArrayList<>();
+        repositorio.assinar(instantanea -> publicadas.add(instantanea.getAgendamentos().size()));
+        
+        IOException erro = assertThrows(IOException.class, () -> repositorio.importar(lotes -> {
+            for (int l = 0; l < 3; l++) {
+                LoteAgendamentos lote = new LoteAgendamentos();
+                for (int i = 0; i < 10; i++) {
+                    lote.criar(criarAgendamento("sinal" + l + "-" + i, LocalTime.of(8 + l, 59 - i)));
+                }
+                lotes.aplicar(lote);
+                assertEquals(1, repositorio.buscarTodos().size(), "Lote publicado antes do fim da importação");
+            }
+            throw new IOException("Arquivo corrompido");
+        }));
+        
+        // Os três lotes gravados antes da falha saem juntos, em uma única versão ordenada
+        assertEquals("Arquivo corrompido", erro.getMessage());
+        assertEquals(List.of(31), publicadas);
+        List<Agendamento> todos = repositorio.buscarTodos();
+        assertEquals("entrada", todos.get(0).getNome());
+        assertEquals("sinal0-9", todos.get(1).getNome());
+        assertEquals("sinal2-0", todos.get(30).getNome());
+        
+        repositorio.salvar(criarAgendamento("saida", LocalTime.of(12, 0)));
+        assertEquals(List.of(31, 32), publicadas);
+    }
+    
+    @Test
+    void testImportacaoNaoBloqueiaOutrasGravacoes() throws Exception {
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        List<Integer> publicadas = new ArrayList<>();
+        repositorio.assinar(instantanea -> publicadas.add(instantanea.getAgendamentos().size()));
+        
+        int importados = repositorio.importar(lotes -> {
+            lotes.aplicar(new LoteAgendamentos().criar(criarAgendamento("importado1", LocalTime.of(8, 0))));
+            
+            // Enquanto a importação lê o arquivo, outra thread grava e publica na hora
+            Thread outra = new Thread(() -> {
+                try {
+                    repositorio.salvar(criarAgendamento("manual", LocalTime.of(9, 0)));
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            outra.start();
+            assertDoesNotThrow(() -> outra.join(TimeUnit.SECONDS.toMillis(5)));
+            assertFalse(outra.isAlive(), "Gravação bloqueada pela importação em andamento");
+            
+            lotes.aplicar(new LoteAgendamentos().criar(criarAgendamento("importado2", LocalTime.of(10, 0))));
+            return 2;
+        });
+        
+        // A gravação manual já levou o primeiro lote; o segundo sai no fim da importação
+        assertEquals(2, importados);
+        assertEquals(List.of(3, 4), publicadas);
+        assertEquals(4, repositorio.buscarTodos().size());
+    }
+    
+    @Test
+    void testFalhaNoBancoNaoAlteraAMemoria() throws Exception {
+        Agendamento entrada = criarAgendamento("entrada", LocalTime.of(7, 0));
+        repositorio.salvar(entrada);
+        long versao = repositorio.getInstantanea().getVersao();
+        
+        Agendamento inexistente = criarAgendamento("fantasma", LocalTime.of(8, 0));
+        inexistente.setId(999L);
+        assertThrows(SQLException.class, () -> repositorio.aplicarLote(new LoteAgendamentos()
+            .criar(criarAgendamento("recreio", LocalTime.of(9, 30)))
+            .atualizar(inexistente)));
+        
+        assertEquals(versao, repositorio.getInstantanea().getVersao());
+        assertEquals(1, repositorio.buscarTodos().size());
+    }
+    
+    @Test
+    void testRecarregarLeAlteracoesFeitasForaDoRepositorio() throws Exception {
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        databaseManager.salvarAgendamento(criarAgendamento("saida", LocalTime.of(12, 0)));
+        assertEquals(1, repositorio.buscarTodos().size());
+        
+        repositorio.recarregar();
+        
+        assertEquals(2, repositorio.buscarTodos().size());
+    }
+    
+    @Test
+    void testAlteracaoDeOutroProcessoChegaSozinha() throws Exception {
+        repositorio.salvar(criarAgendamento("entrada", LocalTime.of(7, 0)));
+        CountDownLatch recarregado = new CountDownLatch(1);
+        repositorio.assinar(instantanea -> {
+            if (instantanea.isRecarregada()) {
+                recarregado.countDown();
+            }
+        });
+        
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + diretorio.resolve("teste.db"));
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("UPDATE agendamentos SET horario = '08:15:00'");
+        }
+        
+        assertTrue(recarregado.await(1, TimeUnit.SECONDS), "Alteração externa não recarregada em um segundo");
+        assertEquals(LocalTime.of(8, 15), repositorio.buscarTodos().get(0).getHorario());
+    }
+}
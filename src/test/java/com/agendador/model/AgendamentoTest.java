@@ -43,6 +43,15 @@ public class AgendamentoTest {
         assertEquals(dispositivo, ag.getDispositivoAudio());
     }
     
+    @Test
+    void testHorarioGuardaSegundosSemFracoes() {
+        Agendamento ag = new Agendamento("Teste", "/a.wav", LocalTime.of(7, 0, 30, 250_000_000), 5, null);
+        assertEquals(LocalTime.of(7, 0, 30), ag.getHorario());
+        
+        ag.setHorario(LocalTime.of(12, 15, 45, 999_999_999));
+        assertEquals(LocalTime.of(12, 15, 45), ag.getHorario());
+    }
+    
     @Test
     void testAdicionarRemoverDiaSemana() {
         agendamento.adicionarDiaSemana(DiaSemana.SEGUNDA);
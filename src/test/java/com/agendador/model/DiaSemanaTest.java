@@ -3,6 +3,7 @@ package com.agendador.model;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import java.time.DayOfWeek;
+import java.util.EnumSet;
 
 /**
  * Testes unitários para o enum DiaSemana
@@ -68,4 +69,22 @@ public class DiaSemanaTest {
         assertEquals("Domingo", DiaSemana.DOMINGO.toString());
         assertEquals("Segunda-feira", DiaSemana.SEGUNDA.toString());
     }
+    
+    @Test
+    void testMascara() {
+        assertEquals(1, DiaSemana.DOMINGO.getMascara());
+        assertEquals(2, DiaSemana.SEGUNDA.getMascara());
+        assertEquals(64, DiaSemana.SABADO.getMascara());
+        
+        assertEquals(0, DiaSemana.paraMascara(EnumSet.noneOf(DiaSemana.class)));
+        assertEquals(127, DiaSemana.paraMascara(EnumSet.allOf(DiaSemana.class)));
+        assertEquals(2 | 32, DiaSemana.paraMascara(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.SEXTA)));
+    }
+    
+    @Test
+    void testDeMascara() {
+        assertTrue(DiaSemana.deMascara(0).isEmpty());
+        assertEquals(EnumSet.allOf(DiaSemana.class), DiaSemana.deMascara(127));
+        assertEquals(EnumSet.of(DiaSemana.TERCA, DiaSemana.SABADO), DiaSemana.deMascara(4 | 64));
+    }
 }
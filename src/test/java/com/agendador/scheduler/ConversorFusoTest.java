@@ -0,0 +1,67 @@
+package com.agendador.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a conversão entre instantes e horário local,
+ * dos dois lados das transições do horário de verão
+ */
+public class ConversorFusoTest {
+    
+    // Horário de verão em Lisboa: 2025-03-30 01:00 -> 02:00 e 2025-10-26 02:00 -> 01:00
+    private static final ZoneId LISBOA = ZoneId.of("Europe/Lisbon");
+    
+    @Test
+    void testHorarioLocalIgualAoDoJavaTime() {
+        ConversorFuso fuso = new ConversorFuso(LISBOA);
+        Instant inicio = LocalDateTime.of(2025, 3, 29, 12, 0).atZone(LISBOA).toInstant();
+        
+        // Avança de hora em hora por um ano, passando pelas duas transições
+        for (int hora = 0; hora < 365 * 24; hora++) {
+            Instant instante = inicio.plusSeconds(hora * 3600L + 17);
+            LocalDateTime esperado = LocalDateTime.ofInstant(instante, LISBOA);
+            
+            assertEquals(esperado, ConversorFuso.paraDataHora(fuso.paraLocalMs(instante.toEpochMilli())));
+        }
+    }
+    
+    @Test
+    void testInstanteDoHorarioLocal() {
+        ConversorFuso fuso = new ConversorFuso(LISBOA);
+        LocalDateTime verao = LocalDateTime.of(2025, 7, 1, 8, 0);
+        
+        assertEquals(verao.atZone(LISBOA).toInstant().toEpochMilli(), fuso.paraEpochMs(local(verao)));
+    }
+    
+    @Test
+    void testHorarioInexistenteAvancaComoNoJavaTime() {
+        ConversorFuso fuso = new ConversorFuso(LISBOA);
+        fuso.paraLocalMs(LocalDateTime.of(2025, 3, 30, 0, 30).atZone(LISBOA).toInstant().toEpochMilli());
+        
+        // 01:30 não existe no dia da mudança: vira 02:30 de verão
+        LocalDateTime lacuna = LocalDateTime.of(2025, 3, 30, 1, 30);
+        assertEquals(lacuna.atZone(LISBOA).toInstant().toEpochMilli(), fuso.paraEpochMs(local(lacuna)));
+    }
+    
+    @Test
+    void testHorarioRepetidoUsaODeslocamentoAtual() {
+        ConversorFuso fuso = new ConversorFuso(LISBOA);
+        LocalDateTime repetido = LocalDateTime.of(2025, 10, 26, 1, 30);
+        long segundaPassagemMs = repetido.atZone(LISBOA).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+        
+        // Já depois da volta do relógio: 01:30 é a segunda passagem
+        fuso.paraLocalMs(segundaPassagemMs - 60_000);
+        assertEquals(segundaPassagemMs, fuso.paraEpochMs(local(repetido)));
+    }
+    
+    private static long local(LocalDateTime dataHora) {
+        return dataHora.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -0,0 +1,603 @@
+package com.agendador.scheduler;
+
+import com.agendador.audio.ReprodutorAudio;
+import com.agendador.model.Agendamento;
+import com.agendador.model.Execucao;
+import com.agendador.model.Prioridade;
+import com.agendador.model.ResultadoExecucao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para as faixas de reprodução, incluindo testes de estresse
+ * da fila com várias threads enfileirando, parando e drenando ao mesmo tempo
+ * as políticas de descarte, mescla e profundidade máxima e a ordem por prioridade
+ */
+public class FaixaReproducaoTest {
+    
+    private static final int THREADS = 8;
+    
+    private ExecutorService executor;
+    private ExecutorRetido drenagens;
+    private ReprodutorFalso reprodutor;
+    private EventosRegistrados eventos;
+    private FaixaReproducao faixa;
+    private final AtomicLong relogio = new AtomicLong();
+    
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        drenagens = new ExecutorRetido(executor);
+        reprodutor = new ReprodutorFalso();
+        eventos = new EventosRegistrados();
+        faixa = criarFaixa(PoliticaFila.SEM_LIMITES);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testDispositivoPadraoCompartilhaAMesmaFaixa() {
+        assertEquals("", FaixaReproducao.chaveDispositivo(null));
+        assertEquals("", FaixaReproducao.chaveDispositivo("  "));
+        assertEquals("", FaixaReproducao.chaveDispositivo(FaixaReproducao.DISPOSITIVO_PADRAO));
+    }
+    
+    @Test
+    void testDispositivosDiferentesTemFaixasDiferentes() {
+        assertEquals("Alto-falantes Bloco A", FaixaReproducao.chaveDispositivo(" Alto-falantes Bloco A "));
+        assertNotEquals(FaixaReproducao.chaveDispositivo("Alto-falantes Bloco A"),
+            FaixaReproducao.chaveDispositivo("Alto-falantes Bloco B"));
+    }
+    
+    @Test
+    void testEnfileiramentoConcorrenteNaoPerdeSinais() throws Exception {
+        int porThread = 250;
+        
+        executarEmParalelo(THREADS, t -> {
+            for (int i = 0; i < porThread; i++) {
+                faixa.enfileirar(List.of(disparo(t * porThread + i)));
+            }
+        });
+        
+        aguardarFilaVazia();
+        
+        assertEquals(THREADS * porThread, eventos.concluidos.size(), "Todos os sinais devem tocar");
+        assertEquals(THREADS * porThread, reprodutor.reproducoes.get(), "Nenhum sinal deve tocar duas vezes");
+        assertEquals(1, reprodutor.maximoSimultaneas.get(), "Só uma drenagem deve tocar por vez");
+        assertEquals(0, faixa.getTamanhoFila());
+    }
+    
+    @Test
+    void testRajadasCurtasNaoFicamPresasNaFila() throws Exception {
+        // Rajadas pequenas que chegam enquanto a drenagem termina
+        for (int rodada = 0; rodada < 500; rodada++) {
+            faixa.enfileirar(List.of(disparo(rodada * 2), disparo(rodada * 2 + 1)));
+        }
+        
+        aguardarFilaVazia();
+        
+        assertEquals(1000, eventos.concluidos.size());
+        assertEquals(1, reprodutor.maximoSimultaneas.get());
+    }
+    
+    @Test
+    void testPararConcorrenteComEnfileiramento() throws Exception {
+        reprodutor.duracaoMs = 1;
+        
+        executarEmParalelo(THREADS, t -> {
+            for (int i = 0; i < 200; i++) {
+                if (t == 0 && i % 10 == 0) {
+                    faixa.parar();
+                } else {
+                    faixa.enfileirar(List.of(disparo(t * 1000 + i)));
+                }
+            }
+        });
+        
+        // Depois da última parada, sinais novos devem tocar normalmente
+        faixa.parar();
+        List<DisparoAgendado> depois = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            depois.add(disparo(100_000 + i));
+        }
+        faixa.enfileirar(depois);
+        
+        aguardarFilaVazia();
+        
+        for (DisparoAgendado disparo : depois) {
+            assertTrue(eventos.concluidos.contains(disparo.getAgendamento().getId()),
+                "Sinal enfileirado após a parada não tocou: " + disparo.getAgendamento().getId());
+        }
+        assertEquals(1, reprodutor.maximoSimultaneas.get(), "Só uma drenagem deve tocar por vez");
+        assertEquals(0, faixa.getTamanhoFila());
+        assertTrue(eventos.erros.isEmpty(), "Erros inesperados: " + eventos.erros);
+    }
+    
+    @Test
+    void testReproducaoLongaNaoAtrasaOutraFaixa() throws Exception {
+        // Mesmo executor do agendador: uma thread virtual por drenagem
+        ExecutorService virtuais = SchedulerManager.criarExecutorFaixas();
+        try {
+            ReprodutorFalso reprodutorB = new ReprodutorFalso();
+            reprodutor.duracoes.put("longo.wav", 60_000L);
+            FaixaReproducao faixaA = new FaixaReproducao("Bloco A", reprodutor, virtuais, eventos,
+                PoliticaFila.SEM_LIMITES, 0, relogio::get);
+            FaixaReproducao faixaB = new FaixaReproducao("Bloco B", reprodutorB, virtuais, eventos,
+                PoliticaFila.SEM_LIMITES, 0, relogio::get);
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            eventos.aoExecutar = executado -> threads.add(Thread.currentThread());
+            
+            faixaA.enfileirar(List.of(disparo(agendamento(1, "longo.wav"))));
+            aguardar(() -> reprodutor.isPlaying());
+            faixaB.enfileirar(List.of(disparo(agendamento(2, "curto.wav"))));
+            aguardar(() -> eventos.concluidos.contains(2L));
+            
+            assertTrue(reprodutor.isPlaying(), "A faixa A deveria continuar tocando");
+            assertEquals(2, threads.size(), "Cada faixa drena na sua thread");
+            for (Thread thread : threads) {
+                assertTrue(thread.isVirtual(), "Drenagem fora de thread virtual: " + thread);
+            }
+            faixaA.parar();
+        } finally {
+            virtuais.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testPararDescartaAFila() throws Exception {
+        reprodutor.duracaoMs = 20;
+        List<DisparoAgendado> lote = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lote.add(disparo(i));
+        }
+        faixa.enfileirar(lote);
+        
+        faixa.parar();
+        assertEquals(0, faixa.getTamanhoFila());
+        aguardarFilaVazia();
+        
+        // No máximo o sinal que já estava tocando chega ao fim
+        assertTrue(eventos.concluidos.size() <= 1, "Tocaram " + eventos.concluidos.size() + " sinais após parar");
+        assertTrue(reprodutor.paradas.get() >= 1);
+    }
+    
+    @Test
+    void testSinalAlemDoAtrasoMaximoEDescartado() throws Exception {
+        relogio.set(10 * 60_000);
+        faixa = criarFaixa(new PoliticaFila(60_000, false, 0));
+        
+        faixa.enfileirar(List.of(
+            new DisparoAgendado(agendamento(1, "a.wav"), 6 * 60_000, 60_000),   // 4 minutos atrasado
+            new DisparoAgendado(agendamento(2, "b.wav"), 9 * 60_000 + 30_000, 60_000),
+            new DisparoAgendado(agendamento(3, "c.wav"), 0, DisparoAgendado.SEM_LIMITE)
+        ));
+        aguardarFilaVazia();
+        
+        assertEquals(Set.of(2L, 3L), eventos.concluidos);
+        assertEquals(1, faixa.getDescartadosVencidos());
+    }
+    
+    @Test
+    void testPrecisaoMedidaSoNosDisparosNoHorario() throws Exception {
+        relogio.set(60_000);
+        
+        faixa.enfileirar(List.of(
+            new DisparoAgendado(agendamento(1, "a.wav"), 60_000 - 10, 60_000, true),
+            new DisparoAgendado(agendamento(2, "b.wav"), 60_000 - 120, 60_000, true),
+            // Recuperado: atrasado por natureza, não mede a precisão do agendador
+            new DisparoAgendado(agendamento(3, "c.wav"), 0, DisparoAgendado.SEM_LIMITE)
+        ));
+        aguardarFilaVazia();
+        
+        assertEquals(Set.of(1L, 2L, 3L), eventos.concluidos);
+        assertEquals(2, faixa.getPrecisaoDisparo().getTotal());
+        assertEquals(120, faixa.getPrecisaoDisparo().getMaximaMs());
+        assertEquals(1, faixa.getForaDaPrecisao());
+    }
+    
+    @Test
+    void testMesmoAudioNaFilaEMesclado() throws Exception {
+        drenagens.reter();
+        faixa = criarFaixa(new PoliticaFila(DisparoAgendado.SEM_LIMITE, true, 0));
+        
+        faixa.enfileirar(List.of(disparo(agendamento(1, "sirene.wav")), disparo(agendamento(2, "musica.wav"))));
+        faixa.enfileirar(List.of(disparo(agendamento(3, "sirene.wav")), disparo(agendamento(4, "sirene.wav"))));
+        
+        assertEquals(2, faixa.getTamanhoFila());
+        assertEquals(2, faixa.getMesclados());
+        
+        drenagens.liberar();
+        aguardarFilaVazia();
+        assertEquals(Set.of(1L, 2L), eventos.concluidos);
+    }
+    
+    @Test
+    void testMesmoAudioMaisUrgenteNaoEMescladoNoMenosUrgente() throws Exception {
+        drenagens.reter();
+        faixa = criarFaixa(new PoliticaFila(DisparoAgendado.SEM_LIMITE, true, 0));
+        
+        faixa.enfileirar(List.of(disparo(agendamento(1, "musica.wav")), disparo(agendamento(2, "sirene.wav"))));
+        faixa.enfileirar(List.of(disparo(agendamento(3, "sirene.wav", Prioridade.EMERGENCIA))));
+        // Já há uma emergência com o mesmo áudio: esta e a normal seguinte são mescladas nela
+        faixa.enfileirar(List.of(disparo(agendamento(4, "sirene.wav", Prioridade.EMERGENCIA)),
+            disparo(agendamento(5, "sirene.wav"))));
+        
+        assertEquals(3, faixa.getTamanhoFila());
+        assertEquals(2, faixa.getMesclados());
+        
+        drenagens.liberar();
+        aguardarFilaVazia();
+        assertEquals(List.of("sirene.wav", "musica.wav", "sirene.wav"), reprodutor.iniciados);
+        assertTrue(eventos.concluidos.contains(3L));
+    }
+    
+    @Test
+    void testFilaCheiaDescartaOsMaisAntigos() throws Exception {
+        drenagens.reter();
+        faixa = criarFaixa(new PoliticaFila(DisparoAgendado.SEM_LIMITE, false, 3));
+        
+        for (int i = 1; i <= 5; i++) {
+            faixa.enfileirar(List.of(disparo(i)));
+        }
+        
+        assertEquals(3, faixa.getTamanhoFila());
+        assertEquals(2, faixa.getDescartadosProfundidade());
+        
+        drenagens.liberar();
+        aguardarFilaVazia();
+        assertEquals(Set.of(3L, 4L, 5L), eventos.concluidos);
+    }
+    
+    @Test
+    void testSinaisTocamEmOrdemDePrioridade() throws Exception {
+        drenagens.reter();
+        faixa.enfileirar(List.of(
+            disparo(agendamento(1, "normal1.wav")),
+            disparo(agendamento(2, "alta.wav", Prioridade.ALTA)),
+            disparo(agendamento(3, "evacuacao.wav", Prioridade.EMERGENCIA)),
+            disparo(agendamento(4, "normal2.wav"))
+        ));
+        
+        drenagens.liberar();
+        aguardarFilaVazia();
+        
+        assertEquals(List.of("evacuacao.wav", "alta.wav", "normal1.wav", "normal2.wav"), reprodutor.iniciados);
+        assertEquals(0, faixa.getInterrompidos());
+    }
+    
+    @Test
+    void testEmergenciaInterrompeSinalNormal() throws Exception {
+        reprodutor.duracaoMs = 10_000;
+        faixa.enfileirar(List.of(disparo(agendamento(1, "recreio.wav"))));
+        aguardar(() -> reprodutor.isPlaying());
+        
+        reprodutor.duracaoMs = 50;
+        faixa.enfileirar(List.of(disparo(agendamento(2, "evacuacao.wav", Prioridade.EMERGENCIA))));
+        aguardarFilaVazia();
+        
+        assertEquals(List.of("recreio.wav", "evacuacao.wav"), reprodutor.iniciados);
+        assertEquals(1, faixa.getInterrompidos());
+        assertEquals(1, faixa.getLatenciaDespacho(Prioridade.EMERGENCIA).getTotal());
+        assertEquals(1, reprodutor.maximoSimultaneas.get());
+    }
+    
+    @Test
+    void testEmergenciaQueChegaAntesDoInicioInterrompe() throws Exception {
+        // A emergência chega depois de a drenagem escolher o sinal normal e antes de ele começar a tocar
+        reprodutor.duracoes.put("recreio.wav", 60_000L);
+        reprodutor.duracaoMs = 50;
+        eventos.aoExecutar = executado -> {
+            if (executado.getAgendamento().getId() == 1L) {
+                faixa.enfileirar(List.of(disparo(agendamento(2, "evacuacao.wav", Prioridade.EMERGENCIA))));
+            }
+        };
+        
+        faixa.enfileirar(List.of(disparo(agendamento(1, "recreio.wav"))));
+        aguardar(() -> reprodutor.iniciados.contains("evacuacao.wav"));
+        aguardarFilaVazia();
+        
+        assertEquals(List.of("recreio.wav", "evacuacao.wav"), reprodutor.iniciados);
+        assertEquals(1, faixa.getInterrompidos());
+        assertEquals(1, reprodutor.maximoSimultaneas.get());
+        Map<Long, ResultadoExecucao> resultados = new HashMap<>();
+        for (Execucao execucao : eventos.execucoes) {
+            resultados.put(execucao.getAgendamentoId(), execucao.getResultado());
+        }
+        assertEquals(Map.of(1L, ResultadoExecucao.INTERROMPIDO, 2L, ResultadoExecucao.TOCADO), resultados);
+    }
+    
+    @Test
+    void testSinaisNormaisNaoSeInterrompem() throws Exception {
+        reprodutor.duracaoMs = 200;
+        faixa.enfileirar(List.of(disparo(agendamento(1, "entrada.wav"))));
+        aguardar(() -> reprodutor.isPlaying());
+        
+        faixa.enfileirar(List.of(disparo(agendamento(2, "recreio.wav"))));
+        assertEquals(List.of("entrada.wav"), reprodutor.iniciados, "O segundo sinal deve esperar o primeiro");
+        aguardarFilaVazia();
+        
+        assertEquals(List.of("entrada.wav", "recreio.wav"), reprodutor.iniciados);
+        assertEquals(0, faixa.getInterrompidos());
+        assertEquals(0, reprodutor.paradas.get());
+    }
+    
+    @Test
+    void testDesfechoDeCadaDisparoVaiParaOHistorico() throws Exception {
+        relogio.set(10 * 60_000);
+        faixa = criarFaixa(new PoliticaFila(60_000, false, 0));
+        reprodutor.duracaoMs = 10_000;
+        faixa.enfileirar(List.of(new DisparoAgendado(agendamento(1, "recreio.wav"), 10 * 60_000 - 5, 60_000, true)));
+        aguardar(() -> reprodutor.isPlaying());
+        
+        reprodutor.duracaoMs = 50;
+        faixa.enfileirar(List.of(
+            disparo(agendamento(2, "evacuacao.wav", Prioridade.EMERGENCIA)),
+            new DisparoAgendado(agendamento(3, "atrasado.wav"), 6 * 60_000, 60_000)
+        ));
+        aguardarFilaVazia();
+        
+        Map<Long, Execucao> porId = new HashMap<>();
+        for (Execucao execucao : eventos.execucoes) {
+            assertNull(porId.put(execucao.getAgendamentoId(), execucao), "Um registro por disparo");
+        }
+        assertEquals(ResultadoExecucao.INTERROMPIDO, porId.get(1L).getResultado());
+        assertEquals(5L, porId.get(1L).getAtrasoMs());
+        assertEquals(ResultadoExecucao.TOCADO, porId.get(2L).getResultado());
+        assertEquals(FaixaReproducao.DISPOSITIVO_PADRAO, porId.get(2L).getDispositivo());
+        assertEquals(ResultadoExecucao.DESCARTADO, porId.get(3L).getResultado());
+        assertNull(porId.get(3L).getInicioMs());
+    }
+    
+    @Test
+    void testPararRegistraOsSinaisCancelados() throws Exception {
+        drenagens.reter();
+        faixa.enfileirar(List.of(disparo(1), disparo(2)));
+        
+        faixa.parar();
+        
+        assertEquals(2, eventos.execucoes.size());
+        for (Execucao execucao : eventos.execucoes) {
+            assertEquals(ResultadoExecucao.CANCELADO, execucao.getResultado());
+        }
+    }
+    
+    @Test
+    void testEstatisticasPorAgendamentoEDaFaixa() throws Exception {
+        relogio.set(60_000);
+        
+        faixa.enfileirar(List.of(
+            new DisparoAgendado(agendamento(1, "entrada.wav"), 60_000 - 10, 60_000, true),
+            new DisparoAgendado(agendamento(1, "entrada.wav"), 60_000 - 120, 60_000, true),
+            new DisparoAgendado(agendamento(2, "recreio.wav"), 60_000 - 20, 60_000, true)
+        ));
+        aguardarFilaVazia();
+        
+        EstatisticasExecucao entrada = faixa.getEstatisticasPorAgendamento().get(1L);
+        assertEquals(2, entrada.getTotal(ResultadoExecucao.TOCADO));
+        assertEquals(100.0, entrada.getTaxaSucesso());
+        assertEquals(10, entrada.getAtraso().getPercentilMs(50));
+        assertEquals(120, entrada.getAtraso().getPercentilMs(99));
+        assertEquals(2, entrada.getEspera().getTotal());
+        
+        EstatisticasExecucao total = faixa.getEstatisticas();
+        assertEquals(3, total.getTotalExecucoes());
+        assertEquals(3, total.getPreparacao().getTotal());
+        assertEquals(20, total.getAtraso().getPercentilMs(50));
+        
+        // Agendamento removido: as estatísticas dele são esquecidas
+        faixa.manterEstatisticas(Set.of(2L));
+        assertEquals(Set.of(2L), faixa.getEstatisticasPorAgendamento().keySet());
+        assertEquals(3, faixa.getEstatisticas().getTotalExecucoes());
+    }
+    
+    private void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condicao.getAsBoolean() && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+        assertTrue(condicao.getAsBoolean(), "Condição não atingida");
+    }
+    
+    private void executarEmParalelo(int threads, Tarefa tarefa) throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futuros = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int indice = t;
+            futuros.add(CompletableFuture.runAsync(() -> {
+                try {
+                    largada.await();
+                    tarefa.executar(indice);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor));
+        }
+        largada.countDown();
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+    }
+    
+    private void aguardarFilaVazia() throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while ((faixa.isExecutandoFila() || faixa.getTamanhoFila() > 0) && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertFalse(faixa.isExecutandoFila(), "A drenagem não terminou");
+    }
+    
+    private FaixaReproducao criarFaixa(PoliticaFila politica) {
+        return new FaixaReproducao("", reprodutor, drenagens, eventos, politica, 0, relogio::get);
+    }
+    
+    private DisparoAgendado disparo(long id) {
+        return disparo(agendamento(id, "sinal-" + id + ".wav"));
+    }
+    
+    private DisparoAgendado disparo(Agendamento agendamento) {
+        return new DisparoAgendado(agendamento, relogio.get(), DisparoAgendado.SEM_LIMITE);
+    }
+    
+    private static Agendamento agendamento(long id, String caminhoAudio, Prioridade prioridade) {
+        Agendamento agendamento = agendamento(id, caminhoAudio);
+        agendamento.setPrioridade(prioridade);
+        return agendamento;
+    }
+    
+    private static Agendamento agendamento(long id, String caminhoAudio) {
+        Agendamento agendamento = new Agendamento("Sinal " + id, caminhoAudio, LocalTime.of(7, 0), 1, "");
+        agendamento.setId(id);
+        return agendamento;
+    }
+    
+    @FunctionalInterface
+    private interface Tarefa {
+        void executar(int indice) throws InterruptedException;
+    }
+    
+    /**
+     * Reprodutor que apenas registra as reproduções e detecta sobreposição
+     * Como o AudioManager, uma parada também cancela reproduções já pedidas.
+     */
+    private static class ReprodutorFalso implements ReprodutorAudio {
+        private final AtomicInteger simultaneas = new AtomicInteger();
+        private final AtomicInteger maximoSimultaneas = new AtomicInteger();
+        private final AtomicLong reproducoes = new AtomicLong();
+        private final AtomicInteger paradas = new AtomicInteger();
+        private final List<String> iniciados = new CopyOnWriteArrayList<>();
+        private final Map<String, Long> duracoes = new ConcurrentHashMap<>();
+        private volatile long duracaoMs = 0;
+        
+        @Override
+        public CompletableFuture<Void> reproduzirAudio(String caminhoArquivo, int duracaoSegundos, String dispositivoAudio) {
+            int pedido = paradas.get();
+            iniciados.add(caminhoArquivo);
+            reproducoes.incrementAndGet();
+            long duracao = duracoes.getOrDefault(caminhoArquivo, duracaoMs);
+            if (duracao == 0) {
+                simular(pedido, 0);
+                return CompletableFuture.completedFuture(null);
+            }
+            return CompletableFuture.runAsync(() -> simular(pedido, duracao));
+        }
+        
+        private void simular(int pedido, long duracao) {
+            int agora = simultaneas.incrementAndGet();
+            maximoSimultaneas.accumulateAndGet(agora, Math::max);
+            long fim = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duracao);
+            try {
+                while (paradas.get() == pedido && System.nanoTime() < fim) {
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                simultaneas.decrementAndGet();
+            }
+        }
+        
+        @Override
+        public void pararReproducao() {
+            paradas.incrementAndGet();
+        }
+        
+        @Override
+        public boolean isPlaying() {
+            return simultaneas.get() > 0;
+        }
+        
+        @Override
+        public boolean validarArquivoAudio(String caminhoArquivo) {
+            return true;
+        }
+    }
+    
+    /**
+     * Executor que segura as drenagens enquanto retido, para montar a fila antes de tocar
+     */
+    private static class ExecutorRetido implements Executor {
+        private final Executor destino;
+        private final List<Runnable> retidas = new ArrayList<>();
+        private boolean retido;
+        
+        ExecutorRetido(Executor destino) {
+            this.destino = destino;
+        }
+        
+        synchronized void reter() {
+            retido = true;
+        }
+        
+        void liberar() {
+            List<Runnable> tarefas;
+            synchronized (this) {
+                retido = false;
+                tarefas = new ArrayList<>(retidas);
+                retidas.clear();
+            }
+            tarefas.forEach(destino::execute);
+        }
+        
+        @Override
+        public synchronized void execute(Runnable tarefa) {
+            if (retido) {
+                retidas.add(tarefa);
+            } else {
+                destino.execute(tarefa);
+            }
+        }
+    }
+    
+    /**
+     * Eventos da faixa registrados para conferência
+     */
+    private static class EventosRegistrados implements FaixaReproducao.Eventos {
+        private final Set<Long> concluidos = ConcurrentHashMap.newKeySet();
+        private final List<String> erros = new CopyOnWriteArrayList<>();
+        private final List<Execucao> execucoes = new CopyOnWriteArrayList<>();
+        private volatile Consumer<DisparoAgendado> aoExecutar = disparo -> { };
+        
+        @Override
+        public void executado(DisparoAgendado disparo) {
+            aoExecutar.accept(disparo);
+        }
+        
+        @Override
+        public void concluido(Agendamento agendamento) {
+            concluidos.add(agendamento.getId());
+        }
+        
+        @Override
+        public void erro(String erro) {
+            erros.add(erro);
+        }
+        
+        @Override
+        public void registrar(Execucao execucao) {
+            execucoes.add(execucao);
+        }
+    }
+}
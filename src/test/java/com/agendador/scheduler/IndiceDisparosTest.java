@@ -0,0 +1,132 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Testes unitários para o índice de disparos por minuto da semana
+ */
+public class IndiceDisparosTest {
+    
+    // 2024-01-01 é uma segunda-feira
+    private static final LocalDateTime SEGUNDA_0800 = LocalDateTime.of(2024, 1, 1, 8, 0);
+    
+    private Agendamento criarAgendamento(long id, LocalTime horario, DiaSemana... dias) {
+        Agendamento agendamento = new Agendamento("Sinal " + id, "sinal.wav", horario, 5, null);
+        agendamento.setId(id);
+        agendamento.setDiasSemana(EnumSet.of(dias[0], dias));
+        return agendamento;
+    }
+    
+    @Test
+    void testProximoDisparoNoMesmoDia() {
+        Agendamento ag = criarAgendamento(1, LocalTime.of(9, 30), DiaSemana.SEGUNDA);
+        
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 30),
+            IndiceDisparos.construir(List.of(ag)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testProximoDisparoEscolheOMaisCedo() {
+        Agendamento tarde = criarAgendamento(1, LocalTime.of(15, 0), DiaSemana.SEGUNDA);
+        Agendamento cedo = criarAgendamento(2, LocalTime.of(10, 0), DiaSemana.SEGUNDA);
+        
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0),
+            IndiceDisparos.construir(List.of(tarde, cedo)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testHorarioAtualNaoEhProximoDisparo() {
+        Agendamento ag = criarAgendamento(1, LocalTime.of(8, 0), DiaSemana.SEGUNDA);
+        
+        // Já disparou agora: o próximo é na segunda seguinte
+        assertEquals(LocalDateTime.of(2024, 1, 8, 8, 0),
+            IndiceDisparos.construir(List.of(ag)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testSegundosDoMesmoMinutoEmOrdem() {
+        Agendamento segundo45 = criarAgendamento(1, LocalTime.of(8, 0, 45), DiaSemana.SEGUNDA);
+        Agendamento segundo15 = criarAgendamento(2, LocalTime.of(8, 0, 15), DiaSemana.SEGUNDA);
+        IndiceDisparos indice = IndiceDisparos.construir(List.of(segundo45, segundo15));
+        
+        assertArrayEquals(new Agendamento[] {segundo15, segundo45},
+            indice.agendamentosNoMinuto(IndiceDisparos.minutoDaSemana(SEGUNDA_0800)));
+        assertEquals(SEGUNDA_0800.withSecond(15), indice.proximoDisparo(SEGUNDA_0800));
+        assertEquals(SEGUNDA_0800.withSecond(45), indice.proximoDisparo(SEGUNDA_0800.withSecond(15)));
+        assertEquals(SEGUNDA_0800.plusWeeks(1).withSecond(15), indice.proximoDisparo(SEGUNDA_0800.withSecond(45)));
+    }
+    
+    @Test
+    void testProximoMinutoOcupadoLevaOSegundo() {
+        Agendamento ag = criarAgendamento(1, LocalTime.of(9, 30, 20), DiaSemana.SEGUNDA);
+        
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 30, 20),
+            IndiceDisparos.construir(List.of(ag)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testProximoDisparoEmOutroDia() {
+        Agendamento ag = criarAgendamento(1, LocalTime.of(7, 0), DiaSemana.QUARTA, DiaSemana.SEXTA);
+        
+        assertEquals(LocalDateTime.of(2024, 1, 3, 7, 0),
+            IndiceDisparos.construir(List.of(ag)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testSemAgendamentosNaoHaDisparo() {
+        Agendamento semDias = new Agendamento("Sem dias", "sinal.wav", LocalTime.of(9, 0), 5, null);
+        
+        assertNull(IndiceDisparos.construir(List.of()).proximoDisparo(SEGUNDA_0800));
+        assertNull(IndiceDisparos.construir(List.of(semDias)).proximoDisparo(SEGUNDA_0800));
+    }
+    
+    @Test
+    void testAgendamentosNoMinuto() {
+        Agendamento ag1 = criarAgendamento(1, LocalTime.of(7, 0), DiaSemana.SEGUNDA, DiaSemana.TERCA);
+        Agendamento ag2 = criarAgendamento(2, LocalTime.of(7, 0), DiaSemana.SEGUNDA);
+        IndiceDisparos indice = IndiceDisparos.construir(List.of(ag1, ag2));
+        
+        int segunda0700 = IndiceDisparos.minutoDaSemana(LocalDateTime.of(2024, 1, 1, 7, 0));
+        int terca0700 = IndiceDisparos.minutoDaSemana(LocalDateTime.of(2024, 1, 2, 7, 0));
+        
+        assertEquals(2, indice.agendamentosNoMinuto(segunda0700).length);
+        assertArrayEquals(new Agendamento[] {ag1}, indice.agendamentosNoMinuto(terca0700));
+        assertEquals(0, indice.agendamentosNoMinuto(segunda0700 + 1).length);
+    }
+    
+    @Test
+    void testMinutoDaSemana() {
+        // 2023-12-31 é um domingo
+        assertEquals(0, IndiceDisparos.minutoDaSemana(LocalDateTime.of(2023, 12, 31, 0, 0)));
+        assertEquals(IndiceDisparos.MINUTOS_POR_SEMANA - 1,
+            IndiceDisparos.minutoDaSemana(LocalDateTime.of(2024, 1, 6, 23, 59)));
+    }
+    
+    @Test
+    void testMinutoDaSemanaEmSegundosLocais() {
+        LocalDateTime instante = LocalDateTime.of(1969, 12, 28, 0, 0);
+        for (int hora = 0; hora < 24 * 400; hora += 7) {
+            LocalDateTime dataHora = instante.plusHours(hora).plusSeconds(hora % 60);
+            int esperado = DiaSemana.fromDayOfWeek(dataHora.getDayOfWeek()).ordinal() * IndiceDisparos.MINUTOS_POR_DIA
+                + dataHora.getHour() * 60 + dataHora.getMinute();
+            assertEquals(esperado, IndiceDisparos.minutoDaSemana(dataHora.toEpochSecond(ZoneOffset.UTC)));
+        }
+    }
+    
+    @Test
+    void testProximoDisparoAtravessaFimDeSemana() {
+        Agendamento ag = criarAgendamento(1, LocalTime.of(0, 5), DiaSemana.DOMINGO);
+        LocalDateTime sabado2358 = LocalDateTime.of(2024, 1, 6, 23, 58);
+        
+        assertEquals(LocalDateTime.of(2024, 1, 7, 0, 5),
+            IndiceDisparos.construir(List.of(ag)).proximoDisparo(sabado2358));
+    }
+}
@@ -0,0 +1,228 @@
+package com.agendador.scheduler;
+
+import com.agendador.database.DatabaseManager;
+import com.agendador.database.RepositorioAgendamentos;
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Alocação da verificação do agendador, medida em bytes pela thread que verifica
+ * Os testes curtos rodam em todo mvn test, com orçamentos folgados, e falham numa
+ * regressão. O benchmark completo (mvn test -Pbenchmark) percorre uma semana
+ * verificando a cada segundo, como um agendador que acordasse o tempo todo:
+ * verificações sem disparos não podem alocar nada, e com disparos só o próprio
+ * disparo entra na fila. O JFR registra as amostras de alocação para apontar a
+ * origem de uma regressão.
+ */
+public class PlanejadorDisparosBenchmarkTest {
+    
+    private static final int TOTAL_AGENDAMENTOS = 2_000;
+    private static final ZoneId ZONA = ZoneId.of("America/Sao_Paulo");
+    // Uma segunda-feira
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 2, 3, 0, 0);
+    
+    // Orçamentos: nada por verificação sem disparo; o DisparoAgendado por disparo
+    private static final double ORCAMENTO_SEM_DISPARO_BYTES = 0.01;
+    private static final double ORCAMENTO_POR_DISPARO_BYTES = 48;
+    
+    // Orçamentos folgados dos testes curtos, que têm pouco aquecimento
+    private static final double ORCAMENTO_RAPIDO_SEM_DISPARO_BYTES = 1;
+    private static final double ORCAMENTO_RAPIDO_POR_DISPARO_BYTES = 64;
+    // A verificação do agendador agenda a próxima no timer: uma ScheduledFutureTask por vez
+    private static final double ORCAMENTO_VERIFICACAO_AGENDADOR_BYTES = 256;
+    private static final int VERIFICACOES_AGENDADOR = 20_000;
+    
+    @TempDir
+    Path diretorio;
+    
+    @Test
+    void testVerificacaoDoPlanejadorNaoAloca() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        PlanejadorDisparos planejador = new PlanejadorDisparos(PoliticaFila.SEM_LIMITES, ZONA);
+        planejador.setIndice(IndiceDisparos.construir(gerarGrade()));
+        List<DisparoAgendado> disparos = new ArrayList<>(TOTAL_AGENDAMENTOS);
+        long inicioMs = INICIO.atZone(ZONA).toInstant().toEpochMilli();
+        
+        percorrer(planejador, disparos, inicioMs, 86_400, threads, new long[4]);
+        planejador.limpar();
+        long[] medicao = new long[4];
+        percorrer(planejador, disparos, inicioMs + 86_400_000L, 86_400, threads, medicao);
+        
+        double porVerificacao = medicao[1] / (double) medicao[0];
+        double porDisparo = medicao[3] / (double) medicao[2];
+        assertTrue(porVerificacao <= ORCAMENTO_RAPIDO_SEM_DISPARO_BYTES,
+            "Verificação sem disparo passou a alocar " + porVerificacao + " bytes (detalhes: mvn test -Pbenchmark)");
+        assertTrue(porDisparo <= ORCAMENTO_RAPIDO_POR_DISPARO_BYTES,
+            "Verificação com disparo passou a alocar " + porDisparo + " bytes por disparo (detalhes: mvn test -Pbenchmark)");
+    }
+    
+    /**
+     * Verificação completa do SchedulerManager: planejador, planejamento da próxima
+     * verificação e o timer, com o agendador rodando sobre o banco
+     */
+    @Test
+    void testVerificacaoDoAgendadorAlocaSoATarefaDoTimer() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        DatabaseManager banco = new DatabaseManager("jdbc:sqlite:" + diretorio.resolve("alocacao.db"));
+        banco.initializeDatabase();
+        SchedulerManager agendador = null;
+        try {
+            RepositorioAgendamentos repositorio = new RepositorioAgendamentos(banco);
+            // Só aos domingos: de segunda, a próxima verificação fica para o vigia do relógio
+            for (int i = 0; i < 50; i++) {
+                Agendamento agendamento = new Agendamento("Sinal " + i, "/sinais/sinal" + i + ".wav",
+                    LocalTime.of(8, i), 5, null);
+                agendamento.setDiasSemana(EnumSet.of(DiaSemana.DOMINGO));
+                repositorio.salvar(agendamento);
+            }
+            agendador = new SchedulerManager(new RelogioVirtual(INICIO.atZone(ZONA).toInstant(), ZONA), repositorio, banco);
+            agendador.iniciar();
+            // Primeira verificação, na thread do relógio, reconstrói o índice
+            long limite = System.currentTimeMillis() + 5000;
+            while (agendador.getDuracaoVerificacao().getTotal() == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, agendador.getDuracaoVerificacao().getTotal());
+            
+            for (int i = 0; i < VERIFICACOES_AGENDADOR; i++) {
+                agendador.verificarAgendamentos();
+            }
+            long antes = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < VERIFICACOES_AGENDADOR; i++) {
+                agendador.verificarAgendamentos();
+            }
+            double porVerificacao = (threads.getCurrentThreadAllocatedBytes() - antes) / (double) VERIFICACOES_AGENDADOR;
+            
+            System.out.printf("Alocação da verificação do agendador: %.1f bytes por verificação%n", porVerificacao);
+            assertTrue(porVerificacao <= ORCAMENTO_VERIFICACAO_AGENDADOR_BYTES,
+                "Verificação do agendador passou a alocar " + porVerificacao + " bytes");
+        } finally {
+            if (agendador != null) {
+                agendador.encerrar();
+            }
+            banco.fecharConexao();
+        }
+    }
+    
+    @Test
+    @Tag("benchmark")
+    void benchmarkAlocacaoPorVerificacao() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        PlanejadorDisparos planejador = new PlanejadorDisparos(PoliticaFila.SEM_LIMITES, ZONA);
+        planejador.setIndice(IndiceDisparos.construir(gerarGrade()));
+        List<DisparoAgendado> disparos = new ArrayList<>(TOTAL_AGENDAMENTOS);
+        long inicioMs = INICIO.atZone(ZONA).toInstant().toEpochMilli();
+        
+        // Aquecimento: o JIT compila o caminho da verificação antes da medição
+        percorrer(planejador, disparos, inicioMs, 2 * 86_400, threads, new long[4]);
+        planejador.limpar();
+        
+        long[] medicao = new long[4];
+        Path arquivo = diretorio.resolve("verificacao.jfr");
+        try (Recording gravacao = new Recording()) {
+            gravacao.enable("jdk.ObjectAllocationSample").with("throttle", "1000/s");
+            gravacao.start();
+            percorrer(planejador, disparos, inicioMs + 7 * 86_400_000L, 7 * 86_400, threads, medicao);
+            gravacao.stop();
+            gravacao.dump(arquivo);
+        }
+        
+        long verificacoesSemDisparo = medicao[0];
+        long bytesSemDisparo = medicao[1];
+        long totalDisparos = medicao[2];
+        long bytesComDisparo = medicao[3];
+        double porVerificacao = bytesSemDisparo / (double) verificacoesSemDisparo;
+        double porDisparo = bytesComDisparo / (double) totalDisparos;
+        String origens = maioresAlocacoes(arquivo, Thread.currentThread().getName());
+        
+        System.out.printf("Alocação da verificação (%d agendamentos, uma semana a cada segundo):%n", TOTAL_AGENDAMENTOS);
+        System.out.printf("  Sem disparo: %,d verificações, %,d bytes (%.3f por verificação)%n",
+            verificacoesSemDisparo, bytesSemDisparo, porVerificacao);
+        System.out.printf("  Com disparo: %,d disparos, %,d bytes (%.1f por disparo)%n",
+            totalDisparos, bytesComDisparo, porDisparo);
+        System.out.println("  Amostras do JFR: " + origens);
+        
+        assertTrue(porVerificacao <= ORCAMENTO_SEM_DISPARO_BYTES,
+            "Verificação sem disparo passou a alocar " + porVerificacao + " bytes; origens: " + origens);
+        assertTrue(porDisparo <= ORCAMENTO_POR_DISPARO_BYTES,
+            "Verificação com disparo passou a alocar " + porDisparo + " bytes por disparo; origens: " + origens);
+    }
+    
+    /**
+     * Verifica a cada segundo por {@code segundos} segundos, separando os bytes
+     * alocados pelas verificações com e sem disparos
+     * @param medicao verificações e bytes sem disparo, disparos e bytes com disparo
+     */
+    private static void percorrer(PlanejadorDisparos planejador, List<DisparoAgendado> disparos, long inicioMs,
+                                  int segundos, com.sun.management.ThreadMXBean threads, long[] medicao) {
+        for (int i = 0; i < segundos; i++) {
+            long agoraMs = inicioMs + i * 1000L;
+            
+            long antes = threads.getCurrentThreadAllocatedBytes();
+            planejador.verificar(agoraMs, disparos);
+            planejador.proximoDisparoMs(agoraMs);
+            long alocados = threads.getCurrentThreadAllocatedBytes() - antes;
+            
+            if (disparos.isEmpty()) {
+                medicao[0]++;
+                medicao[1] += alocados;
+            } else {
+                medicao[2] += disparos.size();
+                medicao[3] += alocados;
+                disparos.clear();
+            }
+        }
+    }
+    
+    /**
+     * Classes com mais bytes nas amostras de alocação da thread, da maior para a menor
+     */
+    private static String maioresAlocacoes(Path arquivo, String thread) throws Exception {
+        Map<String, Long> porClasse = new HashMap<>();
+        for (RecordedEvent evento : RecordingFile.readAllEvents(arquivo)) {
+            if (evento.getThread() != null && thread.equals(evento.getThread().getJavaName())) {
+                porClasse.merge(evento.getClass("objectClass").getName(), evento.getLong("weight"), Long::sum);
+            }
+        }
+        
+        List<Map.Entry<String, Long>> classes = new ArrayList<>(porClasse.entrySet());
+        classes.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return classes.isEmpty() ? "nenhuma" : classes.subList(0, Math.min(5, classes.size())).toString();
+    }
+    
+    private static List<Agendamento> gerarGrade() {
+        Random random = new Random(42);
+        DiaSemana[] dias = DiaSemana.values();
+        List<Agendamento> grade = new ArrayList<>();
+        for (int i = 0; i < TOTAL_AGENDAMENTOS; i++) {
+            EnumSet<DiaSemana> diasSemana = EnumSet.noneOf(DiaSemana.class);
+            for (int d = 0; d < 3; d++) {
+                diasSemana.add(dias[random.nextInt(dias.length)]);
+            }
+            Agendamento ag = new Agendamento("Sinal " + i, "/sinais/sinal" + i + ".wav",
+                LocalTime.ofSecondOfDay(random.nextInt(86_400)), 5, null);
+            ag.setId((long) i + 1);
+            ag.setDiasSemana(diasSemana);
+            grade.add(ag);
+        }
+        return grade;
+    }
+}
@@ -0,0 +1,213 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.model.RecuperacaoDisparo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para a decisão de disparo: horários com segundos, repetição
+ * no mesmo instante, disparos perdidos e recuos do relógio
+ */
+public class PlanejadorDisparosTest {
+    
+    // Uma segunda-feira
+    private static final LocalDateTime SEGUNDA = LocalDateTime.of(2025, 2, 3, 0, 0);
+    
+    private PlanejadorDisparos planejador;
+    private Agendamento entrada;
+    private Agendamento saida;
+    
+    @BeforeEach
+    void setUp() {
+        entrada = agendamento(1L, LocalTime.of(7, 0));
+        saida = agendamento(2L, LocalTime.of(12, 0));
+        planejador = new PlanejadorDisparos(PoliticaFila.SEM_LIMITES, ZoneOffset.UTC);
+        planejador.setIndice(IndiceDisparos.construir(List.of(entrada, saida)));
+    }
+    
+    @Test
+    void testMesmoMinutoVerificadoDuasVezesDisparaUmaVez() {
+        assertEquals(List.of(1L), ids(planejador.verificar(SEGUNDA.withHour(7))));
+        assertTrue(planejador.verificar(SEGUNDA.withHour(7).withSecond(40)).isEmpty());
+    }
+    
+    @Test
+    void testHorarioComSegundosDisparaNoInstanteExato() {
+        Agendamento meio = agendamento(3L, LocalTime.of(7, 0, 30));
+        planejador.setIndice(IndiceDisparos.construir(List.of(entrada, saida, meio)));
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        assertEquals(List.of(1L), ids(planejador.verificar(SEGUNDA.withHour(7))));
+        assertEquals(SEGUNDA.withHour(7).withSecond(30), planejador.proximoDisparo(SEGUNDA.withHour(7)));
+        assertTrue(planejador.verificar(SEGUNDA.withHour(7).withSecond(29)).isEmpty());
+        
+        List<DisparoAgendado> disparos = planejador.verificar(SEGUNDA.withHour(7).withSecond(30));
+        assertEquals(List.of(3L), ids(disparos));
+        assertTrue(disparos.get(0).isNoHorario());
+        assertEquals(PlanejadorDisparos.instanteMs(SEGUNDA.withHour(7).withSecond(30), ZoneOffset.UTC),
+            disparos.get(0).getPrevistoMs());
+    }
+    
+    @Test
+    void testAtrasoDeSegundosJaEDisparoPerdido() {
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        // Atraso curto do timer: ainda no horário
+        List<DisparoAgendado> noHorario = planejador.verificar(SEGUNDA.withHour(7).withSecond(1).withNano(500_000_000));
+        assertTrue(noHorario.get(0).isNoHorario());
+        
+        // Cinco segundos depois do previsto: recuperado, fora da medição de precisão
+        List<DisparoAgendado> recuperado = planejador.verificar(SEGUNDA.withHour(12).withSecond(5));
+        assertEquals(List.of(2L), ids(recuperado));
+        assertFalse(recuperado.get(0).isNoHorario());
+        assertEquals(1, planejador.getDisparosPerdidos());
+        assertEquals(1, planejador.getDisparosRecuperados());
+    }
+    
+    @Test
+    void testProximoDiaNoMesmoHorarioDisparaDeNovo() {
+        planejador.verificar(SEGUNDA.withHour(7));
+        planejador.verificar(SEGUNDA.withHour(12));
+        
+        assertEquals(List.of(1L), ids(planejador.verificar(SEGUNDA.plusDays(1).withHour(7))));
+        assertEquals(0, planejador.getDisparosPerdidos());
+    }
+    
+    @Test
+    void testVerificacaoAtrasadaRecuperaODisparoPerdido() {
+        entrada.setToleranciaRecuperacaoSegundos(120);
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        // Uma pausa cobriu o minuto das 07:00: 70 s de atraso
+        List<DisparoAgendado> disparos = planejador.verificar(SEGUNDA.withHour(7).withMinute(1).withSecond(10));
+        
+        assertEquals(List.of(1L), ids(disparos));
+        assertEquals(PlanejadorDisparos.instanteMs(SEGUNDA.withHour(7), ZoneOffset.UTC),
+            disparos.get(0).getPrevistoMs());
+        assertEquals(1, planejador.getDisparosPerdidos());
+        assertEquals(1, planejador.getDisparosRecuperados());
+    }
+    
+    @Test
+    void testForaDaToleranciaOuIgnoradoApenasConta() {
+        saida.setRecuperacao(RecuperacaoDisparo.IGNORAR);
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        // Cinco horas depois: entrada passou da tolerância padrão, saída é ignorada
+        assertTrue(planejador.verificar(SEGUNDA.withHour(12).withMinute(30)).isEmpty());
+        assertEquals(2, planejador.getDisparosPerdidos());
+        assertEquals(0, planejador.getDisparosRecuperados());
+    }
+    
+    @Test
+    void testDispararAgoraNaoTemPrazoNaFila() {
+        entrada.setRecuperacao(RecuperacaoDisparo.DISPARAR);
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        List<DisparoAgendado> disparos = planejador.verificar(SEGUNDA.withHour(9));
+        
+        assertEquals(List.of(1L), ids(disparos));
+        assertEquals(DisparoAgendado.SEM_LIMITE, disparos.get(0).getAtrasoMaximoMs());
+    }
+    
+    @Test
+    void testRecuoCurtoDoRelogioNaoRepeteDisparos() {
+        assertEquals(List.of(1L), ids(planejador.verificar(SEGUNDA.withHour(7))));
+        planejador.verificar(SEGUNDA.withHour(7).withMinute(30));
+        
+        // Fim do horário de verão: o relógio volta e passa de novo pelas 07:00
+        assertTrue(planejador.verificar(SEGUNDA.withHour(6).withMinute(59)).isEmpty());
+        assertTrue(planejador.verificar(SEGUNDA.withHour(7)).isEmpty());
+        assertEquals(0, planejador.getDisparosPerdidos());
+    }
+    
+    @Test
+    void testVoltaDoHorarioDeVeraoNaoRepeteOSinal() {
+        // Em Lisboa, 2025-10-26 02:00 volta para 01:00: 01:30 acontece duas vezes
+        ZoneId lisboa = ZoneId.of("Europe/Lisbon");
+        Agendamento madrugada = agendamento(3L, LocalTime.of(1, 30));
+        planejador = new PlanejadorDisparos(PoliticaFila.SEM_LIMITES, lisboa);
+        planejador.setIndice(IndiceDisparos.construir(List.of(madrugada)));
+        ZonedDateTime primeira = LocalDateTime.of(2025, 10, 26, 1, 30).atZone(lisboa).withEarlierOffsetAtOverlap();
+        ZonedDateTime segunda = primeira.withLaterOffsetAtOverlap();
+        
+        List<DisparoAgendado> disparos = new ArrayList<>();
+        planejador.verificar(primeira.toInstant().toEpochMilli(), disparos);
+        assertEquals(List.of(3L), ids(disparos));
+        
+        disparos.clear();
+        planejador.verificar(segunda.toInstant().toEpochMilli(), disparos);
+        assertTrue(disparos.isEmpty());
+        assertEquals(primeira.plusDays(1).toInstant().toEpochMilli(),
+            planejador.proximoDisparoMs(segunda.toInstant().toEpochMilli()));
+    }
+    
+    @Test
+    void testRecuoLongoDoRelogioRecomecaAsVerificacoes() {
+        planejador.verificar(SEGUNDA.plusDays(2).withHour(7));
+        
+        // Data acertada dois dias para trás
+        assertEquals(List.of(1L), ids(planejador.verificar(SEGUNDA.withHour(7))));
+    }
+    
+    @Test
+    void testLimparNaoRecuperaOPeriodoParado() {
+        planejador.verificar(SEGUNDA.withHour(6));
+        planejador.limpar();
+        
+        assertTrue(planejador.verificar(SEGUNDA.withHour(12).withMinute(30)).isEmpty());
+        assertEquals(0, planejador.getDisparosPerdidos());
+    }
+    
+    @Test
+    void testAgendamentoCriadoNoPassadoNaoERecuperado() {
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        // Às 06:30 um sinal das 06:10 é criado: não era esperado por nenhuma verificação
+        Agendamento novo = agendamento(3L, LocalTime.of(6, 10));
+        planejador.setIndice(IndiceDisparos.construir(List.of(entrada, saida, novo)));
+        
+        assertTrue(planejador.verificar(SEGUNDA.withHour(6).withMinute(30)).isEmpty());
+        assertEquals(0, planejador.getDisparosPerdidos());
+    }
+    
+    @Test
+    void testPausaDeMaisDeUmaSemanaContaCadaHorarioUmaVez() {
+        entrada.setRecuperacao(RecuperacaoDisparo.IGNORAR);
+        saida.setRecuperacao(RecuperacaoDisparo.IGNORAR);
+        planejador.verificar(SEGUNDA.withHour(6));
+        
+        planejador.verificar(SEGUNDA.plusWeeks(3).withHour(6));
+        
+        // Dois horários em cada um dos 7 dias da última semana
+        assertEquals(14, planejador.getDisparosPerdidos());
+    }
+    
+    private static List<Long> ids(List<DisparoAgendado> disparos) {
+        List<Long> ids = new ArrayList<>();
+        for (DisparoAgendado disparo : disparos) {
+            ids.add(disparo.getAgendamento().getId());
+        }
+        return ids;
+    }
+    
+    private static Agendamento agendamento(Long id, LocalTime horario) {
+        Agendamento agendamento = new Agendamento("Sinal " + id, "/sinais/" + id + ".wav", horario, 5, null);
+        agendamento.setId(id);
+        agendamento.setDiasSemana(EnumSet.allOf(DiaSemana.class));
+        return agendamento;
+    }
+}
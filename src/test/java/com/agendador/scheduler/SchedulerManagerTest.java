@@ -0,0 +1,211 @@
+package com.agendador.scheduler;
+
+import com.agendador.database.DatabaseManager;
+import com.agendador.database.RepositorioAgendamentos;
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.util.RegistroJmx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do agendador ligado ao repositório de agendamentos: alterações gravadas
+ * chegam ao próximo disparo sem releitura do banco nem espera por verificações periódicas
+ */
+public class SchedulerManagerTest {
+    
+    // Uma segunda-feira, 200 ms antes das 09:30
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 2, 3, 9, 29, 59, 800_000_000);
+    private static final long LIMITE_ESPERA_MS = 5000;
+    
+    @TempDir
+    Path diretorio;
+    
+    private DatabaseManager databaseManager;
+    private RepositorioAgendamentos repositorio;
+    private RelogioVirtual relogio;
+    private SchedulerManager schedulerManager;
+    private final BlockingQueue<Agendamento> executados = new LinkedBlockingQueue<>();
+    private volatile Thread threadNotificacao;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        databaseManager = new DatabaseManager("jdbc:sqlite:" + diretorio.resolve("teste.db"));
+        databaseManager.initializeDatabase();
+        repositorio = new RepositorioAgendamentos(databaseManager);
+        relogio = new RelogioVirtual(INICIO.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        schedulerManager = new SchedulerManager(relogio, repositorio, databaseManager);
+        schedulerManager.setSchedulerListener(new SchedulerManager.SchedulerListener() {
+            @Override
+            public void onSchedulerStarted() {}
+            
+            @Override
+            public void onSchedulerStopped() {}
+            
+            @Override
+            public void onAgendamentoExecutado(Agendamento agendamento) {
+                threadNotificacao = Thread.currentThread();
+                executados.add(agendamento);
+            }
+            
+            @Override
+            public void onReproducaoConcluida(Agendamento agendamento) {}
+            
+            @Override
+            public void onError(String mensagem) {}
+        });
+    }
+    
+    @AfterEach
+    void tearDown() {
+        schedulerManager.parar();
+        databaseManager.fecharConexao();
+    }
+    
+    @Test
+    void testEdicaoValeParaOProximoDisparo() throws Exception {
+        Agendamento sinal = new Agendamento("Recreio", criarWav().getAbsolutePath(), LocalTime.of(10, 0), 1, null);
+        sinal.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA));
+        repositorio.salvar(sinal);
+        
+        schedulerManager.iniciar();
+        esperar(() -> INICIO.withHour(10).withMinute(0).withSecond(0).withNano(0).equals(schedulerManager.getProximoDisparo()));
+        
+        // Antecipa o sinal para daqui a 200 ms: a gravação publica a alteração ao agendador
+        Agendamento edicao = repositorio.buscarTodos().get(0);
+        edicao.setHorario(LocalTime.of(9, 30));
+        repositorio.atualizar(edicao);
+        long consultasAposGravar = databaseManager.getTotalConsultas();
+        
+        LocalDateTime novoHorario = INICIO.withMinute(30).withSecond(0).withNano(0);
+        esperar(() -> novoHorario.equals(schedulerManager.getProximoDisparo()));
+        // O índice foi reconstruído da memória
+        assertEquals(consultasAposGravar, databaseManager.getTotalConsultas());
+        
+        relogio.ajustar(novoHorario.toInstant(ZoneOffset.UTC));
+        Agendamento executado = executados.poll(LIMITE_ESPERA_MS, TimeUnit.MILLISECONDS);
+        
+        assertNotNull(executado, "O sinal editado não tocou");
+        assertEquals(LocalTime.of(9, 30), executado.getHorario());
+    }
+    
+    @Test
+    void testRemocaoCancelaOProximoDisparo() throws Exception {
+        Agendamento sinal = new Agendamento("Recreio", criarWav().getAbsolutePath(), LocalTime.of(9, 30), 1, null);
+        sinal.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA));
+        Long id = repositorio.salvar(sinal);
+        
+        schedulerManager.iniciar();
+        esperar(() -> schedulerManager.getProximoDisparo() != null);
+        
+        repositorio.remover(id);
+        esperar(() -> schedulerManager.getProximoDisparo() == null);
+        
+        relogio.ajustar(INICIO.plusSeconds(1).toInstant(ZoneOffset.UTC));
+        assertNull(executados.poll(500, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    void testMBeanExpoeOEstadoEDisparaPorId() throws Exception {
+        Agendamento sinal = new Agendamento("Recreio", criarWav().getAbsolutePath(), LocalTime.of(10, 0), 1, null);
+        sinal.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA));
+        Long id = repositorio.salvar(sinal);
+        schedulerManager.iniciar();
+        esperar(() -> schedulerManager.getProximoDisparo() != null);
+        
+        schedulerManager.registrarMonitoramento();
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nome = RegistroJmx.nome("Agendador");
+        try {
+            assertEquals(true, servidor.getAttribute(nome, "Ativo"));
+            assertEquals(INICIO.withHour(10).withMinute(0).withSecond(0).withNano(0).toString(),
+                servidor.getAttribute(nome, "ProximoDisparo"));
+            assertTrue((Long) servidor.getAttribute(nome, "Verificacoes") >= 1);
+            assertTrue((Long) servidor.getAttribute(nome, "ReconstrucoesIndice") >= 1);
+            assertTrue(servidor.isRegistered(RegistroJmx.nome("Audio")));
+            
+            String[] assinatura = {long.class.getName()};
+            assertEquals("Agendamento não encontrado: ID 999",
+                servidor.invoke(nome, "dispararAgora", new Object[] {999L}, assinatura));
+            assertEquals("Agendamento " + id + " disparado",
+                servidor.invoke(nome, "dispararAgora", new Object[] {id}, assinatura));
+            Agendamento executado = executados.poll(LIMITE_ESPERA_MS, TimeUnit.MILLISECONDS);
+            assertNotNull(executado, "O disparo pedido por JMX não tocou");
+            assertEquals(id, executado.getId());
+            assertEquals(1, ((TabularData) servidor.getAttribute(nome, "Faixas")).size());
+            
+            servidor.invoke(nome, "pausar", null, null);
+            assertFalse(schedulerManager.isRunning());
+            servidor.invoke(nome, "retomar", null, null);
+            assertTrue(schedulerManager.isRunning());
+        } finally {
+            RegistroJmx.remover("Agendador");
+            RegistroJmx.remover("Audio");
+        }
+    }
+    
+    @Test
+    void testNotificacoesEmThreadVirtualLiberadaAoEncerrar() throws Exception {
+        Agendamento sinal = new Agendamento("Teste", criarWav().getAbsolutePath(), LocalTime.of(10, 0), 1, null);
+        Long id = repositorio.salvar(sinal);
+        
+        assertTrue(schedulerManager.executarAgora(id));
+        assertNotNull(executados.poll(LIMITE_ESPERA_MS, TimeUnit.MILLISECONDS), "O teste manual não tocou");
+        Thread notificacao = threadNotificacao;
+        assertTrue(notificacao.isVirtual(), "Notificações devem rodar em thread virtual");
+        
+        schedulerManager.encerrar();
+        notificacao.join(Duration.ofMillis(LIMITE_ESPERA_MS));
+        assertFalse(notificacao.isAlive(), "A thread de notificações continuou viva após encerrar");
+        
+        // Encerrado é definitivo
+        schedulerManager.iniciar();
+        assertFalse(schedulerManager.isRunning());
+    }
+    
+    /**
+     * Aguarda a thread do relógio do agendador chegar ao estado esperado
+     */
+    private static void esperar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + LIMITE_ESPERA_MS;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "Tempo esgotado esperando o agendador");
+            Thread.sleep(5);
+        }
+    }
+    
+    private File criarWav() throws Exception {
+        AudioFormat formato = new AudioFormat(8000f, 16, 1, true, false);
+        byte[] dados = new byte[1600];
+        File arquivo = diretorio.resolve("recreio.wav").toFile();
+        try (AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(dados), formato, dados.length / 2)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, arquivo);
+        }
+        return arquivo;
+    }
+}
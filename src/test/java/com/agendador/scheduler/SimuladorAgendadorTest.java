@@ -0,0 +1,223 @@
+package com.agendador.scheduler;
+
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da simulação em tempo virtual: grades de horários inteiras percorridas
+ * sem esperar, comparando o registro de disparos com os disparos esperados
+ */
+public class SimuladorAgendadorTest {
+    
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    // Uma segunda-feira
+    private static final LocalDate INICIO = LocalDate.of(2025, 2, 3);
+    
+    @Test
+    void testGradeDeDoisMilSinaisPorUmaSemana() {
+        List<Agendamento> grade = gerarGrade(2000, 42);
+        LocalDate fim = INICIO.plusDays(6);
+        
+        RegistroDisparos registro = simular(grade, INICIO, fim);
+        
+        assertTrue(registro.getDuplicados().isEmpty(), "Duplicados: " + registro.getDuplicados());
+        assertTrue(registro.isEmOrdem());
+        assertTrue(registro.getErros().isEmpty());
+        assertEquals(esperados(grade, INICIO, fim), chaves(registro));
+    }
+    
+    @Test
+    void testSinalDiarioUnicoTocaTodosOsDiasDoAno() {
+        // O mesmo horário em dias seguintes não pode ser confundido com o mesmo minuto
+        Agendamento entrada = agendamento(1L, "/sinais/entrada.wav", LocalTime.of(7, 30), EnumSet.allOf(DiaSemana.class));
+        LocalDate fim = INICIO.plusYears(1).minusDays(1);
+        
+        RegistroDisparos registro = simular(List.of(entrada), INICIO, fim);
+        
+        assertEquals(365, registro.getTotal());
+        assertEquals(esperados(List.of(entrada), INICIO, fim), chaves(registro));
+    }
+    
+    @Test
+    void testAnoLetivoSemDuplicadosNemFaltas() {
+        List<Agendamento> grade = gerarGrade(60, 7);
+        LocalDate fim = INICIO.plusYears(1);
+        
+        RegistroDisparos registro = simular(grade, INICIO, fim);
+        
+        assertTrue(registro.getDuplicados().isEmpty());
+        assertTrue(registro.isEmOrdem());
+        assertEquals(esperados(grade, INICIO, fim), chaves(registro));
+    }
+    
+    @Test
+    void testMesmoMinutoTocaPorPrioridadeNaMesmaFaixa() {
+        EnumSet<DiaSemana> segunda = EnumSet.of(DiaSemana.SEGUNDA);
+        LocalTime horario = LocalTime.of(10, 0);
+        Agendamento normal = agendamento(1L, "/sinais/normal.wav", horario, segunda);
+        Agendamento alta = agendamento(2L, "/sinais/alta.wav", horario, segunda);
+        alta.setPrioridade(Prioridade.ALTA);
+        Agendamento emergencia = agendamento(3L, "/sinais/emergencia.wav", horario, segunda);
+        emergencia.setPrioridade(Prioridade.EMERGENCIA);
+        
+        RegistroDisparos registro = simular(List.of(normal, alta, emergencia), INICIO, INICIO);
+        
+        List<Long> ordem = new ArrayList<>();
+        for (RegistroDisparos.Disparo disparo : registro.getDisparos()) {
+            ordem.add(disparo.getAgendamento().getId());
+        }
+        assertEquals(List.of(3L, 2L, 1L), ordem);
+    }
+    
+    @Test
+    void testInativosNaoTocam() {
+        Agendamento ativo = agendamento(1L, "/sinais/a.wav", LocalTime.of(8, 0), EnumSet.allOf(DiaSemana.class));
+        Agendamento inativo = agendamento(2L, "/sinais/b.wav", LocalTime.of(9, 0), EnumSet.allOf(DiaSemana.class));
+        inativo.setAtivo(false);
+        
+        RegistroDisparos registro = simular(List.of(ativo, inativo), INICIO, INICIO.plusDays(6));
+        
+        assertEquals(7, registro.getTotal());
+        for (RegistroDisparos.Disparo disparo : registro.getDisparos()) {
+            assertEquals(1L, disparo.getAgendamento().getId());
+        }
+    }
+    
+    @Test
+    void testPoliticaPadraoMesclaOMesmoAudioNoMesmoMinuto() {
+        EnumSet<DiaSemana> segunda = EnumSet.of(DiaSemana.SEGUNDA);
+        Agendamento bloco1 = agendamento(1L, "/sinais/troca.wav", LocalTime.of(10, 0), segunda);
+        Agendamento bloco2 = agendamento(2L, "/sinais/troca.wav", LocalTime.of(10, 0), segunda);
+        PoliticaFila politica = new PoliticaFila(60_000, true, 32);
+        
+        RegistroDisparos registro = new SimuladorAgendador(List.of(bloco1, bloco2), UTC, politica)
+            .simular(INICIO.atStartOfDay(), INICIO.atTime(23, 59));
+        
+        // A simulação mostra o que o agendador de fato tocaria
+        assertEquals(1, registro.getTotal());
+    }
+    
+    @Test
+    void testSuspensaoRecuperaConformeAPoliticaDeCadaAgendamento() {
+        EnumSet<DiaSemana> segunda = EnumSet.of(DiaSemana.SEGUNDA);
+        LocalTime horario = LocalTime.of(10, 0);
+        Agendamento sempre = agendamento(1L, "/sinais/a.wav", horario, segunda);
+        sempre.setRecuperacao(RecuperacaoDisparo.DISPARAR);
+        Agendamento umMinuto = agendamento(2L, "/sinais/b.wav", horario, segunda);
+        umMinuto.setRecuperacao(RecuperacaoDisparo.DISPARAR_SE_RECENTE);
+        Agendamento dezMinutos = agendamento(3L, "/sinais/c.wav", horario, segunda);
+        dezMinutos.setRecuperacao(RecuperacaoDisparo.DISPARAR_SE_RECENTE);
+        dezMinutos.setToleranciaRecuperacaoSegundos(600);
+        Agendamento ignorar = agendamento(4L, "/sinais/d.wav", horario, segunda);
+        ignorar.setRecuperacao(RecuperacaoDisparo.IGNORAR);
+        Agendamento depois = agendamento(5L, "/sinais/e.wav", LocalTime.of(11, 0), segunda);
+        
+        SimuladorAgendador simulador = new SimuladorAgendador(List.of(sempre, umMinuto, dezMinutos, ignorar, depois),
+            UTC, PoliticaFila.SEM_LIMITES);
+        // PC suspenso das 09:58 às 10:05:30
+        simulador.suspender(INICIO.atTime(9, 58), INICIO.atTime(10, 5, 30));
+        RegistroDisparos registro = simulador.simular(INICIO.atStartOfDay(), INICIO.atTime(23, 59));
+        
+        assertEquals(4, registro.getPerdidos());
+        assertEquals(2, registro.getRecuperados());
+        assertEquals(List.of("1@" + INICIO.atTime(10, 0), "3@" + INICIO.atTime(10, 0), "5@" + INICIO.atTime(11, 0)),
+            chaves(registro));
+        assertEquals(INICIO.atTime(10, 5, 30), registro.getDisparos().get(0).getInstante());
+        assertTrue(registro.isEmOrdem());
+    }
+    
+    @Test
+    void testSuspensaoLongaNaoRepeteNemPerdeOsDemaisDias() {
+        Agendamento diario = agendamento(1L, "/sinais/a.wav", LocalTime.of(8, 0), EnumSet.allOf(DiaSemana.class));
+        diario.setRecuperacao(RecuperacaoDisparo.DISPARAR);
+        
+        SimuladorAgendador simulador = new SimuladorAgendador(List.of(diario), UTC, PoliticaFila.SEM_LIMITES);
+        // Fim de semana suspenso: sábado e domingo perdidos, recuperados uma vez ao acordar na segunda
+        simulador.suspender(INICIO.plusDays(4).atTime(20, 0), INICIO.plusDays(7).atTime(7, 0));
+        RegistroDisparos registro = simulador.simular(INICIO.atStartOfDay(), INICIO.plusDays(13).atTime(23, 59));
+        
+        assertEquals(2, registro.getPerdidos());
+        assertEquals(2, registro.getRecuperados());
+        assertEquals(esperados(List.of(diario), INICIO, INICIO.plusDays(13)), chaves(registro));
+        assertTrue(registro.getDuplicados().isEmpty());
+    }
+    
+    private static RegistroDisparos simular(Collection<Agendamento> grade, LocalDate inicio, LocalDate fim) {
+        return new SimuladorAgendador(grade, UTC, PoliticaFila.SEM_LIMITES)
+            .simular(inicio.atStartOfDay(), fim.atTime(23, 59));
+    }
+    
+    /**
+     * Grade aleatória, mas reproduzível, com segundos e espalhada por três dispositivos
+     */
+    private static List<Agendamento> gerarGrade(int quantidade, long semente) {
+        Random random = new Random(semente);
+        DiaSemana[] dias = DiaSemana.values();
+        String[] dispositivos = {null, "Caixa Pátio", "Caixa Corredor"};
+        Prioridade[] prioridades = Prioridade.values();
+        
+        List<Agendamento> grade = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            EnumSet<DiaSemana> diasSemana = EnumSet.noneOf(DiaSemana.class);
+            int totalDias = 1 + random.nextInt(dias.length);
+            for (int d = 0; d < totalDias; d++) {
+                diasSemana.add(dias[random.nextInt(dias.length)]);
+            }
+            Agendamento agendamento = agendamento((long) i + 1, "/sinais/sinal" + i + ".wav",
+                LocalTime.of(random.nextInt(24), random.nextInt(60), random.nextInt(60)), diasSemana);
+            agendamento.setDispositivoAudio(dispositivos[random.nextInt(dispositivos.length)]);
+            agendamento.setPrioridade(prioridades[random.nextInt(prioridades.length)]);
+            grade.add(agendamento);
+        }
+        return grade;
+    }
+    
+    /**
+     * Disparos esperados calculados dia a dia, sem o índice nem o planejador
+     */
+    private static List<String> esperados(Collection<Agendamento> grade, LocalDate inicio, LocalDate fim) {
+        List<String> chaves = new ArrayList<>();
+        for (LocalDate dia = inicio; !dia.isAfter(fim); dia = dia.plusDays(1)) {
+            DiaSemana diaSemana = DiaSemana.fromDayOfWeek(dia.getDayOfWeek());
+            for (Agendamento agendamento : grade) {
+                if (agendamento.getDiasSemana().contains(diaSemana)) {
+                    chaves.add(agendamento.getId() + "@" + LocalDateTime.of(dia, agendamento.getHorario()));
+                }
+            }
+        }
+        chaves.sort(null);
+        return chaves;
+    }
+    
+    private static List<String> chaves(RegistroDisparos registro) {
+        List<String> chaves = new ArrayList<>();
+        for (RegistroDisparos.Disparo disparo : registro.getDisparos()) {
+            chaves.add(disparo.getChave());
+        }
+        chaves.sort(null);
+        return chaves;
+    }
+    
+    private static Agendamento agendamento(Long id, String caminho, LocalTime horario, EnumSet<DiaSemana> dias) {
+        Agendamento agendamento = new Agendamento("Sinal " + id, caminho, horario, 5, null);
+        agendamento.setId(id);
+        agendamento.setDiasSemana(dias);
+        return agendamento;
+    }
+}
@@ -0,0 +1,196 @@
+package com.agendador.transferencia;
+
+import com.agendador.database.LoteAgendamentos;
+import com.agendador.model.Agendamento;
+import com.agendador.model.DiaSemana;
+import com.agendador.model.Prioridade;
+import com.agendador.model.RecuperacaoDisparo;
+import com.agendador.transferencia.TransferenciaAgendamentos.Formato;
+import com.agendador.transferencia.TransferenciaAgendamentos.ResultadoImportacao;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Testes unitários para importação e exportação de agendamentos
+ */
+public class TransferenciaAgendamentosTest {
+    
+    private final List<LoteAgendamentos> lotes = new ArrayList<>();
+    
+    private List<Agendamento> criarAgendamentos() {
+        Agendamento entrada = new Agendamento("Entrada", "/sinais/entrada.mp3", LocalTime.of(7, 0), 10, "Alto-falantes");
+        entrada.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.QUARTA, DiaSemana.SEXTA));
+        entrada.setObservacoes("Toca \"duas\" vezes, no pátio;\nsegunda linha");
+        entrada.setId(42L);
+        
+        Agendamento recreio = new Agendamento("Recreio", "/sinais/recreio.wav", LocalTime.of(9, 30), 5, null);
+        recreio.setDiasSemana(EnumSet.of(DiaSemana.TERCA));
+        recreio.setAtivo(false);
+        recreio.setPrioridade(Prioridade.EMERGENCIA);
+        recreio.setRecuperacao(RecuperacaoDisparo.DISPARAR);
+        entrada.setToleranciaRecuperacaoSegundos(120);
+        
+        return List.of(entrada, recreio);
+    }
+    
+    private byte[] exportar(Formato formato, List<Agendamento> agendamentos) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        int total = TransferenciaAgendamentos.exportar(formato, saida, consumidor -> agendamentos.forEach(consumidor));
+        assertEquals(agendamentos.size(), total);
+        return saida.toByteArray();
+    }
+    
+    private ResultadoImportacao importar(Formato formato, String conteudo) throws Exception {
+        return importar(formato, conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private ResultadoImportacao importar(Formato formato, byte[] conteudo) throws Exception {
+        return TransferenciaAgendamentos.importar(formato, new ByteArrayInputStream(conteudo), lotes::add);
+    }
+    
+    private List<Agendamento> importados() {
+        List<Agendamento> todos = new ArrayList<>();
+        for (LoteAgendamentos lote : lotes) {
+            todos.addAll(lote.getCriacoes());
+        }
+        return todos;
+    }
+    
+    private void verificarIguais(List<Agendamento> esperados, List<Agendamento> obtidos) {
+        assertEquals(esperados.size(), obtidos.size());
+        for (int i = 0; i < esperados.size(); i++) {
+            Agendamento esperado = esperados.get(i);
+            Agendamento obtido = obtidos.get(i);
+            assertNull(obtido.getId());
+            assertEquals(esperado.getNome(), obtido.getNome());
+            assertEquals(esperado.getCaminhoAudio(), obtido.getCaminhoAudio());
+            assertEquals(esperado.getHorario(), obtido.getHorario());
+            assertEquals(esperado.getDuracaoSegundos(), obtido.getDuracaoSegundos());
+            assertEquals(esperado.getDispositivoAudio(), obtido.getDispositivoAudio());
+            assertEquals(esperado.getDiasSemana(), obtido.getDiasSemana());
+            assertEquals(esperado.isAtivo(), obtido.isAtivo());
+            assertEquals(esperado.getObservacoes(), obtido.getObservacoes());
+            assertEquals(esperado.getPrioridade(), obtido.getPrioridade());
+            assertEquals(esperado.getRecuperacao(), obtido.getRecuperacao());
+            assertEquals(esperado.getToleranciaRecuperacaoSegundos(), obtido.getToleranciaRecuperacaoSegundos());
+        }
+    }
+    
+    @Test
+    void testIdaEVoltaJson() throws Exception {
+        List<Agendamento> agendamentos = criarAgendamentos();
+        ResultadoImportacao resultado = importar(Formato.JSON, exportar(Formato.JSON, agendamentos));
+        
+        assertEquals(2, resultado.getImportados());
+        assertEquals(0, resultado.getRejeitados());
+        verificarIguais(agendamentos, importados());
+    }
+    
+    @Test
+    void testIdaEVoltaCsv() throws Exception {
+        List<Agendamento> agendamentos = criarAgendamentos();
+        byte[] csv = exportar(Formato.CSV, agendamentos);
+        
+        assertTrue(new String(csv, StandardCharsets.UTF_8).startsWith(
+            "nome,caminhoAudio,horario,duracaoSegundos,dispositivoAudio,diasSemana,ativo,observacoes,prioridade," +
+            "recuperacao,toleranciaRecuperacao"));
+        ResultadoImportacao resultado = importar(Formato.CSV, csv);
+        
+        assertEquals(2, resultado.getImportados());
+        verificarIguais(agendamentos, importados());
+    }
+    
+    @Test
+    void testCsvComColunasEmOutraOrdem() throws Exception {
+        ResultadoImportacao resultado = importar(Formato.CSV,
+            "horario,nome,diasSemana,caminhoAudio\n" +
+            "07:15,Entrada,SEGUNDA;terca,/sinais/entrada.wav\n");
+        
+        assertEquals(1, resultado.getImportados());
+        Agendamento agendamento = importados().get(0);
+        assertEquals("Entrada", agendamento.getNome());
+        assertEquals(LocalTime.of(7, 15), agendamento.getHorario());
+        assertEquals(EnumSet.of(DiaSemana.SEGUNDA, DiaSemana.TERCA), agendamento.getDiasSemana());
+        assertEquals(30, agendamento.getDuracaoSegundos());
+        assertTrue(agendamento.isAtivo());
+        assertEquals(Prioridade.NORMAL, agendamento.getPrioridade());
+        assertEquals(RecuperacaoDisparo.DISPARAR_SE_RECENTE, agendamento.getRecuperacao());
+    }
+    
+    @Test
+    void testRegistrosInvalidosSaoRejeitados() throws Exception {
+        ResultadoImportacao resultado = importar(Formato.JSON, "[" +
+            "{\"nome\": \"ok\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"diasSemana\": \"SEGUNDA\"}," +
+            "{\"nome\": \"sem audio\", \"horario\": \"08:00\"}," +
+            "{\"nome\": \"hora ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"25:00\"}," +
+            "{\"nome\": \"dia ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"diasSemana\": [\"FERIADO\"]}," +
+            "{\"nome\": \"duracao ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"duracaoSegundos\": 0}," +
+            "{\"nome\": \"prioridade ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"prioridade\": \"URGENTE\"}," +
+            "{\"nome\": \"recuperacao ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"recuperacao\": \"SEMPRE\"}," +
+            "{\"nome\": \"sem dias\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"diasSemana\": []}," +
+            "{\"nome\": \"ativo ruim\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"diasSemana\": [\"SEGUNDA\"], \"ativo\": \"sim\"}," +
+            "{\"nome\": \"extra\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\", \"diasSemana\": [\"SEGUNDA\"], \"desconhecido\": {\"x\": [1]}}" +
+            "]");
+        
+        assertEquals(2, resultado.getImportados());
+        assertEquals(8, resultado.getRejeitados());
+        assertEquals(8, resultado.getErros().size());
+        assertTrue(resultado.getErros().get(0).startsWith("Registro 2:"));
+        assertEquals(List.of("ok", "extra"), importados().stream().map(Agendamento::getNome).toList());
+        assertTrue(resultado.getErros().get(6).contains("nenhum dia da semana"));
+        assertTrue(resultado.getErros().get(7).contains("valor de ativo inválido"));
+    }
+    
+    @Test
+    void testAtivoAceitaApenasTrueOuFalse() throws Exception {
+        ResultadoImportacao resultado = importar(Formato.CSV,
+            "nome,caminhoAudio,horario,diasSemana,ativo\n" +
+            "Entrada,/a.wav,07:00,SEGUNDA,FALSE\n" +
+            "Saida,/a.wav,12:00,SEGUNDA,true\n" +
+            "Recreio,/a.wav,09:30,SEGUNDA,0\n" +
+            "Almoco,/a.wav,11:00,,true\n");
+        
+        assertEquals(2, resultado.getImportados());
+        assertEquals(2, resultado.getRejeitados());
+        assertFalse(importados().get(0).isAtivo());
+        assertTrue(importados().get(1).isAtivo());
+    }
+    
+    @Test
+    void testImportacaoGravaEmLotes() throws Exception {
+        List<Agendamento> agendamentos = new ArrayList<>();
+        for (int i = 0; i < TransferenciaAgendamentos.TAMANHO_LOTE * 2 + 7; i++) {
+            Agendamento agendamento = new Agendamento("Sinal " + i, "/sinais/s.wav", LocalTime.of(i % 24, i % 60), 5, null);
+            agendamento.setDiasSemana(EnumSet.of(DiaSemana.SEGUNDA));
+            agendamentos.add(agendamento);
+        }
+        
+        ResultadoImportacao resultado = importar(Formato.JSON, exportar(Formato.JSON, agendamentos));
+        
+        assertEquals(agendamentos.size(), resultado.getImportados());
+        assertEquals(3, lotes.size());
+        assertEquals(TransferenciaAgendamentos.TAMANHO_LOTE, lotes.get(0).getTamanho());
+        assertEquals(7, lotes.get(2).getTamanho());
+    }
+    
+    @Test
+    void testJsonTruncadoFalha() {
+        assertThrows(IOException.class, () -> importar(Formato.JSON,
+            "[{\"nome\": \"ok\", \"caminhoAudio\": \"/a.wav\", \"horario\": \"08:00\"}, {\"nome\": "));
+    }
+    
+    @Test
+    void testFormatoPelaExtensao() {
+        assertEquals(Formato.JSON, Formato.doArquivo("mestre.JSON"));
+        assertEquals(Formato.CSV, Formato.doArquivo("/tmp/sinais.csv"));
+        assertThrows(IllegalArgumentException.class, () -> Formato.doArquivo("sinais.xml"));
+    }
+}
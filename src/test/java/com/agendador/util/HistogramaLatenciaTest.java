@@ -0,0 +1,87 @@
+package com.agendador.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do histograma de latências: percentis exatos nos valores pequenos,
+ * erro relativo limitado nos grandes e memória que não cresce com as amostras
+ */
+public class HistogramaLatenciaTest {
+    
+    @Test
+    void testValoresPequenosSaoExatos() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int ms = 1; ms <= 31; ms++) {
+            histograma.registrar(ms);
+        }
+        
+        assertEquals(31, histograma.getTotal());
+        assertEquals(16, histograma.getPercentilMs(50));
+        assertEquals(31, histograma.getPercentilMs(99));
+        assertEquals(1, histograma.getPercentilMs(0));
+        assertEquals(16.0, histograma.getMediaMs());
+    }
+    
+    @Test
+    void testPercentisDeMilAmostrasFicamDentroDoErroRelativo() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int ms = 1; ms <= 1000; ms++) {
+            histograma.registrar(ms);
+        }
+        
+        assertDentroDoErro(500, histograma.getPercentilMs(50));
+        assertDentroDoErro(990, histograma.getPercentilMs(99));
+        assertEquals(1000, histograma.getPercentilMs(100));
+        assertEquals(1000, histograma.getMaximoMs());
+    }
+    
+    @Test
+    void testUmMilhaoDeAmostrasSemGuardarHistorico() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        for (int i = 0; i < 1_000_000; i++) {
+            // 99% em 12 ms, 1% em 800 ms
+            histograma.registrar(i % 100 == 0 ? 800 : 12);
+        }
+        
+        assertEquals(12, histograma.getPercentilMs(50));
+        assertEquals(12, histograma.getPercentilMs(99));
+        assertDentroDoErro(800, histograma.getPercentilMs(99.5));
+    }
+    
+    @Test
+    void testSomarJuntaAsAmostras() {
+        HistogramaLatencia patio = new HistogramaLatencia();
+        HistogramaLatencia corredor = new HistogramaLatencia();
+        patio.registrar(5);
+        patio.registrar(7);
+        corredor.registrar(300);
+        
+        HistogramaLatencia total = new HistogramaLatencia();
+        total.somar(patio);
+        total.somar(corredor);
+        total.somar(new HistogramaLatencia());
+        
+        assertEquals(3, total.getTotal());
+        assertEquals(7, total.getPercentilMs(50));
+        assertEquals(300, total.getPercentilMs(99));
+        assertEquals(2, patio.getTotal());
+    }
+    
+    @Test
+    void testValoresForaDaFaixaSaoLimitados() {
+        HistogramaLatencia histograma = new HistogramaLatencia();
+        histograma.registrar(-40);
+        histograma.registrar(Long.MAX_VALUE);
+        
+        assertEquals(0, histograma.getPercentilMs(50));
+        assertEquals(HistogramaLatencia.VALOR_MAXIMO_MS, histograma.getPercentilMs(99));
+        assertEquals(0, new HistogramaLatencia().getPercentilMs(99));
+    }
+    
+    private static void assertDentroDoErro(long esperado, long obtido) {
+        assertTrue(obtido >= esperado && obtido <= esperado + esperado / 16,
+            "Esperado " + esperado + " com erro de até 1/16, obtido " + obtido);
+    }
+}